@@ -0,0 +1,143 @@
+/*BEGIN_COPYRIGHT_BLOCK
+ *
+ * Copyright (c) 2001-2017, JavaPLT group at Rice University (drjava@rice.edu)
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    * Redistributions of source code must retain the above copyright
+ *      notice, this list of conditions and the following disclaimer.
+ *    * Redistributions in binary form must reproduce the above copyright
+ *      notice, this list of conditions and the following disclaimer in the
+ *      documentation and/or other materials provided with the distribution.
+ *    * Neither the names of DrJava, the JavaPLT group, Rice University, nor the
+ *      names of its contributors may be used to endorse or promote products
+ *      derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This software is Open Source Initiative approved Open Source Software.
+ * Open Source Initative Approved is a trademark of the Open Source Initiative.
+ * 
+ * This file is part of DrJava.  Download the current version of this project
+ * from http://www.drjava.org/ or http://sourceforge.net/projects/drjava/
+ * 
+ * END_COPYRIGHT_BLOCK*/
+
+package edu.rice.cs.drjava;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/** Manages the class data sharing (CDS) archives used to start the main and Interactions JVMs faster.  Both JVMs
+  * load the same large set of classes (Swing, DynamicJava, PLT, ASM, JUnit) each time they start, and an Interactions
+  * JVM is started on every reset.  An archive holds those classes in a form that the JVM can map directly.
+  * 
+  * An archive is only valid for the exact JVM, class path, and JVM arguments that created it, so archives are created
+  * on the user's machine rather than at build time: the first start of a JVM in a given configuration is a training
+  * run that writes an archive of the classes it loaded when it exits (-XX:ArchiveClassesAtExit), and later starts
+  * use that archive (-XX:SharedArchiveFile).  A JVM that finds an archive it cannot use simply loads classes the usual
+  * way.  Archives of classes loaded by an application require Java 13 or later; on earlier JVMs no arguments are
+  * added.
+  */
+public final class ClassDataSharing {
+  
+  /** The directory holding the archives, ".drjava-cds" in the user's home directory. */
+  public static final File ARCHIVE_DIRECTORY = new File(System.getProperty("user.home"), ".drjava-cds");
+  
+  /** The archive role of the main DrJava JVM. */
+  public static final String MAIN_ROLE = "main";
+  
+  /** The archive role of the Interactions JVM. */
+  public static final String INTERACTIONS_ROLE = "interactions";
+  
+  /** The first Java version that can archive the classes loaded by an application when it exits. */
+  private static final int DYNAMIC_ARCHIVE_VERSION = 13;
+  
+  private static final String ARCHIVE_SUFFIX = ".jsa";
+  
+  private ClassDataSharing() { }
+  
+  /** @return true if the running JVM, and thus the JVMs started with the same Java installation, support archives */
+  public static boolean isSupported() {
+    return featureVersion(System.getProperty("java.specification.version")) >= DYNAMIC_ARCHIVE_VERSION;
+  }
+  
+  /** Returns the arguments that make a JVM use, or create, the archive for the given configuration.  If the archive
+    * does not exist yet, older archives for the same role are deleted, since they belong to configurations that
+    * are no longer used.
+    * @param role the role of the JVM, MAIN_ROLE or INTERACTIONS_ROLE
+    * @param classPath the class path of the JVM
+    * @param jvmArgs the other arguments of the JVM
+    * @return the additional JVM arguments; empty if archives are not supported
+    */
+  public static List<String> jvmArguments(String role, Iterable<File> classPath, List<String> jvmArgs) {
+    if (! isSupported()) return Collections.emptyList();
+    File archive = archiveFile(role, classPath, jvmArgs);
+    List<String> result = new ArrayList<String>();
+    if (archive.isFile()) result.add("-XX:SharedArchiveFile=" + archive.getAbsolutePath());
+    else {
+      deleteArchives(role);
+      if (! ARCHIVE_DIRECTORY.isDirectory() && ! ARCHIVE_DIRECTORY.mkdirs()) return Collections.emptyList();
+      result.add("-XX:ArchiveClassesAtExit=" + archive.getAbsolutePath());
+    }
+    // an unusable archive is not an error; do not report it in the Interactions Pane
+    result.add("-Xlog:cds*=off");
+    return result;
+  }
+  
+  /** Returns the archive for a configuration.  Its name includes a hash of everything the archive depends on,
+    * including the size and modification time of each class path entry, so that changing any of them (for
+    * example, by updating DrJava) leads to a new archive.
+    * @param role the role of the JVM
+    * @param classPath the class path of the JVM
+    * @param jvmArgs the other arguments of the JVM
+    * @return the archive file, which may not exist
+    */
+  static File archiveFile(String role, Iterable<File> classPath, List<String> jvmArgs) {
+    StringBuilder key = new StringBuilder();
+    key.append(System.getProperty("java.home")).append('\n').append(System.getProperty("java.vm.version"));
+    for (File f : classPath) {
+      key.append('\n').append(f.getAbsolutePath()).append(':').append(f.length()).append(':').append(f.lastModified());
+    }
+    for (String arg : jvmArgs) { key.append('\n').append(arg); }
+    String hash = Integer.toHexString(key.toString().hashCode());
+    return new File(ARCHIVE_DIRECTORY, "drjava-" + role + "-" + hash + ARCHIVE_SUFFIX);
+  }
+  
+  /** Deletes all archives for the given role.
+    * @param role the role of the JVM, or null for all roles
+    */
+  public static void deleteArchives(String role) {
+    File[] files = ARCHIVE_DIRECTORY.listFiles();
+    if (files == null) return;
+    String prefix = (role == null) ? "drjava-" : "drjava-" + role + "-";
+    for (File f : files) {
+      if (f.getName().startsWith(prefix) && f.getName().endsWith(ARCHIVE_SUFFIX)) f.delete();
+    }
+  }
+  
+  /** @param specVersion a value of the java.specification.version property, such as "1.8" or "17"
+    * @return the feature version of Java, such as 8 or 17; 0 if it cannot be determined
+    */
+  static int featureVersion(String specVersion) {
+    if (specVersion == null) return 0;
+    if (specVersion.startsWith("1.")) specVersion = specVersion.substring(2);
+    int dot = specVersion.indexOf('.');
+    if (dot >= 0) specVersion = specVersion.substring(0, dot);
+    try { return Integer.parseInt(specVersion); }
+    catch (NumberFormatException e) { return 0; }
+  }
+}
@@ -0,0 +1,81 @@
+/*BEGIN_COPYRIGHT_BLOCK
+ *
+ * Copyright (c) 2001-2017, JavaPLT group at Rice University (drjava@rice.edu)
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    * Redistributions of source code must retain the above copyright
+ *      notice, this list of conditions and the following disclaimer.
+ *    * Redistributions in binary form must reproduce the above copyright
+ *      notice, this list of conditions and the following disclaimer in the
+ *      documentation and/or other materials provided with the distribution.
+ *    * Neither the names of DrJava, the JavaPLT group, Rice University, nor the
+ *      names of its contributors may be used to endorse or promote products
+ *      derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This software is Open Source Initiative approved Open Source Software.
+ * Open Source Initative Approved is a trademark of the Open Source Initiative.
+ * 
+ * This file is part of DrJava.  Download the current version of this project
+ * from http://www.drjava.org/ or http://sourceforge.net/projects/drjava/
+ * 
+ * END_COPYRIGHT_BLOCK*/
+
+package edu.rice.cs.drjava;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/** Tests the selection of class data sharing archives.
+  * @version $Id$
+  */
+public final class ClassDataSharingTest extends DrJavaTestCase {
+  
+  public void testFeatureVersion() {
+    assertEquals(8, ClassDataSharing.featureVersion("1.8"));
+    assertEquals(11, ClassDataSharing.featureVersion("11"));
+    assertEquals(17, ClassDataSharing.featureVersion("17.0"));
+    assertEquals(0, ClassDataSharing.featureVersion("unknown"));
+    assertEquals(0, ClassDataSharing.featureVersion(null));
+  }
+  
+  public void testArchiveFile() {
+    List<File> cp = Arrays.asList(new File("a.jar"), new File("b.jar"));
+    List<String> args = Arrays.asList("-Xmx512M");
+    File archive = ClassDataSharing.archiveFile(ClassDataSharing.INTERACTIONS_ROLE, cp, args);
+    assertEquals("archive directory", ClassDataSharing.ARCHIVE_DIRECTORY, archive.getParentFile());
+    assertTrue("archive name", archive.getName().startsWith("drjava-interactions-"));
+    assertEquals("same configuration", archive,
+                 ClassDataSharing.archiveFile(ClassDataSharing.INTERACTIONS_ROLE, cp, args));
+    assertFalse("different role", archive.equals(ClassDataSharing.archiveFile(ClassDataSharing.MAIN_ROLE, cp, args)));
+    assertFalse("different class path", archive.equals(
+      ClassDataSharing.archiveFile(ClassDataSharing.INTERACTIONS_ROLE, cp.subList(0, 1), args)));
+    assertFalse("different arguments", archive.equals(
+      ClassDataSharing.archiveFile(ClassDataSharing.INTERACTIONS_ROLE, cp, Collections.<String>emptyList())));
+  }
+  
+  public void testJvmArguments() {
+    List<String> result = ClassDataSharing.jvmArguments(ClassDataSharing.INTERACTIONS_ROLE,
+                                                        Arrays.asList(new File("a.jar")),
+                                                        Collections.<String>emptyList());
+    if (ClassDataSharing.isSupported()) {
+      assertTrue("archive argument", result.get(0).startsWith("-XX:"));
+    }
+    else assertEquals("unsupported", Collections.<String>emptyList(), result);
+  }
+}
@@ -45,6 +45,8 @@ import edu.rice.cs.plt.io.IOUtil;
 import java.awt.*;
 import java.io.File;
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
 
 /** * Tests that a custom config file can be specified.
  * @version $Id$
@@ -85,4 +87,13 @@ public final class ConfigFileTest extends DrJavaTestCase {
     assertEquals("default javac location", OptionConstants.JAVAC_LOCATION.getDefault(),
                  config.getSetting(OptionConstants.JAVAC_LOCATION));
   }
+  
+  /** Tests the check that avoids restarting a JVM that already has the configured arguments. */
+  public void testIsRunningWith() {
+    List<String> actual = Arrays.asList("-Xmx128M", "-ea", "-Xmx512M");
+    assertTrue("no arguments", DrJava.isRunningWith(Arrays.<String>asList(), actual));
+    assertTrue("last heap size", DrJava.isRunningWith(Arrays.asList("-Xmx512M", "-ea"), actual));
+    assertFalse("overridden heap size", DrJava.isRunningWith(Arrays.asList("-Xmx128M"), actual));
+    assertFalse("missing argument", DrJava.isRunningWith(Arrays.asList("-Xmx512M", "-server"), actual));
+  }
 }
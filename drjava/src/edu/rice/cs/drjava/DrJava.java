@@ -39,6 +39,7 @@ package edu.rice.cs.drjava;
 import static edu.rice.cs.drjava.config.OptionConstants.*;
 
 import java.io.*;
+import java.lang.management.ManagementFactory;
 import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
@@ -81,15 +82,16 @@ import edu.rice.cs.drjava.model.DrJavaFileUtils;
   * 4. DrJava.configureAndLoadDrJavaRoot determines if a restart is necessary:
   * 4.1. If MASTER_JVM_XMX is set
   * 4.2. or MASTER_JVM_ARGS is set
-  * 4.3. then DrJava will attempt to restart itself with the specified JVM arguments
-  * 4.4. Files that have arrived via Mac OS X's handleOpenFile event up to this point
+  * 4.3. and the running JVM was not already started with those arguments
+  * 4.4. then DrJava will attempt to restart itself with the specified JVM arguments
+  * 4.5. Files that have arrived via Mac OS X's handleOpenFile event up to this point
   *      are included in the main arguments for the restarted DrJava.
-  * 4.5. If that fails, DrJava will ask if the user wants to delete the settings in the .drjava file
-  * 4.5.1. If the user says "yes", DrJava will attempt another restart. If that fails, DrJava gives up.
-  * 4.5.2. If the user says "no", DrJava gives up.
-  * 4.6. If additional files arrive via the handleOpenFile event, DrJava will
+  * 4.6. If that fails, DrJava will ask if the user wants to delete the settings in the .drjava file
+  * 4.6.1. If the user says "yes", DrJava will attempt another restart. If that fails, DrJava gives up.
+  * 4.6.2. If the user says "no", DrJava gives up.
+  * 4.7. If additional files arrive via the handleOpenFile event, DrJava will
   *      attempt to use the remote control to open the files in the restarted DrJava.
-  * 4.6.1. DrJava will perform NUM_REMOTE_CONTROL_RETRIES attempts to contact the
+  * 4.7.1. DrJava will perform NUM_REMOTE_CONTROL_RETRIES attempts to contact the
   *        remote control server, with WAIT_BEFORE_REMOTE_CONTROL_RETRY ms of sleep time in between.
   * 
   * 5. If neither the remote control was used nor a restart was necessary, DrJava will
@@ -109,6 +111,9 @@ public class DrJava {
   private static final ArrayList<String> _filesToOpen = new ArrayList<String>();
   private static final ArrayList<String> _jvmArgs = new ArrayList<String>();
   
+  /** The master JVM arguments specified by MASTER_JVM_XMX and MASTER_JVM_ARGS; DrJava restarts itself to apply them. */
+  private static final ArrayList<String> _configJvmArgs = new ArrayList<String>();
+  
   static volatile boolean _showDebugConsole = false;
   
   /** true if a new instance of DrJava should be started instead of
@@ -231,6 +236,23 @@ public class DrJava {
     return false; // failure
   }
   
+  /** Determines whether a JVM started with the given arguments already has the effect of the required arguments.
+    * Only the last -Xmx argument of a JVM takes effect; other arguments must simply be present.  Nothing passes the
+    * configured arguments to the first JVM, so DrJava only avoids the restart when it is started with them by hand
+    * (for example, "java -Xmx1024M -jar drjava.jar"); the launchers and a plain launch still restart.
+    * @param required the arguments that must be in effect
+    * @param actual the arguments with which the JVM was started
+    * @return true if each required argument is in effect
+    */
+  static boolean isRunningWith(List<String> required, List<String> actual) {
+    String actualXmx = null;
+    for (String arg : actual) { if (arg.startsWith("-Xmx")) { actualXmx = arg; } }
+    for (String arg : required) {
+      if (arg.startsWith("-Xmx") ? !arg.equals(actualXmx) : !actual.contains(arg)) { return false; }
+    }
+    return true;
+  }
+  
   /** @return true if the debug console should be enabled */
   public static boolean getShowDebugConsole() { return _showDebugConsole; }
   
@@ -264,10 +286,10 @@ public class DrJava {
       // the JVM cannot be created.
       int failCount = 0;
       while(failCount < 2) {
-        // Restart if there are custom JVM args
-        String masterMemory = getConfig().getSetting(MASTER_JVM_XMX).trim();
-        boolean _doRestart = (getConfig().getSetting(MASTER_JVM_ARGS).length() > 0)
-          || (!"".equals(masterMemory) && !OptionConstants.heapSizeChoices.get(0).equals(masterMemory));
+        // Restart if there are custom JVM args that this JVM was not started with (see isRunningWith); class data
+        // sharing alone does not warrant a restart, so its archive is only used by a restarted DrJava
+        boolean _doRestart = (_configJvmArgs.size() > 0) &&
+          !isRunningWith(_configJvmArgs, ManagementFactory.getRuntimeMXBean().getInputArguments());
         _log.log("_doRestart: "+_doRestart);
         
         LinkedList<String> classArgs = new LinkedList<String>();
@@ -308,6 +330,13 @@ public class DrJava {
             for(File f: jvmb.classPath()) { extendedClassPath.add(f); }
             _log.log("JVMBuilder: extendedClassPath = "+extendedClassPath);
             jvmb = jvmb.classPath(edu.rice.cs.plt.iter.IterUtil.asSizedIterable(extendedClassPath));
+            
+            // the archive depends on the final class path
+            if (getConfig().getSetting(CLASS_DATA_SHARING)) {
+              List<String> cdsJvmArgs = new ArrayList<String>(_jvmArgs);
+              cdsJvmArgs.addAll(ClassDataSharing.jvmArguments(ClassDataSharing.MAIN_ROLE, extendedClassPath, _jvmArgs));
+              jvmb = jvmb.jvmArguments(cdsJvmArgs);
+            }
             _log.log("JVMBuilder: jvmArguments = "+jvmb.jvmArguments());
             _log.log("JVMBuilder: classPath = "+jvmb.classPath());
             _log.log("JVMBuilder: mainParams = "+classArgs);
@@ -452,16 +481,19 @@ public class DrJava {
       _config = _initConfig();  // read specified .djrava file into _config
     }
     
-    if ((!("".equals(getConfig().getSetting(MASTER_JVM_XMX)))) &&
-        (!(OptionConstants.heapSizeChoices.get(0).equals(getConfig().getSetting(MASTER_JVM_XMX))))) { 
-      _jvmArgs.add("-Xmx" + getConfig().getSetting(MASTER_JVM_XMX).trim() + "M");
+    _configJvmArgs.clear();
+    String masterMemory = getConfig().getSetting(MASTER_JVM_XMX).trim();
+    if ((!("".equals(masterMemory))) &&
+        (!(OptionConstants.heapSizeChoices.get(0).equals(masterMemory)))) { 
+      _configJvmArgs.add("-Xmx" + masterMemory + "M");
       heapSizeGiven = true;
     }
     List<String> configArgs = ArgumentTokenizer.tokenize(getConfig().getSetting(MASTER_JVM_ARGS));
     for (String arg : configArgs) {
       if (arg.startsWith("-Xmx")) { heapSizeGiven = true; }
-      _jvmArgs.add(arg);
+      _configJvmArgs.add(arg);
     }
+    _jvmArgs.addAll(_configJvmArgs);
     
     if (PlatformFactory.ONLY.isMacPlatform()) {
       String iconLoc = System.getProperty("edu.rice.cs.drjava.icon");
@@ -41,13 +41,17 @@ import java.awt.Window;
 import java.awt.dnd.*;
 import java.awt.event.WindowEvent;
 import java.io.*;
+import java.lang.management.ManagementFactory;
 import java.lang.reflect.InvocationTargetException;
+import java.util.List;
 
 import javax.swing.UIManager;
 import javax.swing.*;
 
 import edu.rice.cs.plt.lambda.Runnable1;
+import edu.rice.cs.plt.tuple.Pair;
 import edu.rice.cs.util.FileOpenSelector;
+import edu.rice.cs.util.Log;
 import edu.rice.cs.util.UnexpectedException;
 import edu.rice.cs.util.OutputStreamRedirector;
 import edu.rice.cs.util.swing.Utilities;
@@ -89,11 +93,32 @@ public class DrJavaRoot {
   /** Main frame of this DrJava instance. */
   private static volatile MainFrame _mainFrame = null;
   
+  /** Records the time taken by each phase of startup.  Enabled by running with -Ddrjava.startup.timing=true. */
+  private static final Log _startupLog = new Log("DrJavaStartup.txt", Boolean.getBoolean("drjava.startup.timing"));
+  
+  /** The time at which the previous startup phase ended, in nanoseconds. */
+  private static volatile long _lastPhaseEnd = System.nanoTime();
+  
+  /** Logs the end of a startup phase, along with the time since the previous phase ended and the time since the
+    * JVM started.  Has no effect unless startup timing is enabled.
+    * @param phase  a description of the phase that just ended
+    */
+  public static void logStartupPhase(String phase) {
+    if (_startupLog.isEnabled()) {
+      long now = System.nanoTime();
+      long sinceStart = System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
+      _startupLog.log(phase + ": " + (now - _lastPhaseEnd) / 1000000 + " ms (" + sinceStart + " ms since JVM start)");
+      _lastPhaseEnd = now;
+    }
+  }
+  
   /* Config objects can't be public static final, since we have to delay construction until we know the 
    * config file's location.  (Might be specified on command line.) Instead, use accessor methods to 
    * prevent others from assigning new values. */
   
   public static void main(final String[] args) {
+    // diagnostic logs must not slow down the event thread
+    Log.setAsynchronousByDefault(true);
     debug.log("Starting up");
     // Platform-specific UI setup.
     PlatformFactory.ONLY.beforeUISetup();
@@ -103,9 +128,11 @@ public class DrJavaRoot {
     if (!DrJava.handleCommandLineArgs(args)) {
       System.exit(0);
     }
+    logStartupPhase("configuration loaded");
     
     DrJava.warnIfLinuxWithCompiz();
     new SplashScreen().flash();
+    logStartupPhase("splash screen shown");
     
     final String[] filesToOpen = DrJava.getFilesToOpen();
     final int numFiles = filesToOpen.length;
@@ -151,6 +178,7 @@ public class DrJavaRoot {
       } else if (! configLAFName.equals(currLAFName)) {
         UIManager.setLookAndFeel(configLAFName);
       }
+      logStartupPhase("look and feel set");
       
       // The MainFrame *must* be constructed after the compiler setup process has
       // executed; otherwise, the list of compilers in the UI will be wrong.
@@ -158,6 +186,7 @@ public class DrJavaRoot {
 //      Utilities.showDebug("Creating MainFrame");
       _mainFrame = new MainFrame();
 //      Utilities.showDebug("MainFrame created");
+      logStartupPhase("main frame created");
       
       // Make sure all uncaught exceptions are shown in an DrJavaErrorHandler
       DrJavaErrorWindow.setFrame(_mainFrame);
@@ -175,6 +204,11 @@ public class DrJavaRoot {
           // after _mainFrame.start() to address bug
           // [ drjava-Bugs-2831253 ] Starting DrJava with Project as Parameter
           _openCommandLineFiles(_mainFrame, filesToOpen, numFiles, true);
+          
+          // start() makes the frame visible in a later event, so this is logged in one too
+          EventQueue.invokeLater(new Runnable() {
+            public void run() { logStartupPhase("main frame shown and files opened"); }
+          });
         } 
       });
       
@@ -378,5 +412,14 @@ public class DrJavaRoot {
       DrJava.addFileToOpen(f.getAbsolutePath());
     }
   }
+  
+  /** Handles a batch of "open file" requests from the remote control server.
+    * @param requests pairs of a file to open and the line number to jump to, or -1 if not specified */
+  public static void handleRemoteOpenFiles(List<Pair<File, Integer>> requests) {
+    DrJava._log.log("DrJavaRoot.handleRemoteOpenFiles, " + requests.size() + " files");
+    if (_mainFrame != null) _mainFrame.handleRemoteOpenFiles(requests);
+    else {
+      for (Pair<File, Integer> r: requests) DrJava.addFileToOpen(r.first().getAbsolutePath());
+    }
+  }
 }
-
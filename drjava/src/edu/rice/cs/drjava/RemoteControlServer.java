@@ -38,9 +38,18 @@ package edu.rice.cs.drjava;
 
 import edu.rice.cs.drjava.ui.MainFrame;
 import edu.rice.cs.drjava.config.OptionConstants;
+import edu.rice.cs.plt.tuple.Pair;
 
 import java.io.*;
 import java.net.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
 
 /** This class contains a server that monitors incoming datagrams on port 4444
   * (default; can be changed in OptionConstants.REMOTE_CONTROL_PORT).
@@ -56,6 +65,11 @@ import java.net.*;
   * absoluteFileName + File.pathSeparator + lineNumber.
   * The server will respond with RESPONSE_PREFIX, or RESPONSE_PREFIX + " " + error if an error occurred.
   * 
+  * The server responds to each request as soon as it is received, without waiting for the file to be opened.
+  * Open requests that arrive in a burst (e.g. when a file manager opens many files) are collected and
+  * handled together: a batch is handed to DrJavaRoot.handleRemoteOpenFiles once no request has arrived
+  * for BATCH_DELAY ms, or once its first request has waited MAX_BATCH_DELAY ms.
+  * 
   * This class is declared final because it cannot be robustly subclassed because the constructor starts a thread.
   */
 public final class RemoteControlServer {
@@ -68,6 +82,12 @@ public final class RemoteControlServer {
   /** Prefix of a legitimate response by this server, including the user name. */
   public static final String RESPONSE_PREFIX_WITH_USER = RESPONSE_PREFIX+System.getProperty("user.name") + "!";
   
+  /** Time in ms without further open requests after which a batch of requests is handled. */
+  public static final int BATCH_DELAY = 50;
+  
+  /** Maximum time in ms that an open request is delayed while more requests are added to its batch. */
+  public static final int MAX_BATCH_DELAY = 500;
+  
   /** Create a new remote control server, running in its own daemon thread.
    * @param frame main frame
    * @throws IOException if an IO operation fails
@@ -83,8 +103,27 @@ public final class RemoteControlServer {
     /** Main frame access so the server can open files, etc. */
     protected MainFrame _frame;
     
-    /** Socket used. */
-    protected DatagramSocket socket = null;
+    /** Channel used, in non-blocking mode. */
+    protected final DatagramChannel _channel;
+    
+    /** Selector that wakes the thread when a request arrives or a reply can be sent. */
+    protected final Selector _selector;
+    
+    /** The registration of _channel with _selector. */
+    private final SelectionKey _key;
+    
+    /** Buffer for incoming requests. */
+    private final ByteBuffer _request = ByteBuffer.allocate(4096);
+    
+    /** Responses that have not been sent yet, with their destinations. */
+    private final LinkedList<Pair<SocketAddress, ByteBuffer>> _replies = new LinkedList<Pair<SocketAddress, ByteBuffer>>();
+    
+    /** Open requests that have not been handled yet: files and line numbers (-1 if not specified). */
+    private final ArrayList<Pair<File, Integer>> _batch = new ArrayList<Pair<File, Integer>>();
+    
+    /** Times in ms at which the first and the most recent request in _batch arrived. */
+    private long _batchStart;
+    private long _batchLast;
     
     /** Create a new server thread.
      * @param frame main frame
@@ -102,73 +141,125 @@ public final class RemoteControlServer {
     public RCServerThread(String name, MainFrame frame) throws IOException {
       super(name);
       _frame = frame;
-      socket = new DatagramSocket(DrJava.getConfig().getSetting(OptionConstants.REMOTE_CONTROL_PORT));
+      _channel = DatagramChannel.open();
+      try {
+        _channel.socket().bind(new InetSocketAddress(DrJava.getConfig().getSetting(OptionConstants.REMOTE_CONTROL_PORT)));
+        _channel.configureBlocking(false);
+        _selector = Selector.open();
+        _key = _channel.register(_selector, SelectionKey.OP_READ);
+      }
+      catch (IOException e) { _channel.close(); throw e; }
     }
 
-    /** Main method of the thread. It loops indefinitely, waiting for queries.
+    /** Main method of the thread. It loops until the server is closed, waiting for queries.
      * Since this is a daemon thread, it will get shut down at the end.
      */
     public void run() {
-      while (true) {
+      while (_selector.isOpen()) {
         try {
-          byte[] buf = new byte[256];
+          long timeout = 0; // wait indefinitely
+          if (! _batch.isEmpty()) {
+            long due = Math.min(_batchLast + BATCH_DELAY, _batchStart + MAX_BATCH_DELAY);
+            timeout = Math.max(1, due - System.currentTimeMillis());
+          }
+          _selector.select(timeout);
+          _selector.selectedKeys().clear();
           
-          // receive request
-          DatagramPacket packet = new DatagramPacket(buf, buf.length);
-          socket.receive(packet);
+          _receive();
+          _sendReplies();
           
-          String request = new String(packet.getData(), 0, packet.getLength());
+          long now = System.currentTimeMillis();
+          if (! _batch.isEmpty() && (now >= _batchLast + BATCH_DELAY || now >= _batchStart + MAX_BATCH_DELAY)) {
+            List<Pair<File, Integer>> batch = new ArrayList<Pair<File, Integer>>(_batch);
+            _batch.clear();
+            DrJavaRoot.handleRemoteOpenFiles(batch);
+          }
           
-          // check if it was a legitimate query
-          if (request.startsWith(QUERY_PREFIX)) {
-            // construct response
-            String dString = RESPONSE_PREFIX_WITH_USER;
-            request = request.substring(QUERY_PREFIX.length());
-            
-            // check if a file was specified
-            if ((request.length() > 0) && (request.charAt(0) == ' ')) {
-              request = request.substring(1);
-              
-              // check if the request contained a line number
-              int lineNo = -1;
-              int pathSepIndex = request.indexOf(File.pathSeparatorChar);
-              if (pathSepIndex >= 0) {
-                try {
-                  lineNo = Integer.valueOf(request.substring(pathSepIndex+1));
-                }
-                catch(NumberFormatException nfe) {
-                  lineNo = -1;
-                }
-                request = request.substring(0,pathSepIndex);
-              }
-              
-              final File f = new File(request);
-              if (f.exists()) {
-                DrJavaRoot.handleRemoteOpenFile(f, lineNo);
-              }
-            }
-            else {
-              dString = dString + " Cannot open file!";
-            }
-            
-            buf = dString.getBytes();
-            
-            // send the response to the client at "address" and "port"
-            InetAddress address = packet.getAddress();
-            int port = packet.getPort();
-            packet = new DatagramPacket(buf, buf.length, address, port);
-            
-            socket.send(packet);
+          _key.interestOps(_replies.isEmpty() ? SelectionKey.OP_READ : SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+        }
+        catch (ClosedSelectorException e) { break; }
+        catch (IOException e) {
+          if (! _channel.isOpen()) break;
+          e.printStackTrace();
+        }
+      }
+    }
+    
+    /** Reads all pending requests, queueing their responses and adding files to open to the batch. */
+    private void _receive() throws IOException {
+      SocketAddress sender;
+      while ((sender = _channel.receive(_request)) != null) {
+        String request = new String(_request.array(), 0, _request.position());
+        _request.clear();
+        String response = _handleRequest(request);
+        if (response != null) _replies.add(Pair.make(sender, ByteBuffer.wrap(response.getBytes())));
+      }
+    }
+    
+    /** Parses a request, adding the file it specifies (if any) to the batch.
+      * @param request the text of the request
+      * @return the response, or null if the request was not a legitimate query
+      */
+    private String _handleRequest(String request) {
+      // check if it was a legitimate query
+      if (! request.startsWith(QUERY_PREFIX)) return null;
+
+      // construct response
+      String dString = RESPONSE_PREFIX_WITH_USER;
+      request = request.substring(QUERY_PREFIX.length());
+      
+      // check if a file was specified
+      if ((request.length() > 0) && (request.charAt(0) == ' ')) {
+        request = request.substring(1);
+        
+        // check if the request contained a line number
+        int lineNo = -1;
+        int pathSepIndex = request.indexOf(File.pathSeparatorChar);
+        if (pathSepIndex >= 0) {
+          try {
+            lineNo = Integer.valueOf(request.substring(pathSepIndex+1));
           }
+          catch(NumberFormatException nfe) {
+            lineNo = -1;
+          }
+          request = request.substring(0,pathSepIndex);
         }
-        catch (SocketTimeoutException e) {
-          // ignore
+        
+        final File f = new File(request);
+        if (f.exists()) {
+          long now = System.currentTimeMillis();
+          if (_batch.isEmpty()) _batchStart = now;
+          _batchLast = now;
+          _batch.add(Pair.make(f, lineNo));
+        }
+      }
+      else {
+        dString = dString + " Cannot open file!";
+      }
+      return dString;
+    }
+    
+    /** Sends queued responses until the socket's send buffer is full. */
+    private void _sendReplies() {
+      while (! _replies.isEmpty()) {
+        Pair<SocketAddress, ByteBuffer> r = _replies.getFirst();
+        try {
+          if (_channel.send(r.second(), r.first()) == 0) return; // try again when the channel is writable
         }
         catch (IOException e) { e.printStackTrace(); }
+        _replies.removeFirst();
       }
     }
     
-    protected void finalize() { if (socket != null) socket.close(); }
+    /** Stops the server and releases its port. */
+    public void close() {
+      try { _selector.close(); }
+      catch (IOException e) { /* ignore */ }
+      try { _channel.close(); }
+      catch (IOException e) { /* ignore */ }
+    }
+    
+    protected void finalize() { close(); }
   }
   
   /** Main method for test purposes. 
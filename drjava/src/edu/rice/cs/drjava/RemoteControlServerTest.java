@@ -0,0 +1,119 @@
+/*BEGIN_COPYRIGHT_BLOCK
+ *
+ * Copyright (c) 2001-2017, JavaPLT group at Rice University (drjava@rice.edu)
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    * Redistributions of source code must retain the above copyright
+ *      notice, this list of conditions and the following disclaimer.
+ *    * Redistributions in binary form must reproduce the above copyright
+ *      notice, this list of conditions and the following disclaimer in the
+ *      documentation and/or other materials provided with the distribution.
+ *    * Neither the names of DrJava, the JavaPLT group, Rice University, nor the
+ *      names of its contributors may be used to endorse or promote products
+ *      derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This software is Open Source Initiative approved Open Source Software.
+ * Open Source Initative Approved is a trademark of the Open Source Initiative.
+ * 
+ * This file is part of DrJava.  Download the current version of this project
+ * from http://www.drjava.org/ or http://sourceforge.net/projects/drjava/
+ * 
+ * END_COPYRIGHT_BLOCK*/
+
+package edu.rice.cs.drjava;
+
+import java.io.File;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import edu.rice.cs.drjava.config.OptionConstants;
+import edu.rice.cs.plt.io.IOUtil;
+
+/** Tests the RemoteControlServer.  Without a main frame, opened files are added to DrJava's files to open.
+  * @version $Id$
+  */
+public class RemoteControlServerTest extends DrJavaTestCase {
+  private File _dir;
+  private int _port;
+  private RemoteControlServer.RCServerThread _server;
+  private DatagramChannel _client;
+  
+  public void setUp() throws Exception {
+    super.setUp();
+    _dir = IOUtil.createAndMarkTempDirectory("remotecontrol", "");
+    DatagramSocket s = new DatagramSocket(0);
+    _port = s.getLocalPort();
+    s.close();
+    DrJava.getConfig().setSetting(OptionConstants.REMOTE_CONTROL_PORT, _port);
+    DrJava.clearFilesToOpen();
+    _server = new RemoteControlServer.RCServerThread(null);
+    _server.setDaemon(true);
+    _server.start();
+    _client = DatagramChannel.open();
+    _client.socket().setSoTimeout(2000);
+  }
+  
+  public void tearDown() throws Exception {
+    _client.close();
+    _server.close();
+    _server.join(2000);
+    DrJava.clearFilesToOpen();
+    IOUtil.deleteRecursively(_dir);
+    super.tearDown();
+  }
+  
+  private void _send(String request) throws Exception {
+    _client.send(ByteBuffer.wrap(request.getBytes()), new InetSocketAddress("127.0.0.1", _port));
+  }
+  
+  private String _receive() throws Exception {
+    DatagramPacket packet = new DatagramPacket(new byte[512], 512);
+    _client.socket().receive(packet);
+    return new String(packet.getData(), 0, packet.getLength());
+  }
+  
+  public void testQuery() throws Exception {
+    _send(RemoteControlServer.QUERY_PREFIX);
+    assertEquals("query response", RemoteControlServer.RESPONSE_PREFIX_WITH_USER + " Cannot open file!", _receive());
+    assertTrue("server is not running", _server.isAlive());
+  }
+  
+  public void testBurstOfOpenRequests() throws Exception {
+    Set<String> expected = new HashSet<String>();
+    for (int i = 0; i < 20; i++) {
+      File f = new File(_dir, "File" + i + ".java");
+      IOUtil.writeStringToFile(f, "class File" + i + " {}");
+      expected.add(f.getAbsolutePath());
+      _send(RemoteControlServer.QUERY_PREFIX + " " + f.getAbsolutePath() + File.pathSeparator + i);
+    }
+    _send("not a remote control request");
+    _send(RemoteControlServer.QUERY_PREFIX + " " + new File(_dir, "Missing.java").getAbsolutePath());
+    for (int i = 0; i < 21; i++) {
+      assertEquals("response " + i, RemoteControlServer.RESPONSE_PREFIX_WITH_USER, _receive());
+    }
+    
+    long end = System.currentTimeMillis() + 5000;
+    while (DrJava.getFilesToOpen().length < expected.size() && System.currentTimeMillis() < end) Thread.sleep(20);
+    assertEquals("files to open", expected, new HashSet<String>(Arrays.asList(DrJava.getFilesToOpen())));
+  }
+}
@@ -33,29 +33,36 @@ import edu.rice.cs.drjava.DrJava;
 import edu.rice.cs.drjava.config.OptionConstants;
 import edu.rice.cs.util.StringOps;
 import edu.rice.cs.plt.concurrent.JVMBuilder;
+import edu.rice.cs.plt.lambda.LambdaUtil;
+import edu.rice.cs.plt.lambda.Thunk;
 import edu.rice.cs.util.swing.ConfirmCheckBoxDialog;
 import java.awt.EventQueue;
 import javax.swing.*;
 
-/** @version $Id$ */
+/** Listeners that confirm or sanitize changes to options.  Each listener's parent frame is given as a thunk, so
+  * that it may name a frame that is only created on demand (such as the Preferences window).
+  * @version $Id$
+  */
 public class ConfigOptionListeners implements OptionConstants {
   public static class DisplayAllCompilerVersionsListener implements OptionListener<Boolean>, OptionConstants {
-    protected JFrame _parent;
-    public DisplayAllCompilerVersionsListener(JFrame parent) { _parent = parent; }
+    protected final Thunk<? extends JFrame> _parent;
+    public DisplayAllCompilerVersionsListener(JFrame parent) { this(LambdaUtil.valueLambda(parent)); }
+    public DisplayAllCompilerVersionsListener(Thunk<? extends JFrame> parent) { _parent = parent; }
     public void optionChanged(OptionEvent<Boolean> oe) {
-      JOptionPane.showMessageDialog(_parent, "You will have to restart DrJava before the change takes effect.");
+      JOptionPane.showMessageDialog(_parent.value(), "You will have to restart DrJava before the change takes effect.");
     }
   }
   
   public static class SlaveJVMArgsListener implements OptionListener<String>, OptionConstants {
-    protected JFrame _parent;
-    public SlaveJVMArgsListener(JFrame parent) { _parent = parent; }
+    protected final Thunk<? extends JFrame> _parent;
+    public SlaveJVMArgsListener(JFrame parent) { this(LambdaUtil.valueLambda(parent)); }
+    public SlaveJVMArgsListener(Thunk<? extends JFrame> parent) { _parent = parent; }
     public void optionChanged(OptionEvent<String> oe) {
 //      final OptionListener<String> slaveJvmArgsListener = this;
       DrJava.getConfig().removeOptionListener(SLAVE_JVM_ARGS, this);
       if (!oe.value.equals("")) {
         int result = JOptionPane.
-          showConfirmDialog(_parent,
+          showConfirmDialog(_parent.value(),
                             "Specifying Interations JVM Args is an advanced option. Invalid arguments may cause\n" +
                             "the Interactions Pane to stop working.\n" + "Are you sure you want to set this option?\n" +
                             "(You will have to reset the interactions pane before changes take effect.)",
@@ -64,7 +71,7 @@ public class ConfigOptionListeners implements OptionConstants {
           DrJava.getConfig().setSetting(oe.option, "");
         }
         else {
-          sanitizeSlaveJVMArgs(_parent, oe.value, this);
+          sanitizeSlaveJVMArgs(_parent.value(), oe.value, this);
         }
       }
       DrJava.getConfig().addOptionListener(SLAVE_JVM_ARGS, this);
@@ -177,13 +184,14 @@ public class ConfigOptionListeners implements OptionConstants {
   }
   
   public static class SlaveJVMXMXListener implements OptionListener<String>, OptionConstants {
-    protected JFrame _parent;
-    public SlaveJVMXMXListener(JFrame parent) { _parent = parent; }
+    protected final Thunk<? extends JFrame> _parent;
+    public SlaveJVMXMXListener(JFrame parent) { this(LambdaUtil.valueLambda(parent)); }
+    public SlaveJVMXMXListener(Thunk<? extends JFrame> parent) { _parent = parent; }
     public void optionChanged(OptionEvent<String> oe) {
       DrJava.getConfig().removeOptionListener(SLAVE_JVM_XMX, this);
-      sanitizeSlaveJVMXMX(_parent, oe.value);
+      sanitizeSlaveJVMXMX(_parent.value(), oe.value);
       DrJava.getConfig().addOptionListener(SLAVE_JVM_XMX, this);
-      JOptionPane.showMessageDialog(_parent,
+      JOptionPane.showMessageDialog(_parent.value(),
                                     "You will have to reset the interactions pane before changes take effect.");
     }
   }
@@ -253,14 +261,15 @@ public class ConfigOptionListeners implements OptionConstants {
   }
   
   public static class MasterJVMArgsListener implements OptionListener<String>, OptionConstants {
-    protected JFrame _parent;
-    public MasterJVMArgsListener(JFrame parent) { _parent = parent; }
+    protected final Thunk<? extends JFrame> _parent;
+    public MasterJVMArgsListener(JFrame parent) { this(LambdaUtil.valueLambda(parent)); }
+    public MasterJVMArgsListener(Thunk<? extends JFrame> parent) { _parent = parent; }
     public void optionChanged(OptionEvent<String> oe) {
       DrJava.getConfig().removeOptionListener(MASTER_JVM_ARGS, this);
 //      final OptionListener<String> masterJvmArgsListener = this;
       if (!oe.value.equals("")) {
         int result = JOptionPane.
-          showConfirmDialog(_parent,
+          showConfirmDialog(_parent.value(),
                             "Specifying Main JVM Args is an advanced option. Invalid arguments may cause\n" +
                             "DrJava to fail on start up.  You may need to edit or delete your .drjava preferences file\n" +
                             "to recover.\n Are you sure you want to set this option?\n" +
@@ -270,7 +279,7 @@ public class ConfigOptionListeners implements OptionConstants {
           DrJava.getConfig().setSetting(oe.option, "");
         }
         else {
-          sanitizeMasterJVMArgs(_parent, oe.value, this);
+          sanitizeMasterJVMArgs(_parent.value(), oe.value, this);
         }
       }
       DrJava.getConfig().addOptionListener(MASTER_JVM_ARGS, this);
@@ -367,12 +376,13 @@ public class ConfigOptionListeners implements OptionConstants {
   }
   
   public static class MasterJVMXMXListener implements OptionListener<String>, OptionConstants {
-    protected JFrame _parent;
-    public MasterJVMXMXListener(JFrame parent) { _parent = parent; }
+    protected final Thunk<? extends JFrame> _parent;
+    public MasterJVMXMXListener(JFrame parent) { this(LambdaUtil.valueLambda(parent)); }
+    public MasterJVMXMXListener(Thunk<? extends JFrame> parent) { _parent = parent; }
     public void optionChanged(OptionEvent<String> oe) {
       DrJava.getConfig().removeOptionListener(MASTER_JVM_XMX, this);
-      sanitizeMasterJVMXMX(_parent, oe.value);
-      JOptionPane.showMessageDialog(_parent, "You will have to restart DrJava before the change takes effect.");
+      sanitizeMasterJVMXMX(_parent.value(), oe.value);
+      JOptionPane.showMessageDialog(_parent.value(), "You will have to restart DrJava before the change takes effect.");
       DrJava.getConfig().addOptionListener(MASTER_JVM_XMX, this);
     }
   }
@@ -457,10 +467,11 @@ public class ConfigOptionListeners implements OptionConstants {
   }
   
   public static class JavadocCustomParamsListener implements OptionListener<String>, OptionConstants {
-    protected JFrame _parent;
-    public JavadocCustomParamsListener(JFrame parent) { _parent = parent; }
+    protected final Thunk<? extends JFrame> _parent;
+    public JavadocCustomParamsListener(JFrame parent) { this(LambdaUtil.valueLambda(parent)); }
+    public JavadocCustomParamsListener(Thunk<? extends JFrame> parent) { _parent = parent; }
     public void optionChanged(OptionEvent<String> oe) {
-      sanitizeJavadocCustomParams(_parent, oe.value);
+      sanitizeJavadocCustomParams(_parent.value(), oe.value);
     }
   }
   
@@ -513,8 +524,9 @@ public class ConfigOptionListeners implements OptionConstants {
   }
   
   public static class LookAndFeelListener implements OptionListener<String> {
-    protected JFrame _parent;
-    public LookAndFeelListener(JFrame parent) { _parent = parent; }
+    protected final Thunk<? extends JFrame> _parent;
+    public LookAndFeelListener(JFrame parent) { this(LambdaUtil.valueLambda(parent)); }
+    public LookAndFeelListener(Thunk<? extends JFrame> parent) { _parent = parent; }
     public void optionChanged(OptionEvent<String> oe) {
 //        try {
 //          UIManager.setLookAndFeel(oe.value);
@@ -550,7 +562,7 @@ public class ConfigOptionListeners implements OptionConstants {
       String msg = "Look and feel changes will take effect when you restart DrJava.";
       if (DrJava.getConfig().getSetting(WARN_CHANGE_LAF).booleanValue()) {
         ConfirmCheckBoxDialog dialog =
-          new ConfirmCheckBoxDialog(_parent, title, msg,
+          new ConfirmCheckBoxDialog(_parent.value(), title, msg,
                                     "Do not show this message again",
                                     JOptionPane.INFORMATION_MESSAGE,
                                     JOptionPane.DEFAULT_OPTION);
@@ -562,14 +574,15 @@ public class ConfigOptionListeners implements OptionConstants {
   }
   
   public static class PlasticThemeListener implements OptionListener<String> {
-    protected JFrame _parent;
-    public PlasticThemeListener(JFrame parent) { _parent = parent; }
+    protected final Thunk<? extends JFrame> _parent;
+    public PlasticThemeListener(JFrame parent) { this(LambdaUtil.valueLambda(parent)); }
+    public PlasticThemeListener(Thunk<? extends JFrame> parent) { _parent = parent; }
     public void optionChanged(OptionEvent<String> oe) {
       String title = "Apply Theme";
       String msg = "Changes to the theme will take effect when you restart DrJava.";
       if (DrJava.getConfig().getSetting(WARN_CHANGE_THEME).booleanValue()) {
         ConfirmCheckBoxDialog dialog =
-          new ConfirmCheckBoxDialog(_parent, title, msg,
+          new ConfirmCheckBoxDialog(_parent.value(), title, msg,
                                     "Do not show this message again",
                                     JOptionPane.INFORMATION_MESSAGE,
                                     JOptionPane.DEFAULT_OPTION);
@@ -581,9 +594,10 @@ public class ConfigOptionListeners implements OptionConstants {
   }  
   
   public static class RequiresDrJavaRestartListener<T> implements OptionListener<T> {
-    protected JFrame _parent;
+    protected final Thunk<? extends JFrame> _parent;
     protected String _description;
-    public RequiresDrJavaRestartListener(JFrame parent, String description) {
+    public RequiresDrJavaRestartListener(JFrame parent, String description) { this(LambdaUtil.valueLambda(parent), description); }
+    public RequiresDrJavaRestartListener(Thunk<? extends JFrame> parent, String description) {
       _parent = parent;
       _description = description;
     }
@@ -592,7 +606,7 @@ public class ConfigOptionListeners implements OptionConstants {
       String msg = "Changes to the '"+_description+"' preferences\nwill only take effect when you restart DrJava.";
       if (DrJava.getConfig().getSetting(WARN_CHANGE_MISC).booleanValue()) {
         ConfirmCheckBoxDialog dialog =
-          new ConfirmCheckBoxDialog(_parent, title, msg,
+          new ConfirmCheckBoxDialog(_parent.value(), title, msg,
                                     "Do not show this message again",
                                     JOptionPane.INFORMATION_MESSAGE,
                                     JOptionPane.DEFAULT_OPTION);
@@ -604,9 +618,10 @@ public class ConfigOptionListeners implements OptionConstants {
   }
 
   public static class RequiresInteractionsRestartListener<T> implements OptionListener<T> {
-    protected JFrame _parent;
+    protected final Thunk<? extends JFrame> _parent;
     protected String _description;
-    public RequiresInteractionsRestartListener(JFrame parent, String description) {
+    public RequiresInteractionsRestartListener(JFrame parent, String description) { this(LambdaUtil.valueLambda(parent), description); }
+    public RequiresInteractionsRestartListener(Thunk<? extends JFrame> parent, String description) {
       _parent = parent;
       _description = description;
     }
@@ -615,7 +630,7 @@ public class ConfigOptionListeners implements OptionConstants {
       String msg = "Changes to the '"+_description+"' preferences\nwill only take effect when you reset the Interactions Pane.";
       if (DrJava.getConfig().getSetting(WARN_CHANGE_INTERACTIONS).booleanValue()) {
         ConfirmCheckBoxDialog dialog =
-          new ConfirmCheckBoxDialog(_parent, title, msg,
+          new ConfirmCheckBoxDialog(_parent.value(), title, msg,
                                     "Do not show this message again",
                                     JOptionPane.INFORMATION_MESSAGE,
                                     JOptionPane.DEFAULT_OPTION);
@@ -627,14 +642,15 @@ public class ConfigOptionListeners implements OptionConstants {
   }
   
    public static class DefaultCompilerListener implements OptionListener<String> {
-    protected JFrame _parent;
-    public DefaultCompilerListener(JFrame parent) { _parent = parent; }
+    protected final Thunk<? extends JFrame> _parent;
+    public DefaultCompilerListener(JFrame parent) { this(LambdaUtil.valueLambda(parent)); }
+    public DefaultCompilerListener(Thunk<? extends JFrame> parent) { _parent = parent; }
     public void optionChanged(OptionEvent<String> oe) {      
       String title = "Apply Default Compiler Preference Change";
       String msg = "Default Compiler Preference will take effect when you restart DrJava.";
       if (DrJava.getConfig().getSetting(WARN_CHANGE_DCP).booleanValue()) {
         ConfirmCheckBoxDialog dialog =
-          new ConfirmCheckBoxDialog(_parent, title, msg,
+          new ConfirmCheckBoxDialog(_parent.value(), title, msg,
                                     "Do not show this message again",
                                     JOptionPane.INFORMATION_MESSAGE,
                                     JOptionPane.DEFAULT_OPTION);
@@ -1315,6 +1315,12 @@ public interface OptionConstants {
   /** The default destination directory for Javadoc output. */
   public static final FileOption JAVADOC_DESTINATION = new FileOption("javadoc.destination", FileOps.NULL_FILE);
   
+  /** Whether "Javadoc All" only regenerates the packages that changed since the last run into the same directory.
+    * Off by default, because the pages shared between packages (the indexes, the class hierarchy and the lists of
+    * known subclasses and uses) are not updated for packages that are not regenerated.
+    */
+  public static final BooleanOption JAVADOC_INCREMENTAL = new BooleanOption("javadoc.incremental", Boolean.FALSE);
+  
   /** Whether to always prompt for a destination directory, whether or not a default has been set. */
   public static final BooleanOption JAVADOC_PROMPT_FOR_DESTINATION =
     new BooleanOption("javadoc.prompt.for.destination", Boolean.TRUE);
@@ -1402,6 +1408,9 @@ public interface OptionConstants {
   public static final NonNegativeIntegerOption HISTORY_MAX_SIZE =
     new NonNegativeIntegerOption("history.max.size", Integer.valueOf(500));
   
+  /** Whether to keep the Interactions History in a log file shared across sessions. */
+  public static final BooleanOption HISTORY_PERSISTENT = new BooleanOption("history.persistent", Boolean.FALSE);
+  
   /** Number of files to list in the recent file list */
   public static final NonNegativeIntegerOption RECENT_FILES_MAX_SIZE =
     new NonNegativeIntegerOption("recent.files.max.size", Integer.valueOf(5));
@@ -1426,6 +1435,14 @@ public interface OptionConstants {
     * This should not be used anymore. Instead, use DYNAMICJAVA_ACCESS_CONTROL. */
   @Deprecated public static final BooleanOption ALLOW_PRIVATE_ACCESS = new BooleanOption("allow.private.access", Boolean.FALSE);
   
+  /** Whether to defer reading project files (and restoring their breakpoints and bookmarks) until they are used.
+    * Off by default, because until then those breakpoints and bookmarks are missing from their panels.
+    */
+  public static final BooleanOption LAZY_PROJECT_LOADING = new BooleanOption("lazy.project.loading", Boolean.FALSE);
+  
+  /** Whether to create the preferences, help, and other secondary windows right after startup, rather than on first use. */
+  public static final BooleanOption PREWARM_DIALOGS = new BooleanOption("prewarm.dialogs", Boolean.FALSE);
+  
   /** Whether to force test classes in projects to end in "Test". */
   public static final BooleanOption FORCE_TEST_SUFFIX = new BooleanOption("force.test.suffix", Boolean.FALSE);
   
@@ -1463,6 +1480,10 @@ public interface OptionConstants {
   public static final BooleanOption SHOW_PATH_WARNINGS = 
     new BooleanOption("show.path.warnings", Boolean.FALSE);
   
+  /** The number of errors after which a compilation is stopped, or 0 for no limit */
+  public static final NonNegativeIntegerOption COMPILER_ERROR_LIMIT = 
+    new NonNegativeIntegerOption("compiler.error.limit", Integer.valueOf(0));
+  
   /** Default compiler to use
     * Stores the name of the compiler to use, set by changing the selection in
     * the ForcedChoiceOption created by COMPILER_PREFERENCE_CONTROL.evaluate()
@@ -1610,6 +1631,9 @@ public interface OptionConstants {
   /** The command-line arguments to be passed to the Slave JVM. */
   public static final StringOption SLAVE_JVM_ARGS = new StringOption("slave.jvm.args", "");
   
+  /** Whether to start the Main and Interactions JVMs with class data sharing archives (requires Java 13 or later). */
+  public static final BooleanOption CLASS_DATA_SHARING = new BooleanOption("class.data.sharing", Boolean.FALSE);
+  
   /* Possible maximum heap sizes. */
   public static final ArrayList<String> heapSizeChoices = HeapSizeChoices.evaluate();
   static class HeapSizeChoices {
@@ -1687,7 +1711,7 @@ public interface OptionConstants {
   public static final BooleanOption DIALOG_COMPLETE_WORD_STORE_POSITION =
     new BooleanOption("dialog.completeword.store.position", Boolean.TRUE);
   
-  /** Whether to scan class files for auto-completion class names. */
+  /** Whether to index class files for auto-completion of class and member names. */
   public static final BooleanOption DIALOG_COMPLETE_SCAN_CLASS_FILES =
     new BooleanOption("dialog.completeword.scan.class.files", Boolean.FALSE);
   
@@ -1695,7 +1719,6 @@ public interface OptionConstants {
   public static final BooleanOption DIALOG_COMPLETE_JAVAAPI =
     new BooleanOption("dialog.completeword.javaapi", Boolean.FALSE);
   
-// Any lightweight parsing has been disabled until we have something that is beneficial and works better in the background.
   /** Whether to perform light-weight parsing. */
   public static final BooleanOption LIGHTWEIGHT_PARSING_ENABLED =
     new BooleanOption("lightweight.parsing.enabled", Boolean.FALSE);
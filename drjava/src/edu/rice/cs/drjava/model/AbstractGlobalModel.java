@@ -130,6 +130,7 @@ import edu.rice.cs.plt.iter.IterUtil;
 import edu.rice.cs.plt.collect.CollectUtil;
 import edu.rice.cs.plt.lambda.LambdaUtil;
 import edu.rice.cs.plt.lambda.Predicate;
+import edu.rice.cs.plt.lambda.Runnable1;
 
 import edu.rice.cs.util.FileOpenSelector;
 import edu.rice.cs.util.FileOps;
@@ -189,6 +190,20 @@ public class AbstractGlobalModel implements SingleDisplayModel, OptionConstants,
   /** Factory for new definitions documents and views.*/
   protected final DefinitionsEditorKit _editorKit = new DefinitionsEditorKit(_notifier);
   
+  /** Reads and scans files on worker threads when many files are opened at once. */
+  protected final ParallelFileLoader _fileLoader = new ParallelFileLoader();
+  
+  /** The number of opened documents added to the navigator per event-queue task when files are opened in the
+    * background.  Keeps the UI responsive while a large folder is being published.
+    */
+  static final int OPEN_BATCH_SIZE = 64;
+  
+  /** Breakpoint and bookmark restorations deferred by lazy project loading until the document they belong to is
+    * first materialized.  Guarded by its own monitor.
+    */
+  private final Map<OpenDefinitionsDocument, List<Runnable>> _pendingRegionRestorations =
+    new LinkedHashMap<OpenDefinitionsDocument, List<Runnable>>();
+  
   /** Collection for storing all OpenDefinitionsDocuments. */
   private final AbstractMap<File, OpenDefinitionsDocument> _documentsRepos = 
     new LinkedHashMap<File, OpenDefinitionsDocument>();
@@ -273,12 +288,11 @@ public class AbstractGlobalModel implements SingleDisplayModel, OptionConstants,
 //  /** Completion monitor for loading the files of a project (as OpenDefinitionsDocuments). */
 //  public final CompletionMonitor projectLoading = new CompletionMonitor();
   
-// Lightweight parsing is disabled until we have something that is beneficial and works better in the background.
-//  /** Light-weight parsing controller. */
-//  protected LightWeightParsingControl _parsingControl;
-//  
-//  /** @return the parsing control */
-//  public LightWeightParsingControl getParsingControl() { return _parsingControl; }
+  /** Light-weight parsing controller. */
+  protected volatile LightWeightParsingControl _parsingControl;
+  
+  /** @return the parsing control */
+  public LightWeightParsingControl getParsingControl() { return _parsingControl; }
   
   // ----- CONSTRUCTORS -----
   
@@ -1394,20 +1408,48 @@ public class AbstractGlobalModel implements SingleDisplayModel, OptionConstants,
   private OpenDefinitionsDocument[] _openFiles(File[] files)
     throws IOException, OperationCanceledException, AlreadyOpenException {    
     
-    ArrayList<OpenDefinitionsDocument> alreadyOpenDocuments = new ArrayList<OpenDefinitionsDocument>();
-    ArrayList<OpenDefinitionsDocument> retDocs = new ArrayList<OpenDefinitionsDocument>();
-    
-    //        SHOW_GETDOC = true;
-    
-    LinkedList<File> filesNotFound = new LinkedList<File>();
-    LinkedList<OpenDefinitionsDocument> filesOpened = new LinkedList<OpenDefinitionsDocument>();
     for (final File f: files) {
       if (f == null) throw new IOException("File name returned from FileSelector is null");
+    }
+    // Reading and scanning the files is the expensive part; do it on the worker pool, unless this is the event
+    // thread, which must not block waiting for the pool (large batches are opened by openFilesInBackground instead)
+    List<ParallelFileLoader.LoadedFile> loaded;
+    if (files.length > 1 && ! EventQueue.isDispatchThread()) loaded = _fileLoader.load(files, null);
+    else {
+      loaded = new ArrayList<ParallelFileLoader.LoadedFile>(files.length);
+      for (File f: files) loaded.add(ParallelFileLoader.loadFile(f));
+    }
+    
+    ArrayList<OpenDefinitionsDocument> retDocs = new ArrayList<OpenDefinitionsDocument>();
+    LinkedList<OpenDefinitionsDocument> filesOpened = new LinkedList<OpenDefinitionsDocument>();
+    _createLoadedDocuments(files, loaded, 0, files.length, retDocs, filesOpened, false);
+    return retDocs.toArray(new OpenDefinitionsDocument[0]);
+  }
+  
+  /** Creates documents for the loaded files in the range [from, to) and publishes them to the navigator.
+    * @param files the files as originally requested
+    * @param loaded the corresponding results of the file loader
+    * @param from the first index to open
+    * @param to one past the last index to open
+    * @param retDocs accumulates the opened or already open documents in request order
+    * @param filesOpened accumulates the newly opened documents
+    * @param reportFailures true if files that cannot be read should be reported like files that are not found, rather
+    *        than stopping the open with an exception
+    * @throws IOException if an IO operation fails
+    */
+  private void _createLoadedDocuments(File[] files, List<ParallelFileLoader.LoadedFile> loaded, int from, int to,
+                                      List<OpenDefinitionsDocument> retDocs, List<OpenDefinitionsDocument> filesOpened,
+                                      boolean reportFailures) throws IOException {
+    ArrayList<OpenDefinitionsDocument> alreadyOpenDocuments = new ArrayList<OpenDefinitionsDocument>();
+    LinkedList<File> filesNotFound = new LinkedList<File>();
+    LinkedList<OpenDefinitionsDocument> batchOpened = new LinkedList<OpenDefinitionsDocument>();
+    for (int i = from; i < to; i++) {
+      final File f = files[i];
       try {
-        OpenDefinitionsDocument d = _rawOpenFile(IOUtil.attemptCanonicalFile(f));
+        OpenDefinitionsDocument d = _rawOpenFile(loaded.get(i));
         //always return last opened Doc
         retDocs.add(d);
-        filesOpened.add(d);
+        batchOpened.add(d);
         if (_state.isExcludedFile(f))
           _state.removeExcludedFile(f);
       }
@@ -1417,12 +1459,18 @@ public class AbstractGlobalModel implements SingleDisplayModel, OptionConstants,
         alreadyOpenDocuments.add(d);
       }
       catch(FileNotFoundException e) { filesNotFound.add(f); }
+      catch(IOException e) {
+        if (! reportFailures) throw e;
+        _log.log("Can't open " + f + ": " + e);
+        filesNotFound.add(f);
+      }
     }
     
-    for (final OpenDefinitionsDocument d: filesOpened) {
-      _completeOpenFile(d); // contains view-related calls
+    for (final OpenDefinitionsDocument d: batchOpened) {
+      _completeOpenFile(d, false); // contains view-related calls
     }
-    //        SHOW_GETDOC = false;
+    addDocsToClassPath(batchOpened);
+    filesOpened.addAll(batchOpened);
     if (filesNotFound.size() > 0)
       _notifier.filesNotFound( filesNotFound.toArray( new File[filesNotFound.size()] ) );
     
@@ -1432,8 +1480,6 @@ public class AbstractGlobalModel implements SingleDisplayModel, OptionConstants,
         _notifier.fileOpened(d);
       }
     }
-    
-    return retDocs.toArray(new OpenDefinitionsDocument[0]);
   }
   
   
@@ -1455,6 +1501,87 @@ public class AbstractGlobalModel implements SingleDisplayModel, OptionConstants,
     debug.logEnd();
   }
   
+  /** Opens all files in the specified folder without blocking the event thread.  The files are read and scanned
+    * by a background task that shows a cancelable progress monitor, and the resulting documents are then added to
+    * the navigator in batches of OPEN_BATCH_SIZE so that the UI stays responsive.  If the task is canceled, no
+    * documents are opened.
+    * @param dir the folder in which to open files
+    * @param rec true if the open should be recursive; false otherwise
+    * @param ext extension
+    */
+  public void openFolderInBackground(final File dir, final boolean rec, final String ext) {
+    final File[] sfiles;
+    try { sfiles = getFilesInFolder(dir, rec, ext); }
+    catch (Exception e) { throw new UnexpectedException(e); } // getFilesInFolder does not actually throw
+    if (sfiles == null || sfiles.length == 0) return;
+    _openInBackground(sfiles, "Opening files in " + dir.getName() + "...", _state.inProjectPath(dir), null);
+  }
+  
+  /** Opens the given files without blocking the event thread, like openFolderInBackground.  If the task is canceled,
+    * no documents are opened and continuation is not run.
+    * @param files the files to open
+    * @param continuation run in the event thread with the opened documents (in the order of files) once all of them
+    *        have been opened, or null
+    */
+  public void openFilesInBackground(File[] files, Runnable1<? super List<OpenDefinitionsDocument>> continuation) {
+    if (files.length == 0) return;
+    _openInBackground(files, "Opening " + files.length + " files...", false, continuation);
+  }
+  
+  /** Runs the background task for openFolderInBackground and openFilesInBackground.
+    * @param sfiles the files to open
+    * @param description the message shown by the progress monitor
+    * @param inProjectPath true if the project should be marked as changed once the files are opened
+    * @param continuation run with the opened documents once all of them have been opened, or null
+    */
+  private void _openInBackground(final File[] sfiles, final String description, final boolean inProjectPath,
+                                 final Runnable1<? super List<OpenDefinitionsDocument>> continuation) {
+    _notifier.executeAsyncTask(new AsyncTask<File[], List<ParallelFileLoader.LoadedFile>>("Open Files") {
+      public List<ParallelFileLoader.LoadedFile> runAsync(File[] files, IAsyncProgress monitor) throws Exception {
+        return _fileLoader.load(files, monitor);
+      }
+      public void complete(AsyncCompletionArgs<List<ParallelFileLoader.LoadedFile>> args) {
+        if (args.cancelRequested() || args.getCaughtException() instanceof OperationCanceledException) return;
+        if (args.getCaughtException() != null) throw new UnexpectedException(args.getCaughtException());
+        final boolean closeUntitled = _hasOneEmptyDocument();
+        if (! closeUntitled) addToBrowserHistory();
+        _publishLoadedDocuments(sfiles, args.getResult(), 0, new ArrayList<OpenDefinitionsDocument>(), 
+                                new LinkedList<OpenDefinitionsDocument>(), closeUntitled ? _activeDocument : null,
+                                inProjectPath, continuation);
+      }
+      public String getDiscriptionMessage() { return description; }
+      public int getMaxProgress() { return sfiles.length; }
+    }, sfiles, true, true);
+  }
+  
+  /** Opens one batch of loaded files starting at index from, then schedules the next batch on the event queue.
+    * After the last batch, performs the same clean-up that openFiles does.  Files that cannot be read are reported
+    * with the files that are not found, and the others are still opened.  Only runs in the event thread.
+    */
+  private void _publishLoadedDocuments(final File[] files, final List<ParallelFileLoader.LoadedFile> loaded,
+                                       final int from, final List<OpenDefinitionsDocument> retDocs,
+                                       final List<OpenDefinitionsDocument> filesOpened, 
+                                       final OpenDefinitionsDocument untitledDoc, final boolean inProjectPath,
+                                       final Runnable1<? super List<OpenDefinitionsDocument>> continuation) {
+    final int to = Math.min(from + OPEN_BATCH_SIZE, files.length);
+    try { _createLoadedDocuments(files, loaded, from, to, retDocs, filesOpened, true); }
+    catch (IOException e) { throw new UnexpectedException(e); } // failures are reported, not thrown
+    
+    if (to < files.length) {
+      EventQueue.invokeLater(new Runnable() {
+        public void run() { 
+          _publishLoadedDocuments(files, loaded, to, retDocs, filesOpened, untitledDoc, inProjectPath, continuation);
+        }
+      });
+    }
+    else if (retDocs.size() > 0) {
+      if (untitledDoc != null) closeFileHelper(untitledDoc);
+      setActiveDocument(retDocs.get(0));
+      if (inProjectPath) setProjectChanged(true);
+    }
+    if (to >= files.length && continuation != null) continuation.run(retDocs);
+  }
+  
   /** @return the file extension for the "Open Folder..." command for the currently selected compiler. */
   public String getOpenAllFilesInFolderExtension() {
     CompilerModel cm = getCompilerModel();
@@ -1657,6 +1784,9 @@ public class AbstractGlobalModel implements SingleDisplayModel, OptionConstants,
     throws IOException {    
     ProjectProfile builder = new ProjectProfile(file);
     
+    // breakpoints and bookmarks that have not been restored yet must still be written out
+    restorePendingRegions();
+    
     // add project root
     File pr = getProjectRoot();
     if (pr != null) builder.setProjectRoot(pr);
@@ -1935,17 +2065,22 @@ public class AbstractGlobalModel implements SingleDisplayModel, OptionConstants,
     
     /* Files are opened synchronously by the preceding notification.  If this process is made asynchronous, we need to 
      * wait here (using the projectLoaded CompletionMonitor above (commented out). */
+    // In lazy mode, regions in documents that are not yet resident are restored when those documents are first
+    // materialized, so that loading the project does not read and lex every file containing one.
+    final boolean lazy = DrJava.getConfig().getSetting(LAZY_PROJECT_LOADING).booleanValue();
+    
     // set breakpoints
-    for (DebugBreakpointData dbd: ir.getBreakpoints()) {
-      try {
-        File f = dbd.getFile();
-        if (! modifiedFiles.contains(f)) {
-          int lnr = dbd.getLineNumber();
-          OpenDefinitionsDocument odd = getDocumentForFile(f);
-          getDebugger().toggleBreakpoint(odd, odd._getOffset(lnr), dbd.isEnabled());
-        }
+    for (final DebugBreakpointData dbd: ir.getBreakpoints()) {
+      File f = dbd.getFile();
+      if (! modifiedFiles.contains(f)) {
+        final OpenDefinitionsDocument odd = getDocumentForFile(f);
+        _restoreRegion(odd, lazy, new Runnable() {
+          public void run() {
+            try { getDebugger().toggleBreakpoint(odd, odd._getOffset(dbd.getLineNumber()), dbd.isEnabled()); }
+            catch(DebugException de) { /* ignore, just don't add breakpoint */ }
+          }
+        });
       }
-      catch(DebugException de) { /* ignore, just don't add breakpoint */ }
     }
     
     //Set active document from project file
@@ -1963,19 +2098,23 @@ public class AbstractGlobalModel implements SingleDisplayModel, OptionConstants,
     for (IRegion bm: ir.getBookmarks()) {
       File f = bm.getFile();
       if (! modifiedFiles.contains(f)) {
-        OpenDefinitionsDocument odd = getDocumentForFile(f);
-        int start = bm.getStartOffset();
-        int end = bm.getEndOffset();
-        if (getOpenDefinitionsDocuments().contains(odd) && 
-            _bookmarkManager.getRegionsOverlapping(odd, start, end).size() == 0) { // bookmark is valid
-          try { 
-            int lineStart = odd._getLineStartPos(start);
-            int lineEnd = odd._getLineEndPos(end);
-            _bookmarkManager.addRegion(new MovingDocumentRegion(odd, start, end, lineStart, lineEnd)); 
+        final OpenDefinitionsDocument odd = getDocumentForFile(f);
+        final int start = bm.getStartOffset();
+        final int end = bm.getEndOffset();
+        _restoreRegion(odd, lazy, new Runnable() {
+          public void run() {
+            if (getOpenDefinitionsDocuments().contains(odd) && 
+                _bookmarkManager.getRegionsOverlapping(odd, start, end).size() == 0) { // bookmark is valid
+              try { 
+                int lineStart = odd._getLineStartPos(start);
+                int lineEnd = odd._getLineEndPos(end);
+                _bookmarkManager.addRegion(new MovingDocumentRegion(odd, start, end, lineStart, lineEnd)); 
+              }
+              catch(Exception e) { DrJavaErrorHandler.record(e); }  // should never happen
+            }
+            // should remove stale bookmark
           }
-          catch(Exception e) { DrJavaErrorHandler.record(e); }  // should never happen
-        }
-        // should remove stale bookmark
+        });
       }
     }
     
@@ -1989,6 +2128,49 @@ public class AbstractGlobalModel implements SingleDisplayModel, OptionConstants,
     if (_state.getAutoRefreshStatus()) openNewFilesInProject(); 
   }  // end _loadProject
   
+  /** Restores a breakpoint or bookmark loaded from a project file.  The restoration runs immediately unless lazy is
+    * true and doc is not resident, in which case it is deferred until doc is materialized (see 
+    * _runPendingRegionRestorations) or restorePendingRegions is called.
+    * @param doc the document containing the region
+    * @param lazy whether lazy project loading is enabled
+    * @param restoration the command that creates the region
+    */
+  private void _restoreRegion(OpenDefinitionsDocument doc, boolean lazy, Runnable restoration) {
+    if (! lazy || doc.isReady()) {
+      restoration.run();
+      return;
+    }
+    synchronized(_pendingRegionRestorations) {
+      List<Runnable> pending = _pendingRegionRestorations.get(doc);
+      if (pending == null) {
+        pending = new LinkedList<Runnable>();
+        _pendingRegionRestorations.put(doc, pending);
+      }
+      pending.add(restoration);
+    }
+  }
+  
+  /** Runs the region restorations deferred for doc, if any.  Only runs in the event thread.
+    * @param doc the document that has been materialized
+    */
+  private void _runPendingRegionRestorations(OpenDefinitionsDocument doc) {
+    List<Runnable> pending;
+    synchronized(_pendingRegionRestorations) { pending = _pendingRegionRestorations.remove(doc); }
+    if (pending != null) { for (Runnable r: pending) r.run(); }
+  }
+  
+  /** Restores all breakpoints and bookmarks whose restoration was deferred by lazy project loading, materializing
+    * the documents that contain them.  Called before the regions are needed in full, e.g., when the debugger starts
+    * or the project is saved.  Only runs in the event thread.
+    */
+  protected void restorePendingRegions() {
+    List<OpenDefinitionsDocument> docs;
+    synchronized(_pendingRegionRestorations) {
+      docs = new ArrayList<OpenDefinitionsDocument>(_pendingRegionRestorations.keySet());
+    }
+    for (OpenDefinitionsDocument doc: docs) _runPendingRegionRestorations(doc);
+  }
+  
   /** Perform an auto-refresh of the project, adding new source files to the project. */
   public void autoRefreshProject() { openNewFilesInProject(); }
   
@@ -2112,6 +2294,7 @@ public class AbstractGlobalModel implements SingleDisplayModel, OptionConstants,
     _log.log("_documentsRepos = " + _documentsRepos);
     boolean found;
     synchronized(_documentsRepos) { found = (_documentsRepos.remove(doc.getRawFile()) != null); }
+    synchronized(_pendingRegionRestorations) { _pendingRegionRestorations.remove(doc); }
     
     if (! found) {
       _log.log("Cannot close " + doc + "; not found!");
@@ -2223,6 +2406,7 @@ public class AbstractGlobalModel implements SingleDisplayModel, OptionConstants,
   
   /** Prepares this model to be thrown away.  Never called outside of tests. This version ignores the slave JVM. */
   public void dispose() {
+    _fileLoader.dispose();
     synchronized(_documentsRepos) { 
       closeAllFiles();
       _documentsRepos.clear();
@@ -2986,6 +3170,12 @@ public class AbstractGlobalModel implements SingleDisplayModel, OptionConstants,
     /** Sets the cached _packageName for the preceding method. */  
     public void setPackage(String name)   { _packageName = name; }
     
+    /** Sets the image of this document as read from disk before the DefinitionsDocument has been constructed, so that
+      * the reconstructor does not read the file again.  Has no effect once the image has been set.
+      * @param image the Swing text of the file
+      */
+    void setInitialImage(String image) { if (_image == null) _image = image; }
+    
     /**  @return the name of the package currently embedded in document. */
     public String getPackageNameFromDocument() { return getDocument().getPackageName(); }
     
@@ -3136,6 +3326,15 @@ public class AbstractGlobalModel implements SingleDisplayModel, OptionConstants,
 //          System.err.println ("_packageName in make() = " + _packageName);
 //          System.err.println("tempDoc.getLength() = " + tempDoc.getLength());
           _packageName = newDefDoc.getPackageName();
+          
+          // Restore any regions deferred by lazy project loading once the cache has installed the new document
+          boolean pending;
+          synchronized(_pendingRegionRestorations) { pending = _pendingRegionRestorations.containsKey(ConcreteOpenDefDoc.this); }
+          if (pending) {
+            EventQueue.invokeLater(new Runnable() {
+              public void run() { _runPendingRegionRestorations(ConcreteOpenDefDoc.this); }
+            });
+          }
 //          System.err.println("make() returned " + newDefDoc);
           return newDefDoc;
         }
@@ -4133,8 +4332,23 @@ public class AbstractGlobalModel implements SingleDisplayModel, OptionConstants,
    * @throws AlreadyOpenException if the file is already open
    */
   private OpenDefinitionsDocument _rawOpenFile(File file) throws IOException, AlreadyOpenException{
+    return _rawOpenFile(ParallelFileLoader.loadFile(file));
+  }
+  
+  /** Creates an OpenDefinitionsDocument for a file that has already been read by a ParallelFileLoader.  The text
+    * read by the loader becomes the document's initial image, so the file is not read again, and the package name
+    * found by the loader is used so the DefinitionsDocument need not be constructed until it is displayed.
+    * @param loaded the loaded file
+    * @return the newly-opened document
+    * @throws IOException if the loader could not read the file
+    * @throws AlreadyOpenException if the file is already open
+    */
+  private OpenDefinitionsDocument _rawOpenFile(ParallelFileLoader.LoadedFile loaded) 
+    throws IOException, AlreadyOpenException {
+    File file = loaded.getFile();
     OpenDefinitionsDocument openDoc = _getOpenDocument(file);
     if (openDoc != null) throw new AlreadyOpenException(openDoc); // handled in MainFrame.openFile(...)
+    if (loaded.getError() != null) throw loaded.getError();
     final ConcreteOpenDefDoc doc = _createOpenDefinitionsDocument(file);
     if (file instanceof DocFile) {
       DocFile df = (DocFile)file;
@@ -4149,7 +4363,11 @@ public class AbstractGlobalModel implements SingleDisplayModel, OptionConstants,
     }
     else {
 //      Utilities.show("Opened a file " + file.getName() + " that is not a DocFile");
-      doc.setPackage(doc.getPackageNameFromDocument()); // get the package name from the file; forces file to be read
+      if (loaded.getText() != null) {
+        doc.setInitialImage(loaded.getText());
+        doc.setPackage(loaded.getPackageName());
+      }
+      else doc.setPackage(doc.getPackageNameFromDocument()); // get the package name from the file; forces file to be read
     }
     return doc;
   }
@@ -4183,6 +4401,14 @@ public class AbstractGlobalModel implements SingleDisplayModel, OptionConstants,
    */
   protected void addDocToClassPath(OpenDefinitionsDocument doc) { }
   
+  /** Adds a batch of newly opened documents to the classpath for the slave JVM.  Equivalent to calling 
+    * addDocToClassPath on each document in order; overridden in DefaultGlobalModel to avoid redundant updates.
+    * @param docs the docs to be added
+    */
+  protected void addDocsToClassPath(List<OpenDefinitionsDocument> docs) {
+    for (OpenDefinitionsDocument doc: docs) addDocToClassPath(doc);
+  }
+  
   /** Creates a document from a file.
    * @param file File to read document from
    * @return openened document
@@ -4192,13 +4418,17 @@ public class AbstractGlobalModel implements SingleDisplayModel, OptionConstants,
   public OpenDefinitionsDocument _openFile(File file) throws IOException, AlreadyOpenException {
     
     OpenDefinitionsDocument doc = _rawOpenFile(file);
-    _completeOpenFile(doc);
+    _completeOpenFile(doc, true);
     return doc;
   }
   
-  private void _completeOpenFile(OpenDefinitionsDocument d) {
+  /** Performs the view-related and bookkeeping steps of opening a document.
+    * @param d the newly opened document
+    * @param addToClassPath whether to add d to the classpath here; false if the caller adds a batch of documents
+    */
+  private void _completeOpenFile(OpenDefinitionsDocument d, boolean addToClassPath) {
     addDocToNavigator(d);
-    addDocToClassPath(d);
+    if (addToClassPath) addDocToClassPath(d);
     
     try {
       File f = d.getFile();
@@ -78,9 +78,9 @@ public class BrowserHistoryManager extends EventNotifier<RegionManagerListener<B
       // Notify listeners of this event
       Utilities.invokeLater(new Runnable() { 
         public void run() {
-          _lock.startRead();
+          final long start = startDispatch();
           try { for (RegionManagerListener<BrowserDocumentRegion> l: _listeners) { l.regionAdded(r); } } 
-          finally { _lock.endRead(); }
+          finally { endDispatch("regionAdded", start); }
         } 
       });
       
@@ -113,9 +113,9 @@ public class BrowserHistoryManager extends EventNotifier<RegionManagerListener<B
       // Notify listeners of this event
       Utilities.invokeLater(new Runnable() { 
         public void run() {
-          _lock.startRead();
+          final long start = startDispatch();
           try { for (RegionManagerListener<BrowserDocumentRegion> l: _listeners) { l.regionAdded(r); } } 
-          finally { _lock.endRead(); }
+          finally { endDispatch("regionAdded", start); }
         } 
       });
       
@@ -153,9 +153,9 @@ public class BrowserHistoryManager extends EventNotifier<RegionManagerListener<B
     // Notify listeners of this event
     Utilities.invokeLater(new Runnable() { 
       public void run() {
-        _lock.startRead();
+        final long start = startDispatch();
         try { for (RegionManagerListener<BrowserDocumentRegion> l: _listeners) { l.regionRemoved(r); } } 
-        finally { _lock.endRead(); }
+        finally { endDispatch("regionRemoved", start); }
       } 
     });
   }
@@ -172,9 +172,9 @@ public class BrowserHistoryManager extends EventNotifier<RegionManagerListener<B
     // Notify listeners of this event
     Utilities.invokeLater(new Runnable() { 
       public void run() {
-        _lock.startRead();
+        final long start = startDispatch();
         try { for (RegionManagerListener<BrowserDocumentRegion> l: _listeners) { l.regionRemoved(r); } } 
-        finally { _lock.endRead(); }
+        finally { endDispatch("regionRemoved", start); }
       } 
     });
   }
@@ -244,10 +244,10 @@ public class BrowserHistoryManager extends EventNotifier<RegionManagerListener<B
     cmd.value(region);
     Utilities.invokeLater(new Runnable() { public void run() {
       // notify
-      _lock.startRead();
+      final long start = startDispatch();
       try {
         for (RegionManagerListener<BrowserDocumentRegion> l: _listeners) { l.regionChanged(region); }
-      } finally { _lock.endRead(); }            
+      } finally { endDispatch("regionChanged", start); }            
     } });
   }
   
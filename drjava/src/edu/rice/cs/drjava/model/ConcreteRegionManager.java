@@ -341,9 +341,9 @@ public class ConcreteRegionManager<R extends OrderedDocumentRegion> extends
     // only notify if the region was actually added
     if (! alreadyPresent) {
       // notify.  invokeLater unnecessary if it only runs in the event thread
-      _lock.startRead();
+      final long start = startDispatch();
       try { for (RegionManagerListener<R> l: _listeners) { l.regionAdded(region); } } 
-      finally { _lock.endRead(); }
+      finally { endDispatch("regionAdded", start); }
     }
   }
   
@@ -374,9 +374,9 @@ public class ConcreteRegionManager<R extends OrderedDocumentRegion> extends
   }
   
   private void _notifyRegionRemoved(final R region) {
-    _lock.startRead();
+    final long start = startDispatch();
     try { for (RegionManagerListener<R> l: _listeners) { l.regionRemoved(region); } } 
-    finally { _lock.endRead(); }
+    finally { endDispatch("regionRemoved", start); }
   }
   
   /** Remove the specified document from _documents and _regions (removing all 
@@ -474,9 +474,9 @@ public class ConcreteRegionManager<R extends OrderedDocumentRegion> extends
     * @param region the region that changed
     */
   public void notifyChangedRegion(final R region) {
-    _lock.startRead();
+    final long start = startDispatch();
     try { for (RegionManagerListener<R> l: _listeners) { l.regionChanged(region); } } 
-    finally { _lock.endRead(); }
+    finally { endDispatch("regionChanged", start); }
   }
   
   /** Updates _lineStartPos, _lineEndPos of regions in the interval 
@@ -41,6 +41,7 @@ import java.awt.EventQueue;
 
 import java.io.*;
 
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Vector;
@@ -241,8 +242,7 @@ public class DefaultGlobalModel extends AbstractGlobalModel {
     };
     _jvmStarter.start();
     
-// Lightweight parsing has been disabled until we have something that is beneficial and works better in the background.    
-//    _parsingControl = new DefaultLightWeightParsingControl(this);
+    _parsingControl = new DefaultLightWeightParsingControl(this);
   }
 
   // makes the version coarser, if desired: if DISPLAY_ALL_COMPILER_VERSIONS is disabled, then only
@@ -435,6 +435,7 @@ public class DefaultGlobalModel extends AbstractGlobalModel {
   public void dispose() {
     ensureJVMStarterFinished();
     _jvm.dispose();
+    _fileLoader.dispose();
     _notifier.removeAllListeners();  // removes the global model listeners!
   }
 
@@ -775,6 +776,31 @@ public class DefaultGlobalModel extends AbstractGlobalModel {
     }
   }
   
+  /** Adds the distinct source roots of docs to the interactions classpath.  Documents opened together usually share
+    * a handful of source roots, and each addition is a call into the interpreter JVM, so each root is added only once,
+    * at the position of its last occurrence; since adding an entry moves it to the front of its classpath, the
+    * resulting classpath is the same as that produced by adding the roots one document at a time.
+    * @param docs the docs to add to the classpath
+    */
+  protected void addDocsToClassPath(List<OpenDefinitionsDocument> docs) {
+    LinkedHashSet<Pair<File, Boolean>> roots = new LinkedHashSet<Pair<File, Boolean>>();
+    for (OpenDefinitionsDocument doc: docs) {
+      try {
+        Pair<File, Boolean> root = Pair.make(doc.getSourceRoot(), doc.isAuxiliaryFile());
+        roots.remove(root);
+        roots.add(root);
+      }
+      catch (InvalidPackageException e) {
+        // Invalid package-- don't add it to classpath
+      }
+    }
+    for (Pair<File, Boolean> root: roots) {
+      if (root.second()) { _interactionsModel.addProjectFilesClassPath(root.first()); }
+      else { _interactionsModel.addExternalFilesClassPath(root.first()); }
+    }
+    if (! roots.isEmpty()) setClassPathChanged(true);
+  }
+  
   private void _setupDebugger() {
     _jvm.setDebugModel(_debugger.callback());
     
@@ -809,7 +835,7 @@ public class DefaultGlobalModel extends AbstractGlobalModel {
       public void regionAdded(final Breakpoint bp) { }
       public void regionChanged(final Breakpoint bp) { }
       public void regionRemoved(final Breakpoint bp) { }
-      public void debuggerStarted() { }
+      public void debuggerStarted() { restorePendingRegions(); }
       public void debuggerShutdown() { }
       public void threadLocationUpdated(OpenDefinitionsDocument doc, int lineNumber, boolean shouldHighlight) { }
       public void breakpointReached(final Breakpoint bp) { }
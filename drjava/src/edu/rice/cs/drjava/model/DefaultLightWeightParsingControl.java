@@ -36,106 +36,95 @@
 
 package edu.rice.cs.drjava.model;
 
-import java.util.List;
-import java.util.LinkedList;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
 import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import javax.swing.Timer;
+import javax.swing.event.DocumentEvent;
 import javax.swing.text.*;
 
 import edu.rice.cs.drjava.DrJava;
 import edu.rice.cs.drjava.config.OptionConstants;
 import edu.rice.cs.drjava.model.definitions.*;
-import edu.rice.cs.drjava.ui.DrJavaErrorHandler;
 import edu.rice.cs.util.Log;
 import edu.rice.cs.util.swing.Utilities;
 
-/** Default light-weight parsing control.  This class is declared final because it cannot be robustly subclassed because
-  * the constructor starts a thread.
+/** Default light-weight parsing control.  Updates are driven by events rather than by polling: every delay (caret
+  * movement), edit, and change of the active document restarts a single-shot Swing timer, and the active document is
+  * updated in the event thread once the timer expires.  No thread runs while the user is idle.
+  * 
+  * For each document, the control keeps an outline of the regions whose enclosing class name is known.  The enclosing
+  * class of a position only depends on the text before it, and only changes across a brace, so each name is recorded
+  * for the whole brace-free region around the position where it was computed.  An edit at some offset discards just
+  * the regions after that offset, and truncates the one containing it; names before the edit remain known.
   * @version $Id$
   */
 public final class DefaultLightWeightParsingControl implements LightWeightParsingControl {
   /** The model. */
-  private AbstractGlobalModel _model;
+  private final AbstractGlobalModel _model;
   
-  /** The time at which updates may be performed. */
-  private long _beginUpdates;
+  /** Single-shot timer that performs an update of the active document once the delay expires. */
+  private final Timer _timer;
   
-  /** The time at which the last delay operation was performed. */
-  private long _lastDelay = System.currentTimeMillis();
+  /** Outlines of the documents that have been updated. */
+  private final HashMap<OpenDefinitionsDocument, Outline> _outlines = new HashMap<OpenDefinitionsDocument, Outline>();
   
-  /** Last updates for the documents. */
-  private HashMap<OpenDefinitionsDocument, Long> _lastUpdates = new HashMap<OpenDefinitionsDocument, Long>();
-
   /** Enclosing class names for the documents. */
-  private HashMap<OpenDefinitionsDocument, String> _enclosingClassNames = new HashMap<OpenDefinitionsDocument, String>();
+  private final HashMap<OpenDefinitionsDocument, String> _enclosingClassNames =
+    new HashMap<OpenDefinitionsDocument, String>();
   
   /** Flag to stop automatic updates. */
   private volatile boolean _running = false;
   
-  /** Monitor to restart automatic updates. */
-  private Object _restart = new Object();
-  
   /** List of listeners. */
-  private LinkedList<LightWeightParsingListener> _listeners = new LinkedList<LightWeightParsingListener>();
+  private final LinkedList<LightWeightParsingListener> _listeners = new LinkedList<LightWeightParsingListener>();
   
   /** Log file. */
   private static final Log _log = new Log("LightWeightParsing", false);
   
-  /** Thread group for the updater. */
-  private ThreadGroup _updaterThreadGroup = new ThreadGroup("Light-weight parsing updater thread group") {
-    public void uncaughtException(Thread t, Throwable e) {
-      _log.log("Uncaught exception in updater; disabled for rest of session", e);
-      DrJavaErrorHandler.record(e);
-    }
-  };
-  
-  /** Thread to perform automatic updates. */
-  private Thread _updater = new Thread(_updaterThreadGroup, new Runnable() {
-    public void run() {
-      while(true) { // this is ok, it's a daemon thread and will die when all other threads have died
-        while (!_running) {
-          _log.log("Waiting...");
-          try { synchronized(_restart) { if (! _running)  _restart.wait(); } }
-          catch(InterruptedException e) { }
-        }
-        long current = System.currentTimeMillis();
-        long delta = (_beginUpdates-current);
-        // _log.logTime("Begin updates at " + _beginUpdates + " (delta=" + delta + ")");
-        if (current>=_beginUpdates) {
-          OpenDefinitionsDocument doc = _model.getActiveDocument();
-          Long last = _lastUpdates.get(doc);
-          if ((last == null) || (last < _lastDelay)) {
-            update(doc);
-            // _log.logTime("Update done.");
-          }
-          else {
-            // _log.logTime("Not updating, last update was at " + last);
-          }
-          delta = DrJava.getConfig().getSetting(OptionConstants.DIALOG_LIGHTWEIGHT_PARSING_DELAY).intValue();
-        }
-        // _log.logTime("Not updating, sleeping for " + delta);
-        try {
-          Thread.sleep(delta);
-        }
-        catch (InterruptedException e) { /* ignore, just wake up earlier and retry */ }
-      }
-    }
-  });
+  /** The number of characters read at a time when scanning for the braces around a position. */
+  private static final int SCAN_CHUNK_SIZE = 1024;
   
-  /** Create the default light-weight parsing control.  Starts a new thread.
+  /** Create the default light-weight parsing control.
     * @param model the model */
   public DefaultLightWeightParsingControl(AbstractGlobalModel model) {
     _model = model;
-    _updater.setDaemon(true);
-    _updater.start();
+    _timer = new Timer(_getDelay(), new ActionListener() {
+      public void actionPerformed(ActionEvent e) {
+        if (! _running) return;
+        OpenDefinitionsDocument doc = _model.getActiveDocument();
+        if (doc != null) update(doc);
+      }
+    });
+    _timer.setRepeats(false);
+    _model.addListener(new DummyGlobalModelListener() {
+      public void activeDocumentChanged(OpenDefinitionsDocument active) { delay(); }
+      public void fileClosed(OpenDefinitionsDocument doc) { _forget(doc); }
+    });
   }
   
-  /** Perform light-weight parsing. */
+  /** Perform light-weight parsing.  Only runs in the event thread. */
   public synchronized void update(final OpenDefinitionsDocument doc) {
     _log.log("Update for " + doc);
     try {
-      _lastUpdates.put(doc, System.currentTimeMillis());
+      Outline outline = _outlines.get(doc);
+      if (outline == null) {
+        outline = new Outline(doc);
+        _outlines.put(doc, outline);
+        doc.addDocumentListener(outline);
+      }
+      final int pos = doc.getCurrentLocation();
+      String name = outline.lookup(pos);
+      if (name == null) {
+        name = doc.getEnclosingClassName(pos, true);
+        outline.record(pos, name);
+      }
       final String old = _enclosingClassNames.get(doc);
-      final String updated = doc.getEnclosingClassName(doc.getCurrentLocation(), true);
+      final String updated = name;
       if ((old == null) || (!old.equals(updated))) {
         _enclosingClassNames.put(doc, updated);
         Utilities.invokeLater(new Runnable() {
@@ -156,18 +145,15 @@ public final class DefaultLightWeightParsingControl implements LightWeightParsin
   public void setAutomaticUpdates(boolean b) {
     _log.log("setAutomaticUpdates(" + b + ")");
     _running = b;
-    if (b) {
-      delay();
-      synchronized(_restart) {
-        _restart.notify();
-      }
-    }
+    if (b) delay();
+    else _timer.stop();
   }
   
   /** Delay the next update. */
   public void delay() {
-    _lastDelay = System.currentTimeMillis();
-    _beginUpdates = _lastDelay + (DrJava.getConfig().getSetting(OptionConstants.DIALOG_LIGHTWEIGHT_PARSING_DELAY).intValue());
+    if (! _running) return;
+    _timer.setInitialDelay(_getDelay());
+    _timer.restart();
   }
   
   /** Reset light-weight parsing. Forget everything. */
@@ -182,12 +168,14 @@ public final class DefaultLightWeightParsingControl implements LightWeightParsin
       });
     }
     _enclosingClassNames.clear();
-    _lastUpdates.clear();
+    for (Map.Entry<OpenDefinitionsDocument, Outline> e: _outlines.entrySet()) {
+      e.getKey().removeDocumentListener(e.getValue());
+    }
+    _outlines.clear();
   }
   
   /** Return the last enclosing class name for the specified document, "" if not inside a class, or
     * null if unknown.
-    * WARNING: In long source files and when contained in anonymous inner classes, this function might take a LONG time.
     * @param doc the document for which we want the information
     * @return the enclosing class name
     */
@@ -207,4 +195,86 @@ public final class DefaultLightWeightParsingControl implements LightWeightParsin
   public synchronized List<LightWeightParsingListener> getListeners() {
     return new LinkedList<LightWeightParsingListener>(_listeners);
   }
-}
\ No newline at end of file
+  
+  /** Forget everything about a closed document. */
+  private synchronized void _forget(OpenDefinitionsDocument doc) {
+    _enclosingClassNames.remove(doc);
+    Outline outline = _outlines.remove(doc);
+    if (outline != null) doc.removeDocumentListener(outline);
+  }
+  
+  private static int _getDelay() {
+    return DrJava.getConfig().getSetting(OptionConstants.DIALOG_LIGHTWEIGHT_PARSING_DELAY).intValue();
+  }
+  
+  /** The known enclosing class names of a document, by region.  A region is a maximal range of positions with no
+    * brace between them, so every position in it has the same enclosing class.  It is a DocumentUIListener so that it
+    * stays attached when the document is reconstructed.
+    */
+  private class Outline implements DocumentUIListener {
+    private final OpenDefinitionsDocument _doc;
+    /** Maps the first position of each known region to the region. */
+    private final TreeMap<Integer, Region> _regions = new TreeMap<Integer, Region>();
+    
+    public Outline(OpenDefinitionsDocument doc) { _doc = doc; }
+    
+    /** @return the enclosing class name at pos, or null if it is not known */
+    public String lookup(int pos) {
+      Map.Entry<Integer, Region> e = _regions.floorEntry(pos);
+      return (e != null && pos <= e.getValue().last) ? e.getValue().name : null;
+    }
+    
+    /** Records the enclosing class name at pos for the region containing pos.  The region is found by scanning
+      * outward from pos in chunks, so only the text up to the nearest braces is read. */
+    public void record(int pos, String name) {
+      try {
+        int length = _doc.getLength();
+        pos = Math.min(pos, length);
+        int first = pos;
+        backward: while (first > 0) {
+          int start = Math.max(0, first - SCAN_CHUNK_SIZE);
+          String chunk = _doc.getText(start, first - start);
+          for (int i = chunk.length(); i > 0; --i) {
+            if (_isBrace(chunk.charAt(i - 1))) { first = start + i; break backward; }
+          }
+          first = start;
+        }
+        int last = pos;
+        forward: while (last < length) {
+          String chunk = _doc.getText(last, Math.min(SCAN_CHUNK_SIZE, length - last));
+          for (int i = 0; i < chunk.length(); ++i) {
+            if (_isBrace(chunk.charAt(i))) { last += i; break forward; }
+          }
+          last += chunk.length();
+        }
+        _regions.put(first, new Region(last, name));
+      }
+      catch (BadLocationException e) { /* the document changed during the scan; leave the region unknown */ }
+    }
+    
+    /** Discards the names of positions after offset, which may have changed. */
+    public void invalidate(int offset) {
+      _regions.tailMap(offset, false).clear();
+      Map.Entry<Integer, Region> e = _regions.floorEntry(offset);
+      if (e != null && e.getValue().last > offset) _regions.put(e.getKey(), new Region(offset, e.getValue().name));
+    }
+    
+    public void insertUpdate(DocumentEvent e) { _edited(e); }
+    public void removeUpdate(DocumentEvent e) { _edited(e); }
+    public void changedUpdate(DocumentEvent e) { }
+    
+    private void _edited(DocumentEvent e) {
+      synchronized(DefaultLightWeightParsingControl.this) { invalidate(e.getOffset()); }
+      delay();
+    }
+  }
+  
+  /** A region of an outline: the position of its last character, and the enclosing class name of its positions. */
+  private static class Region {
+    public final int last;
+    public final String name;
+    public Region(int l, String n) { last = l; name = n; }
+  }
+  
+  private static boolean _isBrace(char c) { return c == '{' || c == '}'; }
+}
@@ -0,0 +1,140 @@
+/*BEGIN_COPYRIGHT_BLOCK
+ *
+ * Copyright (c) 2001-2017, JavaPLT group at Rice University (drjava@rice.edu)
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    * Redistributions of source code must retain the above copyright
+ *      notice, this list of conditions and the following disclaimer.
+ *    * Redistributions in binary form must reproduce the above copyright
+ *      notice, this list of conditions and the following disclaimer in the
+ *      documentation and/or other materials provided with the distribution.
+ *    * Neither the names of DrJava, the JavaPLT group, Rice University, nor the
+ *      names of its contributors may be used to endorse or promote products
+ *      derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This software is Open Source Initiative approved Open Source Software.
+ * Open Source Initative Approved is a trademark of the Open Source Initiative.
+ * 
+ * This file is part of DrJava.  Download the current version of this project
+ * from http://www.drjava.org/ or http://sourceforge.net/projects/drjava/
+ * 
+ * END_COPYRIGHT_BLOCK*/
+
+package edu.rice.cs.drjava.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import javax.swing.text.BadLocationException;
+
+import edu.rice.cs.drjava.model.definitions.ClassNameNotFoundException;
+import edu.rice.cs.util.UnexpectedException;
+import edu.rice.cs.util.swing.Utilities;
+
+/** Tests the incremental outline maintained by DefaultLightWeightParsingControl.
+  * @version $Id$
+  */
+public final class DefaultLightWeightParsingControlTest extends GlobalModelTestCase {
+  
+  private static final String TEXT =
+    "class A {\n" +
+    "  int a;\n" +
+    "  class B {\n" +
+    "    int b;\n" +
+    "  }\n" +
+    "  int c;\n" +
+    "}\n";
+  
+  private volatile DefaultLightWeightParsingControl _control;
+  
+  public void setUp() throws Exception {
+    super.setUp();
+    _control = new DefaultLightWeightParsingControl(_model);
+  }
+  
+  /** Moves the caret to the given position, updates the control, and returns the name it reports. */
+  private String _updateAt(final OpenDefinitionsDocument doc, final int pos) {
+    Utilities.invokeAndWait(new Runnable() {
+      public void run() {
+        doc.setCurrentLocation(pos);
+        _control.update(doc);
+      }
+    });
+    return _control.getEnclosingClassName(doc);
+  }
+  
+  /** Computes the enclosing class name at the given position from scratch. */
+  private String _computeAt(OpenDefinitionsDocument doc, int pos) {
+    try { return doc.getEnclosingClassName(pos, true); }
+    catch (BadLocationException e) { throw new UnexpectedException(e); }
+    catch (ClassNameNotFoundException e) { throw new UnexpectedException(e); }
+  }
+  
+  /** Tests that recorded names are reused within their regions and agree with a full computation. */
+  public void testNamesByRegion() throws BadLocationException {
+    OpenDefinitionsDocument doc = setupDocument(TEXT);
+    int[] positions = { TEXT.indexOf("int a"), TEXT.indexOf("a;"), TEXT.indexOf("int b"), TEXT.indexOf("b;"),
+      TEXT.indexOf("int c") };
+    for (int pos : positions) {
+      assertEquals("name at " + pos, _computeAt(doc, pos), _updateAt(doc, pos));
+    }
+    assertFalse("nested class", _updateAt(doc, TEXT.indexOf("int b")).equals(_updateAt(doc, TEXT.indexOf("int a"))));
+  }
+  
+  /** Tests that an edit discards the names after it, and that listeners are told about changed names. */
+  public void testEditInvalidatesFollowingRegions() throws BadLocationException {
+    final OpenDefinitionsDocument doc = setupDocument(TEXT);
+    final List<String> updates = new ArrayList<String>();
+    _control.addListener(new LightWeightParsingListener() {
+      public void enclosingClassNameUpdated(OpenDefinitionsDocument d, String old, String updated) {
+        updates.add(updated);
+      }
+    });
+    int b = TEXT.indexOf("int b");
+    String before = _updateAt(doc, b);
+    String a = _updateAt(doc, TEXT.indexOf("int a"));
+    assertEquals("listener notified of each change", 2, updates.size());
+    
+    // make "int b" part of a new class C nested in B
+    final int insertPos = TEXT.indexOf("    int b");
+    Utilities.invokeAndWait(new Runnable() {
+      public void run() {
+        try { doc.insertString(insertPos, "class C {\n", null); }
+        catch (BadLocationException e) { throw new UnexpectedException(e); }
+      }
+    });
+    int newB = b + "class C {\n".length();
+    String after = _updateAt(doc, newB);
+    assertEquals("recomputed after edit", _computeAt(doc, newB), after);
+    assertFalse("name changed by edit", before.equals(after));
+    assertEquals("name before the edit kept", a, _updateAt(doc, TEXT.indexOf("int a")));
+  }
+  
+  /** Tests regions that are longer than the chunks in which the text around a position is scanned. */
+  public void testLongRegions() throws BadLocationException {
+    StringBuilder filler = new StringBuilder();
+    for (int i = 0; i < 300; i++) filler.append("  int f").append(i).append(";\n");
+    String text = "class A {\n" + filler + "  class B {\n" + filler + "  }\n" + filler + "}\n";
+    OpenDefinitionsDocument doc = setupDocument(text);
+    int openB = text.indexOf("class B {") + "class B {".length();
+    int closeB = text.indexOf("  }\n");
+    int[] positions = { 10, text.indexOf("int f150"), openB - 1, openB, openB + 1, openB + filler.length() / 2,
+      closeB, closeB + 3, text.length() - 3 };
+    for (int pos : positions) {
+      assertEquals("name at " + pos, _computeAt(doc, pos), _updateAt(doc, pos));
+    }
+  }
+}
@@ -3,8 +3,11 @@ package edu.rice.cs.drjava.model;
 import edu.rice.cs.drjava.DrJavaTestCase;
 import edu.rice.cs.util.UnexpectedException;
 import edu.rice.cs.plt.io.IOUtil;
+import edu.rice.cs.util.swing.Utilities;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
 import javax.swing.text.BadLocationException;
 import javax.swing.text.Position;
 
@@ -192,4 +195,69 @@ public class DocumentRegionTest extends DrJavaTestCase {
     assertTrue("No region found", rm.getRegionsOverlapping(_doc, 2, 5).size() == 0);
     assertTrue("No region found", rm.getRegionsOverlapping(_doc, 5, 8).size() == 0);
   }
+  
+  /** Tests that a RegionSet only reports the regions touched by an edit, and restores its order after a removal.
+   * @throws Exception if the edits fail
+   */
+  public void testRegionSetChanges() throws Exception {
+    _doc.insertString(0, DOCUMENT_TEXT, null);
+    ConcreteRegionManager<MovingDocumentRegion> rm = new ConcreteRegionManager<MovingDocumentRegion>();
+    rm.requireNotification();
+    final List<MovingDocumentRegion> changed = new ArrayList<MovingDocumentRegion>();
+    rm.addListener(new RegionManagerListener<MovingDocumentRegion>() {
+      public void regionAdded(MovingDocumentRegion r) { }
+      public void regionChanged(MovingDocumentRegion r) { changed.add(r); }
+      public void regionRemoved(MovingDocumentRegion r) { }
+    });
+    MovingDocumentRegion r1 = _region(7, 12);   // "class"
+    MovingDocumentRegion r2 = _region(13, 16);  // "Foo"
+    MovingDocumentRegion r3 = _region(16, 17);  // "\n"
+    MovingDocumentRegion r4 = _region(42, 47);  // "Barry"
+    rm.addRegion(r4);
+    rm.addRegion(r3);
+    rm.addRegion(r2);
+    rm.addRegion(r1);
+    
+    // an insertion inside r2 touches only r2
+    _doc.insertString(14, "x", null);
+    _flushEvents();
+    assertEquals("regions changed by insertion", 1, changed.size());
+    assertSame("region changed by insertion", r2, changed.get(0));
+    
+    // a removal inside r4 touches only r4; several removals in one pass are reported once
+    changed.clear();
+    Utilities.invokeAndWait(new Runnable() { public void run() {
+      try { _doc.remove(44, 1); _doc.remove(44, 1); }
+      catch (BadLocationException e) { throw new UnexpectedException(e); }
+    } });
+    _flushEvents();
+    assertEquals("regions changed by removal", 1, changed.size());
+    assertSame("region changed by removal", r4, changed.get(0));
+    
+    // removing [8, 10) moves the end of a to that of b, so a now follows b
+    RegionSet<StaticDocumentRegion> set = new RegionSet<StaticDocumentRegion>();
+    StaticDocumentRegion a = new StaticDocumentRegion(_doc, 8, 9);
+    StaticDocumentRegion b = new StaticDocumentRegion(_doc, 2, 10);
+    StaticDocumentRegion c = new StaticDocumentRegion(_doc, 20, 30);
+    set.add(a);
+    set.add(b);
+    set.add(c);
+    _doc.remove(8, 2);
+    _flushEvents();
+    assertEquals("regions after rebalance", 3, set.size());
+    assertSame("first region", b, set.first());
+    assertSame("last region", c, set.last());
+    assertTrue("a found", set.contains(a));
+    assertTrue("b found", set.contains(b));
+  }
+  
+  private MovingDocumentRegion _region(int start, int end) {
+    return new MovingDocumentRegion(_doc, start, end, _doc._getLineStartPos(start), _doc._getLineEndPos(end));
+  }
+  
+  /** Waits until all pending event-queue tasks, including coalesced region notifications, have run. */
+  private static void _flushEvents() {
+    Utilities.invokeAndWait(new Runnable() { public void run() { } });
+    Utilities.invokeAndWait(new Runnable() { public void run() { } });
+  }
 }
@@ -45,6 +45,7 @@ import java.util.HashMap;
 import java.util.List;
 
 import edu.rice.cs.util.AbsRelFile;
+import edu.rice.cs.plt.lambda.Runnable1;
 import edu.rice.cs.util.FileOpenSelector;
 import edu.rice.cs.util.OperationCanceledException;
 
@@ -185,6 +186,14 @@ public class DummyGlobalModel implements GlobalModel {
     throw new UnsupportedOperationException("Tried to call openFolder on a Dummy");
   }
   
+  public void openFolderInBackground(File dir, boolean rec, String ext) {
+    throw new UnsupportedOperationException("Tried to call openFolderInBackground on a Dummy");
+  }
+  
+  public void openFilesInBackground(File[] files, Runnable1<? super List<OpenDefinitionsDocument>> continuation) {
+    throw new UnsupportedOperationException("Tried to call openFilesInBackground on a Dummy");
+  }
+  
   public void setAutoRefreshStatus(boolean status) { 
     throw new UnsupportedOperationException("Tried to call setAutoRefreshStatus on a Dummy"); 
   }
@@ -578,9 +587,8 @@ public class DummyGlobalModel implements GlobalModel {
     throw new UnsupportedOperationException("Tried to call setCustomManifest on a Dummy!");
   }
   
-// Any lightweight parsing has been disabled until we have something that is beneficial and works better in the background.
-//  /** @return the parsing control */
-//  public LightWeightParsingControl getParsingControl() {
-//    throw new UnsupportedOperationException("Tried to call getParsingControl on a Dummy!");
-//  }
+  /** @return the parsing control */
+  public LightWeightParsingControl getParsingControl() {
+    throw new UnsupportedOperationException("Tried to call getParsingControl on a Dummy!");
+  }
 }
@@ -87,6 +87,9 @@ public class DummyGlobalModelListener extends DummyInteractionsListener implemen
   /** Called when a compile has finished running. */
   public void compileEnded(File workDir, List<? extends File> excludedFiles) { }
   
+  /** Called when another batch of errors is available during a compile. */
+  public void compileErrorsReported() { }
+  
   /** Called if a compile is aborted. */
   public void compileAborted(Exception e) { }
 
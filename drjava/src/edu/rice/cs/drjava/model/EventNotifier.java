@@ -36,80 +36,97 @@
 
 package edu.rice.cs.drjava.model;
 
-import java.util.LinkedList;
-import edu.rice.cs.util.ReaderWriterLock;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
 
 /** Base class for all component-specific EventNotifiers.  This class provides common methods to 
   * manage listeners of a specific type.  T the type of the listener class to be managed.
   * @version $Id$
   */
 public abstract class EventNotifier<T> {
-  /** All T Listeners that are listening to the model.  Accesses to this collection are protected by the 
-    * ReaderWriterLock. The collection must be synchronized, since multiple readers could access it at once.
+  /** All T Listeners that are listening to the model.  Notifications iterate over a snapshot of this list, so they
+    * never block or take a lock, and listeners may be added or removed at any time (even by a listener that is being
+    * notified).  Listeners change rarely, so copying the list on each change is cheap.
     */
-  protected final LinkedList<T> _listeners = new LinkedList<T>();
+  protected final CopyOnWriteArrayList<T> _listeners = new CopyOnWriteArrayList<T>();
   
-  /** Provides synchronization primitives for solving the readers/writers problem.  In EventNotifier, adding and 
-    * removing listeners are considered write operations, and all notifications are considered read operations. Multiple 
-    * reads can occur simultaneously, but only one write can occur at a time, and no reads can occur during a write.
-    */
-  protected final ReaderWriterLock _lock = new ReaderWriterLock();
+  /** Dispatch statistics for each event sent by this notifier, keyed by event name. */
+  private final ConcurrentHashMap<String, DispatchCounter> _dispatchCounters =
+    new ConcurrentHashMap<String, DispatchCounter>();
   
   /** Adds a listener to the notifier.
     * @param listener a listener that reacts on events
     */
-  public void addListener(T listener) {
-    _lock.startWrite();
-    try { _listeners.add(listener); }
-    finally { _lock.endWrite(); }
-  }
+  public void addListener(T listener) { _listeners.add(listener); }
   
-  /** Removes a listener from the notifier. If the thread already holds the lock,
-    * then the listener is removed later, but as soon as possible.
-    * Note: It is NOT guaranteed that the listener will not be executed again.
+  /** Removes a listener from the notifier.
+    * Note: A notification that is already in progress may still reach the listener.
     * @param listener a listener that reacts on events
     */
-  public void removeListener(final T listener) {
-    try {
-      _lock.startWrite();
-      try { _listeners.remove(listener); }
-      finally { _lock.endWrite(); }
-    }
-    catch(ReaderWriterLock.DeadlockException e) {
-      // couldn't remove right now because this thread already owns a lock
-      // remember to remove it later
-      new Thread(new Runnable() {
-        public void run() {
-          _lock.startWrite();
-          try { _listeners.remove(listener); }
-          finally { _lock.endWrite(); }
-        }
-      }, "Pending Listener Removal").start();
-//      synchronized(_listenersToRemove) {
-//        _listenersToRemove.add(listener);
-//      }
+  public void removeListener(T listener) { _listeners.remove(listener); }
+  
+  /** Removes all listeners from this notifier.
+    * Note: A notification that is already in progress may still reach the removed listeners.
+    */
+  public void removeAllListeners() { _listeners.clear(); }
+  
+  /** Marks the start of a notification.  Subclasses notify their listeners with
+    * <pre>
+    * final long start = startDispatch();
+    * try { for (T l : _listeners) { l.event(...); } }
+    * finally { endDispatch("event", start); }
+    * </pre>
+    * @return the start time to pass to {@link #endDispatch}
+    */
+  protected static long startDispatch() { return System.nanoTime(); }
+  
+  /** Records the completion of a notification in the counters for the given event.
+    * @param event the name of the event (normally the listener method)
+    * @param start the value returned by {@link #startDispatch} at the start of the notification
+    */
+  protected void endDispatch(String event, long start) {
+    long elapsed = System.nanoTime() - start;
+    DispatchCounter counter = _dispatchCounters.get(event);
+    if (counter == null) {
+      counter = new DispatchCounter();
+      DispatchCounter previous = _dispatchCounters.putIfAbsent(event, counter);
+      if (previous != null) { counter = previous; }
     }
+    counter.record(elapsed);
   }
   
-  /** Removes all listeners from this notifier.  If the thread already holds the lock,
-    * then the listener is removed later, but as soon as possible.
-    * Note: It is NOT guaranteed that the listener will not be executed again. */
-  public void removeAllListeners() {
-    try { 
-      _lock.startWrite();
-      try { _listeners.clear(); }
-      finally { _lock.endWrite(); }
+  /** @return the dispatch statistics for each event this notifier has sent, keyed by event name */
+  public Map<String, DispatchCounter> getDispatchCounters() { return Collections.unmodifiableMap(_dispatchCounters); }
+  
+  /** The number of times an event was sent and the time spent notifying its listeners. */
+  public static class DispatchCounter {
+    private final AtomicLong _count = new AtomicLong();
+    private final AtomicLong _totalNanos = new AtomicLong();
+    private final AtomicLong _maxNanos = new AtomicLong();
+    
+    void record(long nanos) {
+      _count.incrementAndGet();
+      _totalNanos.addAndGet(nanos);
+      long max = _maxNanos.get();
+      while (nanos > max && ! _maxNanos.compareAndSet(max, nanos)) { max = _maxNanos.get(); }
     }
-    catch(ReaderWriterLock.DeadlockException e) {
-      // couldn't remove right now because this thread already owns a lock
-      // remember to remove it later
-      new Thread(new Runnable() {
-        public void run() {
-          _lock.startWrite();
-          try { _listeners.clear(); }
-          finally { _lock.endWrite(); }
-        }
-      }, "Pending Listener Removal").start();
+    
+    /** @return the number of notifications */
+    public long getCount() { return _count.get(); }
+    
+    /** @return the total time spent in notifications, in nanoseconds */
+    public long getTotalNanos() { return _totalNanos.get(); }
+    
+    /** @return the time spent in the longest notification, in nanoseconds */
+    public long getMaxNanos() { return _maxNanos.get(); }
+    
+    public String toString() {
+      long count = getCount();
+      long mean = (count == 0) ? 0 : getTotalNanos() / count;
+      return count + " dispatches, mean " + (mean / 1000) + "us, max " + (getMaxNanos() / 1000) + "us";
     }
   }
 }
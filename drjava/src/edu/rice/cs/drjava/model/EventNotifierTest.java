@@ -90,6 +90,47 @@ public final class EventNotifierTest extends DrJavaTestCase {
     listener2.assertInterpreterExitedCount(0);
   }
   
+  /** Checks that a listener can remove listeners while it is being notified, that the removal takes effect
+    * immediately, and that the notification in progress still reaches every listener it started with.
+    */
+  public void testRemoveListenersDuringNotification() {
+    final TestListener listener2 = new TestListener() {
+      public void junitSuiteStarted(int numTests) { junitSuiteStartedCount++; }
+    };
+    TestListener listener1 = new TestListener() {
+      public void junitSuiteStarted(int numTests) {
+        junitSuiteStartedCount++;
+        _notifier.removeListener(this);
+        _notifier.removeListener(listener2);
+      }
+    };
+    
+    _notifier.addListener(listener1);
+    _notifier.addListener(listener2);
+    _notifier.junitSuiteStarted(1);
+    listener1.assertJUnitSuiteStartedCount(1);
+    listener2.assertJUnitSuiteStartedCount(1);
+    
+    _notifier.junitSuiteStarted(1);
+    listener1.assertJUnitSuiteStartedCount(1);
+    listener2.assertJUnitSuiteStartedCount(1);
+  }
+  
+  /** Checks that each notification is counted under its event name. */
+  public void testDispatchCounters() {
+    _notifier.addListener(new TestListener() {
+      public void interpreterExited(int status) { interpreterExitedCount++; }
+    });
+    _notifier.interpreterExited(0);
+    _notifier.interpreterExited(1);
+    _notifier.projectModified();
+    
+    assertEquals("interpreterExited dispatches", 2,
+                 _notifier.getDispatchCounters().get("interpreterExited").getCount());
+    assertEquals("projectModified dispatches", 1, _notifier.getDispatchCounters().get("projectModified").getCount());
+    assertNull("no junitStarted dispatches", _notifier.getDispatchCounters().get("junitStarted"));
+  }
+  
   /** Checks that the notifier can poll multiple listeners.
    */
   public void testPollListeners() {
@@ -58,34 +58,32 @@ import edu.rice.cs.util.swing.AsyncTask;
   * TODO: remove direct references to GlobalEventNotifier outside of DefaultGlobalModel
   * TODO: remove public modifier from this class when above has happened
   *
-  * All methods in this class must use the synchronization methods provided by ReaderWriterLock.  This ensures that 
-  * multiple notifications (reads) can occur simultaneously, but only one thread can be adding or removing listeners 
-  * (writing) at a time, and no reads can occur during a write.
+  * All notifications iterate over a snapshot of the listeners (see EventNotifier), so they never block, and
+  * listeners may be added or removed at any time, even by a listener during a notification.
   * <p>
   * <i>No</i> methods on this class should be synchronized using traditional Java synchronization!
   * <p>
   * @version $Id$
   */
-// QUESTION: why are we still using _lock operations?  All notifiers should run in the event thread.
 
 public class GlobalEventNotifier extends EventNotifier<GlobalModelListener>
   implements GlobalModelListener /*, Serializable */ {
   
   public <P,R> void executeAsyncTask(AsyncTask<P,R> task, P param, boolean showProgress, boolean lockUI) {
-    _lock.startRead();
+    final long start = startDispatch();
     try { for (GlobalModelListener l : _listeners) { l.executeAsyncTask(task, param, showProgress, lockUI); } }
-    finally { _lock.endRead(); }
+    finally { endDispatch("executeAsyncTask", start); }
   }
   
   public void filesNotFound(File... f) {
-    _lock.startRead();
+    final long start = startDispatch();
     try { for (GlobalModelListener l : _listeners) { l.filesNotFound(f); } }
-    finally { _lock.endRead(); }
+    finally { endDispatch("filesNotFound", start); }
   }
   
   /** @return the intersection of all the return values from the listeners. */
   public File[] filesReadOnly(File... f) {
-    _lock.startRead();
+    final long start = startDispatch();
     java.util.LinkedList<File> files = new java.util.LinkedList<File>();
     for(File fi: f) { files.add(fi); }
     try {
@@ -94,7 +92,7 @@ public class GlobalEventNotifier extends EventNotifier<GlobalModelListener>
         files.retainAll(retry);
       }
     }
-    finally { _lock.endRead(); }
+    finally { endDispatch("filesReadOnly", start); }
     return files.toArray(new File[files.size()]);
   }
   
@@ -104,52 +102,52 @@ public class GlobalEventNotifier extends EventNotifier<GlobalModelListener>
    * @param doc  {@code true} if the user wishes to revert the document, {@code false} to ignore
    */
   public void handleAlreadyOpenDocument(OpenDefinitionsDocument doc) {
-    _lock.startRead();
+    final long start = startDispatch();
     try { for(GlobalModelListener l : _listeners) { l.handleAlreadyOpenDocument(doc); } }
-    finally { _lock.endRead(); }
+    finally { endDispatch("handleAlreadyOpenDocument", start); }
   }
   
   /* -------------- project state ------------------*/
   public void openProject(File pfile, FileOpenSelector files) {
-    _lock.startRead();
+    final long start = startDispatch();
     try { for (GlobalModelListener l : _listeners) { l.openProject(pfile, files); } }
-    finally { _lock.endRead(); }
+    finally { endDispatch("openProject", start); }
   }
   
   public void projectClosed() {
-    _lock.startRead();
+    final long start = startDispatch();
     try { for (GlobalModelListener l : _listeners) { l.projectClosed();} }
-    finally { _lock.endRead(); }
+    finally { endDispatch("projectClosed", start); }
   }
   
   public void allFilesClosed() {
-    _lock.startRead();
+    final long start = startDispatch();
     try { for (GlobalModelListener l : _listeners) { l.allFilesClosed();} }
-    finally { _lock.endRead(); }
+    finally { endDispatch("allFilesClosed", start); }
   }
    
   public void projectModified() {
-    _lock.startRead();
+    final long start = startDispatch();
     try { for (GlobalModelListener l : _listeners) { l.projectModified(); } }
-    finally { _lock.endRead(); }
+    finally { endDispatch("projectModified", start); }
   }
   
   public void projectBuildDirChanged() {
-    _lock.startRead();
+    final long start = startDispatch();
     try { for (GlobalModelListener l : _listeners) { l.projectBuildDirChanged(); } }
-    finally { _lock.endRead(); }
+    finally { endDispatch("projectBuildDirChanged", start); }
   }
   
   public void projectWorkDirChanged() {
-    _lock.startRead();
+    final long start = startDispatch();
     try { for (GlobalModelListener l : _listeners) { l.projectWorkDirChanged(); } }
-    finally { _lock.endRead(); }
+    finally { endDispatch("projectWorkDirChanged", start); }
   }
   
   public void projectRunnableChanged() {
-    _lock.startRead();
+    final long start = startDispatch();
     try { for (GlobalModelListener l : _listeners) { l.projectRunnableChanged(); } }
-    finally { _lock.endRead(); }
+    finally { endDispatch("projectRunnableChanged", start); }
   }
   
   
@@ -159,9 +157,9 @@ public class GlobalEventNotifier extends EventNotifier<GlobalModelListener>
     * @param n tells the listener what happened.
     */
   public void notifyListeners(Notifier n) {
-    _lock.startRead();
+    final long start = startDispatch();
     try { for (GlobalModelListener l : _listeners) { n.notifyListener(l); } }
-    finally { _lock.endRead(); }
+    finally { endDispatch("notifyListeners", start); }
   }
   
   /** Allows the GlobalModel to ask its listeners a yes/no question and receive a response.
@@ -172,12 +170,12 @@ public class GlobalEventNotifier extends EventNotifier<GlobalModelListener>
     */
   @Deprecated
   public boolean pollListeners(Poller p) {
-    _lock.startRead();
+    final long start = startDispatch();
     try {
       for (GlobalModelListener l: _listeners) { if (! p.poll(l)) return false; }
       return true;
     }
-    finally { _lock.endRead(); }
+    finally { endDispatch("pollListeners", start); }
   }
   
   /** Class model for notifying listeners of an event.
@@ -204,152 +202,152 @@ public class GlobalEventNotifier extends EventNotifier<GlobalModelListener>
   
   /** Called when a file's main method is about to be run. */
   public void prepareForRun(OpenDefinitionsDocument doc) {
-    _lock.startRead();
+    final long start = startDispatch();
     try { for (GlobalModelListener l : _listeners) { l.prepareForRun(doc); } }
-    finally { _lock.endRead(); }
+    finally { endDispatch("prepareForRun", start); }
   }
   
   /** Called after a new document is created. */
   public void newFileCreated(OpenDefinitionsDocument doc) {
-    _lock.startRead();
+    final long start = startDispatch();
     try { for (GlobalModelListener l : _listeners) { l.newFileCreated(doc); } }
-    finally { _lock.endRead(); }
+    finally { endDispatch("newFileCreated", start); }
   }
   
   /** Called when the console window is reset. */
   public void consoleReset() {
-    _lock.startRead();
+    final long start = startDispatch();
     try { for (GlobalModelListener l : _listeners) { l.consoleReset(); } }
-    finally { _lock.endRead(); }
+    finally { endDispatch("consoleReset", start); }
   }
   
   /** Called after the current document is saved. */
   public void fileSaved(OpenDefinitionsDocument doc) {
 //    ScrollableDialog sd = new ScrollableDialog(null, "fileSaved(" + doc + ") called in GlobalEventNotifier.java", "", "");
 //    sd.show();
-    _lock.startRead();
+    final long start = startDispatch();
     try { for (GlobalModelListener l : _listeners) { l.fileSaved(doc); } }
-    finally { _lock.endRead(); }
+    finally { endDispatch("fileSaved", start); }
   }
   
   /** Called after a file is opened and read into the current document. */
   public void fileOpened(OpenDefinitionsDocument doc) {
-    _lock.startRead();
+    final long start = startDispatch();
     try { for (GlobalModelListener l : _listeners) { l.fileOpened(doc); } }
-    finally { _lock.endRead(); }
+    finally { endDispatch("fileOpened", start); }
   }
   
   /** Called after a document is closed. */
   public void fileClosed(OpenDefinitionsDocument doc) {
-    _lock.startRead();
+    final long start = startDispatch();
     try { for (GlobalModelListener l : _listeners) { l.fileClosed(doc); } }
-    finally { _lock.endRead(); }
+    finally { endDispatch("fileClosed", start); }
   }
   
   /** Called after a document is reverted. */
   public void fileReverted(OpenDefinitionsDocument doc) {
-    _lock.startRead();
+    final long start = startDispatch();
     try { for (GlobalModelListener l : _listeners) { l.fileReverted(doc); } }
-    finally { _lock.endRead(); }
+    finally { endDispatch("fileReverted", start); }
   }
   
   /** Called when an undoable edit occurs. */
   public void undoableEditHappened() {
-    _lock.startRead();
+    final long start = startDispatch();
     try { for (GlobalModelListener l : _listeners) { l.undoableEditHappened(); } }
-    finally { _lock.endRead(); }
+    finally { endDispatch("undoableEditHappened", start); }
   }
   
   /** Called to ask the listeners if it is OK to abandon the current document. */
   public boolean canAbandonFile(OpenDefinitionsDocument doc) {
-    _lock.startRead();
+    final long start = startDispatch();
     try {
       for (GlobalModelListener l: _listeners) { if (! l.canAbandonFile(doc)) return false; }
       return true;
     }
-    finally { _lock.endRead(); }
+    finally { endDispatch("canAbandonFile", start); }
   }
   
   /** Called to ask the listeners save the file before quitting at the user's option.
     * @return true if quitting should continue, false if the user cancelled */
   public boolean quitFile(OpenDefinitionsDocument doc) {
-    _lock.startRead();
+    final long start = startDispatch();
     try {
       // if one of the listeners returns false (=user cancelled), abort
       for (GlobalModelListener l: _listeners) { if (!l.quitFile(doc)) return false; }
     }
-    finally { _lock.endRead(); }
+    finally { endDispatch("quitFile", start); }
     return true;
   }
   
   /** Called to ask the listeners if it is OK to revert the current document to the version saved on disk. */
   public boolean shouldRevertFile(OpenDefinitionsDocument doc) {
-    _lock.startRead();
+    final long start = startDispatch();
     try { 
       for (GlobalModelListener l: _listeners) { if (! l.shouldRevertFile(doc)) return false; }
       return true;
     }
-    finally { _lock.endRead(); }
+    finally { endDispatch("shouldRevertFile", start); }
   }
   
   /** Called when the selection in the navigator changes the current directory without changing the active document. */
   public void currentDirectoryChanged(File dir) {
-    _lock.startRead();
+    final long start = startDispatch();
     try { for (GlobalModelListener l : _listeners) { l.currentDirectoryChanged(dir); } }
-    finally { _lock.endRead(); }
+    finally { endDispatch("currentDirectoryChanged", start); }
   }
   
   /** Called when the selection in the navigator changes the active document. */
   public void activeDocumentChanged(OpenDefinitionsDocument active) {
-    _lock.startRead();
+    final long start = startDispatch();
     try { for (GlobalModelListener l : _listeners) { l.activeDocumentChanged(active); } }
-    finally { _lock.endRead(); }
+    finally { endDispatch("activeDocumentChanged", start); }
   }
   
   /** Called when the active document is refreshed.  */
   public void activeDocumentRefreshed(OpenDefinitionsDocument active) {
-    _lock.startRead();
+    final long start = startDispatch();
     try { for (GlobalModelListener l : _listeners) { l.activeDocumentRefreshed(active); } }
-    finally { _lock.endRead(); }
+    finally { endDispatch("activeDocumentRefreshed", start); }
   }
   
   /** Called to shift the focus to the Definitions Pane. */
   public void focusOnDefinitionsPane() {
-    _lock.startRead();
+    final long start = startDispatch();
     try { for (GlobalModelListener l : _listeners) { l.focusOnDefinitionsPane(); } }
-    finally { _lock.endRead(); }
+    finally { endDispatch("focusOnDefinitionsPane", start); }
   }
   
   /** Called to shift the focus to the last focus owner among the main frame panes. */
   public void focusOnLastFocusOwner() {
-    _lock.startRead();
+    final long start = startDispatch();
     try { for (GlobalModelListener l : _listeners) { l.focusOnLastFocusOwner(); } }
-    finally { _lock.endRead(); }
+    finally { endDispatch("focusOnLastFocusOwner", start); }
   }
 //  /** Called to demand that all files be saved before running the main method of a document. It is up to the caller
 //    * of this method to check if the documents have been saved, using IGetDocuments.hasModifiedDocuments(). This is
 //    * nor used currently, but it is commented out in case it is needed later. 
 //    */
 //  public void saveBeforeRun() {
-//    _lock.startRead();
+//    final long start = startDispatch();
 //    try { for (GlobalModelListener l : _listeners) { l.saveBeforeRun(); } }
-//    finally { _lock.endRead(); }
+//    finally { endDispatch("saveBeforeRun", start); }
 //  }
   
   //------------------------------ Interactions ------------------------------//
   
   /** Called after an interaction is started by the GlobalModel. */
   public void interactionStarted() {
-    _lock.startRead();
+    final long start = startDispatch();
     try { for (GlobalModelListener l : _listeners) { l.interactionStarted(); } }
-    finally { _lock.endRead(); }
+    finally { endDispatch("interactionStarted", start); }
   }
   
   /** Called when an interaction has finished running. */
   public void interactionEnded() {
-    _lock.startRead();
+    final long start = startDispatch();
     try { for (GlobalModelListener l : _listeners) { l.interactionEnded(); } }
-    finally { _lock.endRead(); }
+    finally { endDispatch("interactionEnded", start); }
   }
   
   /** Called when the interactions window generates a syntax error.
@@ -357,23 +355,23 @@ public class GlobalEventNotifier extends EventNotifier<GlobalModelListener>
     * @param length the length of the error.
     */
   public void interactionErrorOccurred(int offset, int length) {
-    _lock.startRead();
+    final long start = startDispatch();
     try { for (GlobalModelListener l : _listeners) { l.interactionErrorOccurred(offset, length); } }
-    finally { _lock.endRead(); }
+    finally { endDispatch("interactionErrorOccurred", start); }
   }
   
   /** Called when the interactionsJVM has begun resetting. */
   public void interpreterResetting() {
-    _lock.startRead();
+    final long start = startDispatch();
     try { for (GlobalModelListener l : _listeners) { l.interpreterResetting(); } }
-    finally { _lock.endRead(); }
+    finally { endDispatch("interpreterResetting", start); }
   }
   
   /** Called when the interactions window is reset. */
   public void interpreterReady(File wd) {
-    _lock.startRead();
+    final long start = startDispatch();
     try { for (GlobalModelListener l : _listeners) { l.interpreterReady(wd); } }
-    finally { _lock.endRead(); }
+    finally { endDispatch("interpreterReady", start); }
   }
   
   /** Called if the interpreter reset failed.
@@ -381,9 +379,9 @@ public class GlobalEventNotifier extends EventNotifier<GlobalModelListener>
     * (Subclasses must maintain listeners.)
     */
   public void interpreterResetFailed(final Throwable t) {
-    _lock.startRead();
+    final long start = startDispatch();
     try { for (GlobalModelListener l : _listeners) { l.interpreterResetFailed(t); } }
-    finally { _lock.endRead(); }
+    finally { endDispatch("interpreterResetFailed", start); }
   }
   
   /** Called when the interactions JVM was closed by System.exit or by being aborted. Immediately after this the
@@ -391,9 +389,9 @@ public class GlobalEventNotifier extends EventNotifier<GlobalModelListener>
     * @param status the exit code
     */
   public void interpreterExited(int status) {
-    _lock.startRead();
+    final long start = startDispatch();
     try { for (GlobalModelListener l : _listeners) { l.interpreterExited(status); } }
-    finally { _lock.endRead(); }
+    finally { endDispatch("interpreterExited", start); }
   }
   
   /** Called when the active interpreter is changed.
@@ -401,55 +399,62 @@ public class GlobalEventNotifier extends EventNotifier<GlobalModelListener>
     *        event will be fired)
     */
   public void interpreterChanged(boolean inProgress) {
-    _lock.startRead();
+    final long start = startDispatch();
     try { for (GlobalModelListener l : _listeners) { l.interpreterChanged(inProgress); } }
-    finally { _lock.endRead(); }
+    finally { endDispatch("interpreterChanged", start); }
   }
   
   //-------------------------------- Compiler --------------------------------//
   
   /** Called after a compile is started by the GlobalModel. */
   public void compileStarted() {
-    _lock.startRead();
+    final long start = startDispatch();
     try { for (GlobalModelListener l : _listeners) { l.compileStarted(); }
     }
-    finally { _lock.endRead(); }
+    finally { endDispatch("compileStarted", start); }
   }
   
   /** Called when a compile has finished running. */
   public void compileEnded(File workDir, List<? extends File> excludedFiles) {
-    _lock.startRead();
+    final long start = startDispatch();
     try { for (GlobalModelListener l : _listeners) { l.compileEnded(workDir, excludedFiles); } }
-    finally { _lock.endRead(); }
+    finally { endDispatch("compileEnded", start); }
+  }
+  
+  /** Called when another batch of errors is available during a compile. */
+  public void compileErrorsReported() {
+    final long start = startDispatch();
+    try { for (GlobalModelListener l : _listeners) { l.compileErrorsReported(); } }
+    finally { endDispatch("compileErrorsReported", start); }
   }
   
    /** Called if a compile is aborted. */
   public void compileAborted(Exception e) {
-    _lock.startRead();
+    final long start = startDispatch();
     try { for (GlobalModelListener l : _listeners) { l.compileAborted(e); } }
-    finally { _lock.endRead(); }
+    finally { endDispatch("compileAborted", start); }
   }
   /** Called to demand that all files be saved before compiling. It is up to the caller of this method to check
     * if the documents have been saved, using IGetDocuments.hasModifiedDocuments().
     */
   public void saveBeforeCompile() {
-    _lock.startRead();
+    final long start = startDispatch();
     try { for (GlobalModelListener l : _listeners) { l.saveBeforeCompile(); } }
-    finally { _lock.endRead(); }
+    finally { endDispatch("saveBeforeCompile", start); }
   }
   
   /** Called to demand that the active document, which is untitled, is saved before compiling.  */
   public void saveUntitled() {
-    _lock.startRead();
+    final long start = startDispatch();
     try { for (GlobalModelListener l : _listeners) { l.saveUntitled(); } }
-    finally { _lock.endRead(); }
+    finally { endDispatch("saveUntitled", start); }
   }
   
   /** Called after the active compiler has been changed. */
   public void activeCompilerChanged() {
-    _lock.startRead();
+    final long start = startDispatch();
     try { for (GlobalModelListener l : _listeners) { l.activeCompilerChanged(); } }
-    finally { _lock.endRead(); }
+    finally { endDispatch("activeCompilerChanged", start); }
   }
   
   //---------------------------------- JUnit ---------------------------------//
@@ -459,18 +464,18 @@ public class GlobalEventNotifier extends EventNotifier<GlobalModelListener>
     * @param didCompileFail whether or not a compile before this JUnit attempt failed
     */
   public void nonTestCase(boolean isTestAll, boolean didCompileFail) {
-    _lock.startRead();
+    final long start = startDispatch();
     try { for (GlobalModelListener l : _listeners) { l.nonTestCase(isTestAll, didCompileFail); } }
-    finally { _lock.endRead(); }
+    finally { endDispatch("nonTestCase", start); }
   }
   
   /** Called when trying to test an illegal class file.
     * @param e the ClassFileError thrown when DrJava attempted to load the offending file
     */
   public void classFileError(ClassFileError e) {
-    _lock.startRead();
+    final long start = startDispatch();
     try { for (GlobalModelListener l : _listeners) { l.classFileError(e); } }
-    finally { _lock.endRead(); }
+    finally { endDispatch("classFileError", start); }
   }
   
   /** Called before attempting unit testing if tested class files are out of sync, to give the user a chance to save. Do
@@ -478,41 +483,41 @@ public class GlobalEventNotifier extends EventNotifier<GlobalModelListener>
     */
   public void compileBeforeJUnit(final CompilerListener cl, List<OpenDefinitionsDocument> outOfSync) {
 //    Utilities.show("compileBeforeJUnit invoked with argument " + cl + " in GlobalEventNotifier " + this);
-    _lock.startRead();
+    final long start = startDispatch();
     try { for (GlobalModelListener l : _listeners) { l.compileBeforeJUnit(cl, outOfSync); } }
-    finally { _lock.endRead(); }
+    finally { endDispatch("compileBeforeJUnit", start); }
   }
   
   /** Called after JUnit is started by the GlobalModel. */
   public void junitStarted() {
-    _lock.startRead();
+    final long start = startDispatch();
     try { for (GlobalModelListener l : _listeners) { l.junitStarted(); } }
-    finally { _lock.endRead(); }
+    finally { endDispatch("junitStarted", start); }
   }
   
   /** Called when testing specific list of classes. */
   public void junitClassesStarted() {
-    _lock.startRead();
+    final long start = startDispatch();
     try { for (GlobalModelListener l : _listeners) { l.junitClassesStarted(); } }
-    finally { _lock.endRead(); }
+    finally { endDispatch("junitClassesStarted", start); }
   }
   
   /** Called to indicate that a suite of tests has started running.
     * @param numTests The number of tests in the suite to be run.
     */
   public void junitSuiteStarted(int numTests) {
-    _lock.startRead();
+    final long start = startDispatch();
     try { for (GlobalModelListener l : _listeners) { l.junitSuiteStarted(numTests); } }
-    finally { _lock.endRead(); }
+    finally { endDispatch("junitSuiteStarted", start); }
   }
   
   /** Called when a particular test is started.
     * @param name The name of the test being started.
     */
   public void junitTestStarted(String name) {
-    _lock.startRead();
+    final long start = startDispatch();
     try { for (GlobalModelListener l : _listeners) { l.junitTestStarted(name); } }
-    finally { _lock.endRead(); }
+    finally { endDispatch("junitTestStarted", start); }
   }
   
   /** Called when a particular test has ended.
@@ -521,32 +526,32 @@ public class GlobalEventNotifier extends EventNotifier<GlobalModelListener>
     * @param causedError if not successful, whether the test caused an error or simply failed
     */
   public void junitTestEnded(String name, boolean wasSuccessful, boolean causedError) {
-    _lock.startRead();
+    final long start = startDispatch();
     try { 
       for (GlobalModelListener l : _listeners) { l.junitTestEnded(name, wasSuccessful, causedError); }
     }
-    finally { _lock.endRead(); }
+    finally { endDispatch("junitTestEnded", start); }
   }
   
   /** Called after JUnit is finished running tests. */
   public void junitEnded() {
-    _lock.startRead();
+    final long start = startDispatch();
     try { for (GlobalModelListener l : _listeners) { l.junitEnded(); } }
-    finally { _lock.endRead(); }
+    finally { endDispatch("junitEnded", start); }
   }
   
 //  /** Called to demand that all files be saved before running JUnit tests. It is up to the caller of this 
 //    * method to check if the documents have been saved, using IGetDocuments.hasModifiedDocuments(). This is 
 //    * never called currently, but it is commented out in case it is needed later. */
 //  public void saveBeforeJUnit() {
-//    _lock.startRead();
+//    final long start = startDispatch();
 //    try {
 //      for (GlobalModelListener l : _listeners) {
 //        l.saveBeforeJUnit();
 //      }
 //    }
 //    finally {
-//      _lock.endRead();
+//      endDispatch("saveBeforeJUnit", start);
 //    }
 //  }
   
@@ -554,9 +559,9 @@ public class GlobalEventNotifier extends EventNotifier<GlobalModelListener>
   
   /** Called after Javadoc is started by the GlobalModel. */
   public void javadocStarted() {
-    _lock.startRead();
+    final long start = startDispatch();
     try { for (GlobalModelListener l : _listeners) { l.javadocStarted(); } }
-    finally { _lock.endRead(); }
+    finally { endDispatch("javadocStarted", start); }
   }
   
   /** Called after Javadoc is finished.
@@ -565,9 +570,9 @@ public class GlobalEventNotifier extends EventNotifier<GlobalModelListener>
     * @param allDocs Whether Javadoc was run for all open documents
     */
   public void javadocEnded(boolean success, File destDir, boolean allDocs) {
-    _lock.startRead();
+    final long start = startDispatch();
     try { for (GlobalModelListener l : _listeners) { l.javadocEnded(success, destDir, allDocs); } }
-    finally { _lock.endRead(); }
+    finally { endDispatch("javadocEnded", start); }
   }
   
   
@@ -575,60 +580,60 @@ public class GlobalEventNotifier extends EventNotifier<GlobalModelListener>
     * doesn't save!
     */
   public void saveBeforeJavadoc() {
-    _lock.startRead();
+    final long start = startDispatch();
     try { for (GlobalModelListener l : _listeners) { l.saveBeforeJavadoc(); } }
-    finally { _lock.endRead(); }
+    finally { endDispatch("saveBeforeJavadoc", start); }
   }
 
   /** Called before attempting Javadoc, to give the user a chance to compile. Do not continue with Javadoc if the
     * user doesn't comoile!
     */
   public void compileBeforeJavadoc(final CompilerListener afterCompile) {
-    _lock.startRead();
+    final long start = startDispatch();
     try { for (GlobalModelListener l : _listeners) { l.compileBeforeJavadoc(afterCompile); } }
-    finally { _lock.endRead(); }
+    finally { endDispatch("compileBeforeJavadoc", start); }
   }
   
 //  /** Called to demand that all files be saved before starting the debugger. It is up to the caller of this method
 //    * to check if the documents have been saved, using IGetDocuments.hasModifiedDocuments(). This is not used 
 //    * currently, but it is commented out in case it is needed later. */
 //  public void saveBeforeDebug() {
-//    _lock.startRead();
+//    final long start = startDispatch();
 //    try { for (GlobalModelListener l : _listeners) { l.saveBeforeDebug(); } }
-//    finally { _lock.endRead(); }
+//    finally { endDispatch("saveBeforeDebug", start); }
 //  }
   
   /** Notifies the view that the current interaction is incomplete. */
   public void interactionIncomplete() {
-    _lock.startRead();
+    final long start = startDispatch();
     try { for (GlobalModelListener l : _listeners) { l.interactionIncomplete(); } }
-    finally { _lock.endRead(); }
+    finally { endDispatch("interactionIncomplete", start); }
   }
   
   /** Notifies the view that the current file path contains a #. */
   public void filePathContainsPound() {
-    _lock.startRead();
+    final long start = startDispatch();
     try { for (GlobalModelListener l : _listeners) { l.filePathContainsPound(); } }
-    finally { _lock.endRead(); }
+    finally { endDispatch("filePathContainsPound", start); }
   }
   
   // ----- Cache -----
   public void documentNotFound(OpenDefinitionsDocument d, File f) {
-    _lock.startRead();
+    final long start = startDispatch();
     try { for (GlobalModelListener l : _listeners) { l.documentNotFound(d,f); } }
-    finally { _lock.endRead(); } 
+    finally { endDispatch("documentNotFound", start); } 
   }
   
   // ----- BrowserHistory -----
   public void browserChanged() {
-    _lock.startRead();
+    final long start = startDispatch();
     try { for (GlobalModelListener l : _listeners) { l.browserChanged(); } }
-    finally { _lock.endRead(); } 
+    finally { endDispatch("browserChanged", start); } 
   }
 
   public void updateCurrentLocationInDoc() {
-    _lock.startRead();
+    final long start = startDispatch();
     try { for (GlobalModelListener l : _listeners) { l.updateCurrentLocationInDoc(); } }
-    finally { _lock.endRead(); } 
+    finally { endDispatch("updateCurrentLocationInDoc", start); } 
   }
 }
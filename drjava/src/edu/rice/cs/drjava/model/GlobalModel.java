@@ -56,6 +56,7 @@ import edu.rice.cs.drjava.model.repl.InteractionsScriptModel;
 import edu.rice.cs.drjava.model.javadoc.JavadocModel;
 import edu.rice.cs.drjava.project.DocumentInfoGetter;
 import edu.rice.cs.drjava.project.MalformedProjectFileException;
+import edu.rice.cs.plt.lambda.Runnable1;
 import edu.rice.cs.util.FileOpenSelector;
 import edu.rice.cs.util.OperationCanceledException;
 import edu.rice.cs.util.docnavigation.IDocumentNavigator;
@@ -216,6 +217,22 @@ public interface GlobalModel extends ILoadDocuments {
   public void openFolder(File dir, boolean rec, String ext)
     throws IOException, OperationCanceledException, AlreadyOpenException;
   
+  /** Opens all files in specified folder like openFolder, but reads the files on a background task with a cancelable
+    * progress monitor and adds the documents to the navigator in batches.  Returns immediately.
+    * @param dir the folder in which to open files
+    * @param rec true if the open should be recursive; false otherwise
+    * @param ext extension
+    */
+  public void openFolderInBackground(File dir, boolean rec, String ext);
+  
+  /** Opens the given files like openFiles, but reads them on a background task with a cancelable progress monitor
+    * and adds the documents to the navigator in batches.  Returns immediately.
+    * @param files the files to open
+    * @param continuation run in the event thread with the opened documents once all of them have been opened, 
+    *        or null
+    */
+  public void openFilesInBackground(File[] files, Runnable1<? super List<OpenDefinitionsDocument>> continuation);
+  
   /** Saves all open documents, prompting when necessary. 
    * @param com a FileSaveSelector
    * @throws IOException if an IO operation fails
@@ -41,6 +41,8 @@ import java.io.*;
 import javax.swing.text.BadLocationException;
 import javax.swing.text.Position;
 
+import edu.rice.cs.drjava.DrJava;
+import edu.rice.cs.drjava.config.OptionConstants;
 import edu.rice.cs.drjava.model.compiler.*;
 
 import static edu.rice.cs.plt.debug.DebugUtil.debug;
@@ -56,6 +58,8 @@ public final class GlobalModelCompileErrorsTest extends GlobalModelTestCase {
   
   private static final String FOO_MISSING_CLOSE_TEXT = "class DrJavaTestFoo {";
   private static final String BAR_MISSING_SEMI_TEXT = "class DrJavaTestBar { int x }";
+  private static final String FOO_THREE_ERRORS_TEXT = 
+    "class DrJavaTestFoo { int x = \"a\"; int y = \"b\"; int z = \"c\"; }";
   private static final String FOO_PACKAGE_AFTER_IMPORT = "import java.util.*;\npackage a;\n" + FOO_TEXT;
   private static final String FOO_PACKAGE_INSIDE_CLASS = "class DrJavaTestFoo { package a; }";
   private static final String FOO_PACKAGE_AS_FIELD = "class DrJavaTestFoo { int package; }";
@@ -249,6 +253,40 @@ public final class GlobalModelCompileErrorsTest extends GlobalModelTestCase {
     debug.logEnd();
   }
   
+  /** Tests that a compile stops once it goes past the configured error limit, and says so.
+   * @throws BadLocationException if attempts to reference an invalid location
+   * @throws IOException if an IO operation fails
+   * @throws InterruptedException if execution is interrupted unexpectedly
+   */
+  public void testCompileStopsAtErrorLimit() throws BadLocationException, IOException, InterruptedException {
+    final OpenDefinitionsDocument doc = setupDocument(FOO_THREE_ERRORS_TEXT);
+    final File file = tempFile();
+    saveFile(doc, new FileSelector(file));
+    
+    DrJava.getConfig().setSetting(OptionConstants.COMPILER_ERROR_LIMIT, 2);
+    try {
+      CompileShouldFailListener listener = new CompileShouldFailListener();
+      _model.addListener(listener);
+      testStartCompile(doc);
+      listener.waitCompileDone();
+      listener.checkCompileOccurred();
+      _model.removeListener(listener);
+    }
+    finally { DrJava.getConfig().setSetting(OptionConstants.COMPILER_ERROR_LIMIT, 0); }
+    
+    CompilerErrorModel cme = _model.getCompilerModel().getCompilerErrorModel();
+    assertEquals("two errors and the notice", 3, cme.getNumErrors());
+    assertEquals("notice is not counted as an error", 2, cme.getNumCompilerErrors());
+    assertEquals("notice is a warning", 1, cme.getNumWarnings());
+    boolean streaming = _model.getCompilerModel().getActiveCompiler() instanceof StreamingCompilerInterface;
+    String notice = streaming ? "Compilation stopped after 2 errors." : "Only the first 2 errors are shown.";
+    boolean foundNotice = false;
+    for (int i = 0; i < cme.getNumErrors(); i++) {
+      if (cme.getError(i).message().equals(notice)) foundNotice = cme.getError(i).isWarning();
+    }
+    assertTrue("notice that the compile was stopped", foundNotice);
+  }
+  
   /** Puts an otherwise valid package statement inside a class declaration. This better not work! 
    * @throws BadLocationException if attempts to reference an invalid location
    * @throws IOException if an IO operation fails
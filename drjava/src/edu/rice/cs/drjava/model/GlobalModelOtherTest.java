@@ -46,10 +46,12 @@ import java.util.Vector;
 import edu.rice.cs.drjava.DrJava;
 import edu.rice.cs.drjava.config.*;
 import edu.rice.cs.drjava.model.repl.*;
+import edu.rice.cs.util.FileOpenSelector;
 import edu.rice.cs.util.Log;
 import edu.rice.cs.util.UnexpectedException;
 import edu.rice.cs.util.text.EditDocumentException;
 import edu.rice.cs.util.swing.Utilities;
+import edu.rice.cs.plt.io.IOUtil;
 import edu.rice.cs.plt.iter.IterUtil;
 
 import static edu.rice.cs.plt.debug.DebugUtil.debug;
@@ -660,4 +662,92 @@ public final class GlobalModelOtherTest extends GlobalModelTestCase implements O
     debug.logEnd();
   }
   
+  /** Tests that with lazy project loading, the breakpoints and bookmarks of a project document that is not yet
+    * resident are restored when that document is first displayed.
+    */
+  public void testLazyProjectRegionRestoration() throws Exception {
+    debug.logStart();
+    
+    DrJava.getConfig().setSetting(LAZY_PROJECT_LOADING, Boolean.TRUE);
+    File dir = makeCanonical(new File(_tempDir, "bar"));
+    dir.mkdir();
+    File fooFile = new File(dir, "Foo.java");
+    IOUtil.writeStringToFile(fooFile, FOO_CLASS);
+    final File bazFile = new File(dir, "Baz.java");
+    IOUtil.writeStringToFile(bazFile, FOO_CLASS.replace("Foo", "Baz"));
+    
+    String timestamp = "01-Jan-2100 00:00:00";  // after the files were written, so they are not considered modified
+    String xml =
+      "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"no\"?>\n" +
+      "<drjava version=\"" + edu.rice.cs.drjava.Version.getVersionString() + "\">\n" +
+      "  <project root=\"\" build=\"\" work=\"\" main=\"\">\n" +
+      "    <source>\n" +
+      "      <file name=\"bar/Foo.java\" package=\"bar\" timestamp=\"" + timestamp + "\" active=\"true\">\n" +
+      "        <select from=\"0\" to=\"0\"/>\n" +
+      "        <scroll column=\"0\" row=\"0\"/>\n" +
+      "      </file>\n" +
+      "      <file name=\"bar/Baz.java\" package=\"bar\" timestamp=\"" + timestamp + "\">\n" +
+      "        <select from=\"0\" to=\"0\"/>\n" +
+      "        <scroll column=\"0\" row=\"0\"/>\n" +
+      "      </file>\n" +
+      "    </source>\n" +
+      "    <included>\n" +
+      "    </included>\n" +
+      "    <excluded>\n" +
+      "    </excluded>\n" +
+      "    <collapsed>\n" +
+      "    </collapsed>\n" +
+      "    <classpath>\n" +
+      "    </classpath>\n" +
+      "    <breakpoints>\n" +
+      "      <breakpoint file=\"bar/Baz.java\" line=\"4\" enabled=\"true\"/>\n" +
+      "    </breakpoints>\n" +
+      "    <watches>\n" +
+      "    </watches>\n" +
+      "    <bookmarks>\n" +
+      "      <bookmark file=\"bar/Baz.java\" from=\"13\" to=\"19\"/>\n" +
+      "    </bookmarks>\n" +
+      "  </project>\n" +
+      "</drjava>\n";
+    final File projFile = new File(_tempDir, "test.drjava");
+    IOUtil.writeStringToFile(projFile, xml);
+    
+    // open the project's files when notified, as MainFrame does
+    _model.addListener(new DummyGlobalModelListener() {
+      public void openProject(File pfile, FileOpenSelector files) {
+        try { _model.openFiles(files); }
+        catch (Exception e) { throw new UnexpectedException(e); }
+      }
+    });
+    Utilities.invokeAndWait(new Runnable() { 
+      public void run() {
+        try { _model.openProject(projFile); }
+        catch (Exception e) { throw new UnexpectedException(e); }
+      }
+    });
+    Utilities.clearEventQueue();
+    final OpenDefinitionsDocument baz = _model.getDocumentForFile(bazFile);
+    assertFalse("Baz should not be resident yet", baz.isReady());
+    assertEquals("Breakpoint should be deferred", 0, _model.getBreakpointManager().getRegions().size());
+    assertEquals("Bookmark should be deferred", 0, _model.getBookmarkManager().getRegions().size());
+    
+    // displaying the document materializes it; without a MainFrame, fetch the document as its pane would
+    Utilities.invokeAndWait(new Runnable() { 
+      public void run() { 
+        _model.setActiveDocument(baz);
+        baz.getDocument();
+      }
+    });
+    assertTrue("Baz should be resident", baz.isReady());
+    Utilities.clearEventQueue();
+    assertEquals("Breakpoint should be restored", 1, _model.getBreakpointManager().getRegions().size());
+    assertEquals("Breakpoint line", 4, _model.getBreakpointManager().getRegions().get(0).getLineNumber());
+    ArrayList<MovingDocumentRegion> bms = _model.getBookmarkManager().getRegions();
+    assertEquals("Bookmark should be restored", 1, bms.size());
+    assertSame("Bookmark document", baz, bms.get(0).getDocument());
+    assertEquals("Bookmark start", 13, bms.get(0).getStartOffset());
+    assertEquals("Bookmark end", 19, bms.get(0).getEndOffset());
+    
+    debug.logEnd();
+  }
 }
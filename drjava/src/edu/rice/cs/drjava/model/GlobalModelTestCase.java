@@ -969,6 +969,8 @@ public abstract class GlobalModelTestCase extends MultiThreadedTestCase {
     public void compileEnded(File workDir, List<? extends File> excludedFiles) { 
       listenerFail("compileEnded fired unexpectedly"); 
     }
+    /** Intermediate error batches depend on compiler timing, so tests only check the final error model. */
+    public void compileErrorsReported() { }
     public void compileAborted(Exception e) { listenerFail("compileAborted fired unexpectedly"); }
     public void activeCompilerChanged() { listenerFail("activeCompilerChanged fired unexpectedly"); }
 
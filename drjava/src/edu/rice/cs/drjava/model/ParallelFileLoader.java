@@ -0,0 +1,215 @@
+/*BEGIN_COPYRIGHT_BLOCK
+ *
+ * Copyright (c) 2001-2017, JavaPLT group at Rice University (drjava@rice.edu)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    * Redistributions of source code must retain the above copyright
+ *      notice, this list of conditions and the following disclaimer.
+ *    * Redistributions in binary form must reproduce the above copyright
+ *      notice, this list of conditions and the following disclaimer in the
+ *      documentation and/or other materials provided with the distribution.
+ *    * Neither the names of DrJava, the JavaPLT group, Rice University, nor the
+ *      names of its contributors may be used to endorse or promote products
+ *      derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This software is Open Source Initiative approved Open Source Software.
+ * Open Source Initative Approved is a trademark of the Open Source Initiative.
+ *
+ * This file is part of DrJava.  Download the current version of this project
+ * from http://www.drjava.org/ or http://sourceforge.net/projects/drjava/
+ *
+ * END_COPYRIGHT_BLOCK*/
+
+package edu.rice.cs.drjava.model;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import edu.rice.cs.drjava.model.definitions.DefinitionsDocument;
+import edu.rice.cs.drjava.project.DocFile;
+import edu.rice.cs.plt.io.IOUtil;
+import edu.rice.cs.util.FileOps;
+import edu.rice.cs.util.OperationCanceledException;
+import edu.rice.cs.util.UnexpectedException;
+import edu.rice.cs.util.swing.IAsyncProgress;
+
+/** Reads a batch of files on a pool of worker threads in preparation for opening them as documents.  Each file is
+  * canonicalized, read and decoded into Swing text, and (unless the package is already known from a project file)
+  * scanned for its package declaration.  None of this work touches Swing or the document cache, so it can be done
+  * off the event thread; the model then only has to create lightweight OpenDefinitionsDocuments around the results.
+  * Results are always returned in the order of the input files.
+  */
+public class ParallelFileLoader {
+
+  /** The number of milliseconds to wait on a single file before polling the monitor for cancelation again. */
+  private static final long POLL_INTERVAL = 100L;
+
+  /** The number of milliseconds after which an idle worker thread terminates. */
+  private static final long IDLE_TIMEOUT = 10000L;
+
+  /** The result of loading a single file. */
+  public static class LoadedFile {
+    private final File _file;
+    private final String _text;
+    private final String _packageName;
+    private final IOException _error;
+
+    LoadedFile(File file, String text, String packageName, IOException error) {
+      _file = file;
+      _text = text;
+      _packageName = packageName;
+      _error = error;
+    }
+
+    /** @return the canonical file that was loaded */
+    public File getFile() { return _file; }
+
+    /** @return the Swing text of the file, or null if the text was not read */
+    public String getText() { return _text; }
+
+    /** @return the package declared in the file, or null if the package was not determined */
+    public String getPackageName() { return _packageName; }
+
+    /** @return the exception raised while loading the file, or null if loading succeeded */
+    public IOException getError() { return _error; }
+  }
+
+  private final int _threadCount;
+
+  /** The worker pool; created on first use. */
+  private volatile ExecutorService _executor = null;
+
+  /** Creates a loader that uses one worker thread per available processor. */
+  public ParallelFileLoader() { this(Runtime.getRuntime().availableProcessors()); }
+
+  /** Creates a loader with a given number of worker threads.
+    * @param threadCount the number of worker threads; must be positive
+    */
+  public ParallelFileLoader(int threadCount) {
+    if (threadCount < 1) throw new IllegalArgumentException("threadCount must be positive");
+    _threadCount = threadCount;
+  }
+
+  /** Loads the given files in parallel.  Files that cannot be read are reported through LoadedFile.getError() rather
+    * than by throwing.  If monitor is non-null, its progress is advanced by one for every file loaded, and the load
+    * is abandoned as soon as the monitor is canceled.
+    * @param files the files to load; may not contain null
+    * @param monitor the progress monitor, or null
+    * @return the loaded files, in the same order as files
+    * @throws OperationCanceledException if the monitor was canceled before all files were loaded
+    */
+  public List<LoadedFile> load(File[] files, IAsyncProgress monitor) throws OperationCanceledException {
+    List<Future<LoadedFile>> futures = new ArrayList<Future<LoadedFile>>(files.length);
+    ExecutorService executor = _getExecutor();
+    for (final File f: files) {
+      futures.add(executor.submit(new Callable<LoadedFile>() {
+        public LoadedFile call() { return loadFile(f); }
+      }));
+    }
+
+    List<LoadedFile> result = new ArrayList<LoadedFile>(files.length);
+    try {
+      for (int i = 0; i < futures.size(); ++i) {
+        Future<LoadedFile> future = futures.get(i);
+        LoadedFile loaded = null;
+        while (loaded == null) {
+          if (monitor != null && monitor.isCanceled()) throw new OperationCanceledException();
+          try { loaded = future.get(POLL_INTERVAL, TimeUnit.MILLISECONDS); }
+          catch (TimeoutException e) { /* poll the monitor again */ }
+        }
+        result.add(loaded);
+        if (monitor != null) {
+          monitor.setNote(loaded.getFile().getName());
+          monitor.setProgress(i + 1);
+        }
+      }
+    }
+    catch (InterruptedException e) {
+      _cancel(futures);
+      throw new OperationCanceledException();
+    }
+    catch (ExecutionException e) { throw new UnexpectedException(e.getCause()); }
+    catch (OperationCanceledException e) {
+      _cancel(futures);
+      throw e;
+    }
+    return result;
+  }
+
+  /** Loads a single file on the current thread.  For a DocFile, the package name recorded in the project file is
+    * trusted and the text is not read, so that the document can still be materialized lazily.
+    * @param f the file to load
+    * @return the loaded file
+    */
+  public static LoadedFile loadFile(File f) {
+    File canonical = IOUtil.attemptCanonicalFile(f);
+    if (! canonical.exists()) {
+      return new LoadedFile(canonical, null, null, new FileNotFoundException("file " + canonical + " cannot be found"));
+    }
+    if (canonical instanceof DocFile) return new LoadedFile(canonical, null, ((DocFile) canonical).getPackage(), null);
+    try {
+      String text = FileOps.readFileAsSwingText(canonical);
+      return new LoadedFile(canonical, text, DefinitionsDocument.parsePackageName(text), null);
+    }
+    catch (IOException e) { return new LoadedFile(canonical, null, null, e); }
+  }
+
+  /** Stops the worker threads, canceling any load in progress.  Idle threads also terminate on their own after
+    * IDLE_TIMEOUT; a later load starts new ones.
+    */
+  public synchronized void dispose() {
+    if (_executor != null) {
+      _executor.shutdownNow();
+      _executor = null;
+    }
+  }
+
+  private static void _cancel(List<Future<LoadedFile>> futures) {
+    for (Future<LoadedFile> f: futures) f.cancel(true);
+  }
+
+  private synchronized ExecutorService _getExecutor() {
+    if (_executor == null) {
+      ThreadPoolExecutor executor = 
+        new ThreadPoolExecutor(_threadCount, _threadCount, IDLE_TIMEOUT, TimeUnit.MILLISECONDS,
+                               new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+        private int _count = 0;
+        public synchronized Thread newThread(Runnable r) {
+          Thread t = new Thread(r, "File Loader Thread " + (++_count));
+          t.setDaemon(true);
+          return t;
+        }
+      });
+      // files are opened in bursts, so do not keep idle threads around between them
+      executor.allowCoreThreadTimeOut(true);
+      _executor = executor;
+    }
+    return _executor;
+  }
+}
@@ -0,0 +1,102 @@
+/*BEGIN_COPYRIGHT_BLOCK
+ *
+ * Copyright (c) 2001-2017, JavaPLT group at Rice University (drjava@rice.edu)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    * Redistributions of source code must retain the above copyright
+ *      notice, this list of conditions and the following disclaimer.
+ *    * Redistributions in binary form must reproduce the above copyright
+ *      notice, this list of conditions and the following disclaimer in the
+ *      documentation and/or other materials provided with the distribution.
+ *    * Neither the names of DrJava, the JavaPLT group, Rice University, nor the
+ *      names of its contributors may be used to endorse or promote products
+ *      derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This software is Open Source Initiative approved Open Source Software.
+ * Open Source Initative Approved is a trademark of the Open Source Initiative.
+ *
+ * This file is part of DrJava.  Download the current version of this project
+ * from http://www.drjava.org/ or http://sourceforge.net/projects/drjava/
+ *
+ * END_COPYRIGHT_BLOCK*/
+
+package edu.rice.cs.drjava.model;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+import edu.rice.cs.drjava.DrJavaTestCase;
+import edu.rice.cs.plt.io.IOUtil;
+
+/** Tests for {@link ParallelFileLoader}.
+  * @version $Id$
+  */
+public final class ParallelFileLoaderTest extends DrJavaTestCase {
+  
+  private volatile File _tempDir;
+  
+  public void setUp() throws Exception {
+    super.setUp();
+    _tempDir = IOUtil.createAndMarkTempDirectory("DrJava-test", "");
+  }
+  
+  public void tearDown() throws Exception {
+    IOUtil.deleteRecursively(_tempDir);
+    _tempDir = null;
+    super.tearDown();
+  }
+  
+  /** Tests that files are loaded in request order with their text and package names, and that a missing file is
+    * reported through the result rather than thrown.
+    */
+  public void testLoadPreservesOrder() throws Exception {
+    File[] files = new File[20];
+    for (int i = 0; i < files.length; i++) {
+      files[i] = new File(_tempDir, "C" + i + ".java");
+      String pkg = (i % 2 == 0) ? "package p" + i + ";\n" : "";
+      IOUtil.writeStringToFile(files[i], pkg + "class C" + i + " {}\r\n");
+    }
+    files[7] = new File(_tempDir, "Missing.java");
+    
+    ParallelFileLoader loader = new ParallelFileLoader(3);
+    try {
+      List<ParallelFileLoader.LoadedFile> loaded = loader.load(files, null);
+      assertEquals("number of results", files.length, loaded.size());
+      for (int i = 0; i < files.length; i++) {
+        ParallelFileLoader.LoadedFile lf = loaded.get(i);
+        assertEquals("file " + i, files[i].getCanonicalFile(), lf.getFile());
+        if (i == 7) {
+          assertTrue("missing file reported", lf.getError() instanceof java.io.FileNotFoundException);
+          assertNull("no text for missing file", lf.getText());
+        }
+        else {
+          assertNull("no error for file " + i, lf.getError());
+          assertTrue("text converted to Swing text", lf.getText().endsWith("class C" + i + " {}\n"));
+          assertEquals("package of file " + i, (i % 2 == 0) ? "p" + i : "", lf.getPackageName());
+        }
+      }
+    }
+    finally { loader.dispose(); }
+  }
+  
+  /** Tests that an unreadable directory is reported as an error. */
+  public void testLoadFileError() throws IOException {
+    ParallelFileLoader.LoadedFile lf = ParallelFileLoader.loadFile(_tempDir);
+    assertNotNull("reading a directory fails", lf.getError());
+  }
+}
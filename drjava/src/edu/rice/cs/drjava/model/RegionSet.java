@@ -36,7 +36,14 @@
 
 package edu.rice.cs.drjava.model;
 
+import java.awt.EventQueue;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
 import java.util.TreeSet;
 
 import javax.swing.event.DocumentEvent;
@@ -50,6 +57,12 @@ import edu.rice.cs.util.swing.Utilities;
   * Also optionally contains a reference to the ConcreteRegionManager that uses this region set, and notifies 
   * the manager on changes. Note that RegionSets can be used broadly by all types of RegionManagers; however, 
   * notification will only ever be requested by ConcreteRegionManagers.
+  * 
+  * OrderedDocumentRegions are sorted by [endOffset, startOffset].  Since the regions in a ConcreteRegionManager are
+  * disjoint, they are also sorted by startOffset, so the set doubles as an interval index: the regions touching an 
+  * interval [lo, hi] are the prefix of tailSet([0, lo)) whose start offsets do not exceed hi.  Document changes only
+  * visit (and notify the manager about) the regions they touch, which costs O(log n + k) rather than O(n).  Change
+  * notifications are coalesced, so each touched region is reported once per pass of the event queue.
   */
 public class RegionSet<R extends IDocumentRegion> extends TreeSet<R> {
 
@@ -62,6 +75,10 @@ public class RegionSet<R extends IDocumentRegion> extends TreeSet<R> {
      * used for find/replace). 
      */
     private ConcreteRegionManager<OrderedDocumentRegion> _manager = null;
+    
+    /** Regions that have changed since the last notification of the manager.  Only accessed in the event thread. */
+    private final Set<OrderedDocumentRegion> _changedRegions = 
+      Collections.newSetFromMap(new IdentityHashMap<OrderedDocumentRegion, Boolean>());
 
     public void setManager(ConcreteRegionManager<OrderedDocumentRegion> manager) { 
       this._manager = manager; 
@@ -74,19 +91,19 @@ public class RegionSet<R extends IDocumentRegion> extends TreeSet<R> {
 
       if (this._docListener != null) return;
 
-      OpenDefinitionsDocument odd = region.getDocument();
+      final OpenDefinitionsDocument odd = region.getDocument();
 
       /* Listen on changes to the document, as these may affect the region. */
       final RegionSet<R> thisRef = this;
       _docListener = new DocumentListener() {
 
-        public void insertUpdate(DocumentEvent e) {
+        public void insertUpdate(final DocumentEvent e) {
           /* Insertion can't cause positions to flip */
-          /* But we should still notify the RegionManager, if requested. */
+          /* But we should still notify the RegionManager about the regions containing the new text, if requested. */
           if (thisRef._manager != null) {
-            for (R region : thisRef) {
-              thisRef._manager.notifyChangedRegion((OrderedDocumentRegion)region);
-            }
+            Utilities.invokeLater(new Runnable() {
+              public void run() { _regionsChanged(odd, e.getOffset(), e.getOffset() + e.getLength()); }
+            });
           }
         }
 
@@ -96,36 +113,11 @@ public class RegionSet<R extends IDocumentRegion> extends TreeSet<R> {
           Utilities.invokeLater(new Runnable() { 
 
             public void run() {
-
-              /* Removal can cause positions to flip, but only need to worry if the removed portion is within the bounds
-               * of one or more regions. 
-               */
-              boolean requireRebalance = false;
-              for (R region : thisRef) {
-                if (region.getStartOffset() <= finalE.getOffset() &&
-                  finalE.getOffset() <= region.getEndOffset()) {
-                     requireRebalance = true;
-                     break;
-                }
-              }
-
-              /* Brute-force re-balance; can be relatively expensive if there are many regions, but in practice runs
-               * infrequently enough so as to be unnoticeable. Note: this code can probably be made ore efficient 
-               * because the region set to be rebalanced is almost in balance already.  Not worth the complication.
-               */
-              if (requireRebalance) {
-                @SuppressWarnings("unchecked")
-                RegionSet<R> thisCopy = (RegionSet<R>)thisRef.clone();
-                thisRef.clear();
-                thisRef.addAll(thisCopy);
-              }
-
+              int offset = finalE.getOffset();
+              _rebalance(odd, offset);
+              
               /* Notify the RegionManager, if requested. */
-              if (thisRef._manager != null) {
-                for (R region : thisRef) {
-                  thisRef._manager.notifyChangedRegion((OrderedDocumentRegion)region);
-                }
-              }
+              if (thisRef._manager != null) { _regionsChanged(odd, offset, offset); }
             }
            });
         }
@@ -137,6 +129,95 @@ public class RegionSet<R extends IDocumentRegion> extends TreeSet<R> {
       };
       odd.addDocumentListener(_docListener);
     }
+    
+    /** Restores the ordering of the set after text ending at offset was removed from odd.  Only regions with both ends
+      * inside the removed text can flip, and all such regions now end at offset.  Because every other pair of regions 
+      * is still correctly ordered, these regions form a contiguous run in the set, starting at the first region ending
+      * at offset.  The run is removed (by iterator, since searching for its elements is unreliable) and reinserted.
+      * Sets of other kinds of regions are simply rebuilt if the removal touched any region, as their order may depend 
+      * on offsets in unknown ways.
+      * @param odd the document
+      * @param offset the offset of the removal
+      */
+    private void _rebalance(OpenDefinitionsDocument odd, int offset) {
+      if (isEmpty()) return;
+      if (! (first() instanceof OrderedDocumentRegion)) {
+        for (R region : this) {
+          if (region.getStartOffset() <= offset && offset <= region.getEndOffset()) {
+            @SuppressWarnings("unchecked")
+            RegionSet<R> thisCopy = (RegionSet<R>) clone();
+            clear();
+            addAll(thisCopy);
+            return;
+          }
+        }
+        return;
+      }
+      
+      if (offset == 0) return;  // regions ending at 0 are all empty, hence equal
+      List<R> run = new ArrayList<R>();
+      Iterator<R> it = _endingAtOrAfter(odd, offset);
+      while (it.hasNext()) {
+        R region = it.next();
+        if (region.getEndOffset() < offset) continue;
+        if (region.getEndOffset() > offset) break;
+        run.add(region);
+        it.remove();
+      }
+      super.addAll(run);
+    }
+    
+    /** Records that the regions touching [lo, hi] in odd have changed, and schedules the notification of the manager. 
+      * Only runs in the event thread.
+      */
+    private void _regionsChanged(OpenDefinitionsDocument odd, int lo, int hi) {
+      if (isEmpty()) return;
+      boolean scheduled = ! _changedRegions.isEmpty();
+      Iterator<R> it = _endingAtOrAfter(odd, lo);
+      while (it.hasNext()) {
+        R region = it.next();
+        if (region.getEndOffset() < lo) continue;
+        if (region.getStartOffset() > hi) break;  // regions are disjoint, so no later region can touch [lo, hi]
+        _changedRegions.add((OrderedDocumentRegion) region);
+      }
+      if (! scheduled && ! _changedRegions.isEmpty()) {
+        /* Not Utilities.invokeLater, which runs the task immediately in the event thread. */
+        EventQueue.invokeLater(new Runnable() { public void run() { _notifyChangedRegions(); } });
+      }
+    }
+    
+    /** Notifies the manager of all changed regions that are still in this set. */
+    private void _notifyChangedRegions() {
+      List<OrderedDocumentRegion> changed = new ArrayList<OrderedDocumentRegion>(_changedRegions);
+      _changedRegions.clear();
+      for (OrderedDocumentRegion region : changed) {
+        if (_manager != null && _containsRegion(region)) _manager.notifyChangedRegion(region);
+      }
+    }
+    
+    /** @return whether this set contains the given region itself (rather than a region with the same offsets) */
+    private boolean _containsRegion(OrderedDocumentRegion region) {
+      int end = region.getEndOffset();
+      Iterator<R> it = _endingAtOrAfter(region.getDocument(), end);
+      while (it.hasNext()) {
+        R other = it.next();
+        if (other == region) return true;
+        if (other.getEndOffset() > end) return false;
+      }
+      return false;
+    }
+    
+    /** Returns an iterator that starts at or before the first region in odd ending at or after end.  The iterator 
+      * starts at the bound [end - 1, end - 1) rather than [0, end) so that the search only compares the bound with 
+      * regions ending elsewhere; such comparisons remain valid even while the regions ending at end are out of order.
+      * Callers must skip any leading regions that end before end.
+      */
+    private Iterator<R> _endingAtOrAfter(OpenDefinitionsDocument odd, int end) {
+      if (end == 0) return iterator();
+      @SuppressWarnings("unchecked") // see ConcreteRegionManager.newDocumentRegion
+      R bound = (R) new StaticDocumentRegion(odd, end - 1, end - 1);
+      return tailSet(bound).iterator();
+    }
 
     /** Adds an input region to the set. Also sets up a listener on the document to which the region belongs, if this
       * is the first time an add method is being called.
@@ -112,9 +112,8 @@ public interface SingleDisplayModel extends GlobalModel {
    */
   public void setExcludedFiles(File[] fs);
 
-// Any lightweight parsing has been disabled until we have something that is beneficial and works better in the background.
-//  /** @return the parsing control */
-//  public LightWeightParsingControl getParsingControl();
+  /** @return the parsing control */
+  public LightWeightParsingControl getParsingControl();
   
   /** Ensures that the _jvmStarter thread has executed. Never called in practice outside of GlobalModelTestCase.setUp(). */
   public void ensureJVMStarterFinished();
@@ -0,0 +1,385 @@
+/*BEGIN_COPYRIGHT_BLOCK
+ *
+ * Copyright (c) 2001-2017, JavaPLT group at Rice University (drjava@rice.edu)
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    * Redistributions of source code must retain the above copyright
+ *      notice, this list of conditions and the following disclaimer.
+ *    * Redistributions in binary form must reproduce the above copyright
+ *      notice, this list of conditions and the following disclaimer in the
+ *      documentation and/or other materials provided with the distribution.
+ *    * Neither the names of DrJava, the JavaPLT group, Rice University, nor the
+ *      names of its contributors may be used to endorse or promote products
+ *      derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This software is Open Source Initiative approved Open Source Software.
+ * Open Source Initative Approved is a trademark of the Open Source Initiative.
+ * 
+ * This file is part of DrJava.  Download the current version of this project
+ * from http://www.drjava.org/ or http://sourceforge.net/projects/drjava/
+ * 
+ * END_COPYRIGHT_BLOCK*/
+
+package edu.rice.cs.drjava.model;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.FieldVisitor;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+import edu.rice.cs.plt.io.IOUtil;
+
+/** An index of the classes, methods, and fields in the class files below a directory (the build directory of a
+  * project), with the source files and lines that declare them.  The index is read from the class files with ASM
+  * and saved in a cache file for the directory, so that it is available as soon as a project is opened, and so that
+  * an update only has to read the class files that changed since the last one.  The cache files are kept in
+  * {@link #CACHE_DIRECTORY} rather than in the indexed directory, so that they are not packaged with the class
+  * files.  All methods are thread-safe.
+  * @version $Id$
+  */
+public class SymbolIndex {
+  /** The directory holding the saved indexes, ".drjava-symbol-cache" in the user's home directory. */
+  public static final File CACHE_DIRECTORY = new File(System.getProperty("user.home"), ".drjava-symbol-cache");
+  
+  /** The name of the file in the indexed directory that held the saved index in earlier versions; it is deleted
+    * when the index is saved. */
+  private static final String OLD_FILE_NAME = ".drjava-symbols";
+  
+  private static final int FORMAT_VERSION = 2;
+  
+  /** A class in the index. */
+  public static class ClassSymbol {
+    private final String _name;
+    private final int _access;
+    private final String _sourcePath;
+    private final List<MemberSymbol> _members;
+    
+    ClassSymbol(String name, int access, String sourcePath, List<MemberSymbol> members) {
+      _name = name;
+      _access = access;
+      _sourcePath = sourcePath;
+      _members = Collections.unmodifiableList(members);
+    }
+    
+    /** @return the binary name, e.g. "p.Outer$Inner" */
+    public String getName() { return _name; }
+    
+    /** @return the simple name, e.g. "Inner" */
+    public String getSimpleName() { return _name.substring(Math.max(_name.lastIndexOf('.'), _name.lastIndexOf('$')) + 1); }
+    
+    /** @return the package name, e.g. "p", or "" for the default package */
+    public String getPackageName() { 
+      int dot = _name.lastIndexOf('.');
+      return (dot < 0) ? "" : _name.substring(0, dot);
+    }
+    
+    /** @return the source name of the class within its package, e.g. "Outer.Inner" */
+    public String getNestedName() { return _name.substring(_name.lastIndexOf('.') + 1).replace('$', '.'); }
+    
+    /** @return the access flags, as defined by {@link Opcodes} */
+    public int getAccess() { return _access; }
+    
+    /** @return true if this is an anonymous or local class, which cannot be referred to by name */
+    public boolean isAnonymousOrLocal() {
+      int dollar = _name.indexOf('$');
+      while (dollar >= 0) {
+        if (dollar + 1 >= _name.length() || Character.isDigit(_name.charAt(dollar + 1))) return true;
+        dollar = _name.indexOf('$', dollar + 1);
+      }
+      return false;
+    }
+    
+    /** @return the path of the source file relative to its source root, e.g. "p/Outer.java", or null if unknown */
+    public String getSourcePath() { return _sourcePath; }
+    
+    /** @return the methods and fields declared by the class, except for synthetic members and initializers */
+    public List<MemberSymbol> getMembers() { return _members; }
+    
+    public String toString() { return _name; }
+  }
+  
+  /** A method or field in the index. */
+  public static class MemberSymbol {
+    /** Set once, when the owner is created. */
+    private ClassSymbol _owner;
+    private final String _name;
+    private final String _descriptor;
+    private final int _access;
+    private final boolean _isMethod;
+    private final int _line;
+    
+    MemberSymbol(String name, String descriptor, int access, boolean isMethod, int line) {
+      _name = name;
+      _descriptor = descriptor;
+      _access = access;
+      _isMethod = isMethod;
+      _line = line;
+    }
+    
+    /** @return the declaring class */
+    public ClassSymbol getOwner() { return _owner; }
+    
+    public String getName() { return _name; }
+    
+    /** @return the type descriptor, e.g. "(I)Ljava/lang/String;" */
+    public String getDescriptor() { return _descriptor; }
+    
+    /** @return the access flags, as defined by {@link Opcodes} */
+    public int getAccess() { return _access; }
+    
+    public boolean isMethod() { return _isMethod; }
+    
+    /** @return the first line of a method's code (1-based), or -1 if it is unknown or this is a field */
+    public int getLine() { return _line; }
+    
+    public String toString() { return _owner + "." + _name + _descriptor; }
+  }
+  
+  /** A class file and the class read from it. */
+  private static class Entry {
+    final long lastModified;
+    final long length;
+    final ClassSymbol symbol;
+    Entry(long m, long l, ClassSymbol s) { lastModified = m; length = l; symbol = s; }
+  }
+  
+  private final File _root;
+  /** The file in which the index is saved. */
+  private final File _cacheFile;
+  /** The indexed class files, by path relative to the root. */
+  private Map<String, Entry> _entries = new HashMap<String, Entry>();
+  
+  /** Creates an empty index of the given directory, saved in its file in {@link #CACHE_DIRECTORY}.
+    * @param root the directory containing the class files
+    */
+  public SymbolIndex(File root) { this(root, cacheFile(root)); }
+  
+  /** Creates an empty index of the given directory.
+    * @param root the directory containing the class files
+    * @param cacheFile the file in which the index is saved
+    */
+  public SymbolIndex(File root, File cacheFile) {
+    _root = root;
+    _cacheFile = cacheFile;
+  }
+  
+  /** Returns the file in {@link #CACHE_DIRECTORY} for the index of a directory.  Its name includes a hash of the
+    * directory's path; the path itself is also saved in the file, and checked when the index is loaded.
+    * @param root the indexed directory
+    * @return the cache file, which may not exist
+    */
+  public static File cacheFile(File root) {
+    String hash = Integer.toHexString(IOUtil.attemptCanonicalFile(root).getPath().hashCode());
+    return new File(CACHE_DIRECTORY, root.getName() + "-" + hash);
+  }
+  
+  /** Creates an index of the given directory, starting with the index saved in its file in
+    * {@link #CACHE_DIRECTORY}, if any.  Call {@link #update} to bring it up to date.
+    * @param root the directory containing the class files
+    * @return the index
+    */
+  public static SymbolIndex load(File root) { return load(root, cacheFile(root)); }
+  
+  /** Creates an index of the given directory, starting with the index saved in the given file, if any.  Call
+    * {@link #update} to bring it up to date.
+    * @param root the directory containing the class files
+    * @param cacheFile the file in which the index is saved
+    * @return the index
+    */
+  public static SymbolIndex load(File root, File cacheFile) {
+    SymbolIndex result = new SymbolIndex(root, cacheFile);
+    File f = cacheFile;
+    if (f.isFile()) {
+      try {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(f)));
+        try { result._read(in); }
+        finally { in.close(); }
+      }
+      catch (IOException e) { result._entries.clear(); /* start over */ }
+      catch (RuntimeException e) { result._entries.clear(); /* start over */ }
+    }
+    return result;
+  }
+  
+  /** @return the indexed directory */
+  public File getRoot() { return _root; }
+  
+  /** Brings the index up to date with the class files below the root.  Only class files that are new, or whose
+    * time stamp or size changed, are read.
+    * @return true if the index changed
+    */
+  public synchronized boolean update() {
+    Map<String, Entry> updated = new HashMap<String, Entry>();
+    boolean changed = _scan(_root, "", updated);
+    if (updated.size() != _entries.size()) changed = true;
+    _entries = updated;
+    return changed;
+  }
+  
+  /** Scans a directory, adding entries for its class files to the map.
+    * @return true if an entry had to be read */
+  private boolean _scan(File dir, String prefix, Map<String, Entry> updated) {
+    File[] files = dir.listFiles();
+    if (files == null) return false;
+    boolean changed = false;
+    for (File f: files) {
+      String path = prefix + f.getName();
+      if (f.isDirectory()) { changed |= _scan(f, path + "/", updated); }
+      else if (path.endsWith(".class")) {
+        long lastModified = f.lastModified();
+        long length = f.length();
+        Entry e = _entries.get(path);
+        if (e == null || e.lastModified != lastModified || e.length != length) {
+          e = new Entry(lastModified, length, _readClass(f, path));
+          changed = true;
+        }
+        updated.put(path, e);
+      }
+    }
+    return changed;
+  }
+  
+  /** Saves the index in its cache file, and deletes an index that an earlier version saved in the root directory.
+    * @throws IOException if the index cannot be written
+    */
+  public synchronized void save() throws IOException {
+    new File(_root, OLD_FILE_NAME).delete();
+    File f = _cacheFile;
+    File dir = f.getAbsoluteFile().getParentFile();
+    if (! dir.isDirectory() && ! dir.mkdirs()) throw new IOException("Could not create " + dir);
+    File temp = new File(dir, f.getName() + ".tmp");
+    DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)));
+    try { _write(out); }
+    finally { out.close(); }
+    if (! IOUtil.attemptMove(temp, f)) {
+      temp.delete();
+      throw new IOException("Could not write " + f);
+    }
+  }
+  
+  /** @return the indexed classes */
+  public synchronized List<ClassSymbol> getClasses() {
+    List<ClassSymbol> result = new ArrayList<ClassSymbol>(_entries.size());
+    for (Entry e: _entries.values()) result.add(e.symbol);
+    return result;
+  }
+  
+  /** Reads a class file.  If the file cannot be parsed (for example, because it is newer than the ASM library),
+    * the class is indexed by the name given by its path, without members. */
+  private static ClassSymbol _readClass(File f, String path) {
+    try {
+      ClassReader reader = new ClassReader(IOUtil.toByteArray(f));
+      final String[] sourceFile = { null };
+      final List<MemberSymbol> members = new ArrayList<MemberSymbol>();
+      reader.accept(new ClassVisitor(Opcodes.ASM5) {
+        public void visitSource(String source, String debug) { sourceFile[0] = source; }
+        public FieldVisitor visitField(int access, String name, String desc, String signature, Object value) {
+          if ((access & Opcodes.ACC_SYNTHETIC) == 0) members.add(new MemberSymbol(name, desc, access, false, -1));
+          return null;
+        }
+        public MethodVisitor visitMethod(final int access, final String name, final String desc, String signature,
+                                         String[] exceptions) {
+          if ((access & (Opcodes.ACC_SYNTHETIC | Opcodes.ACC_BRIDGE)) != 0 || name.startsWith("<")) return null;
+          return new MethodVisitor(Opcodes.ASM5) {
+            private int _line = -1;
+            public void visitLineNumber(int line, Label start) {
+              if (_line < 0 || line < _line) _line = line;
+            }
+            public void visitEnd() { members.add(new MemberSymbol(name, desc, access, true, _line)); }
+          };
+        }
+      }, ClassReader.SKIP_FRAMES);
+      String name = reader.getClassName().replace('/', '.');
+      String sourcePath = null;
+      if (sourceFile[0] != null) {
+        int slash = reader.getClassName().lastIndexOf('/');
+        sourcePath = reader.getClassName().substring(0, slash + 1) + sourceFile[0];
+      }
+      return _makeClass(name, reader.getAccess(), sourcePath, members);
+    }
+    catch (IOException e) { /* fall through */ }
+    catch (RuntimeException e) { /* fall through */ }
+    String name = path.substring(0, path.length() - ".class".length()).replace('/', '.');
+    return _makeClass(name, 0, null, new ArrayList<MemberSymbol>());
+  }
+  
+  private static ClassSymbol _makeClass(String name, int access, String sourcePath, List<MemberSymbol> members) {
+    ClassSymbol result = new ClassSymbol(name, access, sourcePath, members);
+    for (MemberSymbol m: members) m._owner = result;
+    return result;
+  }
+  
+  private void _write(DataOutputStream out) throws IOException {
+    out.writeInt(FORMAT_VERSION);
+    out.writeUTF(IOUtil.attemptCanonicalFile(_root).getPath());
+    out.writeInt(_entries.size());
+    for (Map.Entry<String, Entry> pair: _entries.entrySet()) {
+      Entry e = pair.getValue();
+      out.writeUTF(pair.getKey());
+      out.writeLong(e.lastModified);
+      out.writeLong(e.length);
+      out.writeUTF(e.symbol.getName());
+      out.writeInt(e.symbol.getAccess());
+      out.writeUTF((e.symbol.getSourcePath() == null) ? "" : e.symbol.getSourcePath());
+      out.writeInt(e.symbol.getMembers().size());
+      for (MemberSymbol m: e.symbol.getMembers()) {
+        out.writeUTF(m.getName());
+        out.writeUTF(m.getDescriptor());
+        out.writeInt(m.getAccess());
+        out.writeBoolean(m.isMethod());
+        out.writeInt(m.getLine());
+      }
+    }
+  }
+  
+  private void _read(DataInputStream in) throws IOException {
+    if (in.readInt() != FORMAT_VERSION) return;
+    if (! in.readUTF().equals(IOUtil.attemptCanonicalFile(_root).getPath())) return;  // another directory's index
+    int count = in.readInt();
+    for (int i = 0; i < count; i++) {
+      String path = in.readUTF();
+      long lastModified = in.readLong();
+      long length = in.readLong();
+      String name = in.readUTF();
+      int access = in.readInt();
+      String sourcePath = in.readUTF();
+      int memberCount = in.readInt();
+      List<MemberSymbol> members = new ArrayList<MemberSymbol>(memberCount);
+      for (int j = 0; j < memberCount; j++) {
+        members.add(new MemberSymbol(in.readUTF(), in.readUTF(), in.readInt(), in.readBoolean(), in.readInt()));
+      }
+      ClassSymbol symbol = _makeClass(name, access, (sourcePath.length() == 0) ? null : sourcePath, members);
+      _entries.put(path, new Entry(lastModified, length, symbol));
+    }
+  }
+}
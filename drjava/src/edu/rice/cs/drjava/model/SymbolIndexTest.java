@@ -0,0 +1,150 @@
+/*BEGIN_COPYRIGHT_BLOCK
+ *
+ * Copyright (c) 2001-2017, JavaPLT group at Rice University (drjava@rice.edu)
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    * Redistributions of source code must retain the above copyright
+ *      notice, this list of conditions and the following disclaimer.
+ *    * Redistributions in binary form must reproduce the above copyright
+ *      notice, this list of conditions and the following disclaimer in the
+ *      documentation and/or other materials provided with the distribution.
+ *    * Neither the names of DrJava, the JavaPLT group, Rice University, nor the
+ *      names of its contributors may be used to endorse or promote products
+ *      derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This software is Open Source Initiative approved Open Source Software.
+ * Open Source Initative Approved is a trademark of the Open Source Initiative.
+ * 
+ * This file is part of DrJava.  Download the current version of this project
+ * from http://www.drjava.org/ or http://sourceforge.net/projects/drjava/
+ * 
+ * END_COPYRIGHT_BLOCK*/
+
+package edu.rice.cs.drjava.model;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+import edu.rice.cs.drjava.DrJavaTestCase;
+import edu.rice.cs.plt.io.IOUtil;
+
+/** Tests the SymbolIndex, using copies of its own class files.
+  * @version $Id$
+  */
+public class SymbolIndexTest extends DrJavaTestCase {
+  private File _dir;
+  private File _pkg;
+  private File _cache;
+  
+  public void setUp() throws Exception {
+    super.setUp();
+    _dir = IOUtil.createAndMarkTempDirectory("symbolindex", "");
+    _pkg = new File(_dir, "edu/rice/cs/drjava/model");
+    _pkg.mkdirs();
+    _cache = new File(IOUtil.createAndMarkTempDirectory("symbolcache", ""), "index");
+    _copyClass("SymbolIndex");
+    _copyClass("SymbolIndex$ClassSymbol");
+  }
+  
+  public void tearDown() throws Exception {
+    IOUtil.deleteRecursively(_dir);
+    IOUtil.deleteRecursively(_cache.getParentFile());
+    super.tearDown();
+  }
+  
+  private void _copyClass(String name) throws IOException {
+    InputStream in = SymbolIndex.class.getResourceAsStream(name + ".class");
+    try {
+      OutputStream out = new FileOutputStream(new File(_pkg, name + ".class"));
+      try { IOUtil.copyInputStream(in, out); }
+      finally { out.close(); }
+    }
+    finally { in.close(); }
+  }
+  
+  private static Map<String, SymbolIndex.ClassSymbol> _classes(SymbolIndex index) {
+    Map<String, SymbolIndex.ClassSymbol> result = new HashMap<String, SymbolIndex.ClassSymbol>();
+    for (SymbolIndex.ClassSymbol c: index.getClasses()) result.put(c.getName(), c);
+    return result;
+  }
+  
+  public void testClassesAndMembers() {
+    SymbolIndex index = new SymbolIndex(_dir, _cache);
+    assertTrue("first update should read the class files", index.update());
+    Map<String, SymbolIndex.ClassSymbol> classes = _classes(index);
+    assertEquals("classes", 2, classes.size());
+    
+    SymbolIndex.ClassSymbol c = classes.get("edu.rice.cs.drjava.model.SymbolIndex");
+    assertEquals("simple name", "SymbolIndex", c.getSimpleName());
+    assertEquals("package", "edu.rice.cs.drjava.model", c.getPackageName());
+    assertEquals("source", "edu/rice/cs/drjava/model/SymbolIndex.java", c.getSourcePath());
+    SymbolIndex.MemberSymbol update = null;
+    for (SymbolIndex.MemberSymbol m: c.getMembers()) {
+      if (m.getName().equals("update")) update = m;
+      assertFalse("no initializers", m.getName().startsWith("<"));
+    }
+    assertNotNull("should have update method", update);
+    assertTrue("method", update.isMethod());
+    assertEquals("descriptor", "()Z", update.getDescriptor());
+    assertTrue("line", update.getLine() > 0);
+    assertSame("owner", c, update.getOwner());
+    
+    SymbolIndex.ClassSymbol nested = classes.get("edu.rice.cs.drjava.model.SymbolIndex$ClassSymbol");
+    assertEquals("nested simple name", "ClassSymbol", nested.getSimpleName());
+    assertEquals("nested name", "SymbolIndex.ClassSymbol", nested.getNestedName());
+    assertFalse("not anonymous", nested.isAnonymousOrLocal());
+  }
+  
+  public void testIncrementalUpdate() throws IOException {
+    SymbolIndex index = new SymbolIndex(_dir, _cache);
+    index.update();
+    assertFalse("nothing changed", index.update());
+    IOUtil.writeStringToFile(new File(_dir, ".drjava-symbols"), "index saved by an earlier version");
+    index.save();
+    assertTrue("saved in the cache file", _cache.isFile());
+    assertEquals("nothing saved in the indexed directory", 1, _dir.listFiles().length);
+    
+    SymbolIndex loaded = SymbolIndex.load(_dir, _cache);
+    assertEquals("loaded classes", _classes(index).keySet(), _classes(loaded).keySet());
+    assertFalse("loaded index should be up to date", loaded.update());
+    
+    assertTrue(new File(_pkg, "SymbolIndex$ClassSymbol.class").delete());
+    IOUtil.writeStringToFile(new File(_dir, "Broken.class"), "not a class file");
+    assertTrue("files were removed and added", loaded.update());
+    Map<String, SymbolIndex.ClassSymbol> classes = _classes(loaded);
+    assertEquals("classes", 2, classes.size());
+    assertEquals("unreadable class is indexed by its file name", 0, classes.get("Broken").getMembers().size());
+  }
+  
+  /** Tests that each directory has its own cache file, and that an index saved for another directory is ignored. */
+  public void testCacheFiles() throws IOException {
+    File other = new File(_dir, "edu");
+    assertEquals("in the cache directory", SymbolIndex.CACHE_DIRECTORY, SymbolIndex.cacheFile(_dir).getParentFile());
+    assertFalse("one file per directory", SymbolIndex.cacheFile(_dir).equals(SymbolIndex.cacheFile(other)));
+    
+    SymbolIndex index = new SymbolIndex(_dir, _cache);
+    index.update();
+    index.save();
+    assertEquals("index of another directory", 0, SymbolIndex.load(other, _cache).getClasses().size());
+    assertEquals("index of this directory", 2, SymbolIndex.load(_dir, _cache).getClasses().size());
+  }
+}
@@ -106,5 +106,7 @@ public class TestDocGetter extends DummyGlobalModel {
     public File getFile() throws FileMovedException  { return _file; }
     
     public void setFile(File f) { _file = f; }
+    
+    public boolean isReady() { return true; }
   }
 }
@@ -53,7 +53,6 @@ import edu.rice.cs.drjava.model.FileMovedException;
 import edu.rice.cs.drjava.model.DrJavaFileUtils;
 import edu.rice.cs.util.FileOps;
 import edu.rice.cs.util.OperationCanceledException;
-import edu.rice.cs.util.StringOps;
 import edu.rice.cs.util.UnexpectedException;
 import edu.rice.cs.util.swing.Utilities;
 
@@ -61,7 +60,6 @@ import edu.rice.cs.util.swing.Utilities;
   * @version $Id$
   */
 public class CompilerErrorModel {
-  private static final String newLine = StringOps.EOL;
   /** An array of errors to be displayed in the CompilerErrorPanel associated with this model.  After model
     * construction, this array should be sorted in this order:
     * (i)  Errors with no file.
@@ -74,10 +72,16 @@ public class CompilerErrorModel {
   private final DJError[] _errors;
   
   /** An array of file offsets, parallel to the _errors array. NOTE: If there is no position associated with an error,
-    * its entry here should be set to null.
+    * its entry here should be set to null.  The positions for the errors in a file are only computed when they are
+    * first needed (see _ensurePositions).
     */
   private final Position[] _positions;
   
+  /** An array parallel to the _errors array, giving the range of errors in the same file; null for errors without a
+    * file and line number.
+    */
+  private final StartAndEndIndex[] _ranges;
+  
   /** The size of _errors and _positions.  This should never change after model construction*/
   private final int _numErrors;
   
@@ -95,8 +99,8 @@ public class CompilerErrorModel {
     */
   private volatile int _onlyWarnings = -1;
   
-  /** Used internally in building _positions.  The file used as the index *must* be a canonical file, or else
-    * errors won't always be associated with the right documents.
+  /** Maps each file to the range of its errors that have line numbers.  The file used as the index *must* be a 
+    * canonical file, or else errors won't always be associated with the right documents.
     */
   private final HashMap<File, StartAndEndIndex> _filesToIndexes = new HashMap<File, StartAndEndIndex>();
   
@@ -122,6 +126,7 @@ public class CompilerErrorModel {
     _numWarnings = 0;
     _numCompilerErrors = 0;
     _positions = new Position[0];
+    _ranges = new StartAndEndIndex[0];
   }
   
   /** Constructs a new CompilerErrorModel with specified global model.  Performed in DefaultGlobalModel construction 
@@ -180,8 +185,11 @@ public class CompilerErrorModel {
     // Sort the errors by file and position
     Arrays.sort(_errors);
     
-    // Populates _positions.  Must run in event thread because it may open files.
-    Utilities.invokeLater(new Runnable() { public void run() { _calculatePositions(); } });
+    _ranges = new StartAndEndIndex[errors.length];
+    _indexFiles();
+    
+    // Opens the documents containing errors.  Must run in event thread.
+    Utilities.invokeLater(new Runnable() { public void run() { _openDocuments(); } });
   }
   
   /** Accessor for errors field; only used in testing and debugging. */
@@ -200,6 +208,9 @@ public class CompilerErrorModel {
    */
   public Position getPosition(DJError error) {
     int spot = Arrays.binarySearch(_errors, error);
+    StartAndEndIndex range = _ranges[spot];
+    if (range == null) return null;
+    _ensurePositions(range, null);
     return _positions[spot];
   }
   
@@ -244,9 +255,9 @@ public class CompilerErrorModel {
     
     StartAndEndIndex saei = _filesToIndexes.get(file);
     if (saei == null) return null;
+    _ensurePositions(saei, odd);
     int start = saei.getStartPos();
     int end = saei.getEndPos();
-    if (start == end) return null;
     
     // check if the dot is on a line with an error.
     // Find the first error that is on or after the dot. If this comes
@@ -335,113 +346,79 @@ public class CompilerErrorModel {
     }
   }
   
-  /** Create array of positions where each error occurred. Positions are related their corresponding documents. */
-  private void _calculatePositions() {
-    try {
-      int curError = 0;
-      
-      // for (; numProcessed < _numErrors; numProcessed++) {
-      while ((curError < _numErrors)) {
-        // find the next error with a line number (skipping others)
-        curError = nextErrorWithLine(curError);
-        if (curError >= _numErrors) {break;}
-        
-        //Now find the file and document we are working on
-        File file = _errors[curError].file();
-        OpenDefinitionsDocument document;
-        try { document = _model.getDocumentForFile(file); }
-        catch (Exception e) {
-          // This is intended to catch IOException or OperationCanceledException
-          // skip positions for these errors if the document couldn't be loaded
-          if ((e instanceof IOException) || (e instanceof OperationCanceledException)) {
-            document = null;
-          }
-          else throw new UnexpectedException(e);
-        }
-        if (document == null) {
-          do { curError++;}
-          while ((curError < _numErrors) && (_errors[curError].file().equals(file)));
-          //If the document couldn't be loaded, start the loop over at the top
-          continue;
-        }
-        if (curError >= _numErrors) break;
-        
-        // curError is the first error in a file, and its document is open.
-        final int fileStartIndex = curError;
-        final int defsLength = document.getLength();
-        final String defsText = document.getText(0, defsLength);
-        int curLine = 0;
-        int offset = 0; // offset is number of chars from beginning of file
-        
-        // offset is always pointing to the first character in the line
-        // containing an error (or the last line of the previous file) at the top of this loop
-        while ((curError < _numErrors) && // we still have errors to find
-               file.equals(_errors[curError].file()) &&  // the next error is in this file
-               (offset <= defsLength)) { // we haven't gone past the end of the file
-          // create new positions for all errors on this line
-          boolean didNotAdvance = false;
-          if (_errors[curError].lineNumber() != curLine) {
-            // if this happens, then we will not advance to the next error in the loop below.
-            // that means we have to advance curError when we reach the end of the document
-            // or we get stuck in an infinite loop (bug 1679178)
-            // this seems to be a problem with incompatible line endings (Windows vs. Unix)
-            didNotAdvance = true;
-          }
-          else {
-            while ((curError < _numErrors) &&
-                   file.equals(_errors[curError].file()) &&  // we are still in this file
-                   (_errors[curError].lineNumber() == curLine)) {
-              _positions[curError] = document.createPosition(offset + _errors[curError].startColumn());
-              curError++;
-            }
-          }
-
-          // At this point, offset is the starting index of the previous error's line.
-          // Update offset to be appropriate for the current error.
-          // ... but don't bother looking if it isn't in this file.
-          // ... or if we're done with all errors already.
-          if (curError < _numErrors) {
-            int curErrorLine = _errors[curError].lineNumber();
-            int nextNewline = 0;
-            while ((curLine != curErrorLine)
-                     && (nextNewline != -1)
-                     && (file.equals(_errors[curError].file()))) {
-              nextNewline = defsText.indexOf(newLine, offset);
-              if (nextNewline == -1) nextNewline = defsText.indexOf("\n", offset);
-              if (nextNewline != -1) {
-                curLine++;
-                offset = nextNewline + 1;
-              }
-              else {
-                // we're at the end of the document
-                if (didNotAdvance) {
-                  // we did not advance to the next error above, so unless we want to
-                  // get stuck in an infinite loop (bug 1679178), we have to advance now.
-                  // otherwise we would never leave the while loop and keep processing
-                  // the same error.
-                  // this situation probably means that the line number information of the
-                  // compiler is different from our line number information;
-                  // probably a Windows vs. Unix line ending problem
-                  _positions[curError] = null;
-                  curError++;
-                }
-              }
-            }
+  /** Groups the errors with line numbers by file and fills in _ranges and _filesToIndexes.  Does not touch any 
+    * documents. 
+    */
+  private void _indexFiles() {
+    int curError = nextErrorWithLine(0);
+    while (curError < _numErrors) {
+      File file = _errors[curError].file();
+      int fileStartIndex = curError;
+      do { curError++; }
+      while (curError < _numErrors && file.equals(_errors[curError].file()));
+      StartAndEndIndex range = new StartAndEndIndex(file, fileStartIndex, curError);
+      Arrays.fill(_ranges, fileStartIndex, curError, range);
+      // Try to use the canonical file if possible
+      try { file = file.getCanonicalFile(); }
+      catch (IOException ioe) { /* Oh well, store it as is */ }
+      _filesToIndexes.put(file, range);
+      curError = nextErrorWithLine(curError);
+    }
+  }
+  
+  /** Opens the documents for all files containing errors with line numbers, so that the errors can be navigated to.
+    * Only documents that are already in memory get their positions now, since only they can be edited before their
+    * errors are visited.  The positions in other documents are created when they are first needed, which avoids 
+    * reloading evicted documents and reading files that are not open.  (Positions created this late are based on the
+    * line numbers of the errors in the current text of the document.)
+    */
+  private void _openDocuments() {
+    HashSet<StartAndEndIndex> opened = new HashSet<StartAndEndIndex>();
+    for (StartAndEndIndex range: _ranges) {
+      if (range != null && opened.add(range)) {
+        OpenDefinitionsDocument document = _getDocument(range.getFile());
+        if (document != null && document.isReady()) _ensurePositions(range, document);
+      }
+    }
+  }
+  
+  /** @return the document for file, or null if it couldn't be loaded */
+  private OpenDefinitionsDocument _getDocument(File file) {
+    try { return _model.getDocumentForFile(file); }
+    catch (Exception e) {
+      // This is intended to catch IOException or OperationCanceledException
+      // skip positions for these errors if the document couldn't be loaded
+      if ((e instanceof IOException) || (e instanceof OperationCanceledException)) return null;
+      else throw new UnexpectedException(e);
+    }
+  }
+  
+  /** Creates the positions of the errors in the given range, if they have not been created yet.  Each position is
+    * found through the line elements of the document, so only the lines containing errors are visited and the text
+    * of the document is never copied.  Errors on lines past the end of the document get no position.
+    * @param range the errors to create positions for
+    * @param document the document containing the errors, or null if it should be looked up
+    */
+  private void _ensurePositions(StartAndEndIndex range, OpenDefinitionsDocument document) {
+    synchronized(range) {
+      if (range.hasPositions()) return;
+      if (document == null) document = _getDocument(range.getFile());
+      if (document != null) {
+        try {
+          Element root = document.getDefaultRootElement();
+          int lineCount = root.getElementCount();
+          int length = document.getLength();
+          for (int i = range.getStartPos(); i < range.getEndPos(); i++) {
+            int line = _errors[i].lineNumber();
+            if (line < 0 || line >= lineCount) continue;
+            int offset = root.getElement(line).getStartOffset() + _errors[i].startColumn();
+            _positions[i] = document.createPosition(Math.min(offset, length));
           }
         }
-        //Remember the indexes in the _errors and _positions arrays that
-        // are for the errors in this file
-        int fileEndIndex = curError;
-        if (fileEndIndex != fileStartIndex) {
-          // Try to use the canonical file if possible
-          try { file = file.getCanonicalFile(); }
-          catch (IOException ioe) { /* Oh well, store it as is */ }
-          _filesToIndexes.put(file, new StartAndEndIndex(fileStartIndex, fileEndIndex));
-        }
+        catch (BadLocationException ble) { throw new UnexpectedException(ble); }
       }
+      range.setHasPositions();
     }
-    catch (BadLocationException ble) { throw new UnexpectedException(ble); }
-    catch (StringIndexOutOfBoundsException e) { throw new UnexpectedException(e); }
   }
   
   /** Finds the first error after numProcessed which has a file and line number.
@@ -453,18 +430,24 @@ public class CompilerErrorModel {
     return idx;
   }
   
-  /** This class is used only to track where the errors with positions for a file begin and end.  The beginning index 
-    * is inclusive, the ending index is exclusive.
+  /** This class is used only to track where the errors with positions for a file begin and end, and whether their
+    * positions have been computed.  The beginning index is inclusive, the ending index is exclusive.
     */
   private static class StartAndEndIndex {
+    private final File file;
     private final int startPos;
     private final int endPos;
+    private volatile boolean hasPositions = false;
     
-    public StartAndEndIndex(int startPos, int endPos) {
+    public StartAndEndIndex(File file, int startPos, int endPos) {
+      this.file = file;
       this.startPos = startPos;
       this.endPos = endPos;
     }
+    public File getFile() { return file; }
     public int getStartPos() { return startPos; }
     public int getEndPos() { return endPos; }
+    public boolean hasPositions() { return hasPositions; }
+    public void setHasPositions() { hasPositions = true; }
   }
 }
@@ -294,6 +294,20 @@ public final class CompilerErrorModelTest extends DrJavaTestCase {
     assertEquals("Incorrect error Position.", 38, pos.getOffset());
   }
   
+  /** Tests that errors on lines past the end of their document get no position. */
+  public void testGetPositionPastEnd() {
+    setupDoc();
+    errors = new DJError[] { 
+      new DJError(files[0], 1, 3, "Test error with File", false),
+      new DJError(files[0], 17, 0, "Test error past the end of File", false) 
+    };
+    model = new CompilerErrorModel(errors, getter);
+    Utilities.clearEventQueue();  // constructor for CompilerErrorModel calls invokeLater
+    
+    assertEquals("Incorrect error Position.", 33, model.getPosition(errors[0]).getOffset());
+    assertNull("Error past the end should have no Position.", model.getPosition(errors[1]));
+  }
+  
   /** Tests CompilerErrorModel.getErrorAtOffset(int). 
    * @throws IOException if an IO operation fails
    * @throws OperationCanceledException if an operation is canceled unexpectedly
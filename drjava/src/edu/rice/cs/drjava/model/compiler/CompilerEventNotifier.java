@@ -59,11 +59,9 @@ import edu.rice.cs.drjava.model.EventNotifier;
  * components, and should not be used directly outside of the "host" component.
  * <p>
  *
- * All methods in this class must use the synchronization methods
- * provided by ReaderWriterLock.  This ensures that multiple notifications
- * (reads) can occur simultaneously, but only one thread can be adding
- * or removing listeners (writing) at a time, and no reads can occur
- * during a write.
+ * All notifications iterate over a snapshot of the listeners (see
+ * EventNotifier), so they never block, and listeners may be added or
+ * removed at any time, even by a listener during a notification.
  * <p>
  *
  * <i>No</i> methods on this class should be synchronized using traditional
@@ -77,50 +75,57 @@ class CompilerEventNotifier extends EventNotifier<CompilerListener> implements C
   /** Called after a compile is started by the GlobalModel. */
   public void compileStarted() {
 //    new ScrollableDialog(null, "CompilerEventNotifier.compileStarted() called for listeners " + _listeners, "", "").show();
-    _lock.startRead();
+    final long start = startDispatch();
     try { for (CompilerListener cl : _listeners) { cl.compileStarted(); } }
-    finally { _lock.endRead(); }
+    finally { endDispatch("compileStarted", start); }
   }
   
   /** Called when a compile has finished running. */
   public void compileEnded(File workDir, List<? extends File> excludedFiles) {
-    _lock.startRead();
+    final long start = startDispatch();
     try { for (CompilerListener cl : _listeners) { cl.compileEnded(workDir, excludedFiles); } }
-    finally { _lock.endRead(); }
+    finally { endDispatch("compileEnded", start); }
+  }
+
+  /** Called when another batch of errors is available during a compile. */
+  public void compileErrorsReported() {
+    final long start = startDispatch();
+    try { for (CompilerListener cl : _listeners) { cl.compileErrorsReported(); } }
+    finally { endDispatch("compileErrorsReported", start); }
   }
 
   /** Called if the compile cannot be performed. By default, the Exception is an UnexpectedException containing an
     * explanatory message.
     */
   public void compileAborted(Exception e) {
-    _lock.startRead();
+    final long start = startDispatch();
     try { for (CompilerListener cl : _listeners) { cl.compileAborted(e); } }
-    finally { _lock.endRead(); }
+    finally { endDispatch("compileAborted", start); }
   }
   
   /** Called when files are saved before compiling. It is up to the caller of this method to check if the 
     * documents have been saved, using IGetDocuments.hasModifiedDocuments().
     */
   public void saveBeforeCompile() {
-    _lock.startRead();
+    final long start = startDispatch();
     try { for (CompilerListener cl : _listeners) { cl.saveBeforeCompile(); } }
-    finally { _lock.endRead(); }
+    finally { endDispatch("saveBeforeCompile", start); }
   }
   
   /** Called when files are saved before compiling. It is up to the caller of this method to check if the 
     * documents have been saved, using IGetDocuments.hasModifiedDocuments().
     */
   public void saveUntitled() {
-    _lock.startRead();
+    final long start = startDispatch();
     try { for (CompilerListener cl : _listeners) { cl.saveUntitled(); } }
-    finally { _lock.endRead(); }
+    finally { endDispatch("saveUntitled", start); }
   }
   
   /** Called after the active compiler has been changed. */
   public void activeCompilerChanged() {
 //    new ScrollableDialog(null, "CompilerEventNotifier.compileStarted() called for listeners " + _listeners, "", "").show();
-    _lock.startRead();
+    final long start = startDispatch();
     try { for (CompilerListener cl : _listeners) { cl.activeCompilerChanged(); } }
-    finally { _lock.endRead(); }
+    finally { endDispatch("activeCompilerChanged", start); }
   }
 }
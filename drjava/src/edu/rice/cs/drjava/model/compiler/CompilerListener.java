@@ -53,6 +53,12 @@ public interface CompilerListener {
    */
   public void compileEnded(File workDir, List<? extends File> excludedFiles);
   
+  /** Called while a compile is running, when the compiler model's error model has been updated with another batch
+    * of errors.  The errors are available from {@link CompilerModel#getCompilerErrorModel}.  Only fired by streaming
+    * compilers, and always followed by {@link #compileEnded}.
+    */
+  public void compileErrorsReported();
+  
   /** Called if a compilation is aborted. 
    * @param e the exception with which the compilation terminated
    */
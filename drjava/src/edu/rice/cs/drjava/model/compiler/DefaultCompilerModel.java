@@ -89,8 +89,12 @@ public class DefaultCompilerModel implements CompilerModel {
   /** The global model to which this compiler model belongs. */
   private final GlobalModel _model;
   
-  /** The error model containing all current compiler errors. */
-  private CompilerErrorModel _compilerErrorModel;
+  /** The number of new errors from a streaming compiler that are published together. */
+  private static final int ERROR_BATCH_SIZE = 25;
+  
+  /** The error model containing all current compiler errors.  Replaced by the compiling thread, possibly several
+    * times during a compile. */
+  private volatile CompilerErrorModel _compilerErrorModel;
   
   /** The lock providing mutual exclustion between compilation and unit testing */
   private Object _compilerLock = new Object();
@@ -356,16 +360,25 @@ public class DefaultCompilerModel implements CompilerModel {
       if (preprocessedFiles != null) System.out.println("Performed Language Level Translation of " + preprocessedFiles);
       if (errors.isEmpty()) {
         CompilerInterface compiler = getActiveCompiler();
+        boolean streaming = compiler instanceof StreamingCompilerInterface;
+        ErrorCollector collector = 
+          new ErrorCollector(errors, DrJava.getConfig().getSetting(OptionConstants.COMPILER_ERROR_LIMIT), streaming);
+        
+        /** If compiling a language level file, do not show warnings, as these are not caught by the language level 
+          * parser */
+        List<? extends File> toCompile = (preprocessedFiles == null) ? files : preprocessedFiles;
+        boolean showWarnings = (preprocessedFiles == null);
         
         // Mutual exclusion with JUnit code that finds all test classes (in DefaultJUnitModel)
         synchronized(_compilerLock) {
-          if (preprocessedFiles == null) {
-            errors.addAll(compiler.compile(files, classPath, null, buildDir, bootClassPath, null, true));
+          if (streaming) {
+            ((StreamingCompilerInterface) compiler).compile(toCompile, classPath, null, buildDir, bootClassPath, null,
+                                                            showWarnings, collector);
           }
           else {
-            /** If compiling a language level file, do not show warnings, as these are not caught by the language level 
-              * parser */
-            errors.addAll(compiler.compile(preprocessedFiles, classPath, null, buildDir, bootClassPath, null, false));
+            for (DJError e : compiler.compile(toCompile, classPath, null, buildDir, bootClassPath, null, showWarnings)) {
+              if (! collector.errorReported(e)) break;
+            }
           }
         }
       }
@@ -586,13 +599,61 @@ public class DefaultCompilerModel implements CompilerModel {
    * @param errors the list of errors to be sorted
    * @throws IOException if an IO operation fails
    */
-  private void _distributeErrors(List<? extends DJError> errors) throws IOException {
+  private void _distributeErrors(List<? extends DJError> errors) {
 //    resetCompilerErrors();  // Why is this done?
 //    System.err.println("Preparing to construct CompilerErrorModel for errors: " + errors);
     _compilerErrorModel = new CompilerErrorModel(errors.toArray(new DJError[0]), _model);
     _model.setNumCompilerErrors(_compilerErrorModel.getNumCompilerErrors());  // cache number of compiler errors in global model
   }
   
+  /** Collects the errors of a single compile.  Errors from a streaming compiler are published to the error model in
+    * batches of ERROR_BATCH_SIZE while the compiler runs, so that the error panel fills in during a compile with many
+    * errors; each batch replaces the error model with one holding all errors so far (cheap, since error positions are
+    * created lazily) and fires compileErrorsReported.  Errors that do not fill a batch are published when the compile
+    * ends.  Once an error beyond the limit is reported, a notice is added: a streaming compiler is asked to stop, and
+    * the remaining errors of any other compiler are dropped.  Only used by the compiling thread.
+    */
+  private class ErrorCollector implements CompilerDiagnosticListener {
+    private final List<DJError> _errors;
+    private final int _limit;
+    private final boolean _streaming;
+    private int _numErrors = 0;
+    private int _numPublished = 0;
+    private boolean _stopped = false;
+    
+    /** @param errors the list to which errors are added
+      * @param limit the number of errors (not counting warnings) after which to stop, or 0 for no limit
+      * @param streaming whether the errors come from a streaming compiler, and are published before the compile ends
+      */
+    ErrorCollector(List<DJError> errors, int limit, boolean streaming) {
+      _errors = errors;
+      _limit = limit;
+      _streaming = streaming;
+    }
+    
+    public boolean errorReported(DJError error) {
+      if (_stopped) return false;
+      if (! error.isWarning() && _numErrors == _limit && _limit > 0) {
+        String notice = _streaming ? "Compilation stopped after " + _limit + " errors." :
+          "Only the first " + _limit + " errors are shown.";
+        // a warning, so that it is not counted among the errors
+        _errors.add(new DJError(notice, true));
+        _stopped = true;
+        return false;
+      }
+      _errors.add(error);
+      if (! error.isWarning()) _numErrors++;
+      if (_streaming && _errors.size() - _numPublished >= ERROR_BATCH_SIZE) {
+        _numPublished = _errors.size();
+        _distributeErrors(_errors);
+        Utilities.invokeLater(new Runnable() { public void run() { _notifier.compileErrorsReported(); } });
+      }
+      return true;
+    }
+    
+    public void compilerFailed(DJError error) { _errors.add(0, error); }
+  }
+  
   //----------------------------- Error Results -----------------------------//
   
   /** @return the CompilerErrorModel representing the last compile. */
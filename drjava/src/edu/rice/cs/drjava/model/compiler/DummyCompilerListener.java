@@ -45,6 +45,7 @@ import java.util.List;
 public class DummyCompilerListener implements CompilerListener {
   public void compileStarted() { }
   public void compileEnded(File workDir, List<? extends File> excludedFiles) { }
+  public void compileErrorsReported() { }
   public void compileAborted(Exception e) { }
   public void saveBeforeCompile() { }
   public void saveUntitled() { }
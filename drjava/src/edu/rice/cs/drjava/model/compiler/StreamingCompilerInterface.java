@@ -0,0 +1,65 @@
+/*BEGIN_COPYRIGHT_BLOCK
+ *
+ * Copyright (c) 2001-2017, JavaPLT group at Rice University (drjava@rice.edu)
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    * Redistributions of source code must retain the above copyright
+ *      notice, this list of conditions and the following disclaimer.
+ *    * Redistributions in binary form must reproduce the above copyright
+ *      notice, this list of conditions and the following disclaimer in the
+ *      documentation and/or other materials provided with the distribution.
+ *    * Neither the names of DrJava, the JavaPLT group, Rice University, nor the
+ *      names of its contributors may be used to endorse or promote products
+ *      derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This software is Open Source Initiative approved Open Source Software.
+ * Open Source Initative Approved is a trademark of the Open Source Initiative.
+ * 
+ * This file is part of DrJava.  Download the current version of this project
+ * from http://www.drjava.org/ or http://sourceforge.net/projects/drjava/
+ * 
+ * END_COPYRIGHT_BLOCK*/
+
+package edu.rice.cs.drjava.model.compiler;
+
+import java.io.File;
+import java.util.List;
+
+/** A compiler that can report its errors while it is running, instead of only returning them when it is done.
+  * This lets the error panel fill in as a long compilation proceeds, and lets a compilation with many errors be
+  * stopped early.  Compilers that do not implement this interface are treated as reporting all of their errors
+  * at the end.
+  * @version $Id$
+  */
+public interface StreamingCompilerInterface extends CompilerInterface {
+  
+  /** Compile the given files, passing each error to the listener as soon as it is produced.  The parameters are
+    * the same as those of {@link CompilerInterface#compile}.  If the listener asks the compiler to stop, the
+    * compilation is abandoned; errors reported after that point may be dropped.
+    * @param files  Source files to compile.
+    * @param classPath  Support jars or directories that should be on the classpath.  If <code>null</code>, the default is used.
+    * @param sourcePath  Location of additional sources to be compiled on-demand.  If <code>null</code>, the default is used.
+    * @param destination  Location (directory) for compiled classes.  If <code>null</code>, the default in-place location is used.
+    * @param bootClassPath  The bootclasspath.  If <code>null</code>, the default is used.
+    * @param sourceVersion  The language version of the sources.  If <code>null</code>, the default is used.
+    * @param showWarnings  Whether compiler warnings should be shown or ignored.
+    * @param listener  Receives each error as it is reported.
+    */
+  void compile(List<? extends File> files, List<? extends File> classPath, List<? extends File> sourcePath,
+               File destination, List<? extends File> bootClassPath, String sourceVersion, boolean showWarnings,
+               CompilerDiagnosticListener listener);
+}
@@ -52,9 +52,8 @@ import java.awt.EventQueue;
  *  internal implementation.  Notifiers should therefore be considered a private implementation detail of the 
  *  components, and should not be used directly outside of the "host" component.
  *  <p>
- *  All methods in this class must use the synchronization methods provided by ReaderWriterLock.  This ensures that
- *  multiple notifications (reads) can occur simultaneously, but only one thread can be adding or removing listeners 
- *  (writing) at a time, and no reads can occur during a write.
+ *  All notifications iterate over a snapshot of the listeners (see EventNotifier), so they never block, and
+ *  listeners may be added or removed at any time, even by a listener during a notification.
  *  <p>
  *  <i>No</i> methods on this class should be synchronized using traditional Java synchronization!
  *  <p>
@@ -66,27 +65,25 @@ public class DebugEventNotifier extends EventNotifier<DebugListener> implements
   /** Called when debugger mode has been enabled.  Must be executed in event thread. */
   public void debuggerStarted() {
     assert EventQueue.isDispatchThread();
-    _lock.startRead();
+    final long start = startDispatch();
     try {
-      int size = _listeners.size();
-      for (int i = 0; i < size; i++) {
-        _listeners.get(i).debuggerStarted();
+      for (DebugListener l : _listeners) {
+        l.debuggerStarted();
       }
     }
-    finally { _lock.endRead(); }
+    finally { endDispatch("debuggerStarted", start); }
   }
 
   /** Called when debugger mode has been disabled.  Must be executed in event thread. */
   public void debuggerShutdown() {
     assert EventQueue.isDispatchThread();
-    _lock.startRead();
+    final long start = startDispatch();
     try {
-      int size = _listeners.size();
-      for (int i = 0; i < size; i++) {
-        _listeners.get(i).debuggerShutdown();
+      for (DebugListener l : _listeners) {
+        l.debuggerShutdown();
       }
     }
-    finally { _lock.endRead(); }
+    finally { endDispatch("debuggerShutdown", start); }
   }
 
   /** Called when the given line is reached by the current thread in the debugger, to request that the line be 
@@ -97,14 +94,13 @@ public class DebugEventNotifier extends EventNotifier<DebugListener> implements
     */
   public void threadLocationUpdated(OpenDefinitionsDocument doc, int lineNumber,  boolean shouldHighlight) {
     assert EventQueue.isDispatchThread();
-    _lock.startRead();
+    final long start = startDispatch();
     try {
-      int size = _listeners.size();
-      for (int i = 0; i < size; i++) {
-        _listeners.get(i).threadLocationUpdated(doc, lineNumber, shouldHighlight);
+      for (DebugListener l : _listeners) {
+        l.threadLocationUpdated(doc, lineNumber, shouldHighlight);
       }
     }
-    finally { _lock.endRead(); }
+    finally { endDispatch("threadLocationUpdated", start); }
   }
 
   /** Called when a breakpoint is set in a document.  Must be executed in event thread.
@@ -112,12 +108,11 @@ public class DebugEventNotifier extends EventNotifier<DebugListener> implements
     */
   public void regionAdded(Breakpoint bp) {
     assert EventQueue.isDispatchThread();
-    _lock.startRead();
+    final long start = startDispatch();
     try {
-      int size = _listeners.size();
-      for (int i = 0; i < size; i++) { _listeners.get(i).regionAdded(bp); }
+      for (DebugListener l : _listeners) { l.regionAdded(bp); }
     }
-    finally { _lock.endRead(); }
+    finally { endDispatch("regionAdded", start); }
   }
 
   /** Called when a breakpoint is reached during execution. Must be executed in event thread.
@@ -125,14 +120,13 @@ public class DebugEventNotifier extends EventNotifier<DebugListener> implements
    */
   public void breakpointReached(Breakpoint bp) {
     assert EventQueue.isDispatchThread();
-    _lock.startRead();
+    final long start = startDispatch();
     try {
-      int size = _listeners.size();
-      for (int i = 0; i < size; i++) {
-        _listeners.get(i).breakpointReached(bp);
+      for (DebugListener l : _listeners) {
+        l.breakpointReached(bp);
       }
     }
-    finally { _lock.endRead(); }
+    finally { endDispatch("breakpointReached", start); }
   }
 
   /** Called when a breakpoint is changed during execution. Must be executed in event thread.
@@ -140,15 +134,14 @@ public class DebugEventNotifier extends EventNotifier<DebugListener> implements
     */
   public void regionChanged(Breakpoint bp) {
     assert EventQueue.isDispatchThread();
-    _lock.startRead();
+    final long start = startDispatch();
     try {
-      int size = _listeners.size();
-      for (int i = 0; i < size; i++) {
-        _listeners.get(i).regionChanged(bp);
+      for (DebugListener l : _listeners) {
+        l.regionChanged(bp);
       }
     }
     finally {
-      _lock.endRead();
+      endDispatch("regionChanged", start);
     }
   }
   
@@ -157,12 +150,11 @@ public class DebugEventNotifier extends EventNotifier<DebugListener> implements
     */
   public void watchSet(DebugWatchData w) {
     assert EventQueue.isDispatchThread();
-    _lock.startRead();
+    final long start = startDispatch();
     try {
-      int size = _listeners.size();
-      for (int i = 0; i < size; i++) { _listeners.get(i).watchSet(w); }
+      for (DebugListener l : _listeners) { l.watchSet(w); }
     }
-    finally { _lock.endRead(); }
+    finally { endDispatch("watchSet", start); }
   }
   
   /** Called when a watch is removed.  Must be executed in event thread.
@@ -170,12 +162,11 @@ public class DebugEventNotifier extends EventNotifier<DebugListener> implements
     */
   public void watchRemoved(DebugWatchData w) {
     assert EventQueue.isDispatchThread();
-    _lock.startRead();
+    final long start = startDispatch();
     try {
-      int size = _listeners.size();
-      for (int i = 0; i < size; i++) { _listeners.get(i).watchRemoved(w); }
+      for (DebugListener l : _listeners) { l.watchRemoved(w); }
     }
-    finally { _lock.endRead(); }
+    finally { endDispatch("watchRemoved", start); }
   }
 
   /** Called when a breakpoint is removed from a document.  Must be executed in event thread.
@@ -183,90 +174,82 @@ public class DebugEventNotifier extends EventNotifier<DebugListener> implements
     */
   public void regionRemoved(Breakpoint bp) {
     assert EventQueue.isDispatchThread();
-    _lock.startRead();
+    final long start = startDispatch();
     try {
-      int size = _listeners.size();
-      for (int i = 0; i < size; i++) _listeners.get(i).regionRemoved(bp);
+      for (DebugListener l : _listeners) l.regionRemoved(bp);
     }
-    finally { _lock.endRead(); }
+    finally { endDispatch("regionRemoved", start); }
   }
 
   /** Called when a step is requested on the current thread. Must be executed in event thread. */
   public void stepRequested() {
     assert EventQueue.isDispatchThread();
-    _lock.startRead();
+    final long start = startDispatch();
     try {
-      int size = _listeners.size();
-      for (int i = 0; i < size; i++) _listeners.get(i).stepRequested();
+      for (DebugListener l : _listeners) l.stepRequested();
     }
-    finally { _lock.endRead(); }
+    finally { endDispatch("stepRequested", start); }
   }
 
   /** Called when the current thread is suspended.  */
   public void currThreadSuspended() {
-    _lock.startRead();
+    final long start = startDispatch();
     try {
-      int size = _listeners.size();
-      for (int i = 0; i < size; i++) _listeners.get(i).currThreadSuspended();
+      for (DebugListener l : _listeners) l.currThreadSuspended();
     }
-    finally { _lock.endRead(); }
+    finally { endDispatch("currThreadSuspended", start); }
   }
 
   /** Called when the current thread is resumed.  Must be executed in event thread. */
   public void currThreadResumed() {
     assert EventQueue.isDispatchThread();
-    _lock.startRead();
+    final long start = startDispatch();
     try {
-      int size = _listeners.size();
-      for (int i = 0; i < size; i++) _listeners.get(i).currThreadResumed();
+      for (DebugListener l : _listeners) l.currThreadResumed();
     }
-    finally { _lock.endRead(); }
+    finally { endDispatch("currThreadResumed", start); }
   }
 
   /** Called when a thread starts. Must be executed in event thread. */
   public void threadStarted() {
     assert EventQueue.isDispatchThread();
-    _lock.startRead();
+    final long start = startDispatch();
     try {
-      int size = _listeners.size();
-      for (int i = 0; i < size; i++) _listeners.get(i).threadStarted();
+      for (DebugListener l : _listeners) l.threadStarted();
     }
-    finally { _lock.endRead(); }
+    finally { endDispatch("threadStarted", start); }
   }
 
   /** Called when the current thread dies. Must be executed in event thread. */
   public void currThreadDied() {
     assert EventQueue.isDispatchThread();
-    _lock.startRead();
+    final long start = startDispatch();
     try {
-      int size = _listeners.size();
-      for (int i = 0; i < size; i++) _listeners.get(i).currThreadDied();
+      for (DebugListener l : _listeners) l.currThreadDied();
     }
-    finally { _lock.endRead(); }
+    finally { endDispatch("currThreadDied", start); }
   }
 
   /** Called when any thread other than the current thread dies. Must be executed in event thread. */
   public void nonCurrThreadDied() {
     assert EventQueue.isDispatchThread();
-    _lock.startRead();
+    final long start = startDispatch();
     try {
-      int size = _listeners.size();
-      for (int i = 0; i < size; i++) _listeners.get(i).nonCurrThreadDied();
+      for (DebugListener l : _listeners) l.nonCurrThreadDied();
     }
-    finally { _lock.endRead(); }
+    finally { endDispatch("nonCurrThreadDied", start); }
   }
 
   /** Called when the current (selected) thread is set in the debugger.
     * @param thread the thread that was set as current
     */
   public void currThreadSet(DebugThreadData thread) {
-    _lock.startRead();
+    final long start = startDispatch();
     try {
-      int size = _listeners.size();
-      for (int i = 0; i < size; i++) {
-        _listeners.get(i).currThreadSet(thread);
+      for (DebugListener l : _listeners) {
+        l.currThreadSet(thread);
       }
     }
-    finally { _lock.endRead(); }
+    finally { endDispatch("currThreadSet", start); }
   }
 }
@@ -856,8 +856,16 @@ public class DefinitionsDocument extends AbstractDJDocument implements Finalizab
     */
   public String getPackageName() {
     // assert EventQueue.isDispatchThread();
-    Reader r;
-    r = new StringReader(getText()); // getText() is cheap if document is not resident
+    return parsePackageName(getText()); // getText() is cheap if document is not resident
+  }
+  
+  /** Parses the package declaration at the top of the given program text.  Does not depend on any document state, so
+    * it may be used on any thread, e.g., to determine the package of a file before its document is created.
+    * @param text the program text
+    * @return the name of the package, or "" if the text has no (legal) package declaration
+    */
+  public static String parsePackageName(String text) {
+    Reader r = new StringReader(text);
     try { return new Parser(r).packageDeclaration(Parser.DeclType.TOP).getName(); }
     catch (ParseException e) { return ""; }
     // addresses bug [ 1815387 ] Editor should discard parse errors for now
@@ -0,0 +1,208 @@
+/*BEGIN_COPYRIGHT_BLOCK
+ *
+ * Copyright (c) 2001-2017, JavaPLT group at Rice University (drjava@rice.edu)
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    * Redistributions of source code must retain the above copyright
+ *      notice, this list of conditions and the following disclaimer.
+ *    * Redistributions in binary form must reproduce the above copyright
+ *      notice, this list of conditions and the following disclaimer in the
+ *      documentation and/or other materials provided with the distribution.
+ *    * Neither the names of DrJava, the JavaPLT group, Rice University, nor the
+ *      names of its contributors may be used to endorse or promote products
+ *      derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This software is Open Source Initiative approved Open Source Software.
+ * Open Source Initative Approved is a trademark of the Open Source Initiative.
+ * 
+ * This file is part of DrJava.  Download the current version of this project
+ * from http://www.drjava.org/ or http://sourceforge.net/projects/drjava/
+ * 
+ * END_COPYRIGHT_BLOCK*/
+
+package edu.rice.cs.drjava.model.definitions;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.swing.text.BadLocationException;
+
+import edu.rice.cs.drjava.model.GlobalEventNotifier;
+import edu.rice.cs.util.Benchmark;
+import edu.rice.cs.util.FileOps;
+import edu.rice.cs.util.UnexpectedException;
+import edu.rice.cs.util.swing.Utilities;
+
+/** Benchmarks for the editor document core: the reduced model, the AbstractDJDocument queries built on it, and the
+  * indenter.  Each workload is run on a synthetic source and on any real source files named on the command line.
+  * All document operations are run in the event thread, as in DrJava.  Usage:
+  * {@code DocumentBenchmark [file...]}; see {@link Benchmark} for the properties that control the iteration counts.
+  * @version $Id$
+  */
+public class DocumentBenchmark {
+  
+  /** The number of characters typed in one typing burst. */
+  private static final int BURST_LENGTH = 2000;
+  
+  /** The size of the regions passed to getHighlightStatus, roughly one screen of text. */
+  private static final int HIGHLIGHT_CHUNK = 3000;
+  
+  public static void main(final String... args) throws Exception {
+    final List<String> names = new ArrayList<String>();
+    final List<String> sources = new ArrayList<String>();
+    names.add("synthetic");
+    sources.add(syntheticSource(200));
+    for (String a : args) {
+      File f = new File(a);
+      names.add(f.getName());
+      sources.add(FileOps.readFileAsSwingText(f));
+    }
+    
+    final Benchmark b = new Benchmark();
+    Utilities.invokeAndWait(new Runnable() {
+      public void run() {
+        try {
+          for (int i = 0; i < sources.size(); i++) {
+            for (Benchmark.Case c : cases(names.get(i), sources.get(i))) b.measure(c);
+          }
+        }
+        catch (Exception e) { throw new UnexpectedException(e); }
+      }
+    });
+    System.exit(0);
+  }
+  
+  /** @param name a name for the source
+    * @param text the source text
+    * @return the benchmark cases over the given source
+    */
+  public static List<Benchmark.Case> cases(String name, final String text) {
+    List<Benchmark.Case> result = new ArrayList<Benchmark.Case>();
+    
+    result.add(new DocumentCase("typing burst (" + name + ")", text) {
+      public Object run() throws BadLocationException {
+        // type a method body into the middle of the document, one key at a time
+        String burst = _typedText();
+        int pos = _doc.getLength() / 2;
+        for (int i = 0; i < burst.length(); i++) _doc.insertString(pos + i, burst.substring(i, i + 1), null);
+        return _doc;
+      }
+    });
+    
+    result.add(new Benchmark.Case("large paste (" + name + ")") {
+      private DefinitionsDocument _doc;
+      public void setUp() { _doc = new DefinitionsDocument(new GlobalEventNotifier()); }
+      public Object run() throws BadLocationException {
+        _doc.insertString(0, text, null);
+        return _doc;
+      }
+    });
+    
+    result.add(new DocumentCase("indent all (" + name + ")", _stripIndentation(text)) {
+      public Object run() {
+        _doc.indentLines(0, _doc.getLength());
+        return _doc;
+      }
+    });
+    
+    result.add(new DocumentCase("brace matching (" + name + ")", text) {
+      public Object run() {
+        int total = 0;
+        for (int i = 0; i < text.length(); i++) {
+          char c = text.charAt(i);
+          if (c == '}' || c == ')' || c == ']') {
+            _doc.setCurrentLocation(i + 1);
+            total += _doc.balanceBackward();
+          }
+          else if (c == '{' || c == '(' || c == '[') {
+            _doc.setCurrentLocation(i + 1);
+            total += _doc.balanceForward();
+          }
+        }
+        return total;
+      }
+    });
+    
+    result.add(new DocumentCase("highlight queries (" + name + ")", text) {
+      public Object run() {
+        int total = 0;
+        for (int start = 0; start < _doc.getLength(); start += HIGHLIGHT_CHUNK) {
+          total += _doc.getHighlightStatus(start, Math.min(start + HIGHLIGHT_CHUNK, _doc.getLength())).size();
+        }
+        return total;
+      }
+    });
+    
+    return result;
+  }
+  
+  /** A case that starts each iteration with a fresh document containing the given text. */
+  private static abstract class DocumentCase extends Benchmark.Case {
+    private final String _text;
+    protected DefinitionsDocument _doc;
+    DocumentCase(String name, String text) { super(name); _text = text; }
+    public void setUp() throws BadLocationException {
+      _doc = new DefinitionsDocument(new GlobalEventNotifier());
+      _doc.insertString(0, _text, null);
+    }
+  }
+  
+  /** @return the text typed in a typing burst: method bodies with nested braces, strings, and comments */
+  private static String _typedText() {
+    StringBuilder sb = new StringBuilder();
+    while (sb.length() < BURST_LENGTH) {
+      sb.append("\n  void typed() {\n    for (int i = 0; i < n; i++) { s += \"}{\" + a[i]; } // done\n  }\n");
+    }
+    return sb.substring(0, BURST_LENGTH);
+  }
+  
+  /** Generates a Java source with the given number of classes.  Each class has fields, nested blocks, strings
+    * containing braces, and line and block comments, so that all the reduced model's token kinds are exercised.
+    * @param classes the number of classes
+    * @return the source
+    */
+  public static String syntheticSource(int classes) {
+    StringBuilder sb = new StringBuilder("package bench;\n\nimport java.util.*;\n\n");
+    for (int i = 0; i < classes; i++) {
+      sb.append("/** Class number ").append(i).append(". */\n");
+      sb.append("class C").append(i).append(" extends ArrayList<String> {\n");
+      sb.append("  private int[] _values = new int[] { 1, 2, 3 };\n");
+      sb.append("  /* a block comment with a brace } in it */\n");
+      sb.append("  public String m").append(i).append("(Map<String, List<Integer>> m) {\n");
+      sb.append("    String s = \"{ not a brace \\\" still a string }\";\n");
+      sb.append("    for (int j = 0; j < _values.length; j++) {\n");
+      sb.append("      if (j % 2 == 0) { s += 'x'; } // line comment {\n");
+      sb.append("      else {\n");
+      sb.append("        switch (j) {\n");
+      sb.append("          case 1: s += m.get(s); break;\n");
+      sb.append("          default: s += (j + 1) * 2;\n");
+      sb.append("        }\n");
+      sb.append("      }\n");
+      sb.append("    }\n");
+      sb.append("    return s;\n");
+      sb.append("  }\n");
+      sb.append("}\n\n");
+    }
+    return sb.toString();
+  }
+  
+  /** @return the text with all leading whitespace removed from each line */
+  private static String _stripIndentation(String text) {
+    return text.replaceAll("(?m)^[ \\t]+", "");
+  }
+}
@@ -40,9 +40,16 @@ import java.io.File;
 import java.io.IOException;
 import java.io.BufferedReader;
 import java.io.StringReader;
+import java.io.StringWriter;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.awt.EventQueue;
+import javax.tools.DocumentationTool;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
 
 import edu.rice.cs.plt.lambda.Thunk;
 import edu.rice.cs.plt.io.IOUtil;
@@ -88,6 +95,9 @@ public class DefaultJavadocModel implements JavadocModel {
   /** Launcher for javadoc process */
   private final JVMBuilder _jvmBuilder;
   
+  /** Whether the javadoc tool belongs to the running JVM, and can be run in-process if it is available. */
+  private final boolean _inProcess;
+  
   /** The error model containing all current Javadoc errors. */
   private CompilerErrorModel _javadocErrorModel;
   
@@ -103,6 +113,7 @@ public class DefaultJavadocModel implements JavadocModel {
     if (javaCommand != null) { builder = builder.javaCommand(javaCommand); }
     if (toolsPath != null) { builder = builder.classPath(toolsPath); }
     _jvmBuilder = builder;
+    _inProcess = _isRunningJava(builder.javaCommand());
     _javadocErrorModel = new CompilerErrorModel();
   }
   
@@ -213,7 +224,8 @@ public class DefaultJavadocModel implements JavadocModel {
     // we should support -- in general, we only support performing operations on the files that are open.
     // (dlsmith r4189)
     
-    final List<String> docFiles = new ArrayList<String>(); // files to send to Javadoc
+    // files to send to Javadoc, by package
+    final Map<String, List<File>> docFiles = new LinkedHashMap<String, List<File>>();
 
     final List<OpenDefinitionsDocument> llDocs = new ArrayList<OpenDefinitionsDocument>();
     for (OpenDefinitionsDocument doc: _model.getOpenDefinitionsDocuments()) {
@@ -222,14 +234,20 @@ public class DefaultJavadocModel implements JavadocModel {
         File docFile = _getFileFromDocument(doc, saver);
         final File file = IOUtil.attemptCanonicalFile(docFile);
 
+        List<File> packageFiles = docFiles.get(doc.getPackageName());
+        if (packageFiles == null) {
+          packageFiles = new ArrayList<File>();
+          docFiles.put(doc.getPackageName(), packageFiles);
+        }
+        
         // If this is a language level file, make sure it has been compiled
         if (DrJavaFileUtils.isLLFile(file)) {
           // Utilities.showDebug("isLLFile=true: "+file);
           llDocs.add(doc);
-          docFiles.add(DrJavaFileUtils.getJavaForLLFile(file).getPath());
+          packageFiles.add(DrJavaFileUtils.getJavaForLLFile(file));
         }
         else {
-          docFiles.add(file.getPath());
+          packageFiles.add(file);
         }
       }
       catch (IllegalStateException e) {
@@ -241,7 +259,7 @@ public class DefaultJavadocModel implements JavadocModel {
     }
     
     // Don't attempt to create Javadoc if no files are open, or if open file is unnamed.
-    if (docFiles.size() == 0) {
+    if (docFiles.isEmpty()) {
       // Use EventQueue.invokeLater so that notification is deferred when running in the event thread.
       EventQueue.invokeLater(new Runnable() { public void run() { _notifier.javadocEnded(false, destDirFile, true); } });
       return;
@@ -279,7 +297,7 @@ public class DefaultJavadocModel implements JavadocModel {
                 public void run() {
                   // Utilities.showDebug("running Javadoc");
                   // Run the actual Javadoc process
-                  _runJavadoc(docFiles, destDirFile, IterUtil.<String>empty(), true);
+                  _javadocAllFiles(docFiles, destDirFile);
                 }
               });
             }
@@ -296,10 +314,87 @@ public class DefaultJavadocModel implements JavadocModel {
       }
       
       // Run the actual Javadoc process
-      _runJavadoc(docFiles, destDirFile, IterUtil.<String>empty(), true);
+      _javadocAllFiles(docFiles, destDirFile);
     } });
   }
   
+  /** Generates the documentation for all files in a new thread.  If the JAVADOC_INCREMENTAL option is set, and the
+    * destination holds the output of an earlier run, only the packages whose documentation may have changed (see 
+    * {@link JavadocState}) are regenerated, in a temporary directory that links to the existing output, and then
+    * copied into the destination.
+    * @param docFiles the files to document, by package
+    * @param destDir the destination directory
+    */
+  private void _javadocAllFiles(final Map<String, List<File>> docFiles, final File destDir) {
+    new Thread("DrJava Javadoc Thread") {
+      public void run() {
+        List<String> allFiles = _paths(docFiles.keySet(), docFiles);
+        Iterable<String> settings = _javadocArgs(IterUtil.<String>empty());
+        JavadocState state = null;
+        if (DrJava.getConfig().getSetting(OptionConstants.JAVADOC_INCREMENTAL)) {
+          try { state = JavadocState.compute(docFiles, settings); }
+          catch (IOException e) { /* regenerate everything */ }
+        }
+        Set<String> changed = (state == null) ? null : state.changedSince(JavadocState.load(destDir));
+        if (changed != null && changed.isEmpty()) {
+          // nothing to regenerate
+          _finishJavadoc(new ArrayList<DJError>(), destDir, true);
+          return;
+        }
+        
+        // if this run fails, the next one must regenerate everything
+        new File(destDir, JavadocState.FILE_NAME).delete();
+        List<DJError> errors;
+        if (changed == null) { errors = _generate(settings, destDir, allFiles); }
+        else {
+          errors = new ArrayList<DJError>();
+          try {
+            File tempDir = IOUtil.createAndMarkTempDirectory("DrJava-javadoc", "");
+            // a relative link is relative to the destination, so once the output is copied, it refers to the 
+            // existing documentation for the other packages
+            errors.addAll(_generate(IterUtil.compose(settings, IterUtil.make("-linkoffline", ".", destDir.getPath())),
+                                    tempDir, _paths(changed, docFiles)));
+            if (_onlyWarnings(errors)) {
+              for (String pkg: changed) {
+                String path = pkg.replace('.', File.separatorChar);
+                _copyRecursively(new File(tempDir, path), new File(destDir, path));
+              }
+            }
+            IOUtil.deleteRecursively(tempDir);
+          }
+          catch (IOException e) {
+            errors.add(new DJError("IOException: " + e.getMessage(), false));
+          }
+        }
+        
+        if (state != null && _onlyWarnings(errors)) {
+          try { state.save(destDir); }
+          catch (IOException e) { /* the next run regenerates everything */ }
+        }
+        _finishJavadoc(errors, destDir, true);
+      }
+    }.start();
+  }
+  
+  /** @return the paths of the files in the given packages */
+  private static List<String> _paths(Iterable<String> packages, Map<String, List<File>> docFiles) {
+    List<String> result = new ArrayList<String>();
+    for (String pkg: packages) {
+      for (File f: docFiles.get(pkg)) result.add(f.getPath());
+    }
+    return result;
+  }
+  
+  private static void _copyRecursively(File source, File dest) throws IOException {
+    if (source.isDirectory()) {
+      if (! dest.isDirectory() && ! dest.mkdirs()) throw new IOException("Could not create directory: " + dest);
+      File[] files = source.listFiles();
+      if (files == null) throw new IOException("Could not read directory: " + source);
+      for (File f: files) _copyRecursively(f, new File(dest, f.getName()));
+    }
+    else if (source.isFile()) { IOUtil.copyFile(source, dest); }
+  }
+  
   
   
   // -------------------- Javadoc Current Document --------------------
@@ -443,7 +538,7 @@ public class DefaultJavadocModel implements JavadocModel {
     if (_model.hasModifiedDocuments() || _model.hasUntitledDocuments()) _notifier.saveBeforeJavadoc();
   }
   
-  /** Run a new process to generate javdocs, and then tell the listeners when we're done.
+  /** Run javadoc, and then tell the listeners when we're done.
    *
    * @param files  List of files to generate
    * @param destDir  Directory where the results are being saved
@@ -451,19 +546,54 @@ public class DefaultJavadocModel implements JavadocModel {
    * @param allDocs  Whether this is running on all documents. If Javadoc is not run on all documents, the target directory will be deleted when DrJava exits
    */
   private void _runJavadoc(Iterable<String> files, final File destDir, Iterable<String> extraArgs, final boolean allDocs) {    
+    _finishJavadoc(_generate(_javadocArgs(extraArgs), destDir, files), destDir, allDocs);
+  }
+  
+  /** Gathers the arguments to javadoc from the config settings, other than the destination and the files.
+    * @param extraArgs  List of additional arguments to use with javadoc
+    * @return the arguments
+    */
+  private Iterable<String> _javadocArgs(Iterable<String> extraArgs) {
     Iterable<String> args = IterUtil.empty();
-    args = IterUtil.compose(args, IterUtil.make("-d", destDir.getPath()));
     args = IterUtil.compose(args, IterUtil.make("-classpath", IOUtil.pathToString(_model.getClassPath())));
     args = IterUtil.compose(args, _getLinkArgs());
     args = IterUtil.compose(args, "-" + DrJava.getConfig().getSetting(OptionConstants.JAVADOC_ACCESS_LEVEL));
     args = IterUtil.compose(args, extraArgs);
     String custom = DrJava.getConfig().getSetting(OptionConstants.JAVADOC_CUSTOM_PARAMS);
     args = IterUtil.compose(args, ArgumentTokenizer.tokenize(custom));
-    args = IterUtil.compose(args, files);
-    
+    return IterUtil.snapshot(args);
+  }
+  
+  /** Runs javadoc, in-process if the running JVM's tool is the one to use and is available, or else in a new process.
+    * @param options  The arguments other than the destination and the files
+    * @param destDir  Directory where the results are being saved
+    * @param files  List of files to generate
+    * @return the errors and warnings reported by javadoc
+    */
+  private List<DJError> _generate(Iterable<String> options, File destDir, Iterable<String> files) {
+    options = IterUtil.compose(IterUtil.make("-d", destDir.getPath()), options);
     List<DJError> errors = new ArrayList<DJError>();
+    DocumentationTool tool = _inProcess ? ToolProvider.getSystemDocumentationTool() : null;
+    if (tool != null) {
+      StringWriter output = new StringWriter();
+      StandardJavaFileManager fileManager = tool.getStandardFileManager(null, null, null);
+      try {
+        tool.getTask(output, fileManager, null, null, options, fileManager.getJavaFileObjectsFromStrings(files)).call();
+      }
+      catch (RuntimeException e) {
+        // thrown for invalid options, for example
+        errors.add(new DJError(e.toString(), false));
+      }
+      finally {
+        try { fileManager.close(); }
+        catch (IOException e) { /* ignore */ }
+      }
+      errors.addAll(_extractErrors(output.toString()));
+      return errors;
+    }
+    
     try {
-      Process p = _jvmBuilder.start("com.sun.tools.javadoc.Main", args);
+      Process p = _jvmBuilder.start("com.sun.tools.javadoc.Main", IterUtil.compose(options, files));
       Thunk<String> outputString = ConcurrentUtil.processOutAsString(p);
       Thunk<String> errorString = ConcurrentUtil.processErrAsString(p);
       p.waitFor();
@@ -476,7 +606,22 @@ public class DefaultJavadocModel implements JavadocModel {
     catch (InterruptedException e) {
       errors.add(new DJError("InterruptedException: " + e.getMessage(), false));
     }
-    
+    return errors;
+  }
+  
+  private static boolean _onlyWarnings(List<DJError> errors) {
+    for (DJError e: errors) {
+      if (! e.isWarning()) return false;
+    }
+    return true;
+  }
+  
+  /** Records the errors from a javadoc run, and then tells the listeners that it is done.
+    * @param errors  The errors and warnings reported by javadoc
+    * @param destDir  Directory where the results were saved
+    * @param allDocs  Whether this ran on all documents
+    */
+  private void _finishJavadoc(List<DJError> errors, final File destDir, final boolean allDocs) {
     _javadocErrorModel = new CompilerErrorModel(IterUtil.toArray(errors, DJError.class), _model);
     
     // waitFor() exit value is 1 for both errors and warnings, so it's no use
@@ -486,6 +631,22 @@ public class DefaultJavadocModel implements JavadocModel {
     EventQueue.invokeLater(new Runnable() { public void run() { _notifier.javadocEnded(success, destDir, allDocs); } });
   }
   
+  /** Whether the given java command belongs to the running JVM.
+    * @param javaCommand the java command
+    * @return true if the command is in the running JVM's home (or, for a JRE inside a JDK, the JDK's home)
+    */
+  private static boolean _isRunningJava(String javaCommand) {
+    File bin = new File(javaCommand).getParentFile();
+    if (bin == null || bin.getParentFile() == null) return false;
+    return _jdkHome(bin.getParentFile()).equals(_jdkHome(new File(System.getProperty("java.home"))));
+  }
+  
+  private static File _jdkHome(File javaHome) {
+    File home = IOUtil.attemptCanonicalFile(javaHome);
+    if (home.getName().equals("jre") && home.getParentFile() != null) home = home.getParentFile();
+    return home;
+  }
+  
   private Iterable<String> _getLinkArgs() {
     Configuration config = DrJava.getConfig();
     String linkVersion = config.getSetting(OptionConstants.JAVADOC_LINK_VERSION);
@@ -58,11 +58,9 @@ import edu.rice.cs.drjava.model.compiler.CompilerListener;
  * components, and should not be used directly outside of the "host" component.
  * <p>
  *
- * All methods in this class must use the synchronization methods
- * provided by ReaderWriterLock.  This ensures that multiple notifications
- * (reads) can occur simultaneously, but only one thread can be adding
- * or removing listeners (writing) at a time, and no reads can occur
- * during a write.
+ * All notifications iterate over a snapshot of the listeners (see
+ * EventNotifier), so they never block, and listeners may be added or
+ * removed at any time, even by a listener during a notification.
  * <p>
  *
  * <i>No</i> methods on this class should be synchronized using traditional
@@ -76,9 +74,9 @@ class JavadocEventNotifier extends EventNotifier<JavadocListener>
   
   /** Called after Javadoc is started by the GlobalModel. */
   public void javadocStarted() {
-    _lock.startRead();
+    final long start = startDispatch();
     try { for (JavadocListener jl: _listeners) { jl.javadocStarted(); } }
-    finally { _lock.endRead(); }
+    finally { endDispatch("javadocStarted", start); }
   }
   
   /** Called after Javadoc is finished.
@@ -87,27 +85,27 @@ class JavadocEventNotifier extends EventNotifier<JavadocListener>
     * @param allDocs Whether Javadoc was run for all open documents
     */
   public void javadocEnded(boolean success, File destDir, boolean allDocs) {
-    _lock.startRead();
+    final long start = startDispatch();
     try { for (JavadocListener jl: _listeners) { jl.javadocEnded(success, destDir, allDocs); } }
-    finally { _lock.endRead();}
+    finally { endDispatch("javadocEnded", start);}
   }
   
   /** Asks the user if all files should be saved before running javadoc (assuming the proper listener has been 
     * installed). Does not continue with javadoc if the user fails to save!
     */
   public void saveBeforeJavadoc() {
-    _lock.startRead();
+    final long start = startDispatch();
     try { for (JavadocListener jl: _listeners) { jl.saveBeforeJavadoc(); } }
-    finally { _lock.endRead(); }
+    finally { endDispatch("saveBeforeJavadoc", start); }
   }
   
   /** Asks the user if all files should be compiled before running javadoc (assuming the proper listener has been 
     * installed). Does not continue with javadoc if the user fails to save!
     */
   public void compileBeforeJavadoc(final CompilerListener afterCompile) {
-    _lock.startRead();
+    final long start = startDispatch();
     try { for (JavadocListener jl: _listeners) { jl.compileBeforeJavadoc(afterCompile); } }
-    finally { _lock.endRead(); }
+    finally { endDispatch("compileBeforeJavadoc", start); }
   }
 }
 
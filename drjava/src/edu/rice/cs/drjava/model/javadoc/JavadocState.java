@@ -0,0 +1,197 @@
+/*BEGIN_COPYRIGHT_BLOCK
+ *
+ * Copyright (c) 2001-2017, JavaPLT group at Rice University (drjava@rice.edu)
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    * Redistributions of source code must retain the above copyright
+ *      notice, this list of conditions and the following disclaimer.
+ *    * Redistributions in binary form must reproduce the above copyright
+ *      notice, this list of conditions and the following disclaimer in the
+ *      documentation and/or other materials provided with the distribution.
+ *    * Neither the names of DrJava, the JavaPLT group, Rice University, nor the
+ *      names of its contributors may be used to endorse or promote products
+ *      derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This software is Open Source Initiative approved Open Source Software.
+ * Open Source Initative Approved is a trademark of the Open Source Initiative.
+ * 
+ * This file is part of DrJava.  Download the current version of this project
+ * from http://www.drjava.org/ or http://sourceforge.net/projects/drjava/
+ * 
+ * END_COPYRIGHT_BLOCK*/
+
+package edu.rice.cs.drjava.model.javadoc;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import edu.rice.cs.plt.io.IOUtil;
+import edu.rice.cs.plt.iter.IterUtil;
+
+/** A summary of the sources that Javadoc was last run on, kept in the destination directory, so that the next run
+  * only needs to regenerate the packages whose documentation may have changed.  For each package, the summary
+  * records a hash of its sources and the other packages that its sources refer to (found conservatively, by looking
+  * for the package name followed by a dot).  It also records a hash of the Javadoc settings and of the list of files.
+  * @version $Id$
+  */
+class JavadocState {
+  /** The name of the file in the destination directory. */
+  static final String FILE_NAME = ".drjava-javadoc";
+  
+  private static final String SETTINGS_KEY = "settings";
+  private static final String FILES_KEY = "files";
+  private static final String HASH_PREFIX = "hash.";
+  private static final String USES_PREFIX = "uses.";
+  
+  private final Properties _properties;
+  
+  private JavadocState(Properties properties) { _properties = properties; }
+  
+  /** Summarizes the current sources.
+    * @param packages the source files of each package, by package name ("" for the default package)
+    * @param settings the Javadoc arguments other than the destination and the files
+    * @return the summary
+    * @throws IOException if a source file cannot be read
+    */
+  static JavadocState compute(Map<String, ? extends Collection<File>> packages, Iterable<String> settings)
+    throws IOException {
+    Properties p = new Properties();
+    p.setProperty(SETTINGS_KEY, _hash(IterUtil.toString(settings, "", "\n", "")));
+    Map<String, String> sources = new TreeMap<String, String>();
+    StringBuilder allFiles = new StringBuilder();
+    for (Map.Entry<String, ? extends Collection<File>> e: packages.entrySet()) {
+      Set<String> paths = new TreeSet<String>();
+      for (File f: e.getValue()) paths.add(f.getPath());
+      StringBuilder text = new StringBuilder();
+      for (String path: paths) {
+        allFiles.append(path).append('\n');
+        text.append(path).append('\n').append(IOUtil.toString(new File(path))).append('\n');
+      }
+      sources.put(e.getKey(), text.toString());
+      p.setProperty(HASH_PREFIX + e.getKey(), _hash(text.toString()));
+    }
+    p.setProperty(FILES_KEY, _hash(allFiles.toString()));
+    for (Map.Entry<String, String> e: sources.entrySet()) {
+      List<String> uses = new ArrayList<String>();
+      for (String other: sources.keySet()) {
+        if (other.length() > 0 && ! other.equals(e.getKey()) && e.getValue().contains(other + ".")) uses.add(other);
+      }
+      p.setProperty(USES_PREFIX + e.getKey(), IterUtil.toString(uses, "", ",", ""));
+    }
+    return new JavadocState(p);
+  }
+  
+  /** Reads the summary saved in a destination directory.
+    * @param destDir the destination directory
+    * @return the summary, or null if there is none or it cannot be read
+    */
+  static JavadocState load(File destDir) {
+    File f = new File(destDir, FILE_NAME);
+    if (! f.isFile()) return null;
+    Properties p = new Properties();
+    try {
+      InputStream in = new FileInputStream(f);
+      try { p.load(in); }
+      finally { in.close(); }
+    }
+    catch (IOException e) { return null; }
+    return new JavadocState(p);
+  }
+  
+  /** Saves this summary in a destination directory.
+    * @param destDir the destination directory
+    * @throws IOException if the file cannot be written
+    */
+  void save(File destDir) throws IOException {
+    OutputStream out = new FileOutputStream(new File(destDir, FILE_NAME));
+    try { _properties.store(out, "DrJava Javadoc state"); }
+    finally { out.close(); }
+  }
+  
+  /** Determines the packages whose documentation must be regenerated if it was last generated from {@code old}:
+    * those whose sources changed, and, transitively, those that refer to them.  Everything must be regenerated if
+    * there is no old summary, if the settings changed, if files were added or removed (which changes the indexes),
+    * or if the default package changed (whose pages share the top-level directory with the indexes).
+    * @param old the summary of the last run, or null
+    * @return the packages to regenerate, or null if everything must be regenerated
+    */
+  Set<String> changedSince(JavadocState old) {
+    if (old == null || ! _same(old, SETTINGS_KEY) || ! _same(old, FILES_KEY)) return null;
+    Set<String> changed = new HashSet<String>();
+    for (String pkg: packages()) {
+      if (! _same(old, HASH_PREFIX + pkg)) changed.add(pkg);
+    }
+    boolean grew = true;
+    while (grew) {
+      grew = false;
+      for (String pkg: packages()) {
+        if (! changed.contains(pkg) && _usesAny(pkg, changed)) { changed.add(pkg); grew = true; }
+      }
+    }
+    if (changed.contains("")) return null;
+    return changed;
+  }
+  
+  /** @return the names of the summarized packages */
+  Set<String> packages() {
+    Set<String> result = new TreeSet<String>();
+    for (String key: _properties.stringPropertyNames()) {
+      if (key.startsWith(HASH_PREFIX)) result.add(key.substring(HASH_PREFIX.length()));
+    }
+    return result;
+  }
+  
+  private boolean _same(JavadocState old, String key) {
+    String value = _properties.getProperty(key);
+    return value != null && value.equals(old._properties.getProperty(key));
+  }
+  
+  private boolean _usesAny(String pkg, Set<String> packages) {
+    String uses = _properties.getProperty(USES_PREFIX + pkg, "");
+    if (uses.length() == 0) return false;
+    for (String used: uses.split(",")) {
+      if (packages.contains(used)) return true;
+    }
+    return false;
+  }
+  
+  private static String _hash(String s) {
+    try {
+      byte[] digest = MessageDigest.getInstance("SHA-1").digest(s.getBytes("UTF-8"));
+      StringBuilder sb = new StringBuilder();
+      for (byte b: digest) sb.append(String.format("%02x", b));
+      return sb.toString();
+    }
+    catch (NoSuchAlgorithmException e) { throw new RuntimeException(e); /* every platform supports SHA-1 */ }
+    catch (java.io.UnsupportedEncodingException e) { throw new RuntimeException(e); /* and UTF-8 */ }
+  }
+}
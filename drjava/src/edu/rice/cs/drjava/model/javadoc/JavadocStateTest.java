@@ -0,0 +1,117 @@
+/*BEGIN_COPYRIGHT_BLOCK
+ *
+ * Copyright (c) 2001-2017, JavaPLT group at Rice University (drjava@rice.edu)
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    * Redistributions of source code must retain the above copyright
+ *      notice, this list of conditions and the following disclaimer.
+ *    * Redistributions in binary form must reproduce the above copyright
+ *      notice, this list of conditions and the following disclaimer in the
+ *      documentation and/or other materials provided with the distribution.
+ *    * Neither the names of DrJava, the JavaPLT group, Rice University, nor the
+ *      names of its contributors may be used to endorse or promote products
+ *      derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This software is Open Source Initiative approved Open Source Software.
+ * Open Source Initative Approved is a trademark of the Open Source Initiative.
+ * 
+ * This file is part of DrJava.  Download the current version of this project
+ * from http://www.drjava.org/ or http://sourceforge.net/projects/drjava/
+ * 
+ * END_COPYRIGHT_BLOCK*/
+
+package edu.rice.cs.drjava.model.javadoc;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import edu.rice.cs.drjava.DrJavaTestCase;
+import edu.rice.cs.plt.io.IOUtil;
+import edu.rice.cs.plt.iter.IterUtil;
+
+/** Tests the decisions of JavadocState about which packages to regenerate.
+  * @version $Id$
+  */
+public class JavadocStateTest extends DrJavaTestCase {
+  private File _dir;
+  private File _a;
+  private File _b;
+  private File _c;
+  private Map<String, List<File>> _packages;
+  
+  public void setUp() throws Exception {
+    super.setUp();
+    _dir = IOUtil.createAndMarkTempDirectory("javadocstate", "");
+    _a = new File(_dir, "A.java");
+    _b = new File(_dir, "B.java");
+    _c = new File(_dir, "C.java");
+    IOUtil.writeStringToFile(_a, "package p.a; public class A {}");
+    IOUtil.writeStringToFile(_b, "package p.b; public class B extends p.a.A {}");
+    IOUtil.writeStringToFile(_c, "package p.c; public class C {}");
+    _packages = new TreeMap<String, List<File>>();
+    _packages.put("p.a", Arrays.asList(_a));
+    _packages.put("p.b", Arrays.asList(_b));
+    _packages.put("p.c", Arrays.asList(_c));
+  }
+  
+  public void tearDown() throws Exception {
+    IOUtil.deleteRecursively(_dir);
+    super.tearDown();
+  }
+  
+  private JavadocState _compute(String... settings) throws IOException {
+    return JavadocState.compute(_packages, IterUtil.make(settings));
+  }
+  
+  public void testChangedPackages() throws IOException {
+    JavadocState old = _compute("-public");
+    assertNull("everything without an earlier run", old.changedSince(null));
+    assertEquals("nothing if unchanged", new HashSet<String>(), _compute("-public").changedSince(old));
+    
+    IOUtil.writeStringToFile(_c, "package p.c; public class C { public void m() {} }");
+    assertEquals("changed package", new HashSet<String>(Arrays.asList("p.c")), _compute("-public").changedSince(old));
+    
+    IOUtil.writeStringToFile(_a, "package p.a; public class A { public void m() {} }");
+    assertEquals("changed packages and the packages referring to them",
+                 new HashSet<String>(Arrays.asList("p.a", "p.b", "p.c")), _compute("-public").changedSince(old));
+  }
+  
+  public void testEverythingChanged() throws IOException {
+    JavadocState old = _compute("-public");
+    assertNull("everything if the settings changed", _compute("-private").changedSince(old));
+    
+    _packages.put("p.c", Arrays.asList(_c, _a));
+    assertNull("everything if files were added", _compute("-public").changedSince(old));
+    
+    _packages.remove("p.c");
+    _packages.put("", Arrays.asList(_c));
+    old = _compute("-public");
+    IOUtil.writeStringToFile(_c, "public class C {}");
+    assertNull("everything if the default package changed", _compute("-public").changedSince(old));
+  }
+  
+  public void testSaveAndLoad() throws IOException {
+    assertNull("no state yet", JavadocState.load(_dir));
+    _compute("-public").save(_dir);
+    assertEquals("loaded state should match", new HashSet<String>(), _compute("-public").changedSince(JavadocState.load(_dir)));
+  }
+}
@@ -60,11 +60,9 @@ import java.util.List;
  * components, and should not be used directly outside of the "host" component.
  * <p>
  *
- * All methods in this class must use the synchronization methods
- * provided by ReaderWriterLock.  This ensures that multiple notifications
- * (reads) can occur simultaneously, but only one thread can be adding
- * or removing listeners (writing) at a time, and no reads can occur
- * during a write.
+ * All notifications iterate over a snapshot of the listeners (see
+ * EventNotifier), so they never block, and listeners may be added or
+ * removed at any time, even by a listener during a notification.
  * <p>
  *
  * <i>No</i> methods on this class should be synchronized using traditional
@@ -85,54 +83,54 @@ class JUnitEventNotifier extends EventNotifier<JUnitListener> implements JUnitLi
     * @param didCompileFail whether or not a compile before this JUnit attempt failed
     */
   public void nonTestCase(boolean isTestAll, boolean didCompileFail) {
-    _lock.startRead();
+    final long start = startDispatch();
     try { for (JUnitListener jul : _listeners) { jul.nonTestCase(isTestAll, didCompileFail); } }
-    finally { _lock.endRead(); }
+    finally { endDispatch("nonTestCase", start); }
   }
   
   public void classFileError(ClassFileError e) {
-    _lock.startRead();
+    final long start = startDispatch();
     try { for (JUnitListener jul : _listeners) { jul.classFileError(e); } }
-    finally { _lock.endRead(); }
+    finally { endDispatch("classFileError", start); }
   }
   
   /** Called before JUnit is started by the DefaultJUnitModel. */
   public void compileBeforeJUnit(final CompilerListener cl, List<OpenDefinitionsDocument> outOfSync) {
-    _lock.startRead();
+    final long start = startDispatch();
     try { for (JUnitListener jul : _listeners) { jul.compileBeforeJUnit(cl, outOfSync); } }
-    finally { _lock.endRead(); }
+    finally { endDispatch("compileBeforeJUnit", start); }
   }
   
   /** Called after junit/junitAll is started by the GlobalModel. */
   public void junitStarted() {
-    _lock.startRead();
+    final long start = startDispatch();
     try { for (JUnitListener jul : _listeners) { jul.junitStarted(); } }
-    finally { _lock.endRead(); }
+    finally { endDispatch("junitStarted", start); }
   }
   
   /** Called after junitClasses is started by the GlobalModel. */
   public void junitClassesStarted() {
-    _lock.startRead();
+    final long start = startDispatch();
     try { for (JUnitListener jul : _listeners) { jul.junitClassesStarted(); } }
-    finally { _lock.endRead(); }
+    finally { endDispatch("junitClassesStarted", start); }
   }
   
   /** Called to indicate that a suite of tests has started running.
     * @param numTests The number of tests in the suite to be run.
     */
   public void junitSuiteStarted(int numTests) {
-    _lock.startRead();
+    final long start = startDispatch();
     try { for (JUnitListener jul : _listeners) { jul.junitSuiteStarted(numTests); } }
-    finally { _lock.endRead(); }
+    finally { endDispatch("junitSuiteStarted", start); }
   }
   
   /** Called when a particular test is started.
     * @param name The name of the test being started.
     */
   public void junitTestStarted(String name) {
-    _lock.startRead();
+    final long start = startDispatch();
     try { for (JUnitListener jul : _listeners) { jul.junitTestStarted(name); } }
-    finally { _lock.endRead(); }
+    finally { endDispatch("junitTestStarted", start); }
   }
   
   /** Called when a particular test has ended.
@@ -141,16 +139,16 @@ class JUnitEventNotifier extends EventNotifier<JUnitListener> implements JUnitLi
     * @param causedError If not successful, whether the test caused an error or simply failed.
     */
   public void junitTestEnded(String name, boolean wasSuccessful, boolean causedError) {
-    _lock.startRead();
+    final long start = startDispatch();
     try { for (JUnitListener jul : _listeners) { jul.junitTestEnded(name, wasSuccessful, causedError); } }
-    finally { _lock.endRead(); }
+    finally { endDispatch("junitTestEnded", start); }
   }
   
   /** Called after JUnit is finished running tests. */
   public void junitEnded() {
-    _lock.startRead();
+    final long start = startDispatch();
     try { for(JUnitListener jul : _listeners) { jul.junitEnded(); } }
-    finally { _lock.endRead(); }
+    finally { endDispatch("junitEnded", start); }
   }
 }
 
@@ -84,6 +84,14 @@ public class DefaultInteractionsModel extends RMIInteractionsModel {
     
     // Add option listeners  // WHEN ARE THESE EVER REMOVED?
     DrJava.getConfig().addOptionListener(OptionConstants.HISTORY_MAX_SIZE, _document.getHistoryOptionListener());
+    if (DrJava.getConfig().getSetting(OptionConstants.HISTORY_PERSISTENT).booleanValue()) {
+      _document.setHistoryLog(new HistoryLog(HistoryLog.DEFAULT_FILE));
+    }
+    DrJava.getConfig().addOptionListener(OptionConstants.HISTORY_PERSISTENT, new OptionListener<Boolean>() {
+      public void optionChanged(OptionEvent<Boolean> oce) {
+        _document.setHistoryLog(oce.value.booleanValue() ? new HistoryLog(HistoryLog.DEFAULT_FILE) : null);
+      }
+    });
     DrJava.getConfig().addOptionListener(OptionConstants.RUN_WITH_ASSERT,
                                          new OptionListener<Boolean>() {
       public void optionChanged(OptionEvent<Boolean> oce) {
@@ -37,8 +37,12 @@
 package edu.rice.cs.drjava.model.repl;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import edu.rice.cs.util.FileOps;
+import edu.rice.cs.util.Log;
 import edu.rice.cs.util.StringOps;
 import edu.rice.cs.drjava.config.*;
 import edu.rice.cs.drjava.DrJava;
@@ -54,9 +58,16 @@ import java.io.BufferedWriter;
 
 /** History class that records what has been typed in the interactions pane.  This class is not thread safe;
   * it is only accessed from InteractionsDocument which takes responsibility for synchronization.
+  * Entries are indexed by their first few characters, so that searches do not have to examine every entry, and may
+  * be mirrored in a HistoryLog that persists them across sessions.
   * @version $Id$
   */
 public class History implements OptionConstants, Serializable {
+  
+  public static final Log _log = new Log("History.txt", false);
+
+  /** The number of leading characters by which entries are indexed. */
+  private static final int INDEX_PREFIX_LENGTH = 4;
 
   public static final String INTERACTION_SEPARATOR = "//End of Interaction//";
 
@@ -77,6 +88,17 @@ public class History implements OptionConstants, Serializable {
   /** A placeholder for the current search string. */
   private volatile String _currentSearchString = "";
   
+  /** Maps each prefix of up to INDEX_PREFIX_LENGTH characters to the serial numbers of the entries that start
+    * with it, in increasing order.  The entry with serial number n is _history.get(n - _firstSerial).
+    */
+  private final HashMap<String, SerialList> _prefixIndex = new HashMap<String, SerialList>();
+  
+  /** The serial number of the oldest entry in _history. */
+  private int _firstSerial = 0;
+  
+  /** The persistent log mirroring this history, or null if the history is not persisted. */
+  private transient volatile HistoryLog _historyLog = null;
+  
    /** The OptionListener for HISTORY_MAX_SIZE */
   public final OptionListener<Integer> historyOptionListener = new OptionListener<Integer>() {
     public void optionChanged (OptionEvent<Integer> oce) {
@@ -124,12 +146,15 @@ public class History implements OptionConstants, Serializable {
   public void add(String item) {
     // for consistency in saved History files, WILL save sequential duplicate entries
     if (item.trim().length() > 0) {
-      _history.add(item);
+      _addEntry(item);
       // If max size of _history is exceeded, spill the oldest element out of the History.
-      if (_history.size() > _maxSize) _history.remove(0);
+      if (_history.size() > _maxSize) _removeFirstEntry();
 
       moveEnd();
       _editedEntries.clear();
+      
+      HistoryLog log = _historyLog;
+      if (log != null) log.append(item);
     }
   }
   
@@ -139,9 +164,55 @@ public class History implements OptionConstants, Serializable {
   public String removeLast() {
     if (_history.size() == 0) { return null; }
     String last = _history.remove(_history.size()-1);
+    for (String prefix: _prefixes(last)) {
+      SerialList serials = _prefixIndex.get(prefix);
+      serials.removeLast();
+      if (serials.size() == 0) _prefixIndex.remove(prefix);
+    }
     if (_cursor > _history.size()) { _cursor = _history.size()-1; }
+    HistoryLog log = _historyLog;
+    if (log != null) log.appendRemoval(last);
     return last;
   }
+  
+  /** Mirrors this history in the given log, or stops mirroring it if log is null.  Entries already in the log are
+    * placed before the entries of this history, with duplicates removed (only the most recent occurrence of each
+    * entry is kept); entries of this history are appended to the log.  Entries added later in the session are
+    * appended as typed, so duplicates among them are only removed the next time the log is loaded.  The log keeps
+    * every distinct entry, even beyond the maximum history size; it is compacted if it holds many more records
+    * than distinct entries.
+    * @param log the log to use, or null
+    */
+  public void setHistoryLog(HistoryLog log) {
+    _historyLog = null;
+    if (log == null) return;
+    
+    List<String> stored;
+    try { stored = log.read(); }
+    catch (IOException e) {
+      _log.log("Could not read history log " + log.getFile() + ": " + e);
+      return;
+    }
+    
+    int records = log.getRecordsRead();
+    List<String> current = new ArrayList<String>(_history);
+    List<String> distinct = HistoryLog.removeDuplicates(stored);
+    _clearEntries();
+    for (String item: distinct) {
+      if (item.trim().length() > 0) _addEntry(item);
+    }
+    for (String item: current) _addEntry(item);
+    while (_history.size() > _maxSize) _removeFirstEntry();
+    moveEnd();
+    _editedEntries.clear();
+    
+    _historyLog = log;
+    for (String item: current) log.append(item);
+    if (records + current.size() > 2 * (distinct.size() + current.size())) log.compact();
+  }
+  
+  /** @return the log mirroring this history, or null if there is none */
+  public HistoryLog getHistoryLog() { return _historyLog; }
 
   /** Move the cursor to just past the end. Thus, to access the last element, you must movePrevious. */
   public void moveEnd() { _cursor = _history.size(); }
@@ -185,8 +256,14 @@ public class History implements OptionConstants, Serializable {
   /** @return the number of items in this History. */
   public int size() { return _history.size(); }
 
-  /** Clears the vector */
-  public void clear() { _history.clear(); }
+  /** Clears the vector, and the persistent log if there is one.  Entries that other sessions add to the log later
+    * are kept.
+    */
+  public void clear() { 
+    _clearEntries();
+    HistoryLog log = _historyLog;
+    if (log != null) log.appendClear();
+  }
 
   /** Returns the history as a string by concatenating each string in the 
    * vector separated by the delimiting character. A semicolon is added 
@@ -265,7 +342,7 @@ public class History implements OptionConstants, Serializable {
     if (size() > newSize) {
 
       int numToDelete = size() - newSize;
-      for (int i = 0; i < numToDelete; i++) { _history.remove(0); }
+      for (int i = 0; i < numToDelete; i++) { _removeFirstEntry(); }
 
       moveEnd();
     }
@@ -280,12 +357,21 @@ public class History implements OptionConstants, Serializable {
       _currentSearchString = currentInteraction;
 
     setEditedEntry(currentInteraction);
-    while (hasPrevious()) {
-      movePrevious(getCurrent());
-      if (getCurrent().startsWith(_currentSearchString, 0)) break;
+    String search = _currentSearchString;
+    
+    // the closest edited entry before the cursor that matches
+    int match = -1;
+    for (Map.Entry<Integer, String> e: _editedEntries.entrySet()) {
+      int pos = e.getKey().intValue();
+      if (pos < _cursor && pos > match && e.getValue().startsWith(search)) match = pos;
+    }
+    // the closest unedited entry before the cursor that matches, if it is closer
+    for (int pos = _findIndexed(search, _cursor - 1, true); pos > match; pos = _findIndexed(search, pos - 1, true)) {
+      if (! _editedEntries.containsKey(Integer.valueOf(pos))) { match = pos; break; }
     }
     
-    if (! getCurrent().startsWith(_currentSearchString, 0))  moveEnd();
+    if (match >= 0) _cursor = match;
+    else if (_cursor > 0 || ! getCurrent().startsWith(search, 0)) moveEnd();
   }
 
   /** Forward-searches the history for the next matching string.
@@ -296,11 +382,126 @@ public class History implements OptionConstants, Serializable {
       _currentSearchString = currentInteraction;
 
     setEditedEntry(currentInteraction);
-    while (hasNext()) {
-      moveNext(getCurrent());
-      if (getCurrent().startsWith(_currentSearchString, 0))  break;
+    String search = _currentSearchString;
+    int size = _history.size();
+    
+    // the closest edited entry (including the entry being typed at the end) after the cursor that matches
+    int match = Integer.MAX_VALUE;
+    for (Map.Entry<Integer, String> e: _editedEntries.entrySet()) {
+      int pos = e.getKey().intValue();
+      if (pos > _cursor && pos <= size && pos < match && e.getValue().startsWith(search)) match = pos;
+    }
+    // the closest unedited entry after the cursor that matches, if it is closer
+    for (int pos = _findIndexed(search, _cursor + 1, false); pos >= 0 && pos < match; 
+         pos = _findIndexed(search, pos + 1, false)) {
+      if (! _editedEntries.containsKey(Integer.valueOf(pos))) { match = pos; break; }
+    }
+    
+    if (match <= size) _cursor = match;
+    else moveEnd();
+  }
+  
+  /** Finds the closest unedited entry that starts with search, beginning at index from.
+    * @param search the prefix to search for
+    * @param from the index at which to begin searching
+    * @param backward true to search toward older entries, false to search toward newer entries
+    * @return the index of the matching entry, or -1 if there is none
+    */
+  private int _findIndexed(String search, int from, boolean backward) {
+    if (from < 0 || from >= _history.size()) return -1;
+    if (search.length() == 0) return from;
+    
+    String key = (search.length() > INDEX_PREFIX_LENGTH) ? search.substring(0, INDEX_PREFIX_LENGTH) : search;
+    SerialList serials = _prefixIndex.get(key);
+    if (serials == null) return -1;
+    
+    int i = serials.search(_firstSerial + from);
+    if (backward) {
+      if (i >= serials.size() || serials.get(i) != _firstSerial + from) i--;
+      for (; i >= 0; i--) {
+        int pos = serials.get(i) - _firstSerial;
+        if (search.length() <= INDEX_PREFIX_LENGTH || _history.get(pos).startsWith(search)) return pos;
+      }
+    }
+    else {
+      for (; i < serials.size(); i++) {
+        int pos = serials.get(i) - _firstSerial;
+        if (search.length() <= INDEX_PREFIX_LENGTH || _history.get(pos).startsWith(search)) return pos;
+      }
+    }
+    return -1;
+  }
+  
+  /** Appends an entry to _history and indexes it. */
+  private void _addEntry(String item) {
+    int serial = _firstSerial + _history.size();
+    _history.add(item);
+    for (String prefix: _prefixes(item)) {
+      SerialList serials = _prefixIndex.get(prefix);
+      if (serials == null) {
+        serials = new SerialList();
+        _prefixIndex.put(prefix, serials);
+      }
+      serials.add(serial);
     }
+  }
+  
+  /** Removes the oldest entry from _history and from the index. */
+  private void _removeFirstEntry() {
+    String first = _history.remove(0);
+    for (String prefix: _prefixes(first)) {
+      SerialList serials = _prefixIndex.get(prefix);
+      serials.removeFirst();
+      if (serials.size() == 0) _prefixIndex.remove(prefix);
+    }
+    _firstSerial++;
+  }
+  
+  private void _clearEntries() {
+    _history.clear();
+    _prefixIndex.clear();
+    _firstSerial = 0;
+  }
+  
+  /** @return the prefixes of item by which it is indexed: those of length 1 up to INDEX_PREFIX_LENGTH */
+  private static String[] _prefixes(String item) {
+    String[] result = new String[Math.min(item.length(), INDEX_PREFIX_LENGTH)];
+    for (int i = 0; i < result.length; i++) result[i] = item.substring(0, i + 1);
+    return result;
+  }
+  
+  /** An increasing sequence of serial numbers, supporting removal at both ends. */
+  private static final class SerialList implements Serializable {
+    private static final long serialVersionUID = -5360461088050190550L;
+    
+    private int[] _serials = new int[4];
+    private int _start = 0;
+    private int _end = 0;
+    
+    int size() { return _end - _start; }
+    
+    int get(int i) { return _serials[_start + i]; }
     
-    if (! getCurrent().startsWith(_currentSearchString, 0)) moveEnd();
+    void add(int serial) {
+      if (_end == _serials.length) {
+        if (_start > _serials.length / 2) {
+          System.arraycopy(_serials, _start, _serials, 0, size());
+          _end -= _start;
+          _start = 0;
+        }
+        else _serials = Arrays.copyOf(_serials, _serials.length * 2);
+      }
+      _serials[_end++] = serial;
+    }
+    
+    void removeFirst() { _start++; }
+    
+    void removeLast() { _end--; }
+    
+    /** @return the index of serial, or of the first larger element (size() if there is none) */
+    int search(int serial) {
+      int i = Arrays.binarySearch(_serials, _start, _end, serial);
+      return ((i >= 0) ? i : -(i + 1)) - _start;
+    }
   }
 }
@@ -0,0 +1,304 @@
+/*BEGIN_COPYRIGHT_BLOCK
+ *
+ * Copyright (c) 2001-2017, JavaPLT group at Rice University (drjava@rice.edu)
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    * Redistributions of source code must retain the above copyright
+ *      notice, this list of conditions and the following disclaimer.
+ *    * Redistributions in binary form must reproduce the above copyright
+ *      notice, this list of conditions and the following disclaimer in the
+ *      documentation and/or other materials provided with the distribution.
+ *    * Neither the names of DrJava, the JavaPLT group, Rice University, nor the
+ *      names of its contributors may be used to endorse or promote products
+ *      derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This software is Open Source Initiative approved Open Source Software.
+ * Open Source Initative Approved is a trademark of the Open Source Initiative.
+ * 
+ * This file is part of DrJava.  Download the current version of this project
+ * from http://www.drjava.org/ or http://sourceforge.net/projects/drjava/
+ * 
+ * END_COPYRIGHT_BLOCK*/
+
+package edu.rice.cs.drjava.model.repl;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.nio.channels.FileLock;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import edu.rice.cs.util.FileOps;
+
+/** An append-only file of interactions, shared by all DrJava sessions of a user.  Entries are written in the saved
+  * history format (each entry followed by a line containing History.INTERACTION_SEPARATOR).  Removing the last
+  * entry and clearing the history are also recorded by appending to the log, rather than by rewriting it, so that
+  * entries appended by other sessions in the meantime are kept.  A log containing such records loads as an ordinary
+  * saved history only approximately.
+  * <p>
+  * Writes, and the read-modify-write of compaction, hold a lock on a companion ".lock" file, so that concurrent
+  * sessions may interleave their records but never lose or corrupt them.  They are made by a background thread,
+  * in the order in which they were requested, so that the event thread never waits for the file or its lock;
+  * failures are logged.  Pending writes are finished when the JVM shuts down.
+  */
+public class HistoryLog {
+  
+  /** The default log file, ".drjava-history" in the user's home directory. */
+  public static final File DEFAULT_FILE = new File(System.getProperty("user.home"), ".drjava-history");
+  
+  /** Terminates a record that removes the most recent earlier occurrence of its entry. */
+  public static final String REMOVED_SEPARATOR = "//Removed Interaction//";
+  
+  /** A record by itself that discards all earlier entries. */
+  public static final String CLEARED_MARKER = "//Cleared History//";
+  
+  private static final String CHARSET = "UTF-8";
+  
+  /** Guards the lock file within this JVM, since a FileLock may not be acquired twice by one process. */
+  private static final Object JVM_LOCK = new Object();
+  
+  /** The longest time the shutdown hook waits for pending writes. */
+  private static final long SHUTDOWN_WAIT = 2000L;
+  
+  /** Makes the writes of all logs, in order; created on first use. */
+  private static ExecutorService _writer = null;
+  
+  private final File _file;
+  
+  /** The number of records found by the last call to read. */
+  private volatile int _recordsRead = 0;
+  
+  /** Creates a log backed by the given file.  The file is created on the first write.
+    * @param file the log file
+    */
+  public HistoryLog(File file) { _file = file; }
+  
+  /** @return the log file */
+  public File getFile() { return _file; }
+  
+  /** @return the number of records (entries, removals, and clears) found by the last call to read */
+  public int getRecordsRead() { return _recordsRead; }
+  
+  /** Reads the entries in the log, oldest first, after applying its removal and clear records.  Waits for the
+    * writes requested before the call.  An incomplete last record (one not followed by a separator) is ignored,
+    * since it may still be being written by another session.
+    * @return the entries in the log; empty if the file does not exist
+    * @throws IOException if the file cannot be read
+    */
+  public List<String> read() throws IOException {
+    flush();
+    return _read();
+  }
+  
+  private List<String> _read() throws IOException {
+    List<String> entries = new ArrayList<String>();
+    int records = 0;
+    if (! _file.exists()) { _recordsRead = 0; return entries; }
+    BufferedReader in = new BufferedReader(new InputStreamReader(new FileInputStream(_file), CHARSET));
+    try {
+      String header = History.HISTORY_FORMAT_VERSION_2.trim();
+      StringBuilder entry = null;
+      String line = in.readLine();
+      if (line != null && line.equals(header)) line = in.readLine();
+      while (line != null) {
+        if (line.equals(History.INTERACTION_SEPARATOR)) {
+          if (entry != null) entries.add(entry.toString());
+          entry = null;
+          records++;
+        }
+        else if (line.equals(REMOVED_SEPARATOR)) {
+          if (entry != null) {
+            int i = entries.lastIndexOf(entry.toString());
+            if (i >= 0) entries.remove(i);
+          }
+          entry = null;
+          records++;
+        }
+        else if (line.equals(CLEARED_MARKER) && entry == null) {
+          entries.clear();
+          records++;
+        }
+        else if (entry == null) entry = new StringBuilder(line);
+        else entry.append('\n').append(line);
+        line = in.readLine();
+      }
+    }
+    finally { in.close(); }
+    _recordsRead = records;
+    return entries;
+  }
+  
+  /** Appends an entry to the log in the background, creating the file if necessary.
+    * @param entry the interaction to append
+    */
+  public void append(String entry) {
+    StringBuilder sb = new StringBuilder();
+    _appendEntry(sb, entry, History.INTERACTION_SEPARATOR);
+    _appendLater(sb);
+  }
+  
+  /** Records in the background that the most recent occurrence of an entry has been removed from the history.
+    * @param entry the interaction that was removed
+    */
+  public void appendRemoval(String entry) {
+    StringBuilder sb = new StringBuilder();
+    _appendEntry(sb, entry, REMOVED_SEPARATOR);
+    _appendLater(sb);
+  }
+  
+  /** Records in the background that the history has been cleared.  Entries appended later, by any session, are
+    * kept.
+    */
+  public void appendClear() { _appendLater(new StringBuilder(CLEARED_MARKER).append('\n')); }
+  
+  /** Replaces the contents of the log in the background with its current entries, without duplicates.  No entry is
+    * dropped other than by the removal and clear records.  The log is re-read while holding the lock, so records
+    * appended by other sessions are preserved.
+    */
+  public void compact() {
+    _submit(new Runnable() {
+      public void run() {
+        try { _compact(); }
+        catch (IOException e) { History._log.log("Could not compact history log " + _file + ": " + e); }
+      }
+    });
+  }
+  
+  /** Waits for the writes requested so far to finish. */
+  public void flush() {
+    try { _submit(new Runnable() { public void run() { } }).get(); }
+    catch (InterruptedException e) { Thread.currentThread().interrupt(); }
+    catch (ExecutionException e) { /* cannot happen: the task does nothing */ }
+  }
+  
+  private void _compact() throws IOException {
+    synchronized(JVM_LOCK) {
+      RandomAccessFile lockFile = new RandomAccessFile(_getLockFile(), "rw");
+      try {
+        FileLock lock = lockFile.getChannel().lock();
+        try {
+          List<String> entries = removeDuplicates(_read());
+          final StringBuilder sb = new StringBuilder(History.HISTORY_FORMAT_VERSION_2.trim()).append('\n');
+          for (String e: entries) _appendEntry(sb, e, History.INTERACTION_SEPARATOR);
+          FileOps.saveFile(new FileOps.DefaultFileSaver(_file) {
+            public boolean shouldBackup() { return false; }
+            public void saveTo(OutputStream os) throws IOException {
+              Writer out = new BufferedWriter(new OutputStreamWriter(os, CHARSET));
+              out.write(sb.toString());
+              out.flush();
+            }
+          });
+        }
+        finally { lock.release(); }
+      }
+      finally { lockFile.close(); }
+    }
+  }
+  
+  /** Removes duplicate entries, keeping only the most recent occurrence of each.
+    * @param entries the entries, oldest first
+    * @return the distinct entries, ordered by their most recent occurrence
+    */
+  public static List<String> removeDuplicates(List<String> entries) {
+    LinkedHashSet<String> distinct = new LinkedHashSet<String>();
+    for (int i = entries.size() - 1; i >= 0; i--) distinct.add(entries.get(i));
+    List<String> result = new ArrayList<String>(distinct);
+    Collections.reverse(result);
+    return result;
+  }
+  
+  private void _appendLater(final StringBuilder record) {
+    _submit(new Runnable() {
+      public void run() {
+        try { _append(record); }
+        catch (IOException e) { History._log.log("Could not append to history log " + _file + ": " + e); }
+      }
+    });
+  }
+  
+  private static synchronized Future<?> _submit(Runnable task) {
+    if (_writer == null) {
+      _writer = Executors.newSingleThreadExecutor(new ThreadFactory() {
+        public Thread newThread(Runnable r) {
+          Thread t = new Thread(r, "History Log Writer");
+          t.setDaemon(true);
+          return t;
+        }
+      });
+      final ExecutorService writer = _writer;
+      Runtime.getRuntime().addShutdownHook(new Thread("History Log Writer Shutdown") {
+        public void run() {
+          writer.shutdown();
+          try { writer.awaitTermination(SHUTDOWN_WAIT, TimeUnit.MILLISECONDS); }
+          catch (InterruptedException e) { /* give up on pending writes */ }
+        }
+      });
+    }
+    try { return _writer.submit(task); }
+    catch (RejectedExecutionException e) {
+      // the JVM is shutting down; write in this thread
+      FutureTask<Object> result = new FutureTask<Object>(task, null);
+      result.run();
+      return result;
+    }
+  }
+  
+  /** Appends text to the log while holding the lock, writing the header first if the file is new. */
+  private void _append(StringBuilder record) throws IOException {
+    synchronized(JVM_LOCK) {
+      RandomAccessFile lockFile = new RandomAccessFile(_getLockFile(), "rw");
+      try {
+        FileLock lock = lockFile.getChannel().lock();
+        try {
+          String text = record.toString();
+          if (! _file.exists()) text = History.HISTORY_FORMAT_VERSION_2.trim() + "\n" + text;
+          Writer out = new OutputStreamWriter(new FileOutputStream(_file, true), CHARSET);
+          try { out.write(text); }
+          finally { out.close(); }
+        }
+        finally { lock.release(); }
+      }
+      finally { lockFile.close(); }
+    }
+  }
+  
+  private File _getLockFile() { return new File(_file.getPath() + ".lock"); }
+  
+  private static void _appendEntry(StringBuilder sb, String entry, String separator) {
+    sb.append(entry.replace("\r\n", "\n")).append('\n');
+    sb.append(separator).append('\n');
+  }
+}
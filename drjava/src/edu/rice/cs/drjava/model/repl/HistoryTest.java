@@ -48,6 +48,8 @@ import edu.rice.cs.util.swing.Utilities;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
 
 /** Tests the functionality of the repl History.
  *  @version $Id$
@@ -349,4 +351,110 @@ public final class HistoryTest extends DrJavaTestCase implements OptionConstants
     catch(ArrayIndexOutOfBoundsException e){
     }
   }
+  
+  /** Tests searches for prefixes longer and shorter than the indexed prefix length after old entries spilled out. */
+  public void testSearchLargeHistory() {
+    History his = new History(1000);
+    for (int i = 0; i < 3000; i++) his.add((i % 3 == 0 ? "System.out.println(" : "int x") + i);
+    assertEquals("bounded", 1000, his.size());
+    
+    his.reverseSearch("System.out.println(2");
+    assertEquals("closest long-prefix match", "System.out.println(2997", his.getCurrent());
+    his.reverseSearch(his.getCurrent());
+    assertEquals("next older match of the same search", "System.out.println(2994", his.getCurrent());
+    
+    his.moveEnd();
+    his.reverseSearch("int x200");
+    assertEquals("closest match", "int x2009", his.getCurrent());
+    his.reverseSearch(his.getCurrent());
+    assertEquals("next older match", "int x2008", his.getCurrent());
+    his.forwardSearch(his.getCurrent());
+    assertEquals("newer match", "int x2009", his.getCurrent());
+    
+    his.moveEnd();
+    his.reverseSearch("int x1");
+    assertFalse("spilled entries are not found", his.hasNext());
+    assertEquals("typed text is kept", "int x1", his.getCurrent());
+    
+    his.moveEnd();
+    his.reverseSearch("Sys");
+    assertEquals("short prefix", "System.out.println(2997", his.getCurrent());
+  }
+  
+  /** Tests that a history log restores entries, removes duplicates, and is cleared with the history. */
+  public void testHistoryLog() throws IOException {
+    File f = new File(_tempDir, "history.log");
+    History first = new History(10);
+    first.setHistoryLog(new HistoryLog(f));
+    first.add("int x = 1;");
+    first.add("int x = 1;");
+    first.add("for (int i = 0; i < x; i++)\n  System.out.println(i);");
+    
+    History second = new History(10);
+    second.add("y");
+    second.setHistoryLog(new HistoryLog(f));
+    assertEquals("restored entries", 3, second.size());
+    second.reverseSearch("for");
+    assertEquals("multi-line entry", "for (int i = 0; i < x; i++)\n  System.out.println(i);", second.getCurrent());
+    assertEquals("log has all entries", 4, new HistoryLog(f).read().size());
+    
+    second.clear();
+    assertEquals("log cleared", 0, new HistoryLog(f).read().size());
+  }
+  
+  /** Tests that duplicates are removed when a log is loaded, keeping the most recent occurrence. */
+  public void testHistoryLogRemovesDuplicates() throws IOException {
+    File f = new File(_tempDir, "history.log");
+    HistoryLog log = new HistoryLog(f);
+    log.append("x");
+    log.append("y");
+    log.append("x");
+    log.append("z");
+    
+    History his = new History(10);
+    his.setHistoryLog(new HistoryLog(f));
+    assertEquals("distinct entries", "y" + StringOps.EOL + "x" + StringOps.EOL + "z" + StringOps.EOL, 
+                 his.getHistoryAsString());
+  }
+  
+  /** Tests that removing and clearing in one session keeps the entries other sessions have added since. */
+  public void testHistoryLogSharedBySessions() throws IOException {
+    File f = new File(_tempDir, "history.log");
+    History first = new History(10);
+    first.setHistoryLog(new HistoryLog(f));
+    History second = new History(10);
+    second.setHistoryLog(new HistoryLog(f));
+    
+    first.add("a");
+    second.add("b");
+    first.add("c");
+    assertEquals("removed own entry", "b", second.removeLast());
+    assertEquals("other session's entries kept", Arrays.asList("a", "c"), new HistoryLog(f).read());
+    
+    second.clear();
+    first.add("d");
+    assertEquals("entries added after the clear kept", Arrays.asList("d"), new HistoryLog(f).read());
+    
+    History third = new History(10);
+    third.setHistoryLog(new HistoryLog(f));
+    assertEquals("restored entries", 1, third.size());
+  }
+  
+  /** Tests that compacting a log keeps all distinct entries, even beyond the history size. */
+  public void testHistoryLogCompaction() throws IOException {
+    File f = new File(_tempDir, "history.log");
+    HistoryLog log = new HistoryLog(f);
+    for (int i = 0; i < 30; i++) log.append("entry " + (i % 10));
+    log.appendRemoval("entry 9");
+    
+    History his = new History(5);
+    his.setHistoryLog(new HistoryLog(f));
+    assertEquals("history is bounded", 5, his.size());
+    assertEquals("most recent entries", "entry 8", his.lastEntry());
+    HistoryLog compacted = new HistoryLog(f);
+    // the removal only removed the last occurrence of "entry 9"
+    assertEquals("log compacted", Arrays.asList("entry 9", "entry 0", "entry 1", "entry 2", "entry 3", "entry 4", 
+                                                "entry 5", "entry 6", "entry 7", "entry 8"), compacted.read());
+    assertEquals("duplicates dropped", 10, compacted.getRecordsRead());
+  }
 }
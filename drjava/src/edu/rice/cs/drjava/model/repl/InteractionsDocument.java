@@ -156,6 +156,11 @@ public class InteractionsDocument extends ConsoleDocument {
   /** @return the history of commands. */
   public OptionListener<Integer> getHistoryOptionListener() { return _history.getHistoryOptionListener(); }
   
+  /** Mirrors the history in the given persistent log, or stops mirroring it if log is null.
+    * @param log the log to use, or null
+    */
+  public void setHistoryLog(HistoryLog log) { _history.setHistoryLog(log); }
+  
   /** Adds the given text to the history of commands. 
    * @param text text to add
    */
@@ -48,9 +48,8 @@ import edu.rice.cs.drjava.model.EventNotifier;
   * Components which might otherwise manage their own list of listeners use EventNotifiers instead to simplify their 
   * internal implementation.  Notifiers should therefore be considered a private implementation detail of the
   * components, and should not be used directly outside of the "host" component. <p>
-  * All methods in this class must use the synchronization methods provided by ReaderWriterLock.  This ensures 
-  * that multiple notifications (reads) can occur simultaneously, but only one thread can be adding or removing 
-  * listeners (writing) at a time, and no reads can occur during a write. <p>
+  * All notifications iterate over a snapshot of the listeners (see EventNotifier), so they never block, and
+  * listeners may be added or removed at any time, even by a listener during a notification. <p>
   * <i>No</i> methods on this class should be synchronized using traditional Java synchronization! <p>
   * @version $Id$
   */
@@ -59,22 +58,20 @@ public class InteractionsEventNotifier extends EventNotifier<InteractionsListene
   
   /** Called after an interaction is started by the GlobalModel. */
   public void interactionStarted() {
-    _lock.startRead();
+    final long start = startDispatch();
     try {
-      int size = _listeners.size();
-      for (int i = 0; i < size; i++)  _listeners.get(i).interactionStarted();
+      for (InteractionsListener l : _listeners)  l.interactionStarted();
     }
-    finally { _lock.endRead(); }
+    finally { endDispatch("interactionStarted", start); }
   }
   
   /** Called when an interaction has finished running. */
   public void interactionEnded() {
-    _lock.startRead();
+    final long start = startDispatch();
     try {
-      int size = _listeners.size();
-      for (int i = 0; i < size; i++) _listeners.get(i).interactionEnded();
+      for (InteractionsListener l : _listeners) l.interactionEnded();
     }
-    finally { _lock.endRead(); }
+    finally { endDispatch("interactionEnded", start); }
   }
   
   /** Called when the interactions window generates a syntax error.
@@ -82,45 +79,41 @@ public class InteractionsEventNotifier extends EventNotifier<InteractionsListene
     * @param length the length of the error
     */
   public void interactionErrorOccurred(int offset, int length) {
-    _lock.startRead();
+    final long start = startDispatch();
     try {
-      int size = _listeners.size();
-      for (int i = 0; i < size; i++) _listeners.get(i).interactionErrorOccurred(offset, length);
+      for (InteractionsListener l : _listeners) l.interactionErrorOccurred(offset, length);
     }
-    finally { _lock.endRead(); }
+    finally { endDispatch("interactionErrorOccurred", start); }
   }
   
   /** Called when the interactionsJVM has begun resetting. */
   public void interpreterResetting() {
-    _lock.startRead();
+    final long start = startDispatch();
     try {
-      int size = _listeners.size();
-//      Utilities.showDebug("InteractionsEventNotifier: interpreterResetting called on " + size + " listeners");
-      for (int i = 0; i < size; i++) _listeners.get(i).interpreterResetting();
+//      Utilities.showDebug("InteractionsEventNotifier: interpreterResetting called on " + _listeners.size() + " listeners");
+      for (InteractionsListener l : _listeners) l.interpreterResetting();
     }
-    finally { _lock.endRead(); }
+    finally { endDispatch("interpreterResetting", start); }
   }
   
   /** Called when the interactions window is reset. */
   public void interpreterReady(File wd) {
-    _lock.startRead();
+    final long start = startDispatch();
     try {
-      int size = _listeners.size();
-      for (int i = 0; i < size; i++) _listeners.get(i).interpreterReady(wd);
+      for (InteractionsListener l : _listeners) l.interpreterReady(wd);
     }
-    finally { _lock.endRead(); }
+    finally { endDispatch("interpreterReady", start); }
   }
   
   /** Called if the interpreter reset failed.
     * @param t Throwable explaining why the reset failed. (Subclasses must maintain listeners.)
     */
   public void interpreterResetFailed(final Throwable t) {
-    _lock.startRead();
+    final long start = startDispatch();
     try {
-      int size = _listeners.size();
-      for (int i = 0; i < size; i++)  _listeners.get(i).interpreterResetFailed(t);
+      for (InteractionsListener l : _listeners)  l.interpreterResetFailed(t);
     }
-    finally { _lock.endRead(); }
+    finally { endDispatch("interpreterResetFailed", start); }
   }
   
   /** Called when the interactions JVM was closed by System.exit or by being aborted. Immediately after this the 
@@ -128,12 +121,11 @@ public class InteractionsEventNotifier extends EventNotifier<InteractionsListene
     * @param status the exit code
     */
   public void interpreterExited(int status) {
-    _lock.startRead();
+    final long start = startDispatch();
     try {
-      int size = _listeners.size();
-      for (int i = 0; i < size; i++) { _listeners.get(i).interpreterExited(status); }
+      for (InteractionsListener l : _listeners) { l.interpreterExited(status); }
     }
-    finally { _lock.endRead(); }
+    finally { endDispatch("interpreterExited", start); }
   }
   
   /** Called when the active interpreter is changed.
@@ -141,22 +133,20 @@ public class InteractionsEventNotifier extends EventNotifier<InteractionsListene
     * interactionEnded event will be fired)
     */
   public void interpreterChanged(boolean inProgress) {
-    _lock.startRead();
+    final long start = startDispatch();
     try {
-      int size = _listeners.size();
-      for (int i = 0; i < size; i++)  _listeners.get(i).interpreterChanged(inProgress);
+      for (InteractionsListener l : _listeners)  l.interpreterChanged(inProgress);
     }
-    finally { _lock.endRead(); }
+    finally { endDispatch("interpreterChanged", start); }
   }
   
   /** Notifies the view that the current interaction is incomplete. */
   public void interactionIncomplete() {
-    _lock.startRead();
+    final long start = startDispatch();
     try {
-      int size = _listeners.size();
-      for (int i = 0; i < size; i++)  _listeners.get(i).interactionIncomplete();
+      for (InteractionsListener l : _listeners)  l.interactionIncomplete();
     }
-    finally { _lock.endRead(); }
+    finally { endDispatch("interactionIncomplete", start); }
   }
   
 }
@@ -0,0 +1,230 @@
+/*BEGIN_COPYRIGHT_BLOCK
+ *
+ * Copyright (c) 2001-2017, JavaPLT group at Rice University (drjava@rice.edu)
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    * Redistributions of source code must retain the above copyright
+ *      notice, this list of conditions and the following disclaimer.
+ *    * Redistributions in binary form must reproduce the above copyright
+ *      notice, this list of conditions and the following disclaimer in the
+ *      documentation and/or other materials provided with the distribution.
+ *    * Neither the names of DrJava, the JavaPLT group, Rice University, nor the
+ *      names of its contributors may be used to endorse or promote products
+ *      derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This software is Open Source Initiative approved Open Source Software.
+ * Open Source Initative Approved is a trademark of the Open Source Initiative.
+ * 
+ * This file is part of DrJava.  Download the current version of this project
+ * from http://www.drjava.org/ or http://sourceforge.net/projects/drjava/
+ * 
+ * END_COPYRIGHT_BLOCK*/
+
+package edu.rice.cs.drjava.model.repl.newjvm;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import edu.rice.cs.util.Log;
+
+/** An immutable index of the resources on a snapshot of a class path, used to locate classes and resources
+  * without probing every class path entry.  The contents of each jar file are enumerated once (and shared among all
+  * indices for as long as the jar is unchanged on disk); for each package, the index then remembers which entries
+  * can contain it, in class path order.  Directories are always candidates, since their contents change as
+  * classes are compiled, and are probed directly.  So are entries that did not exist when the index was built (such
+  * as a build directory that is only created by the first compilation), which are looked up again on each probe.
+  * A ClassPathManager creates one index per class path generation.
+  */
+public class ClassPathIndex {
+  
+  public static final Log _log = new Log("GlobalModel.txt", false);
+  
+  /** Jar indices shared among class path indices, keyed by jar file. */
+  private static final Map<File, JarContents> JAR_CACHE = new HashMap<File, JarContents>();
+  
+  /** The contents of a jar file at the time it was indexed. */
+  private static final class JarContents {
+    final long lastModified;
+    final long length;
+    final URL url;
+    final Set<String> entries;
+    final Set<String> packages;
+    JarContents(long lm, long len, URL u, Set<String> e, Set<String> p) {
+      lastModified = lm; length = len; url = u; entries = e; packages = p;
+    }
+  }
+  
+  private static final int[] NO_CANDIDATES = new int[0];
+  
+  private final long _generation;
+  private final File[] _path;
+  
+  /** For each path entry, its jar contents, or null if it is a directory or did not exist; jar files that cannot be
+    * read are excluded from every candidate list.
+    */
+  private final JarContents[] _jars;
+  private final boolean[] _valid;
+  
+  /** For each path entry, whether it did not exist when the index was built. */
+  private final boolean[] _missing;
+  
+  /** Maps package names (in resource form, e.g., "java/util") to the indices of the entries that may contain them. */
+  private final ConcurrentHashMap<String, int[]> _candidates = new ConcurrentHashMap<String, int[]>();
+  
+  /** Indexes the given class path.
+    * @param generation the class path generation this index describes
+    * @param path a snapshot of the class path
+    */
+  public ClassPathIndex(long generation, Iterable<File> path) {
+    _generation = generation;
+    List<File> entries = new ArrayList<File>();
+    for (File f: path) entries.add(f);
+    _path = entries.toArray(new File[entries.size()]);
+    _jars = new JarContents[_path.length];
+    _valid = new boolean[_path.length];
+    _missing = new boolean[_path.length];
+    for (int i = 0; i < _path.length; i++) {
+      File f = _path[i];
+      if (f.isDirectory()) _valid[i] = true;
+      else if (f.isFile()) {
+        _jars[i] = _jarContents(f);
+        _valid[i] = (_jars[i] != null);
+      }
+      else {
+        _valid[i] = true;
+        _missing[i] = true;
+      }
+    }
+  }
+  
+  /** @return the class path generation described by this index */
+  public long getGeneration() { return _generation; }
+  
+  /** Finds the first occurrence of a resource on the class path.
+    * @param name the resource name, e.g., "java/lang/Object.class"
+    * @return the URL of the resource, or null if it is not found
+    */
+  public URL findResource(String name) {
+    for (int i: _candidatesFor(name)) {
+      URL url = _resourceIn(i, name);
+      if (url != null) return url;
+    }
+    return null;
+  }
+  
+  /** Finds all occurrences of a resource on the class path, in class path order.
+    * @param name the resource name
+    * @return an enumeration of the URLs of the resource
+    */
+  public Enumeration<URL> findResources(String name) {
+    List<URL> result = new ArrayList<URL>();
+    for (int i: _candidatesFor(name)) {
+      URL url = _resourceIn(i, name);
+      if (url != null) result.add(url);
+    }
+    return Collections.enumeration(result);
+  }
+  
+  private int[] _candidatesFor(String name) {
+    int slash = name.lastIndexOf('/');
+    String pkg = (slash < 0) ? "" : name.substring(0, slash);
+    int[] result = _candidates.get(pkg);
+    if (result == null) {
+      int[] buffer = new int[_path.length];
+      int count = 0;
+      for (int i = 0; i < _path.length; i++) {
+        if (_valid[i] && (_jars[i] == null || _jars[i].packages.contains(pkg))) buffer[count++] = i;
+      }
+      if (count == 0) result = NO_CANDIDATES;
+      else {
+        result = new int[count];
+        System.arraycopy(buffer, 0, result, 0, count);
+      }
+      _candidates.put(pkg, result);
+    }
+    return result;
+  }
+  
+  private URL _resourceIn(int i, String name) {
+    JarContents jar = _jars[i];
+    try {
+      if (_missing[i] && _path[i].isFile()) {
+        // created since the index was built; indexing is shared through JAR_CACHE
+        jar = _jarContents(_path[i]);
+        if (jar == null) return null;
+      }
+      if (jar == null) {
+        File f = new File(_path[i], name);
+        return f.exists() ? f.toURI().toURL() : null;
+      }
+      else return jar.entries.contains(name) ? new URL("jar:" + jar.url + "!/" + name) : null;
+    }
+    catch (MalformedURLException e) {
+      _log.log("Can't create URL for " + name + " in " + _path[i] + ": " + e);
+      return null;
+    }
+  }
+  
+  /** Returns the contents of the given jar file, indexing it if it has not been indexed since it last changed. 
+    * @return the contents, or null if the file cannot be read as a jar file
+    */
+  private static JarContents _jarContents(File f) {
+    long lastModified = f.lastModified();
+    long length = f.length();
+    synchronized(JAR_CACHE) {
+      JarContents cached = JAR_CACHE.get(f);
+      if (cached != null && cached.lastModified == lastModified && cached.length == length) return cached;
+    }
+    
+    Set<String> entries = new HashSet<String>();
+    Set<String> packages = new HashSet<String>();
+    URL url;
+    try {
+      url = f.toURI().toURL();
+      ZipFile zip = new ZipFile(f);
+      try {
+        for (Enumeration<? extends ZipEntry> e = zip.entries(); e.hasMoreElements(); ) {
+          String name = e.nextElement().getName();
+          entries.add(name);
+          int slash = name.lastIndexOf('/');
+          packages.add((slash < 0) ? "" : name.substring(0, slash));
+        }
+      }
+      finally { zip.close(); }
+    }
+    catch (IOException e) {
+      _log.log("Can't index class path entry " + f + ": " + e);
+      return null;
+    }
+    JarContents result = new JarContents(lastModified, length, url, entries, packages);
+    synchronized(JAR_CACHE) { JAR_CACHE.put(f, result); }
+    return result;
+  }
+}
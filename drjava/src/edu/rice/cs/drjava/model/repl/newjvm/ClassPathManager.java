@@ -43,7 +43,6 @@ import java.lang.ClassLoader;
 import edu.rice.cs.plt.io.IOUtil;
 import edu.rice.cs.plt.iter.IterUtil;
 import edu.rice.cs.plt.lambda.Lambda;
-import edu.rice.cs.plt.reflect.PathClassLoader;
 
 import edu.rice.cs.util.Log;
 
@@ -66,6 +65,12 @@ public class ClassPathManager implements Lambda<ClassLoader, ClassLoader> {
   
   private final Iterable<File> _fullPath;
   
+  /** Incremented whenever an entry is added to the class path; written only while holding this. */
+  private volatile long _generation = 0;
+  
+  /** The index of the class path as of its most recent generation, or null if not yet built. */
+  private volatile ClassPathIndex _index = null;
+  
   public ClassPathManager(Iterable<File> builtInCP) {
     _projectCP = new LinkedList<File>();
     _buildCP = new LinkedList<File>();
@@ -103,7 +108,7 @@ public class ClassPathManager implements Lambda<ClassLoader, ClassLoader> {
   /** Adds the entry to the front of the project classpath (this is the classpath specified in project properties)
     * @param f the file to be added to the classpath
     */
-  public synchronized void addProjectCP(File f) { _projectCP.addFirst(f); updateProperty(); }
+  public synchronized void addProjectCP(File f) { _projectCP.addFirst(f); _generation++; updateProperty(); }
   
   public synchronized Iterable<File> getProjectCP() { return IterUtil.snapshot(_projectCP); }
   
@@ -113,6 +118,7 @@ public class ClassPathManager implements Lambda<ClassLoader, ClassLoader> {
   public synchronized void addBuildDirectoryCP(File f) {
     _buildCP.remove(f); // eliminate duplicates
     _buildCP.addFirst(f);
+    _generation++;
     updateProperty();
   }
   
@@ -124,6 +130,7 @@ public class ClassPathManager implements Lambda<ClassLoader, ClassLoader> {
   public synchronized void addProjectFilesCP(File f) {
     _projectFilesCP.remove(f); // eliminate duplicates
     _projectFilesCP.addFirst(f);
+    _generation++;
     updateProperty();
   }
   
@@ -135,6 +142,7 @@ public class ClassPathManager implements Lambda<ClassLoader, ClassLoader> {
   public synchronized void addExternalFilesCP(File f) {
     _externalFilesCP.remove(f); // eliminate duplicates
     _externalFilesCP.addFirst(f);
+    _generation++;
     updateProperty();
   }
   
@@ -146,6 +154,7 @@ public class ClassPathManager implements Lambda<ClassLoader, ClassLoader> {
   public synchronized void addExtraCP(File f) {
     _extraCP.remove(f); // eliminate duplicates
     _extraCP.addFirst(f);
+    _generation++;
     updateProperty();
   }
   
@@ -154,14 +163,31 @@ public class ClassPathManager implements Lambda<ClassLoader, ClassLoader> {
   /** Create a new class loader based on the given path.  The loader's path is dynamically updated
     * as changes are made in the ClassPathManager.  Each loader returned by this method will
     * have its own set of loaded classes, and will only share those classes that are loaded
-    * by a common parent.
+    * by a common parent.  All loaders share the ClassPathIndex of the current generation.
     * @param parent  The parent class loader.  May be {@code null}, signifying the bootstrap
     *                class loader.
     * @return the newly-created class loader
     */
   public synchronized ClassLoader makeClassLoader(ClassLoader parent) {
     updateProperty();
-    return new PathClassLoader(parent, _fullPath);
+    return new IndexedPathClassLoader(parent, this);
+  }
+  
+  /** Returns the index of the current class path, rebuilding it if entries have been added since it was built.
+    * Jar files that have not changed are not re-indexed.
+    * @return an index of the current class path
+    */
+  public ClassPathIndex getIndex() {
+    ClassPathIndex index = _index;
+    if (index != null && index.getGeneration() == _generation) return index;
+    synchronized(this) {
+      index = _index;
+      if (index != null && index.getGeneration() == _generation) return index;
+      index = new ClassPathIndex(_generation, IterUtil.snapshot(_fullPath));
+      _index = index;
+      _log.log("Rebuilt class path index for generation " + _generation);
+      return index;
+    }
   }
   
   /** Lambda value method.  In DrJava usage, parent is often null. */
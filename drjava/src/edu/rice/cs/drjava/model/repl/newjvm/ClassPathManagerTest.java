@@ -0,0 +1,134 @@
+/*BEGIN_COPYRIGHT_BLOCK
+ *
+ * Copyright (c) 2001-2017, JavaPLT group at Rice University (drjava@rice.edu)
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    * Redistributions of source code must retain the above copyright
+ *      notice, this list of conditions and the following disclaimer.
+ *    * Redistributions in binary form must reproduce the above copyright
+ *      notice, this list of conditions and the following disclaimer in the
+ *      documentation and/or other materials provided with the distribution.
+ *    * Neither the names of DrJava, the JavaPLT group, Rice University, nor the
+ *      names of its contributors may be used to endorse or promote products
+ *      derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This software is Open Source Initiative approved Open Source Software.
+ * Open Source Initative Approved is a trademark of the Open Source Initiative.
+ * 
+ * This file is part of DrJava.  Download the current version of this project
+ * from http://www.drjava.org/ or http://sourceforge.net/projects/drjava/
+ * 
+ * END_COPYRIGHT_BLOCK*/
+
+package edu.rice.cs.drjava.model.repl.newjvm;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.net.URL;
+import java.util.Collections;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import edu.rice.cs.drjava.DrJavaTestCase;
+import edu.rice.cs.plt.io.IOUtil;
+
+/** Tests the class path index maintained by ClassPathManager. */
+public final class ClassPathManagerTest extends DrJavaTestCase {
+  private File _tempDir;
+  
+  public void setUp() throws Exception {
+    super.setUp();
+    String user = System.getProperty("user.name");
+    _tempDir = IOUtil.createAndMarkTempDirectory("DrJava-test-" + user, "");
+  }
+  
+  public void tearDown() throws Exception {
+    IOUtil.deleteRecursively(_tempDir);
+    _tempDir = null;
+    super.tearDown();
+  }
+  
+  private File _makeJar(String name, String... entries) throws Exception {
+    File jar = new File(_tempDir, name);
+    ZipOutputStream out = new ZipOutputStream(new FileOutputStream(jar));
+    try {
+      for (String e: entries) {
+        out.putNextEntry(new ZipEntry(e));
+        out.write(e.getBytes("UTF-8"));
+        out.closeEntry();
+      }
+    }
+    finally { out.close(); }
+    return jar;
+  }
+  
+  /** Tests that the index is shared until the class path changes, and that lookups follow class path order. */
+  public void testIndexGenerations() throws Exception {
+    File dir = new File(_tempDir, "classes");
+    new File(dir, "p").mkdirs();
+    File jar = _makeJar("lib.jar", "p/A.txt", "q/B.txt");
+    
+    ClassPathManager cpm = new ClassPathManager(Collections.<File>emptyList());
+    cpm.addExtraCP(jar);
+    ClassPathIndex index = cpm.getIndex();
+    assertSame("index is reused within a generation", index, cpm.getIndex());
+    
+    URL a = index.findResource("p/A.txt");
+    assertNotNull("resource in jar", a);
+    assertEquals("jar URL", "jar:" + jar.toURI().toURL() + "!/p/A.txt", a.toString());
+    assertNull("missing package", index.findResource("r/C.txt"));
+    assertNull("missing entry in indexed package", index.findResource("q/A.txt"));
+    
+    cpm.addBuildDirectoryCP(dir);
+    ClassPathIndex index2 = cpm.getIndex();
+    assertNotSame("index is rebuilt after the path changes", index, index2);
+    // directories are probed directly, so files created later are found without a new generation
+    IOUtil.writeStringToFile(new File(dir, "p/A.txt"), "dir");
+    assertEquals("build directory precedes extra class path", 
+                 new File(dir, "p/A.txt").toURI().toURL(), index2.findResource("p/A.txt"));
+    assertEquals("both occurrences found", 2, Collections.list(index2.findResources("p/A.txt")).size());
+  }
+  
+  /** Tests that entries that do not exist yet when the index is built are found once they are created. */
+  public void testEntriesCreatedLater() throws Exception {
+    File dir = new File(_tempDir, "classes");
+    File jar = new File(_tempDir, "lib.jar");
+    ClassPathManager cpm = new ClassPathManager(Collections.<File>emptyList());
+    cpm.addBuildDirectoryCP(dir);
+    cpm.addExtraCP(jar);
+    ClassPathIndex index = cpm.getIndex();
+    assertNull("nothing on class path yet", index.findResource("p/A.txt"));
+    
+    new File(dir, "p").mkdirs();
+    IOUtil.writeStringToFile(new File(dir, "p/A.txt"), "dir");
+    assertEquals("directory created after indexing", 
+                 new File(dir, "p/A.txt").toURI().toURL(), index.findResource("p/A.txt"));
+    _makeJar("lib.jar", "q/B.txt");
+    assertNotNull("jar created after indexing", index.findResource("q/B.txt"));
+    assertNull("missing entry in new jar", index.findResource("q/A.txt"));
+    assertSame("no new generation", index, cpm.getIndex());
+  }
+  
+  /** Tests that class loaders created by the manager see entries added after their creation. */
+  public void testLoaderSeesNewEntries() throws Exception {
+    ClassPathManager cpm = new ClassPathManager(Collections.<File>emptyList());
+    ClassLoader loader = cpm.makeClassLoader(null);
+    assertNull("not yet on class path", loader.getResource("p/A.txt"));
+    cpm.addExtraCP(_makeJar("lib.jar", "p/A.txt"));
+    assertNotNull("found after path change", loader.getResource("p/A.txt"));
+  }
+}
@@ -0,0 +1,88 @@
+/*BEGIN_COPYRIGHT_BLOCK
+ *
+ * Copyright (c) 2001-2017, JavaPLT group at Rice University (drjava@rice.edu)
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    * Redistributions of source code must retain the above copyright
+ *      notice, this list of conditions and the following disclaimer.
+ *    * Redistributions in binary form must reproduce the above copyright
+ *      notice, this list of conditions and the following disclaimer in the
+ *      documentation and/or other materials provided with the distribution.
+ *    * Neither the names of DrJava, the JavaPLT group, Rice University, nor the
+ *      names of its contributors may be used to endorse or promote products
+ *      derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This software is Open Source Initiative approved Open Source Software.
+ * Open Source Initative Approved is a trademark of the Open Source Initiative.
+ * 
+ * This file is part of DrJava.  Download the current version of this project
+ * from http://www.drjava.org/ or http://sourceforge.net/projects/drjava/
+ * 
+ * END_COPYRIGHT_BLOCK*/
+
+package edu.rice.cs.drjava.model.repl.newjvm;
+
+import java.io.InputStream;
+import java.io.IOException;
+import java.net.URL;
+import java.util.Enumeration;
+
+import edu.rice.cs.plt.io.IOUtil;
+import edu.rice.cs.plt.reflect.AbstractClassLoader;
+
+/** A class loader that loads classes from the dynamic class path of a ClassPathManager.  Unlike a PathClassLoader
+  * over the same path, it does not compare the whole path against a snapshot on every lookup: it asks the manager
+  * for the ClassPathIndex of the current class path generation, which is a single volatile read unless the path has
+  * changed.  Each loader still has its own set of loaded classes.
+  */
+public class IndexedPathClassLoader extends AbstractClassLoader {
+  
+  private final ClassPathManager _manager;
+  
+  /** Creates a loader for the class path maintained by manager.
+    * @param parent the parent class loader; may be null, signifying the bootstrap class loader
+    * @param manager the class path manager
+    */
+  public IndexedPathClassLoader(ClassLoader parent, ClassPathManager manager) {
+    super(parent);
+    _manager = manager;
+  }
+  
+  @Override 
+  protected Class<?> findClass(String name) throws ClassNotFoundException {
+    URL resource = findResource(name.replace('.', '/') + ".class");
+    if (resource == null) { throw new ClassNotFoundException(name); }
+    try {
+      InputStream stream = resource.openStream();
+      try {
+        byte[] bytes = IOUtil.toByteArray(stream);
+        definePackageForClass(name);
+        return defineClass(name, bytes, 0, bytes.length);
+      }
+      finally { stream.close(); }
+    }
+    catch (IOException e) { throw new ClassNotFoundException("Can't access class file", e); }
+  }
+  
+  @Override 
+  protected URL findResource(String name) { return _manager.getIndex().findResource(name); }
+  
+  @Override 
+  protected Enumeration<URL> findResources(String name) throws IOException {
+    return _manager.getIndex().findResources(name);
+  }
+}
@@ -45,6 +45,7 @@ import java.util.ArrayList;
 import java.util.Map;
 import java.util.concurrent.TimeoutException;
 
+import edu.rice.cs.drjava.ClassDataSharing;
 import edu.rice.cs.drjava.DrJava;
 import edu.rice.cs.drjava.config.OptionConstants;
 import edu.rice.cs.drjava.model.repl.*;
@@ -58,6 +59,7 @@ import edu.rice.cs.drjava.ui.DrJavaErrorHandler;
 
 import edu.rice.cs.util.ArgumentTokenizer;
 import edu.rice.cs.util.FileOps;
+import edu.rice.cs.util.Log;
 import edu.rice.cs.util.UnexpectedException;
 import edu.rice.cs.plt.io.IOUtil;
 import edu.rice.cs.plt.iter.IterUtil;
@@ -690,6 +692,7 @@ public class MainJVM extends AbstractMasterJVM implements MainJVMRemoteI {
     // ------------------------------------------------------
     
     if (_allowAssertions) { jvmArgs.add("-ea"); }
+    if (Log.isAsynchronousByDefault()) { jvmArgs.add("-Ddrjava.log.async=true"); }
     int debugPort = _getDebugPort();
     if (debugPort > -1) {
       jvmArgs.add("-Xrunjdwp:transport=dt_socket,server=y,suspend=n,address=" + debugPort);
@@ -746,6 +749,13 @@ public class MainJVM extends AbstractMasterJVM implements MainJVMRemoteI {
     for(File f: jvmb.classPath()) { extendedClassPath.add(f); }
     jvmb = jvmb.classPath(edu.rice.cs.plt.iter.IterUtil.asSizedIterable(extendedClassPath));
     
+    // the archive depends on the final class path
+    if (DrJava.getConfig().getSetting(OptionConstants.CLASS_DATA_SHARING)) {
+      List<String> cdsJvmArgs = new ArrayList<String>(jvmArgs);
+      cdsJvmArgs.addAll(ClassDataSharing.jvmArguments(ClassDataSharing.INTERACTIONS_ROLE, extendedClassPath, jvmArgs));
+      jvmb = jvmb.jvmArguments(cdsJvmArgs);
+    }
+    
     // add Java properties controlling ConcJUnit
     Map<String, String> props = jvmb.propertiesCopy();
     
@@ -88,14 +88,21 @@ public class AutoCompletePopup {
     * @param mf main frame of DrJava
     * @param frameState position and size of the dialog
     */
-  public AutoCompletePopup(MainFrame mf, String frameState) {
+  public AutoCompletePopup(MainFrame mf, String frameState) { this(mf, frameState, false); }
+  
+  /** Constructor for an auto-complete popup that uses the MainFrame for information.
+    * @param mf main frame of DrJava
+    * @param frameState position and size of the dialog
+    * @param members whether the methods and fields of the scanned class files are offered as well as the classes
+    */
+  public AutoCompletePopup(MainFrame mf, String frameState, boolean members) {
     _mainFrame = mf;
     if (frameState!=null) _lastState = new FrameState(frameState);
     _docEntries = new HashSet<AutoCompletePopupEntry>();
     _apiEntries = new HashSet<AutoCompletePopupEntry>();
-    _allEntries = new UnionSet<AutoCompletePopupEntry>(_apiEntries,
-                                                       new UnionSet<AutoCompletePopupEntry>(mf.getCompleteClassSet(),
-                                                                                            _docEntries));
+    Set<AutoCompletePopupEntry> scanned = new UnionSet<AutoCompletePopupEntry>(mf.getCompleteClassSet(), _docEntries);
+    if (members) scanned = new UnionSet<AutoCompletePopupEntry>(mf.getCompleteMemberSet(), scanned);
+    _allEntries = new UnionSet<AutoCompletePopupEntry>(_apiEntries, scanned);
   }
   
   /** Display an auto-complete popup with the specified window title centered around
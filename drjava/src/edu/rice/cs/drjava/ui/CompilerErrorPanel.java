@@ -65,6 +65,9 @@ public class CompilerErrorPanel extends ErrorPanel {
   
   /** Whether a compile has occurred since the last compiler change. */
   private volatile boolean _compileHasOccurred;
+  
+  /** Whether a compile is running; errors shown while it is are only those reported so far. */
+  private volatile boolean _compileInProgress = false;
   private volatile CompilerErrorListPane _errorListPane;
   private final JComboBox<CompilerInterface> _compilerChoiceBox;
   
@@ -136,9 +139,16 @@ public class CompilerErrorPanel extends ErrorPanel {
   
   /** Called when compilation begins. */
   public void setCompilationInProgress() {
+    _compileInProgress = true;
     _errorListPane.setCompilationInProgress();
   }
   
+  /** Called when a running compile has reported another batch of errors. */
+  public void errorsReported() {
+    _excludedFiles = new File[0];
+    reset();
+  }
+  
   public CompilerErrorModel getErrorModel() { return getModel().getCompilerModel().getCompilerErrorModel(); }
   
   /** Clean up when the tab is closed. */
@@ -154,6 +164,7 @@ public class CompilerErrorPanel extends ErrorPanel {
    * @param excludedFiles files to set as excluded
    */
   public void reset(File[] excludedFiles) {
+    _compileInProgress = false;
     _excludedFiles = excludedFiles;
     reset();
   }
@@ -186,7 +197,7 @@ public class CompilerErrorPanel extends ErrorPanel {
       String failureName = "error";
       if (getErrorModel().hasOnlyWarnings()) failureName = "warning";
 
-      _updateWithErrors(failureName, "found", doc);
+      _updateWithErrors(failureName, _compileInProgress ? "found so far" : "found", doc);
     }
     
     /** Puts the error pane into "compilation in progress" state. */
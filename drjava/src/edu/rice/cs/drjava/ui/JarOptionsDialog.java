@@ -105,6 +105,7 @@ public class JarOptionsDialog extends SwingFrame {
   public static final int MAKE_EXECUTABLE = 4;
   public static final int JAR_ALL = 8;
   public static final int CUSTOM_MANIFEST = 16;
+  public static final int STORE_CLASSES = 32;
   
   /** Determines whether class files should be jar-ed. */
   private JCheckBox _jarClasses; 
@@ -116,6 +117,8 @@ public class JarOptionsDialog extends SwingFrame {
   private JCheckBox _makeExecutable;
   /** Determines whether the jar file should include a custom manifest. */
   private JCheckBox _customManifest;
+  /** Determines whether class files should be stored without compression. */
+  private JCheckBox _storeClasses;
   /** File selector for the jar output file. */
   private FileSelectorComponent _jarFileSelector;
   /** Text field for the main class. */
@@ -193,6 +196,7 @@ public class JarOptionsDialog extends SwingFrame {
     _jarAll.setSelected(((f & JAR_ALL) != 0));
     _makeExecutable.setSelected(((f & MAKE_EXECUTABLE) != 0));
     _customManifest.setSelected(((f & CUSTOM_MANIFEST) != 0));
+    _storeClasses.setSelected(((f & STORE_CLASSES) != 0));
     
     LOG.log("_customManifestText set off of " + _model);
     _customManifestText = _model.getCustomManifest();
@@ -431,6 +435,13 @@ public class JarOptionsDialog extends SwingFrame {
     gridBagConstraints.insets = new Insets(0, 20, 0, 0);
     addclasses.add(_editManifest, gridBagConstraints);
     
+    _storeClasses = new JCheckBox("Store class files uncompressed");
+    _storeClasses.setToolTipText("Makes a larger jar file that is faster to create and to load classes from.");
+    gridBagConstraints = new GridBagConstraints();
+    gridBagConstraints.anchor = GridBagConstraints.WEST;
+    gridBagConstraints.gridy = 4;
+    addclasses.add(_storeClasses, gridBagConstraints);
+    
     gridBagConstraints = new GridBagConstraints();
     gridBagConstraints.gridx = 0;
     gridBagConstraints.anchor = GridBagConstraints.WEST;
@@ -643,6 +654,7 @@ public class JarOptionsDialog extends SwingFrame {
   private void _toggleClassOptions() {
     _setEnableExecutable(_jarClasses.isSelected() || _jarAll.isSelected());
     _setEnableCustomManifest(_jarClasses.isSelected() || _jarAll.isSelected());
+    _storeClasses.setEnabled(_jarClasses.isSelected() || _jarAll.isSelected());
     if (_jarClasses.isSelected() || _jarAll.isSelected()) {
       _cantJarClassesLabel.setForeground(javax.swing.UIManager.getColor("Label.foreground"));
     }
@@ -695,6 +707,32 @@ public class JarOptionsDialog extends SwingFrame {
       boolean _success = false;
       HashSet<String> _exceptions = new HashSet<String>();
       
+      /** Sets up a jar with the selected compression, reporting the entries written in the processing dialog. */
+      private JarBuilder configure(JarBuilder jar) {
+        jar.setStoreClassFiles(_storeClasses.isSelected());
+        jar.setProgressListener(new Runnable1<Integer>() {
+          public void run(final Integer count) {
+            Utilities.invokeLater(new Runnable() {
+              public void run() {
+                JProgressBar pb = _processingDialog.getProgressBar();
+                pb.setStringPainted(true);
+                pb.setString(count + " files written");
+              }
+            });
+          }
+        });
+        return jar;
+      }
+      
+      /** Closes a jar; files that could not be read are reported as problems as long as the jar was finished. */
+      private void close(JarBuilder jar) throws IOException {
+        try { jar.close(); }
+        catch(IOException ioe) {
+          if (! jar.isComplete()) throw ioe;
+          _exceptions.add(ioe.getMessage());
+        }
+      }
+      
       private boolean jarAll(File dir, JarBuilder jarFile, final File outputFile) throws IOException {
         LOG.log("jarOthers(" + dir + " , " + jarFile + ")");
         java.io.FileFilter allFilter = new java.io.FileFilter() {
@@ -814,10 +852,10 @@ public class JarOptionsDialog extends SwingFrame {
               else
                 mw.setManifestContents(_customManifestText);
               
-              mainJar = new JarBuilder(jarOut, mw.getManifest());
+              mainJar = configure(new JarBuilder(jarOut, mw.getManifest()));
             }
             else {
-              mainJar = new JarBuilder(jarOut);
+              mainJar = configure(new JarBuilder(jarOut));
             }
             
             //If the project has a set build directory, start there.
@@ -839,9 +877,9 @@ public class JarOptionsDialog extends SwingFrame {
             File sourceJarFile = File.createTempFile(prefix, ".jar");
             
             if (!_jarAll.isSelected()) {
-              JarBuilder sourceJar = new JarBuilder(sourceJarFile);
+              JarBuilder sourceJar = configure(new JarBuilder(sourceJarFile));
               jarSources(_model, sourceJar);
-              sourceJar.close();
+              close(sourceJar);
               mainJar.addFile(sourceJarFile, "", "source.jar");
             }
             
@@ -858,7 +896,7 @@ public class JarOptionsDialog extends SwingFrame {
                 jarBuildDirectory(binRoot, mainJar);
             }
             
-            mainJar.close();
+            close(mainJar);
             sourceJarFile.delete();  // TODO: what if delete() fails? (mgricken)
           }
           else if (_jarClasses.isSelected()) {
@@ -873,12 +911,12 @@ public class JarOptionsDialog extends SwingFrame {
               Manifest m = mw.getManifest();
               
               if (m != null)
-                jb = new JarBuilder(jarOut, m);
+                jb = configure(new JarBuilder(jarOut, m));
               else
                 throw new IOException("Manifest is malformed");
             }
             else {
-              jb = new JarBuilder(jarOut);
+              jb = configure(new JarBuilder(jarOut));
             }
             //If the project has a set build directory, start there.
             //Otherwise, start at project root
@@ -888,12 +926,12 @@ public class JarOptionsDialog extends SwingFrame {
             
             jarBuildDirectory(binRoot, jb);
             
-            jb.close();
+            close(jb);
           }
           else {
-            JarBuilder jb = new JarBuilder(jarOut);
+            JarBuilder jb = configure(new JarBuilder(jarOut));
             jarSources(_model, jb);
-            jb.close();
+            close(jb);
           }
           _success = true;
         }
@@ -1030,6 +1068,7 @@ public class JarOptionsDialog extends SwingFrame {
     if (_jarAll.isSelected()) f |= JAR_ALL;
     if (_makeExecutable.isSelected()) f |= MAKE_EXECUTABLE;
     if (_customManifest.isSelected()) f |= CUSTOM_MANIFEST;
+    if (_storeClasses.isSelected()) f |= STORE_CLASSES;
     
     if (f != _model.getCreateJarFlags()) {
       _model.setCreateJarFlags(f);
@@ -57,6 +57,7 @@ import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.LinkedList;
 import java.util.Map;
@@ -247,10 +248,10 @@ public class MainFrame extends SwingFrame implements ClipboardOwner, DropTargetL
   private JPopupMenu _interactionsPanePopupMenu;
   private JPopupMenu _consolePanePopupMenu;
   
-  // Cached frames and dialogs
+  // Cached frames and dialogs; except for _recentDocFrame and _coverageFrame, these are created on first use
   private volatile ConfigFrame _configFrame;
-  private final HelpFrame _helpFrame = new HelpFrame();
-  private final QuickStartFrame _quickStartFrame = new QuickStartFrame();
+  private volatile HelpFrame _helpFrame;
+  private volatile QuickStartFrame _quickStartFrame;
   private volatile AboutDialog _aboutDialog;
   private volatile RecentDocFrame _recentDocFrame;    /** Holds/shows the history of documents for ctrl-tab. */
   private volatile CoverageFrame _coverageFrame;
@@ -524,6 +525,15 @@ public class MainFrame extends SwingFrame implements ClipboardOwner, DropTargetL
   /** The jar options dialog. */
   private volatile JarOptionsDialog _jarOptionsDialog;
   
+  /** Returns the "Create Jar from Project" dialog, creating it if necessary.  Only runs in the event thread. */
+  private JarOptionsDialog _getJarOptionsDialog() {
+    if (_jarOptionsDialog == null) {
+      _jarOptionsDialog = new JarOptionsDialog(this);
+      initJarOptionsDialog();
+    }
+    return _jarOptionsDialog;
+  }
+  
   /** Initializes the "Create Jar from Project" dialog. */
   private void initJarOptionsDialog() {
     if (DrJava.getConfig().getSetting(DIALOG_JAROPTIONS_STORE_POSITION).booleanValue())
@@ -532,7 +542,7 @@ public class MainFrame extends SwingFrame implements ClipboardOwner, DropTargetL
   
   /** Reset the position of the "Create Jar from Project" dialog. */
   public void resetJarOptionsDialogPosition() {
-    _jarOptionsDialog.setFrameState("default");
+    if (_jarOptionsDialog != null) _jarOptionsDialog.setFrameState("default");
     if (DrJava.getConfig().getSetting(DIALOG_JAROPTIONS_STORE_POSITION).booleanValue()) {
       DrJava.getConfig().setSetting(DIALOG_JAROPTIONS_STATE, "default");
     }
@@ -541,7 +551,7 @@ public class MainFrame extends SwingFrame implements ClipboardOwner, DropTargetL
     { _addGUIAvailabilityListener(this,
                                   GUIAvailabilityListener.ComponentType.PROJECT,
                                   GUIAvailabilityListener.ComponentType.COMPILER); }
-    public void actionPerformed(ActionEvent ae) { _jarOptionsDialog.setVisible(true); }
+    public void actionPerformed(ActionEvent ae) { _getJarOptionsDialog().setVisible(true); }
   };
   
   /** Initializes the "Tabbed Panes" frame. */
@@ -1493,10 +1503,12 @@ public class MainFrame extends SwingFrame implements ClipboardOwner, DropTargetL
               final int curLine = newDoc.getCurrentLine();
               final String t = p.getText();
               final int last = t.lastIndexOf(':');
-              if (last >= 0) {
+              final int symbolLine = 
+                (p.getItem() instanceof SymbolListEntry) ? ((SymbolListEntry) p.getItem()).getLine() : -1;
+              if (last >= 0 || symbolLine > 0) {
                 try {
-                  String end = t.substring(last + 1);
-                  int val = Integer.parseInt(end);
+                  // a line typed by the user takes precedence over the line of a symbol
+                  int val = (last >= 0) ? Integer.parseInt(t.substring(last + 1)) : symbolLine;
                   
                   final int lineNum = Math.max(1, val);
                   Runnable command = new Runnable() {
@@ -1600,6 +1612,7 @@ public class MainFrame extends SwingFrame implements ClipboardOwner, DropTargetL
           catch(IllegalStateException e) { /* ignore */ }
         }
       }
+      _addSymbolEntries(list, docs);
       _gotoFileDialog.setItems(true, list); // ignore case
       if (currentEntry != null) _gotoFileDialog.setCurrentItem(currentEntry);
       hourglassOn();   // Where is the corresponding hourglassOff()?
@@ -1865,9 +1878,15 @@ public class MainFrame extends SwingFrame implements ClipboardOwner, DropTargetL
 
   /** @return the set of all classes, scanned after the last compile. */
   public Set<GoToFileListEntry> getCompleteClassSet() { return _completeClassSet; }
+  
+  /** @return the set of the methods and fields of all classes, scanned after the last compile. */
+  public Set<GoToFileListEntry> getCompleteMemberSet() { return _completeMemberSet; }
 
-  /** Clear the set of all classes. */
-  public void clearCompleteClassSet() { _completeClassSet.clear(); }
+  /** Clear the sets of all classes and members. */
+  public void clearCompleteClassSet() {
+    _completeClassSet.clear();
+    _completeMemberSet.clear();
+  }
   
   /** Clears the Java API class set. */
   public void clearJavaAPISet() { _javaAPISet.clear(); }
@@ -2106,7 +2125,7 @@ public class MainFrame extends SwingFrame implements ClipboardOwner, DropTargetL
   /** Initialize the "Complete Word" dialog. */
   private void initCompleteWordDialog() {
     if (_completeWordDialog == null) {
-      _completeWordDialog = new AutoCompletePopup(this);
+      _completeWordDialog = new AutoCompletePopup(this, null, true);
     }
   }
     
@@ -2394,24 +2413,42 @@ public class MainFrame extends SwingFrame implements ClipboardOwner, DropTargetL
   /** Action that shows what help documentation is available.  Only executes in the event thread. */
   private final Action _helpAction = new AbstractAction("Help") {
     public void actionPerformed(ActionEvent ae) {
-      _helpFrame.setVisible(true);
+      _getHelpFrame().setVisible(true);
     }
   };
   
   /** Action that shows the quick start documentation.  Only executes in the event thread. */
   private final Action _quickStartAction = new AbstractAction("QuickStart") {
     public void actionPerformed(ActionEvent ae) {
-      _quickStartFrame.setVisible(true);
+      _getQuickStartFrame().setVisible(true);
     }
   };
   
   /** Action that pops up an info dialog.  Only runs in the event thread. */
   private final Action _aboutAction = new AbstractAction("About") {
     public void actionPerformed(ActionEvent ae) {
-      _aboutDialog.setVisible(true);
+      _getAboutDialog().setVisible(true);
     }
   };
   
+  /** Returns the help frame, creating it if necessary.  Only runs in the event thread. */
+  private HelpFrame _getHelpFrame() {
+    if (_helpFrame == null) _helpFrame = new HelpFrame();
+    return _helpFrame;
+  }
+  
+  /** Returns the quick start frame, creating it if necessary.  Only runs in the event thread. */
+  private QuickStartFrame _getQuickStartFrame() {
+    if (_quickStartFrame == null) _quickStartFrame = new QuickStartFrame();
+    return _quickStartFrame;
+  }
+  
+  /** Returns the about dialog, creating it if necessary.  Only runs in the event thread. */
+  private AboutDialog _getAboutDialog() {
+    if (_aboutDialog == null) _aboutDialog = new AboutDialog(this);
+    return _aboutDialog;
+  }
+  
   /** Action that pops up a dialog that checks for a new version.  Only runs in the event thread. */
   private final Action _checkNewVersionAction = new AbstractAction("Check for New Version") {
     public void actionPerformed(ActionEvent ae) {
@@ -2626,13 +2663,30 @@ public class MainFrame extends SwingFrame implements ClipboardOwner, DropTargetL
   };
   
   public void editPreferences() {    
-    _configFrame.setUp();
-    setPopupLoc(_configFrame);
-    _configFrame.resetToCurrent();
-    _configFrame.setVisible(true);
-    _configFrame.toFront();
+    ConfigFrame configFrame = _getConfigFrame();
+    configFrame.setUp();
+    setPopupLoc(configFrame);
+    configFrame.resetToCurrent();
+    configFrame.setVisible(true);
+    configFrame.toFront();
   }
   
+  /** Returns the preferences frame, creating it if necessary.  Only runs in the event thread. */
+  private ConfigFrame _getConfigFrame() {
+    if (_configFrame == null) _configFrame = new ConfigFrame(this);
+    return _configFrame;
+  }
+  
+  /** The parent of dialogs shown by the option listeners: the preferences frame if it exists, since option changes
+    * are normally made there, and otherwise this frame.  The preferences frame is not created just to be a parent.
+    */
+  private final Thunk<JFrame> _configDialogParent = new Thunk<JFrame>() {
+    public JFrame value() {
+      ConfigFrame configFrame = _configFrame;
+      return (configFrame == null) ? MainFrame.this : configFrame;
+    }
+  };
+  
   private volatile AbstractAction _projectPropertiesAction = new AbstractAction("Project Properties") {
     { _addGUIAvailabilityListener(this,
                                  GUIAvailabilityListener.ComponentType.PROJECT,
@@ -3360,28 +3414,23 @@ public class MainFrame extends SwingFrame implements ClipboardOwner, DropTargetL
                                 new JScrollPane(_model.getDocumentNavigator().asContainer()), defScroll);
       _debugSplitPane = new BorderlessSplitPane(JSplitPane.VERTICAL_SPLIT, true);
       _mainSplit = new JSplitPane(JSplitPane.VERTICAL_SPLIT, true, _docSplitPane, _tabbedPane);
-// Lightweight parsing has been disabled until we have something that is beneficial and works better in the background.
-//// The OptionListener for LIGHTWEIGHT_PARSING_ENABLED.
-//    OptionListener<Boolean> parsingEnabledListener = new OptionListener<Boolean>() {
-//      public void optionChanged(OptionEvent<Boolean> oce) {
-//        if (oce.value) {
-//          _model.getParsingControl().addListener(new LightWeightParsingListener() {
-//            public void enclosingClassNameUpdated(OpenDefinitionsDocument doc, String old, String updated) {
-//              if (doc == _model.getActiveDocument()) { updateStatusField(); }
-//            }
-//          });
-//        }
-//        _model.getParsingControl().reset();
-//        _model.getParsingControl().setAutomaticUpdates(oce.value);
-//        updateStatusField();
-//      }
-//    };
-//    DrJava.getConfig().addOptionListener(LIGHTWEIGHT_PARSING_ENABLED, parsingEnabledListener);
-//    parsingEnabledListener.
-//      optionChanged(new OptionEvent<Boolean>(LIGHTWEIGHT_PARSING_ENABLED, 
-//                                             DrJava.getConfig().
-//                                               getSetting(LIGHTWEIGHT_PARSING_ENABLED).booleanValue()));
-//    
+      
+      // The light-weight parsing control updates the enclosing class name shown in the status bar.
+      _model.getParsingControl().addListener(new LightWeightParsingListener() {
+        public void enclosingClassNameUpdated(OpenDefinitionsDocument doc, String old, String updated) {
+          if (doc == _model.getActiveDocument()) { updateStatusField(); }
+        }
+      });
+      OptionListener<Boolean> parsingEnabledListener = new OptionListener<Boolean>() {
+        public void optionChanged(OptionEvent<Boolean> oce) {
+          _model.getParsingControl().reset();
+          _model.getParsingControl().setAutomaticUpdates(oce.value);
+          updateStatusField();
+        }
+      };
+      DrJava.getConfig().addOptionListener(LIGHTWEIGHT_PARSING_ENABLED, parsingEnabledListener);
+      _model.getParsingControl().setAutomaticUpdates(DrJava.getConfig().getSetting(LIGHTWEIGHT_PARSING_ENABLED));
+      
 //      _log.log("Global Model started");
       
       _model.getDocumentNavigator().asContainer().addKeyListener(_historyListener);
@@ -3775,49 +3824,44 @@ public class MainFrame extends SwingFrame implements ClipboardOwner, DropTargetL
       OptionListener<Boolean> scanClassesOptionListener = new OptionListener<Boolean>() {
         public void optionChanged(OptionEvent<Boolean> oce) {
           clearCompleteClassSet();
+          if (oce.value) _scanClassFiles();
         }
       };
       DrJava.getConfig().addOptionListener(DIALOG_COMPLETE_SCAN_CLASS_FILES, scanClassesOptionListener);
       
-      // Initialize cached frames and dialogs 
-      _configFrame = new ConfigFrame(MainFrame.this);
+      // Initialize cached frames and dialogs; the preferences, help, about, jar, and external process windows
+      // are created when they are first shown (or by _prewarmDialogs)
       _coverageFrame = new CoverageFrame(MainFrame.this);
-      _aboutDialog = new AboutDialog(MainFrame.this);
       _interactionsScriptController = null;
-      _executeExternalDialog = new ExecuteExternalDialog(MainFrame.this);
-      _editExternalDialog = new EditExternalDialog(MainFrame.this);
-      _jarOptionsDialog = new JarOptionsDialog(MainFrame.this);
       
       initTabbedPanesFrame();
       initDebugFrame();
-      initJarOptionsDialog();
-      initExecuteExternalProcessDialog();
 //    _projectPropertiesFrame = null;
       
       config.addOptionListener(DISPLAY_ALL_COMPILER_VERSIONS, 
-                               new ConfigOptionListeners.DisplayAllCompilerVersionsListener(_configFrame));
-      config.addOptionListener(LOOK_AND_FEEL, new ConfigOptionListeners.LookAndFeelListener(_configFrame));
-      config.addOptionListener(PLASTIC_THEMES, new ConfigOptionListeners.PlasticThemeListener(_configFrame));
-      OptionListener<String> slaveJVMArgsListener = new ConfigOptionListeners.SlaveJVMArgsListener(_configFrame);
+                               new ConfigOptionListeners.DisplayAllCompilerVersionsListener(_configDialogParent));
+      config.addOptionListener(LOOK_AND_FEEL, new ConfigOptionListeners.LookAndFeelListener(_configDialogParent));
+      config.addOptionListener(PLASTIC_THEMES, new ConfigOptionListeners.PlasticThemeListener(_configDialogParent));
+      OptionListener<String> slaveJVMArgsListener = new ConfigOptionListeners.SlaveJVMArgsListener(_configDialogParent);
       config.addOptionListener(SLAVE_JVM_ARGS, slaveJVMArgsListener);
-      _slaveJvmXmxListener = new ConfigOptionListeners.SlaveJVMXMXListener(_configFrame);
+      _slaveJvmXmxListener = new ConfigOptionListeners.SlaveJVMXMXListener(_configDialogParent);
       config.addOptionListener(SLAVE_JVM_XMX, _slaveJvmXmxListener);
-      OptionListener<String> masterJVMArgsListener = new ConfigOptionListeners.MasterJVMArgsListener(_configFrame);
+      OptionListener<String> masterJVMArgsListener = new ConfigOptionListeners.MasterJVMArgsListener(_configDialogParent);
       config.addOptionListener(MASTER_JVM_ARGS, masterJVMArgsListener);
-      _masterJvmXmxListener = new ConfigOptionListeners.MasterJVMXMXListener(_configFrame);
+      _masterJvmXmxListener = new ConfigOptionListeners.MasterJVMXMXListener(_configDialogParent);
       config.addOptionListener(MASTER_JVM_XMX, _masterJvmXmxListener);
       config.addOptionListener(JAVADOC_CUSTOM_PARAMS, 
-                               new ConfigOptionListeners.JavadocCustomParamsListener(_configFrame));
+                               new ConfigOptionListeners.JavadocCustomParamsListener(_configDialogParent));
       ConfigOptionListeners.sanitizeSlaveJVMArgs(MainFrame.this, config.getSetting(SLAVE_JVM_ARGS), slaveJVMArgsListener);
       ConfigOptionListeners.sanitizeSlaveJVMXMX(MainFrame.this, config.getSetting(SLAVE_JVM_XMX));
       ConfigOptionListeners.sanitizeMasterJVMArgs(MainFrame.this, config.getSetting(MASTER_JVM_ARGS), masterJVMArgsListener);
       ConfigOptionListeners.sanitizeMasterJVMXMX(MainFrame.this, config.getSetting(MASTER_JVM_XMX));
       ConfigOptionListeners.sanitizeJavadocCustomParams(MainFrame.this, config.getSetting(JAVADOC_CUSTOM_PARAMS));
       config.addOptionListener(REMOTE_CONTROL_ENABLED, new ConfigOptionListeners.
-                                 RequiresDrJavaRestartListener<Boolean>(_configFrame, "Remote Control"));
+                                 RequiresDrJavaRestartListener<Boolean>(_configDialogParent, "Remote Control"));
       config.addOptionListener(REMOTE_CONTROL_PORT, new ConfigOptionListeners.
-                                 RequiresDrJavaRestartListener<Integer>(_configFrame, "Remote Control Port"));
-      config.addOptionListener(DEFAULT_COMPILER_PREFERENCE, new ConfigOptionListeners.DefaultCompilerListener(_configFrame));
+                                 RequiresDrJavaRestartListener<Integer>(_configDialogParent, "Remote Control Port"));
+      config.addOptionListener(DEFAULT_COMPILER_PREFERENCE, new ConfigOptionListeners.DefaultCompilerListener(_configDialogParent));
       // If any errors occurred while parsing config file, show them
       _showConfigException();
       
@@ -4604,10 +4648,10 @@ public class MainFrame extends SwingFrame implements ClipboardOwner, DropTargetL
     
     String text = "Editing " + path;
     
-// Lightweight parsing has been disabled until we have something that is beneficial and works better in the background.
-//    if (DrJava.getConfig().getSetting(LIGHTWEIGHT_PARSING_ENABLED).booleanValue()) {
-//      String temp = _model.getParsingControl().getEnclosingClassName(doc);
-//      if ((temp != null) && (temp.length() > 0)) { text = text + " - " + temp; }
+    if (DrJava.getConfig().getSetting(LIGHTWEIGHT_PARSING_ENABLED).booleanValue()) {
+      String temp = _model.getParsingControl().getEnclosingClassName(doc);
+      if ((temp != null) && (temp.length() > 0)) { text = text + " - " + temp; }
+    }
     
 //    _statusField.setToolTipText("Full path for file: " + path);
     
@@ -4897,6 +4941,8 @@ public class MainFrame extends SwingFrame implements ClipboardOwner, DropTargetL
       
       if (_mainListener.someFilesNotFound()) _model.setProjectChanged(true);
       clearCompleteClassSet(); // reset auto-completion list
+      // the project's saved symbol index makes its classes available before the first compile
+      if (DrJava.getConfig().getSetting(DIALOG_COMPLETE_SCAN_CLASS_FILES).booleanValue()) _scanClassFiles();
       addToBrowserHistory();
     }
     catch(MalformedProjectFileException e) {
@@ -4949,6 +4995,7 @@ public class MainFrame extends SwingFrame implements ClipboardOwner, DropTargetL
     // TODO: in some cases, it is possible to see the documents being removed in the navigation pane
     //       this can cause errors. fix this.
     clearCompleteClassSet(); // reset auto-completion list
+    _symbolIndex = null;
 //    _autoImportClassSet = new HashSet<JavaAPIListEntry>(); // reset auto-import list
     
     if (_checkProjectClose()) {
@@ -5012,11 +5059,29 @@ public class MainFrame extends SwingFrame implements ClipboardOwner, DropTargetL
   
   public File getCurrentProject() { return _currentProjFile;  }
   
+  /** The number of files at or above which open reads the files on a background task. */
+  static final int BACKGROUND_OPEN_THRESHOLD = 8;
+  
   /** Opens all the files returned by the FileOpenSelector prompting the user to handle the cases where files are 
-    * already open, files are missing, or the action was canceled by the user
+    * already open, files are missing, or the action was canceled by the user.  If there are at least
+    * BACKGROUND_OPEN_THRESHOLD files, they are opened by a background task and this method returns immediately.
     * @param openSelector the selector that returns the files to open
     */
   public void open(FileOpenSelector openSelector) {
+    final File[] files;
+    try { files = openSelector.getFiles(); }
+    catch (OperationCanceledException oce) { return; /* do not open file */ }
+    if (files != null && files.length >= BACKGROUND_OPEN_THRESHOLD && EventQueue.isDispatchThread()) {
+      // read the files on a background task rather than blocking the event thread
+      _model.openFilesInBackground(files, null);
+    }
+    else _openSynchronously(new FileOpenSelector() { public File[] getFiles() { return files; } });
+  }
+  
+  /** Opens all the files returned by the FileOpenSelector like open, but always before returning.
+    * @param openSelector the selector that returns the files to open
+    */
+  private void _openSynchronously(FileOpenSelector openSelector) {
     try {
       hourglassOn();
       _model.openFiles(openSelector);
@@ -5089,12 +5154,8 @@ public class MainFrame extends SwingFrame implements ClipboardOwner, DropTargetL
     * @param ext extension
     */
   private void _openFolder(File dir, boolean rec, String ext) {
-    hourglassOn();
-    try { _model.openFolder(dir, rec, ext); }
-    catch(AlreadyOpenException e) { /* do nothing */ }
-    catch(IOException e) { MainFrameStatics.showIOError(MainFrame.this, e); }
-    catch(OperationCanceledException oce) { /* do nothing */ }
-    finally { hourglassOff(); }
+    // Files are read on a background task; the task locks the UI and shows a cancelable progress monitor
+    _model.openFolderInBackground(dir, rec, ext);
   }
   
   /** Closes the active document.  The user is queried in some cases. */
@@ -5574,7 +5635,7 @@ public class MainFrame extends SwingFrame implements ClipboardOwner, DropTargetL
         }
       }
     }
-    _executeExternalDialog.setVisible(false);
+    if (_executeExternalDialog != null) _executeExternalDialog.setVisible(false);
     // tried passing false here. seemed to help with bug
     // [ 1478796 ] DrJava Does Not Shut Down With Project Open
     // on HP tc1100 and Toshiba Portege tablet PCs, but did not help in all cases
@@ -5665,6 +5726,10 @@ public class MainFrame extends SwingFrame implements ClipboardOwner, DropTargetL
           && (_jarOptionsDialog != null) && (_jarOptionsDialog.getFrameState() != null)) {
       config.setSetting(DIALOG_JAROPTIONS_STATE, (_jarOptionsDialog.getFrameState().toString()));
     }
+    else if ((DrJava.getConfig().getSetting(DIALOG_JAROPTIONS_STORE_POSITION).booleanValue())
+               && (_jarOptionsDialog == null)) {
+      // The dialog was never opened in this session; keep the saved state.
+    }
     else {
       // Reset to defaults to restore pristine behavior.
       config.setSetting(DIALOG_JAROPTIONS_STATE, DIALOG_JAROPTIONS_STATE.getDefault());
@@ -5794,68 +5859,91 @@ public class MainFrame extends SwingFrame implements ClipboardOwner, DropTargetL
   /** List with entries for the complete dialog. */
   HashSet<GoToFileListEntry> _completeClassSet = new HashSet<GoToFileListEntry>();
   
+  /** List with entries for the methods and fields in the complete dialog. */
+  HashSet<GoToFileListEntry> _completeMemberSet = new HashSet<GoToFileListEntry>();
+  
+  /** The index of the classes in the build directory, or null if none has been loaded. */
+  private volatile SymbolIndex _symbolIndex = null;
+  
 //  /** List with entries for the auto-import dialog. */
 //  HashSet<JavaAPIListEntry> _autoImportClassSet = new HashSet<JavaAPIListEntry>();
   
-  /** Scan the build directory for class files and update the auto-completion list. */
+  /** Update the symbol index of the build directory, which only reads the class files that changed since the last
+    * update (or since it was saved), and the auto-completion lists. */
   private void _scanClassFiles() {
     
     String trace = Arrays.toString(Thread.currentThread().getStackTrace());
     _log.log("#### _scanClassFiles() called with trace:\n" + trace);
     Thread t = new Thread(new Runnable() {
       public void run() {
-        File buildDir = _model.getBuildDirectory();
-        HashSet<GoToFileListEntry> hs = new HashSet<GoToFileListEntry>();
-        HashSet<JavaAPIListEntry> hs2 = new HashSet<JavaAPIListEntry>();
-        if (buildDir != null) {
-          List<File> classFiles = _model.getClassFiles();
-          DummyOpenDefDoc dummyDoc = new DummyOpenDefDoc();
-          for(File f: classFiles) {
-            String s = f.toString();
-            if (s.lastIndexOf(File.separatorChar) >= 0) {
-              s = s.substring(s.lastIndexOf(File.separatorChar)+1);
-            }
-            s = s.substring(0, s.lastIndexOf(".class"));
-            s = s.replace('$', '.');
-            int pos = 0;
-            boolean ok = true;
-            while ((pos=s.indexOf('.', pos)) >= 0) {
-              if (s.length() <= pos + 1 || Character.isDigit(s.charAt(pos + 1))) {
-                ok = false;
-                break;
-              }
-              ++pos;
-            }
-            if (ok) {
-              if (s.lastIndexOf('.') >= 0) {
-                s = s.substring(s.lastIndexOf('.') + 1);
-              }
-              GoToFileListEntry entry = new GoToFileListEntry(dummyDoc, s);
-              hs.add(entry);
-              try {
-                String rel = FileOps.stringMakeRelativeTo(f, buildDir);
-                String full = rel.replace(File.separatorChar, '.');
-                full = full.substring(0, full.lastIndexOf(".class"));
-                if (full.indexOf('$') < 0) {
-                  // No '$' in the name means not an inner class. we do not support inner classes, because that would
-                  // mean having to determine public static scope
-                  hs2.add(new JavaAPIListEntry(s, full, null));
-                }
-              }
-              catch(IOException ioe) { /* ignore, just don't add this one */ }
-              catch(SecurityException se) { /* ignore, just don't add this one */ }
-            }
+        SymbolIndex index = _getSymbolIndex();
+        if (index == null) return;
+        if (index.update()) {
+          try { index.save(); }
+          catch (IOException ioe) { _log.log("Could not save symbol index", ioe); /* rebuilt on the next update */ }
+        }
+        HashSet<GoToFileListEntry> classes = new HashSet<GoToFileListEntry>();
+        HashSet<GoToFileListEntry> members = new HashSet<GoToFileListEntry>();
+        for (SymbolIndex.ClassSymbol c: index.getClasses()) {
+          if (c.isAnonymousOrLocal()) continue;
+          String pkg = (c.getPackageName().length() == 0) ? "" : c.getPackageName() + ".";
+          String nested = c.getNestedName();
+          classes.add(new SymbolListEntry(null, c.getSimpleName(), 
+                                          pkg + nested.substring(0, nested.length() - c.getSimpleName().length()), -1));
+          for (SymbolIndex.MemberSymbol m: c.getMembers()) {
+            members.add(new SymbolListEntry(null, m.getName(), pkg + nested + ".", m.getLine()));
           }
         }
+        if (index != _symbolIndex) return;  // the project was closed or changed
         clearCompleteClassSet();
-        _completeClassSet.addAll(hs);
-//        _autoImportClassSet = new HashSet<JavaAPIListEntry>(hs2);
+        _completeClassSet.addAll(classes);
+        _completeMemberSet.addAll(members);
       }
     });
     t.setPriority(Thread.MIN_PRIORITY);
     t.start();
   }
   
+  /** @return the symbol index of the current build directory, loading the saved index if the build directory 
+    *         changed, or null if there is no build directory */
+  private SymbolIndex _getSymbolIndex() {
+    File buildDir = _model.getBuildDirectory();
+    if (buildDir == null || ! buildDir.isDirectory()) return null;
+    SymbolIndex index = _symbolIndex;
+    if (index == null || ! index.getRoot().equals(buildDir)) {
+      index = SymbolIndex.load(buildDir);
+      _symbolIndex = index;
+    }
+    return index;
+  }
+  
+  /** Add "Go to File" entries for the methods declared in the given documents, as recorded in the symbol index.
+    * @param list the list of entries
+    * @param docs the open documents
+    */
+  private void _addSymbolEntries(List<GoToFileListEntry> list, List<OpenDefinitionsDocument> docs) {
+    SymbolIndex index = _symbolIndex;
+    if (index == null || ! DrJava.getConfig().getSetting(DIALOG_COMPLETE_SCAN_CLASS_FILES).booleanValue()) return;
+    Map<String, OpenDefinitionsDocument> bySource = new HashMap<String, OpenDefinitionsDocument>();
+    for (OpenDefinitionsDocument d: docs) {
+      if (d.isUntitled()) continue;
+      String dir = d.getPackageName().replace('.', '/');
+      if (dir.length() > 0) dir += "/";
+      // language level files are compiled from the .java files generated for them
+      bySource.put(dir + DrJavaFileUtils.getJavaForLLFile(d.getFileName()), d);
+    }
+    for (SymbolIndex.ClassSymbol c: index.getClasses()) {
+      OpenDefinitionsDocument d = bySource.get(c.getSourcePath());
+      if (d == null || c.isAnonymousOrLocal()) continue;
+      Set<String> names = new HashSet<String>();  // only the first of several overloaded methods
+      for (SymbolIndex.MemberSymbol m: c.getMembers()) {
+        if (m.getLine() > 0 && names.add(m.getName())) {
+          list.add(new SymbolListEntry(d, c.getNestedName() + "." + m.getName(), "", m.getLine()));
+        }
+      }
+    }
+  }
+  
   private void _runProject() {
     if (_model.isProjectActive()) {
       try {
@@ -7049,7 +7137,7 @@ public class MainFrame extends SwingFrame implements ClipboardOwner, DropTargetL
                 String s = enclosingfiles.get(i).trim();
                 ((MutableFileProperty) pm.getProperty("enclosing.djapp.file")).
                   setFile(s.length() > 0 ? new File(s) : null);
-                _executeExternalDialog.
+                _getExecuteExternalDialog().
                   runCommand(names.get(i),cmdlines.get(i),workdirs.get(i),enclosingfiles.get(i),pm);
               }
               catch(CloneNotSupportedException e) { throw new UnexpectedException(e); }
@@ -7705,8 +7793,7 @@ public class MainFrame extends SwingFrame implements ClipboardOwner, DropTargetL
     
     private void updateLocation(int line, int col) { // Can run outside the event thread because setText is thread safe.
       _currLocationField.setText(line + ":" + col +" \t");  // Space before "\t" required on Mac to avoid obscuring
-//  Lightweight parsing has been disabled until we have something that is beneficial and works better in the background.
-//      _model.getParsingControl().delay();
+      _model.getParsingControl().delay();
     }
     
     public int lastLine() { return _line; }
@@ -7887,6 +7974,30 @@ public class MainFrame extends SwingFrame implements ClipboardOwner, DropTargetL
         catch(Throwable t) {
           DrJavaErrorHandler.record(t);
         }
+        
+        if (DrJava.getConfig().getSetting(PREWARM_DIALOGS).booleanValue()) _prewarmDialogs();
+      }
+    });
+  }
+  
+  /** Creates the dialogs that are otherwise created on first use, so that they open without delay.  Each dialog is
+    * created in a separate event, so that the event thread remains responsive in between.  Only runs in the event
+    * thread.
+    */
+  private void _prewarmDialogs() {
+    final Iterator<Runnable> steps = Arrays.<Runnable>asList(
+      new Runnable() { public void run() { _getConfigFrame(); } },
+      new Runnable() { public void run() { _getAboutDialog(); } },
+      new Runnable() { public void run() { _getHelpFrame(); } },
+      new Runnable() { public void run() { _getQuickStartFrame(); } },
+      new Runnable() { public void run() { _getJarOptionsDialog(); } },
+      new Runnable() { public void run() { _getExecuteExternalDialog(); } },
+      new Runnable() { public void run() { _getEditExternalDialog(); } }).iterator();
+    EventQueue.invokeLater(new Runnable() {
+      public void run() {
+        steps.next().run();
+        if (steps.hasNext()) EventQueue.invokeLater(this);
+        else DrJavaRoot.logStartupPhase("dialogs prewarmed");
       }
     });
   }
@@ -9486,6 +9597,11 @@ public class MainFrame extends SwingFrame implements ClipboardOwner, DropTargetL
       _model.refreshActiveDocument();
     }
     
+    public void compileErrorsReported() {
+      assert EventQueue.isDispatchThread();
+      _compilerErrorPanel.errorsReported();
+    }
+    
     /** Called if a compilation is aborted. */
     public void compileAborted(Exception e) {
       /* Should probably display a simple popup */
@@ -10038,7 +10154,7 @@ public class MainFrame extends SwingFrame implements ClipboardOwner, DropTargetL
       _setUpContextMenus();
       projectRunnableChanged();
       _setUpProjectButtons(projectFile);
-      open(files);
+      _openSynchronously(files);  // the model restores the project's regions as soon as this returns
       _openProjectUpdate();
     }
     
@@ -10569,6 +10685,52 @@ public class MainFrame extends SwingFrame implements ClipboardOwner, DropTargetL
     }
   }
   
+  /** Handles a batch of "open file" requests from the remote control server.  Source files are opened together
+    * with a single call to open, so that a burst of requests (e.g. from a file manager) loads the files in
+    * parallel and refreshes the UI once.  Project and external process files are handled one at a time.
+    * @param requests pairs of a file to open and the line number to jump to, or -1 if not specified
+    */
+  public void handleRemoteOpenFiles(List<Pair<File, Integer>> requests) {
+    final ArrayList<File> files = new ArrayList<File>();
+    final ArrayList<Pair<File, Integer>> jumps = new ArrayList<Pair<File, Integer>>();
+    for (Pair<File, Integer> r: requests) {
+      String name = r.first().getName();
+      if (name.endsWith(OptionConstants.EXTPROCESS_FILE_EXTENSION) ||
+          name.endsWith(OptionConstants.PROJECT_FILE_EXTENSION) ||
+          name.endsWith(OptionConstants.PROJECT_FILE_EXTENSION2) ||
+          name.endsWith(OptionConstants.OLD_PROJECT_FILE_EXTENSION)) {
+        handleRemoteOpenFile(r.first(), r.second());
+      }
+      else if (! files.contains(r.first())) {
+        files.add(r.first());
+        if (r.second() >= 0) jumps.add(r);
+      }
+    }
+    if (files.isEmpty()) return;
+    if (files.size() == 1) { handleRemoteOpenFile(files.get(0), jumps.isEmpty() ? -1 : jumps.get(0).second()); return; }
+
+    Utilities.invokeLater(new Runnable() {
+      public void run() {
+        _model.openFilesInBackground(files.toArray(new File[files.size()]), 
+                                     new Runnable1<List<OpenDefinitionsDocument>>() {
+          public void run(List<OpenDefinitionsDocument> docs) {
+            // visit each requested line; the last one remains active
+            for (Pair<File, Integer> j: jumps) {
+              File f = IOUtil.attemptCanonicalFile(j.first());
+              for (OpenDefinitionsDocument doc: docs) {
+                if (f.equals(doc.getRawFile())) {
+                  _model.setActiveDocument(doc);
+                  _jumpToLine(j.second());
+                  break;
+                }
+              }
+            }
+          }
+        });
+      }
+    });
+  }
+
   /** Follow a file. */
   private final Action _followFileAction = new AbstractAction("Follow File...") {
     public void actionPerformed(ActionEvent ae) { _followFile(); }
@@ -10606,11 +10768,20 @@ public class MainFrame extends SwingFrame implements ClipboardOwner, DropTargetL
   };
   
   /** Execute an external process and monitor its output. */
-  private void _executeExternalProcess() { _executeExternalDialog.setVisible(true); }
+  private void _executeExternalProcess() { _getExecuteExternalDialog().setVisible(true); }
   
   /** The execute external dialog. */
   private volatile ExecuteExternalDialog _executeExternalDialog;
   
+  /** Returns the "Execute External Process" dialog, creating it if necessary.  Only runs in the event thread. */
+  private ExecuteExternalDialog _getExecuteExternalDialog() {
+    if (_executeExternalDialog == null) {
+      _executeExternalDialog = new ExecuteExternalDialog(this);
+      initExecuteExternalProcessDialog();
+    }
+    return _executeExternalDialog;
+  }
+  
   /** Initializes the "Execute External Process" dialog. */
   private void initExecuteExternalProcessDialog() {
     if (DrJava.getConfig().getSetting(DIALOG_EXTERNALPROCESS_STORE_POSITION).booleanValue()) {
@@ -10620,7 +10791,7 @@ public class MainFrame extends SwingFrame implements ClipboardOwner, DropTargetL
   
   /** Reset the position of the "Execute External Process" dialog. */
   public void resetExecuteExternalProcessPosition() {
-    _executeExternalDialog.setFrameState("default");
+    if (_executeExternalDialog != null) _executeExternalDialog.setFrameState("default");
     if (DrJava.getConfig().getSetting(DIALOG_EXTERNALPROCESS_STORE_POSITION).booleanValue()) {
       DrJava.getConfig().setSetting(DIALOG_EXTERNALPROCESS_STATE, "default");
     }
@@ -10629,6 +10800,12 @@ public class MainFrame extends SwingFrame implements ClipboardOwner, DropTargetL
   /** The edit external dialog. */
   private volatile EditExternalDialog _editExternalDialog;
   
+  /** Returns the "Edit External Process" dialog, creating it if necessary.  Only runs in the event thread. */
+  private EditExternalDialog _getEditExternalDialog() {
+    if (_editExternalDialog == null) _editExternalDialog = new EditExternalDialog(this);
+    return _editExternalDialog;
+  }
+  
   /** Initializes the "Edit External Process" dialog. */
   private void initEditExternalProcessDialog() {
     if (DrJava.getConfig().getSetting(DIALOG_EDITEXTERNALPROCESS_STORE_POSITION).booleanValue()) {
@@ -10638,7 +10815,7 @@ public class MainFrame extends SwingFrame implements ClipboardOwner, DropTargetL
   
   /** Reset the position of the "Edit External Process" dialog. */
   public void resetEditExternalProcessPosition() {
-    _editExternalDialog.setFrameState("default");
+    if (_editExternalDialog != null) _editExternalDialog.setFrameState("default");
     if (DrJava.getConfig().getSetting(DIALOG_EDITEXTERNALPROCESS_STORE_POSITION).booleanValue()) {
       DrJava.getConfig().setSetting(DIALOG_EDITEXTERNALPROCESS_STATE, "default");
     }
@@ -10646,7 +10823,7 @@ public class MainFrame extends SwingFrame implements ClipboardOwner, DropTargetL
   
   /** Action that edits saved processes.  Only runs in the event thread. */
   private final Action _editExternalProcessesAction = new AbstractAction("Edit...") {
-    public void actionPerformed(ActionEvent ae) { _editExternalDialog.setVisible(true); }
+    public void actionPerformed(ActionEvent ae) { _getEditExternalDialog().setVisible(true); }
   };
   
   /** Return the modal window listener if available, otherwise returns a non-modal dummy listener.
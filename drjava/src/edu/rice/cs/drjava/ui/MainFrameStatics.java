@@ -222,6 +222,22 @@ public class MainFrameStatics {
     public OpenDefinitionsDocument getOpenDefinitionsDocument() { return doc; }
   }
   
+  /** Wrapper class for list entries for classes and members from the symbol index.  The entry has a document only
+    * if the source of the symbol is open, and a line only if the symbol is a method whose first line is known.
+    */
+  public static class SymbolListEntry extends GoToFileListEntry {
+    private final String fullPackage;
+    private final int line;
+    public SymbolListEntry(OpenDefinitionsDocument d, String s, String fullPackage, int line) {
+      super(d, s);
+      this.fullPackage = fullPackage;
+      this.line = line;
+    }
+    public String getFullPackage() { return fullPackage; }
+    /** @return the line (1-based) that declares the symbol, or -1 if unknown */
+    public int getLine() { return line; }
+  }
+  
   /** Wrapper class for the "Open Javadoc" and "Auto Import" dialog list entries.
     * Provides the ability to have the same class name in there multiple times in different packages.
     */
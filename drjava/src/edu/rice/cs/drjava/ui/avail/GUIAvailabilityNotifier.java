@@ -42,11 +42,9 @@ import java.util.HashMap;
 /** * Keeps track of all listeners to GUI availability.
  * <p>
  *
- * All methods in this class must use the synchronization methods
- * provided by ReaderWriterLock.  This ensures that multiple notifications
- * (reads) can occur simultaneously, but only one thread can be adding
- * or removing listeners (writing) at a time, and no reads can occur
- * during a write.
+ * All notifications iterate over a snapshot of the listeners (see
+ * EventNotifier), so they never block, and listeners may be added or
+ * removed at any time, even by a listener during a notification.
  * <p>
  *
  * <i>No</i> methods on this class should be synchronized using traditional
@@ -152,10 +150,10 @@ public class GUIAvailabilityNotifier extends EventNotifier<GUIAvailabilityListen
   /** Notify the listeners for the specified component.
     * @param component the component whose listeners should be notified */
   protected void notifyListeners(ComponentType component) {
-    _lock.startRead();
+    final long start = startDispatch();
     try { for (GUIAvailabilityListener cl : _listeners) {
       cl.availabilityChanged(component, isAvailable(component));
     } }
-    finally { _lock.endRead(); }
+    finally { endDispatch("availabilityChanged", start); }
   }
 }
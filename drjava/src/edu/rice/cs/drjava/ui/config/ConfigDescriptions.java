@@ -103,11 +103,12 @@ public class ConfigDescriptions {
     add(OptionConstants.DIALOG_COMPLETE_SCAN_CLASS_FILES,
         "<html><p align=\"right\">" + 
         StringOps.
-          splitStringAtWordBoundaries("Scan Class Files After Each Compile for Auto-Completion",
+          splitStringAtWordBoundaries("Index Class Files After Each Compile for Auto-Completion",
                                       40, "<br>", SEPS)+"</p></html>",
-        "<html>Whether to scan the class files after a compile to generate class names<br>"+
-        "used for auto-completion.<br>"+
-        "Enabling this option will slow compiles down.</html>");
+        "<html>Whether to keep an index of the classes, methods, and fields in the class files,<br>"+
+        "used for auto-completion and to go to methods in the \"Go to File\" dialog.<br>"+
+        "The index is saved in the build directory, and after a compile, only the<br>"+
+        "class files that changed are read again.</html>");
     
     add(OptionConstants.DIALOG_COMPLETE_JAVAAPI,
         "<html><p align=\"right\">" + 
@@ -300,6 +301,14 @@ public class ConfigDescriptions {
         "Custom Javadoc Parameters",
         "Any extra flags or parameters to pass to Javadoc.");
     
+    add(OptionConstants.JAVADOC_INCREMENTAL,
+        "Only Regenerate Changed Packages",
+        "<html>Whether \"Javadoc All\" should only regenerate the documentation for packages<br>" +
+        "whose sources (or the sources of packages they refer to) changed since the<br>" +
+        "last run into the same directory.  The indexes are only rebuilt when files<br>" +
+        "are added or removed, or when the Javadoc settings change, so the index,<br>" +
+        "the class hierarchy, and the lists of subclasses and uses may be out of date.</html>");
+    
     // Note: JAVADOC_FROM_ROOTS is intended to set the -subpackages flag, but I don't think that's something
     // we should support -- in general, we only support performing operations on the files that are open.
     // (dlsmith r4189)
@@ -485,6 +494,17 @@ public class ConfigDescriptions {
         "Focus on the definitions pane after find/replace", 
         "<html>Whether to focus on the definitions pane after executing a find/replace operation.<br>" +
         "If this is not selected, the focus will be in the Find/Replace pane.</html>");
+    add(OptionConstants.LAZY_PROJECT_LOADING, 
+        "Load Project Files Lazily",
+        "<html>Whether DrJava should wait to restore the breakpoints and bookmarks<br>" +
+        "of a project file until the file is first displayed.<br>" +
+        "Large projects open much faster with this option, but the breakpoints<br>" +
+        "and bookmarks of files not yet displayed are not listed in their panels.</html>");
+    add(OptionConstants.PREWARM_DIALOGS, 
+        "Prepare Dialogs After Startup",
+        "<html>Whether DrJava should create the Preferences, Help, and other secondary<br>" +
+        "windows in the background right after startup, so that they open without delay.<br>" +
+        "If this is not selected, each window is created when it is first opened.</html>");
     add(OptionConstants.DRJAVA_USE_FORCE_QUIT, 
         "Forcefully Quit DrJava",
         "<html>On some platforms, DrJava does not shut down properly when files are open<br>"+
@@ -508,24 +528,29 @@ public class ConfigDescriptions {
         "<html>The maximum number of lines to keep in a \"Follow File\"<br>"+
         "or \"External Process\" pane. Enter 0 for unlimited.</html>");
     
-// Any lightweight parsing has been disabled until we have something that is beneficial and works better in the background.
-//    add(OptionConstants.LIGHTWEIGHT_PARSING_ENABLED, 
-//                                                  "Perform lightweight parsing"
-//                                                  "<html>Whether to continuously parse the source file for useful information.<br>" +
-//                                                  "Enabling this option might introduce delays when editing files.<html>"));
-//    add(OptionConstants.DIALOG_LIGHTWEIGHT_PARSING_DELAY, "Light-weight parsing delay in milliseconds"
-//                                                  "The amount of time DrJava will wait after the last keypress before beginning to parse."));
+    add(OptionConstants.LIGHTWEIGHT_PARSING_ENABLED, 
+        "Show Enclosing Class Name",
+        "<html>Whether to show the name of the class enclosing the cursor in the status bar.<br>" +
+        "The name is updated when the cursor has not moved for the light-weight parsing delay.</html>");
+    add(OptionConstants.DIALOG_LIGHTWEIGHT_PARSING_DELAY, "Light-weight parsing delay in milliseconds",
+        "The amount of time DrJava will wait after the last keypress before beginning to parse.");
     
     add(OptionConstants.MASTER_JVM_XMX, 
         "Maximum Heap Size for Main JVM in MB", 
-        "The maximum heap the Main JVM can use. Select blank for default.");
+        "<html>The maximum heap the Main JVM can use. Select blank for default.<br>" +
+        "DrJava restarts itself to apply it, unless it was started with this heap size.</html>");
     add(OptionConstants.MASTER_JVM_ARGS, "JVM Args for Main JVM", 
-        "The command-line arguments to pass to the Main JVM.");
+        "<html>The command-line arguments to pass to the Main JVM.<br>" +
+        "DrJava restarts itself to apply them, unless it was started with them.</html>");
     add(OptionConstants.SLAVE_JVM_XMX, 
         "Maximum Heap Size for Interactions JVM in MB", 
         "The maximum heap the Interactions JVM can use. Select blank for default");
     add(OptionConstants.SLAVE_JVM_ARGS, "JVM Args for Interactions JVM",
         "The command-line arguments to pass to the Interactions JVM.");    
+    add(OptionConstants.CLASS_DATA_SHARING, "Use Class Data Sharing Archives",
+        "<html>Whether to start the Main and Interactions JVMs with class data sharing archives,<br>" +
+        "which make them start faster.  An archive is created the first time a JVM exits<br>" +
+        "after a change to its configuration.  Requires Java 13 or later.</html>");
     
     /** Adds all of the components for the Compiler Options Panel of the preferences window
       */
@@ -552,6 +577,10 @@ public class ConfigDescriptions {
     add(OptionConstants.SHOW_FALLTHROUGH_WARNINGS, "Show Fall-Through Warnings",
         "<html>Warn about <code>switch</code> block cases that fall through to the next case.</html>");
     
+    add(OptionConstants.COMPILER_ERROR_LIMIT, "Stop Compiling After This Many Errors",
+        "<html>Stop a compilation once it has reported this many errors (0 for no limit).<br>"+
+        "Compilers that only report errors when they finish just show the first errors.</html>");
+    
     /*
      * The drop down box containing the compiler names
      */
@@ -581,6 +610,10 @@ public class ConfigDescriptions {
     add(OptionConstants.HISTORY_MAX_SIZE, "Size of Interactions History",
         "The number of interactions to remember in the history.");
     
+    add(OptionConstants.HISTORY_PERSISTENT, "Keep Interactions History Across Sessions",
+        "<html>Whether to save every interaction to the file .drjava-history in your home<br>" +
+        "directory and restore the history from it when DrJava starts.</html>");
+    
     add(OptionConstants.DYNAMICJAVA_ACCESS_CONTROL,
         "Enforce access control", 
         "What kind of access control should DrJava enforce in the Interactions Pane?");
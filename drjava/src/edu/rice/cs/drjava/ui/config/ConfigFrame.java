@@ -923,6 +923,8 @@ public class ConfigFrame extends SwingFrame {
     addOptionComponent(panel, 
                        javadocCustomParams = newStringOptionComponent(OptionConstants.JAVADOC_CUSTOM_PARAMS));
     
+    addOptionComponent(panel, newBooleanOptionComponent(OptionConstants.JAVADOC_INCREMENTAL));
+    
     // Note: JAVADOC_FROM_ROOTS is intended to set the -subpackages flag, but I don't think that's something
     // we should support -- in general, we only support performing operations on the files that are open.
     // (dlsmith r4189)
@@ -1058,15 +1060,16 @@ public class ConfigFrame extends SwingFrame {
 
     addOptionComponent(panel, 
                        newBooleanOptionComponent(OptionConstants.FIND_REPLACE_FOCUS_IN_DEFPANE));
+    addOptionComponent(panel, newBooleanOptionComponent(OptionConstants.LAZY_PROJECT_LOADING));
+    addOptionComponent(panel, newBooleanOptionComponent(OptionConstants.PREWARM_DIALOGS));
     addOptionComponent(panel, newBooleanOptionComponent(OptionConstants.DRJAVA_USE_FORCE_QUIT));
     addOptionComponent(panel, newBooleanOptionComponent(OptionConstants.REMOTE_CONTROL_ENABLED));
     addOptionComponent(panel, newIntegerOptionComponent(OptionConstants.REMOTE_CONTROL_PORT));
     addOptionComponent(panel, newIntegerOptionComponent(OptionConstants.FOLLOW_FILE_DELAY));
     addOptionComponent(panel, newIntegerOptionComponent(OptionConstants.FOLLOW_FILE_LINES));
     
-// Any lightweight parsing has been disabled until we have something that is beneficial and works better in the background.
-//    addOptionComponent(panel, newBooleanOptionComponent(OptionConstants.LIGHTWEIGHT_PARSING_ENABLED));
-//    addOptionComponent(panel, newIntegerOptionComponent(OptionConstants.DIALOG_LIGHTWEIGHT_PARSING_DELAY));
+    addOptionComponent(panel, newBooleanOptionComponent(OptionConstants.LIGHTWEIGHT_PARSING_ENABLED));
+    addOptionComponent(panel, newIntegerOptionComponent(OptionConstants.DIALOG_LIGHTWEIGHT_PARSING_DELAY));
     
     panel.displayComponents();
   }  
@@ -1083,6 +1086,8 @@ public class ConfigFrame extends SwingFrame {
                        newForcedChoiceOptionComponent(OptionConstants.SLAVE_JVM_XMX));
     addOptionComponent(panel, 
                        newStringOptionComponent(OptionConstants.SLAVE_JVM_ARGS));    
+    addOptionComponent(panel, 
+                       newBooleanOptionComponent(OptionConstants.CLASS_DATA_SHARING));
     panel.displayComponents();
   }
 
@@ -1220,6 +1225,8 @@ public class ConfigFrame extends SwingFrame {
     addOptionComponent(panel, 
                        newBooleanOptionComponent(OptionConstants.SHOW_FALLTHROUGH_WARNINGS, false)
                          .setEntireColumn(true));
+    
+    addOptionComponent(panel, newIntegerOptionComponent(OptionConstants.COMPILER_ERROR_LIMIT));
     addOptionComponent(panel, 
                        new LabelComponent("<html><br><br>Note: Some of these options may not be effective, depending on the<br>"+
                                           "compiler you are using.</html>",
@@ -1290,6 +1297,7 @@ public class ConfigFrame extends SwingFrame {
     addOptionComponent(panel, new LabelComponent("<html>&nbsp;</html>", this, true));
       
     addOptionComponent(panel, newIntegerOptionComponent(OptionConstants.HISTORY_MAX_SIZE));
+    addOptionComponent(panel, newBooleanOptionComponent(OptionConstants.HISTORY_PERSISTENT));
 
     addOptionComponent(panel, new LabelComponent("<html>&nbsp;</html>", this, true));
     addOptionComponent(panel, new LabelComponent("<html>&nbsp;</html>", this, true));
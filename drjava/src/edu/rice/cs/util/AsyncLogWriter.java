@@ -0,0 +1,167 @@
+/*BEGIN_COPYRIGHT_BLOCK
+ *
+ * Copyright (c) 2001-2017, JavaPLT group at Rice University (drjava@rice.edu)
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    * Redistributions of source code must retain the above copyright
+ *      notice, this list of conditions and the following disclaimer.
+ *    * Redistributions in binary form must reproduce the above copyright
+ *      notice, this list of conditions and the following disclaimer in the
+ *      documentation and/or other materials provided with the distribution.
+ *    * Neither the names of DrJava, the JavaPLT group, Rice University, nor the
+ *      names of its contributors may be used to endorse or promote products
+ *      derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This software is Open Source Initiative approved Open Source Software.
+ * Open Source Initative Approved is a trademark of the Open Source Initiative.
+ * 
+ * This file is part of DrJava.  Download the current version of this project
+ * from http://www.drjava.org/ or http://sourceforge.net/projects/drjava/
+ * 
+ * END_COPYRIGHT_BLOCK*/
+
+package edu.rice.cs.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/** The background writer shared by all asynchronous logs.  Messages are placed on a lock-free queue by the logging
+  * thread, which only records the time stamp and the message; a single daemon thread formats and writes them in
+  * batches, flushing each log once per batch rather than once per message.  Pending messages are written when the
+  * JVM shuts down.
+  */
+final class AsyncLogWriter {
+  
+  /** The single writer instance. */
+  static final AsyncLogWriter ONLY = new AsyncLogWriter();
+  
+  /** The largest number of messages written before the logs are flushed and waiting flushes are released, so that
+    * Log.flush() returns even while other threads keep logging.
+    */
+  private static final int MAX_BATCH = 256;
+  
+  /** The longest time the shutdown hook waits for pending messages to be written. */
+  private static final long SHUTDOWN_WAIT = 2000L;
+  
+  private static final class Entry {
+    final Log log;
+    final long time;
+    final String message;
+    Entry(Log l, long t, String m) { log = l; time = t; message = m; }
+  }
+  
+  private final ConcurrentLinkedQueue<Entry> _queue = new ConcurrentLinkedQueue<Entry>();
+  
+  /** The number of messages enqueued so far.  It is incremented before a message is put on the queue, so a flush
+    * never considers a message written before the writer has taken it off the queue.
+    */
+  private final AtomicLong _enqueued = new AtomicLong(0);
+  
+  /** The number of messages written and flushed so far; guarded by _lock. */
+  private long _written = 0;
+  
+  /** Used for waking the writer thread and for waiting on flushes. */
+  private final Object _lock = new Object();
+  
+  /** Whether the writer thread is about to wait for messages; lets the logging thread skip the lock when it is not.
+    * The writer sets it before checking the queue one last time and a logging thread reads it after putting its
+    * message on the queue, so at least one of them sees the other and no wakeup is lost.
+    */
+  private volatile boolean _idle = false;
+  
+  private volatile boolean _started = false;
+  
+  private AsyncLogWriter() { }
+  
+  /** Queues a message for the given log. */
+  void enqueue(Log log, long time, String message) {
+    _enqueued.incrementAndGet();
+    _queue.offer(new Entry(log, time, message));
+    if (! _started) _start();
+    if (_idle) { synchronized(_lock) { _lock.notifyAll(); } }
+  }
+  
+  /** Blocks until all messages enqueued before the call have been written and flushed, or until the timeout expires.
+    * @param timeout the longest time to wait in milliseconds, or 0 to wait indefinitely
+    * @return true if all messages were written
+    */
+  boolean flush(long timeout) throws InterruptedException {
+    long target = _enqueued.get();
+    long deadline = System.currentTimeMillis() + timeout;
+    synchronized(_lock) {
+      _lock.notifyAll();
+      while (_written < target) {
+        if (timeout == 0) _lock.wait();
+        else {
+          long remaining = deadline - System.currentTimeMillis();
+          if (remaining <= 0) return false;
+          _lock.wait(remaining);
+        }
+      }
+    }
+    return true;
+  }
+  
+  private synchronized void _start() {
+    if (_started) return;
+    Thread writer = new Thread("Log Writer") {
+      public void run() { _writeLoop(); }
+    };
+    writer.setDaemon(true);
+    writer.start();
+    Runtime.getRuntime().addShutdownHook(new Thread("Log Writer Shutdown") {
+      public void run() {
+        try { flush(SHUTDOWN_WAIT); }
+        catch (InterruptedException e) { /* give up on pending messages */ }
+      }
+    });
+    _started = true;
+  }
+  
+  private void _writeLoop() {
+    List<Log> touched = new ArrayList<Log>();
+    long count = 0;
+    int batch = 0;
+    while (true) {
+      Entry e = _queue.poll();
+      if (e != null) {
+        try { e.log._write(e.time, e.message, false); }
+        catch (RuntimeException ex) { /* the log file could not be opened; drop the message */ }
+        if (! touched.contains(e.log)) touched.add(e.log);
+        count++;
+        batch++;
+      }
+      if (e == null || batch >= MAX_BATCH) {
+        for (Log l: touched) l._flushWriter();
+        touched.clear();
+        batch = 0;
+        synchronized(_lock) {
+          _written = count;
+          _lock.notifyAll();
+          if (e == null) {
+            _idle = true;
+            try { while (_queue.isEmpty()) _lock.wait(); }
+            catch (InterruptedException ex) { /* look for messages again */ }
+            _idle = false;
+          }
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,189 @@
+/*BEGIN_COPYRIGHT_BLOCK
+ *
+ * Copyright (c) 2001-2017, JavaPLT group at Rice University (drjava@rice.edu)
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    * Redistributions of source code must retain the above copyright
+ *      notice, this list of conditions and the following disclaimer.
+ *    * Redistributions in binary form must reproduce the above copyright
+ *      notice, this list of conditions and the following disclaimer in the
+ *      documentation and/or other materials provided with the distribution.
+ *    * Neither the names of DrJava, the JavaPLT group, Rice University, nor the
+ *      names of its contributors may be used to endorse or promote products
+ *      derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This software is Open Source Initiative approved Open Source Software.
+ * Open Source Initative Approved is a trademark of the Open Source Initiative.
+ * 
+ * This file is part of DrJava.  Download the current version of this project
+ * from http://www.drjava.org/ or http://sourceforge.net/projects/drjava/
+ * 
+ * END_COPYRIGHT_BLOCK*/
+
+package edu.rice.cs.util;
+
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+/** A minimal micro-benchmark harness in the style of JMH: each case is run for a number of warm-up iterations,
+  * whose results are discarded, and then for a number of measured iterations.  Every iteration gets a fresh, untimed
+  * {@link Case#setUp}.  Results are passed to a sink so that the JIT cannot eliminate the measured work.  For each
+  * case the harness reports the mean and best time per iteration and, where the JVM supports it, the number of
+  * bytes allocated per iteration by the benchmark thread.
+  * <p>
+  * Benchmarks are run from the command line (see the "benchmark" target in build.xml) and, like tests, are not
+  * included in the DrJava jar.
+  * @version $Id$
+  */
+public class Benchmark {
+  
+  /** A single timed operation. */
+  public static abstract class Case {
+    private final String _name;
+    public Case(String name) { _name = name; }
+    public String getName() { return _name; }
+    
+    /** Prepares the state for one iteration; not timed.  Does nothing by default. 
+      * @throws Exception if the setup fails
+      */
+    public void setUp() throws Exception { }
+    
+    /** Performs the operation being measured. 
+      * @return a value derived from the work done, which is consumed so that the work cannot be optimized away
+      * @throws Exception if the operation fails
+      */
+    public abstract Object run() throws Exception;
+  }
+  
+  /** The result of measuring one case. */
+  public static class Result {
+    private final String _name;
+    private final double _meanMillis;
+    private final double _bestMillis;
+    private final long _bytesPerIteration;
+    
+    Result(String name, double meanMillis, double bestMillis, long bytesPerIteration) {
+      _name = name;
+      _meanMillis = meanMillis;
+      _bestMillis = bestMillis;
+      _bytesPerIteration = bytesPerIteration;
+    }
+    
+    public String getName() { return _name; }
+    public double getMeanMillis() { return _meanMillis; }
+    public double getBestMillis() { return _bestMillis; }
+    /** @return the mean number of bytes allocated per iteration, or -1 if allocation cannot be measured */
+    public long getBytesPerIteration() { return _bytesPerIteration; }
+    
+    public String toString() {
+      String alloc = (_bytesPerIteration < 0) ? "n/a" : (_bytesPerIteration / 1024) + " KB";
+      return String.format("%-40s mean %10.3f ms   best %10.3f ms   alloc %12s", _name, _meanMillis, _bestMillis, alloc);
+    }
+  }
+  
+  /** Accumulates results so that the JIT cannot discard them. */
+  private static volatile int _sink = 0;
+  
+  private final int _warmups;
+  private final int _iterations;
+  private final PrintStream _out;
+  private final List<Result> _results = new ArrayList<Result>();
+  
+  /** @param warmups the number of unmeasured iterations per case
+    * @param iterations the number of measured iterations per case; must be positive
+    * @param out the stream to which each result is printed as it is measured, or null
+    */
+  public Benchmark(int warmups, int iterations, PrintStream out) {
+    if (iterations < 1) throw new IllegalArgumentException("iterations must be positive");
+    _warmups = warmups;
+    _iterations = iterations;
+    _out = out;
+  }
+  
+  /** Creates a benchmark configured by the system properties drjava.benchmark.warmups (default 5) and
+    * drjava.benchmark.iterations (default 10), printing results to System.out.
+    */
+  public Benchmark() {
+    this(Integer.getInteger("drjava.benchmark.warmups", 5), Integer.getInteger("drjava.benchmark.iterations", 10),
+         System.out);
+  }
+  
+  /** Measures a case, printing and recording its result.
+    * @param c the case to measure
+    * @return the result
+    * @throws Exception if the case fails
+    */
+  public Result measure(Case c) throws Exception {
+    for (int i = 0; i < _warmups; i++) {
+      c.setUp();
+      consume(c.run());
+    }
+    long total = 0;
+    long best = Long.MAX_VALUE;
+    long allocated = 0;
+    boolean canMeasureAllocation = true;
+    for (int i = 0; i < _iterations; i++) {
+      c.setUp();
+      long bytesBefore = _allocatedBytes();
+      long start = System.nanoTime();
+      consume(c.run());
+      long time = System.nanoTime() - start;
+      long bytesAfter = _allocatedBytes();
+      total += time;
+      best = Math.min(best, time);
+      if (bytesBefore < 0 || bytesAfter < 0) canMeasureAllocation = false;
+      else allocated += bytesAfter - bytesBefore;
+    }
+    Result r = new Result(c.getName(), total / 1e6 / _iterations, best / 1e6, 
+                          canMeasureAllocation ? allocated / _iterations : -1);
+    _results.add(r);
+    if (_out != null) _out.println(r);
+    return r;
+  }
+  
+  /** @return the results measured so far, in order */
+  public List<Result> getResults() { return _results; }
+  
+  /** Consumes a benchmark result so that the work that produced it is not optimized away.
+    * @param o the value to consume
+    */
+  public static void consume(Object o) { if (o != null) _sink += System.identityHashCode(o); }
+  
+  /** The HotSpot extension of ThreadMXBean that reports per-thread allocation, or null if it is not available. */
+  private static final Method GET_ALLOCATED_BYTES;
+  static {
+    Method m = null;
+    try {
+      Class<?> c = Class.forName("com.sun.management.ThreadMXBean");
+      if (c.isInstance(ManagementFactory.getThreadMXBean())) m = c.getMethod("getThreadAllocatedBytes", long.class);
+    }
+    catch (Exception e) { /* allocation is not measured */ }
+    GET_ALLOCATED_BYTES = m;
+  }
+  
+  /** @return the number of bytes allocated so far by the current thread, or -1 if it cannot be determined */
+  private static long _allocatedBytes() {
+    if (GET_ALLOCATED_BYTES == null) return -1;
+    ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+    try { return (Long) GET_ALLOCATED_BYTES.invoke(bean, Thread.currentThread().getId()); }
+    catch (Exception e) { return -1; }
+  }
+}
@@ -420,18 +420,22 @@ public abstract class FileOps {
     FileReader reader = null;
     try {
       reader = new FileReader(file);
-      final StringBuilder buf = new StringBuilder();
+      final StringBuilder buf = new StringBuilder((int) Math.min(file.length(), Integer.MAX_VALUE));
+      final char[] chunk = new char[8192];
       
       char pred = (char) 0; // initialize as null character
-      while (reader.ready()) {
-        char c = (char) reader.read();
-        
-        if (c == '\n' && pred == '\r') { } // do nothing ignoring second character of "\r\n";
-        else if (c == '\r') buf.append('\n');
-        else if ((c < 32) && (c != '\n')) buf.append(' ');
-        else buf.append(c);
-        
-        pred = c;
+      int len;
+      while ((len = reader.read(chunk)) >= 0) {
+        for (int i = 0; i < len; i++) {
+          char c = chunk[i];
+          
+          if (c == '\n' && pred == '\r') { } // do nothing ignoring second character of "\r\n";
+          else if (c == '\r') buf.append('\n');
+          else if ((c < 32) && (c != '\n')) buf.append(' ');
+          else buf.append(c);
+          
+          pred = c;
+        }
       }
       return buf.toString();
     }
@@ -45,11 +45,20 @@ import java.util.TimeZone;
 
 /** Logging class to record errors or unexpected behavior to a file.  The file is created in the current directory,
   * and is only used if the log is enabled.  All logs can be enabled at once with the ENABLE_ALL field.
+  * A log may be asynchronous, in which case messages are written by a background thread (see AsyncLogWriter) and
+  * logging only costs the caller a time stamp and a queue insertion.  Logs are synchronous unless the system property
+  * drjava.log.async is true or setAsynchronousByDefault(true) has been called.
   * @version $Id$
   */
 public class Log {
   public static final boolean ENABLE_ALL = false;
   
+  /** Whether logs that have not been configured individually are asynchronous. */
+  private static volatile boolean _asynchronousByDefault = Boolean.getBoolean("drjava.log.async");
+  
+  /** Whether this log is asynchronous, or null if it follows the default. */
+  protected volatile Boolean _asynchronous = null;
+  
   /** Whether this particular log is enabled in development mode. */
   protected volatile boolean _isEnabled;
   
@@ -87,7 +96,9 @@ public class Log {
         try {
           FileWriter w = new FileWriter(_file.getAbsolutePath(), true);
           _writer = new PrintWriter(w);
-          log("Log '" + _name + "' opened: " + DATE_FORMAT.format(new Date()) + " with name " + _file.getAbsolutePath());
+          String now = DATE_FORMAT.format(new Date());
+          _writer.println(now + ": Log '" + _name + "' opened: " + now + " with name " + _file.getAbsolutePath());
+          _writer.flush();
         }
         catch (IOException ioe) {
           throw new RuntimeException("Could not create log: " + ioe);
@@ -104,19 +115,55 @@ public class Log {
   /** @return  whether this log is currently enabled. */
   public boolean isEnabled() { return (_isEnabled || ENABLE_ALL); }
   
+  /** Sets whether logs that have not been configured with setAsynchronous are asynchronous.
+    * @param isAsynchronous  Whether such logs should write their messages in the background
+    */
+  public static void setAsynchronousByDefault(boolean isAsynchronous) { _asynchronousByDefault = isAsynchronous; }
+  
+  /** @return  whether logs that have not been configured with setAsynchronous are asynchronous. */
+  public static boolean isAsynchronousByDefault() { return _asynchronousByDefault; }
+  
+  /** Sets whether this log writes its messages in the background.
+    * @param isAsynchronous  Whether this log is asynchronous, or null to follow the default
+    */
+  public void setAsynchronous(Boolean isAsynchronous) { _asynchronous = isAsynchronous; }
+  
+  /** @return  whether this log currently writes its messages in the background. */
+  public boolean isAsynchronous() {
+    Boolean isAsynchronous = _asynchronous;
+    return (isAsynchronous == null) ? _asynchronousByDefault : isAsynchronous.booleanValue();
+  }
+  
   /** Prints a message to the log, if enabled.
     * @param message Message to print.
     */
-  public synchronized void log(String message) {
+  public void log(String message) {
     if (isEnabled()) {
-      if (_writer == null) {
-        _init();
-      }
-      _writer.println(DATE_FORMAT.format(new Date()) + ": " + message);
-      _writer.flush();
+      if (isAsynchronous()) AsyncLogWriter.ONLY.enqueue(this, System.currentTimeMillis(), message);
+      else _write(System.currentTimeMillis(), message, true);
     }
   }
   
+  /** Writes a message with the given time stamp to the log file, opening it if necessary. */
+  synchronized void _write(long time, String message, boolean flush) {
+    if (_writer == null) {
+      _init();
+    }
+    _writer.println(DATE_FORMAT.format(new Date(time)) + ": " + message);
+    if (flush) _writer.flush();
+  }
+  
+  /** Flushes the log file, if it is open. */
+  synchronized void _flushWriter() {
+    if (_writer != null) _writer.flush();
+  }
+  
+  /** Blocks until all messages logged asynchronously so far have been written. */
+  public void flush() {
+    try { AsyncLogWriter.ONLY.flush(0); }
+    catch (InterruptedException e) { Thread.currentThread().interrupt(); }
+  }
+  
   /** Converts a stack trace (StackTraceElement[]) to string form 
    * @param trace trace to be converted
    * @return string representation of trace
@@ -131,7 +178,7 @@ public class Log {
     * @param s  Message to print
     * @param trace  Stack track to log
     */
-  public synchronized void log(String s, StackTraceElement[] trace) {
+  public void log(String s, StackTraceElement[] trace) {
     if (isEnabled()) log(s + traceToString(trace));
   }
   
@@ -139,7 +186,7 @@ public class Log {
     * @param s Message to print
     * @param t Throwable to log
     */
-  public synchronized void log(String s, Throwable t) {
+  public void log(String s, Throwable t) {
     if (isEnabled()) {
       StringWriter sw = new StringWriter();
       PrintWriter pw = new PrintWriter(sw);
@@ -148,10 +195,13 @@ public class Log {
     }
   }
   
-  /** Closes a log file. */
+  /** Closes a log file after writing any pending messages. */
   public void close() {
-    _writer.close();
-    _writer = null;
+    if (isAsynchronous()) flush();
+    synchronized(this) {
+      _writer.close();
+      _writer = null;
+    }
   }
   
   /** Parses a date printed by Date.toString(); returns null if there is a 
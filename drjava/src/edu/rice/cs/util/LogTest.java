@@ -267,5 +267,55 @@ public class LogTest extends MultiThreadedTestCase {
     fin.close();
 //    System.err.println("LogTest.testConucrrentWrites complete");
   }
+  
+  /** Tests that an asynchronous log writes all messages, in order, by the time it is flushed.
+    * @throws IOException if an IO operation fails
+    */
+  public void testAsynchronousLog() throws IOException {
+    File file4 = IOUtil.createAndMarkTempFile("logtest004",".txt");
+    Log log4 = new Log(file4, true);
+    log4.setAsynchronous(Boolean.TRUE);
+    assertTrue("asynchronous", log4.isAsynchronous());
+    for (int i = 0; i < 1000; i++) log4.log("Message " + i);
+    log4.flush();
+    
+    BufferedReader fin = new BufferedReader(new FileReader(file4));
+    String log4OpenMsg = "Log '" + file4.getName() + "' opened: ";
+    assertEquals("Incorrect log open message", log4OpenMsg , 
+                 getStringAfterDate(fin.readLine()).substring(0, log4OpenMsg.length()));
+    for (int i = 0; i < 1000; i++) assertEquals("Log message " + i, "Message " + i, getStringAfterDate(fin.readLine()));
+    assertEquals("End of log expected", null, fin.readLine());
+    fin.close();
+    log4.close();
+  }
+  
+  /** Tests that flushing an asynchronous log returns while another thread keeps logging to it.
+    * @throws Exception if the flush is interrupted or an IO operation fails
+    */
+  public void testAsynchronousFlushUnderLoad() throws Exception {
+    File file5 = IOUtil.createAndMarkTempFile("logtest005",".txt");
+    final Log log5 = new Log(file5, true);
+    log5.setAsynchronous(Boolean.TRUE);
+    final boolean[] done = new boolean[] { false };
+    Thread logger = new Thread() {
+      public void run() {
+        int i = 0;
+        while (true) {
+          synchronized(done) { if (done[0]) return; }
+          log5.log("Message " + i++);
+        }
+      }
+    };
+    logger.start();
+    try {
+      log5.log("Before flush");
+      assertTrue("flush returned", AsyncLogWriter.ONLY.flush(10000));
+    }
+    finally {
+      synchronized(done) { done[0] = true; }
+      logger.join();
+    }
+    log5.flush();
+    log5.close();
+  }
 }
-
@@ -37,12 +37,79 @@
 package edu.rice.cs.util.jar;
 
 import java.io.*;
-import java.util.jar.JarEntry;
-import java.util.jar.JarOutputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.jar.JarFile;
 import java.util.jar.Manifest;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.ZipException;
 
+import edu.rice.cs.plt.io.IOUtil;
+import edu.rice.cs.plt.lambda.Runnable1;
+
+/** Writes a jar file.  Added files are read, checksummed and compressed on a pool of worker threads, several files
+  * ahead of the writer, but their entries are written in the order in which they were added, so the archive does not
+  * depend on how the work was scheduled.  Files larger than {@link #STREAM_THRESHOLD} are not held in memory: they
+  * are compressed while they are copied by the writer, and are followed by a data descriptor with their sizes (a 
+  * large stored file is checksummed on a worker thread instead, and copied after the header).  Since a
+  * ZipOutputStream can only write data that it compresses itself, the archive is written directly; it may hold at
+  * most 65535 entries and 4GB (there is no ZIP64 support).
+  * 
+  * An entry whose file cannot be read is left out of the archive, and the exception is thrown by close, which still
+  * finishes the archive (see {@link #isComplete}).  Read failures are kept until then, so that adding the other
+  * files, for example the rest of a directory, is not interrupted by an earlier file's failure.  Only a large file
+  * that fails while it is being copied cannot be left out; that exception is thrown right away.
+  */
 public class JarBuilder {
-  private JarOutputStream _output;
+  private static final Charset UTF8 = Charset.forName("UTF-8");
+  
+  /** The number of entries that may be read and compressed ahead of the writer, per worker thread. */
+  private static final int ENTRIES_AHEAD_PER_THREAD = 4;
+  
+  /** The size in bytes above which a file is streamed into the archive rather than read and compressed ahead. */
+  public static final long STREAM_THRESHOLD = 1L << 20;
+  
+  private static final int BUFFER_SIZE = 8192;
+  
+  private static final int MAX_ENTRIES = 0xFFFF;
+  private static final long MAX_SIZE = 0xFFFFFFFFL;
+  
+  /** General purpose flag: the entry name is encoded in UTF-8. */
+  private static final int UTF8_FLAG = 0x0800;
+  /** General purpose flag: the checksum and sizes follow the data, in a data descriptor. */
+  private static final int DESCRIPTOR_FLAG = 0x0008;
+  
+  private OutputStream _output;
+  /** The number of bytes written to _output. */
+  private long _offset = 0;
+  
+  private final int _threadCount = Runtime.getRuntime().availableProcessors();
+  private ExecutorService _executor = null;
+  /** Entries that have been added but not yet written, in the order in which they were added. */
+  private final ArrayDeque<Future<Entry>> _pending = new ArrayDeque<Future<Entry>>();
+  /** Entries that have been written, in order, for the central directory.  Their data has been dropped. */
+  private final List<Entry> _written = new ArrayList<Entry>();
+  private final Set<String> _names = new HashSet<String>();
+  /** Read failures, thrown by close. */
+  private final List<IOException> _failures = new ArrayList<IOException>();
+  private boolean _complete = false;
+  
+  private volatile boolean _storeClassFiles = false;
+  private volatile Runnable1<? super Integer> _progressListener = null;
   
   /** Creates a jar file without a manifest
    *
@@ -50,7 +117,7 @@ public class JarBuilder {
    * @throws IOException thrown if the file cannot be opened for writing
    */
   public JarBuilder(File file) throws IOException {
-    _output = new JarOutputStream(new BufferedOutputStream(new FileOutputStream(file)), ManifestWriter.DEFAULT);
+    _open(file, ManifestWriter.DEFAULT);
   }
   
   /** Creates an empty jar file with the given manifest
@@ -60,7 +127,9 @@ public class JarBuilder {
    * @throws IOException thrown if either file cannot be opened for reading
    */
   public JarBuilder(File jar, File manifest) throws IOException {
-    _output = new JarOutputStream(new BufferedOutputStream(new FileOutputStream(jar)), new Manifest(new FileInputStream(manifest)));
+    InputStream in = new FileInputStream(manifest);
+    try { _open(jar, new Manifest(in)); }
+    finally { in.close(); }
   }
   
   /** Creates an empty jar file with the given manifest
@@ -71,13 +140,34 @@ public class JarBuilder {
    */
   public JarBuilder(File jar, Manifest manifest) {
     try {
-      _output = new JarOutputStream(new BufferedOutputStream(new FileOutputStream(jar)), manifest);
+      _open(jar, manifest);
     }
     catch (IOException e) {
       e.printStackTrace();
     }
   }
   
+  /** Opens the output file and writes the manifest as the first entry. */
+  private void _open(File jar, Manifest manifest) throws IOException {
+    _output = new BufferedOutputStream(new FileOutputStream(jar));
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    manifest.write(bytes);
+    _checkName(JarFile.MANIFEST_NAME);
+    _writeEntry(_compress(JarFile.MANIFEST_NAME, bytes.toByteArray(), System.currentTimeMillis(), false));
+  }
+  
+  /** Sets whether class files are stored without compression.  Stored class files make a larger jar, but one that
+    * is faster to write and to load classes from.  Applies to files added after the call.
+    * @param store true if class files should be stored
+    */
+  public void setStoreClassFiles(boolean store) { _storeClassFiles = store; }
+  
+  /** Sets a listener that is told the number of entries written so far, including the manifest, after each entry is
+    * written.  The listener is called on the thread adding files or closing the jar.
+    * @param listener the listener, or null for none
+    */
+  public void setProgressListener(Runnable1<? super Integer> listener) { _progressListener = listener; }
+  
   /** Takes a parent name and a field name and returns the concatenation of them correctly
    *
    * @param parent The parent directory
@@ -93,29 +183,30 @@ public class JarBuilder {
     return parent + sep + name;
   }
   
-  /** Adds the file to the given path and name
+  /** Adds the file to the given path and name.  The file is read later, on a worker thread, or, if it is larger than
+   * {@link #STREAM_THRESHOLD}, by the writer when its turn comes.
    *
    * @param file     the file to be added
    * @param parent   the directory to the path in which the file is to be added
    * @param fileName the name of the file in the archive
-   * @throws IOException if an IO operation fails
+   * @throws IOException if the name is already in the archive, or if writing fails
    */
-  public void addFile(File file, String parent, String fileName) throws IOException {
-    byte data[] = new byte[2048];
-    
-    FileInputStream fi = new FileInputStream(file.getAbsolutePath());
-    BufferedInputStream origin = new BufferedInputStream(fi, 2048);
-    
-    JarEntry entry = new JarEntry(makeName(parent, fileName));
-    _output.putNextEntry(entry);
-    
-    int count = origin.read(data, 0, 2048);
-    while (count != -1) {
-      _output.write(data, 0, count);
-      count = origin.read(data, 0, 2048);
-    }
-    
-    origin.close();
+  public void addFile(final File file, String parent, String fileName) throws IOException {
+    final String name = makeName(parent, fileName);
+    _checkName(name);
+    final boolean store = _storeClassFiles && name.endsWith(".class");
+    if (file.length() > STREAM_THRESHOLD) {
+      _enqueue(_getExecutor().submit(new Callable<Entry>() {
+        public Entry call() throws IOException { return _streamed(name, file, store); }
+      }));
+    }
+    else {
+      _enqueue(_getExecutor().submit(new Callable<Entry>() {
+        public Entry call() throws IOException {
+          return _compress(name, IOUtil.toByteArray(file), file.lastModified(), store);
+        }
+      }));
+    }
   }
   
   /** Add the directory into the directory specified by parent
@@ -123,7 +214,7 @@ public class JarBuilder {
     * @param parent the path inside the jar that the directory should be added to
     */
   public void addDirectoryRecursive(File dir, String parent) {
-    addDirectoryRecursiveHelper(dir, parent, new byte[2048], new FileFilter() {
+    addDirectoryRecursiveHelper(dir, parent, new FileFilter() {
       public boolean accept(File pathname) { return true; }
     });
   }
@@ -134,38 +225,27 @@ public class JarBuilder {
     * @param filter the filter used to filter the files
     */
   public void addDirectoryRecursive(File dir, String parent, FileFilter filter) {
-    addDirectoryRecursiveHelper(dir, parent, new byte[2048], filter);
+    addDirectoryRecursiveHelper(dir, parent, filter);
   }
   
   /** Add the contents of a directory that match a filter to the archive
    * @param dir the directory to add
    * @param parent the directory to add into
-   * @param buffer a buffer that is 2048 bytes
    * @param filter the FileFilter to filter the files by
    * @return true on success, false on failure
    */
-  private boolean addDirectoryRecursiveHelper(File dir, String parent, byte[] buffer, FileFilter filter) {
+  private boolean addDirectoryRecursiveHelper(File dir, String parent, FileFilter filter) {
     try {
       File[] files = dir.listFiles(filter);
-      BufferedInputStream origin = null;
       
       if ( files == null ) // listFiles may return null if there's an IO error
         return true;
       for (int i = 0; i < files.length; i++) {
         if ( files[i].isFile() ) {
-          origin = new BufferedInputStream(new FileInputStream(files[i]), 2048);
-          
-          JarEntry entry = new JarEntry(makeName(parent, files[i].getName()));
-          _output.putNextEntry(entry);
-          
-          int count;
-          while((count = origin.read(buffer, 0, 2048)) != -1) {
-            _output.write(buffer, 0, count);
-          }
-          origin.close();
+          addFile(files[i], parent, files[i].getName());
         }
         else if ( files[i].isDirectory() ) {
-          addDirectoryRecursiveHelper(files[i], makeName(parent, files[i].getName()),buffer,filter);
+          addDirectoryRecursiveHelper(files[i], makeName(parent, files[i].getName()), filter);
         }
       }
     } catch(Exception e) {
@@ -181,9 +261,14 @@ public class JarBuilder {
    * @return Returns true on success, false on failure
    */
   public boolean makeDirectory(String parent, String dirName) {
-    JarEntry entry = new JarEntry(makeName(parent, dirName));
+    final String name = makeName(parent, dirName);
     try {
-      _output.putNextEntry(entry);
+      _checkName(name);
+      FutureTask<Entry> entry = new FutureTask<Entry>(new Callable<Entry>() {
+        public Entry call() { return _compress(name, new byte[0], System.currentTimeMillis(), true); }
+      });
+      entry.run();
+      _enqueue(entry);
     }
     catch (IOException e) {
       return false;
@@ -191,11 +276,282 @@ public class JarBuilder {
     return true;
   }
   
-  /** Close writing on the jar file
-   * @throws IOException if an IO operation fails
+  /** Close writing on the jar file.  The archive is finished even if some of its files could not be read.
+   * @throws IOException if an IO operation fails, or if a file could not be read
    */
   public void close() throws IOException {
-    _output.flush();
-    _output.close();
+    try {
+      while (! _pending.isEmpty()) _writeNext();
+      _writeCentralDirectory();
+      _output.flush();
+      _complete = true;
+    }
+    finally {
+      if (_executor != null) _executor.shutdownNow();
+      _output.close();
+    }
+    if (! _failures.isEmpty()) {
+      IOException first = _failures.remove(0);
+      for (IOException e: _failures) first.addSuppressed(e);
+      _failures.clear();
+      throw first;
+    }
+  }
+  
+  /** @return true if close has written the whole archive, even if some of its files could not be read */
+  public boolean isComplete() { return _complete; }
+  
+  private void _checkName(String name) throws ZipException {
+    if (! _names.add(name)) throw new ZipException("duplicate entry: " + name);
+  }
+  
+  /** Queues an entry for writing, and writes entries until few enough are pending. */
+  private void _enqueue(Future<Entry> entry) throws IOException {
+    _pending.add(entry);
+    while (_pending.size() > _threadCount * ENTRIES_AHEAD_PER_THREAD) _writeNext();
+  }
+  
+  /** Waits for the oldest pending entry and writes it, or records its read failure. */
+  private void _writeNext() throws IOException {
+    Future<Entry> next = _pending.remove();
+    Entry entry;
+    try { entry = next.get(); }
+    catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      _failures.add((cause instanceof IOException) ? (IOException) cause : new IOException(cause));
+      return;
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException();
+    }
+    _writeEntry(entry);
+  }
+  
+  private synchronized ExecutorService _getExecutor() {
+    if (_executor == null) {
+      _executor = Executors.newFixedThreadPool(_threadCount, new ThreadFactory() {
+        private int _count = 0;
+        public synchronized Thread newThread(Runnable r) {
+          Thread t = new Thread(r, "Jar Builder Thread " + (++_count));
+          t.setDaemon(true);
+          return t;
+        }
+      });
+    }
+    return _executor;
+  }
+  
+  /** An archive entry with its (possibly compressed) data, or with the file to stream its data from. */
+  private static class Entry {
+    final byte[] name;
+    final boolean stored;
+    final int dosTime;
+    long crc;
+    long size;
+    long compressedSize;
+    byte[] data;
+    File source;
+    /** Whether the checksum and sizes are written in a data descriptor after the data. */
+    final boolean descriptor;
+    long offset;
+    Entry(byte[] n, boolean s, int t, long c, long sz, byte[] d) {
+      name = n; stored = s; dosTime = t; crc = c; size = sz; compressedSize = d.length; data = d; source = null;
+      descriptor = false;
+    }
+    Entry(byte[] n, boolean s, int t, long c, long sz, File f) {
+      name = n; stored = s; dosTime = t; crc = c; size = sz; compressedSize = s ? sz : 0; data = null; source = f;
+      descriptor = ! s;
+    }
+  }
+  
+  /** Creates an entry whose data is streamed from a file by the writer.  A stored file is checksummed here, since
+    * its checksum and size must precede its data; the checksum of a deflated file is computed while it is written.
+    * Called on worker threads.
+    */
+  private static Entry _streamed(String name, File file, boolean store) throws IOException {
+    long time = file.lastModified();
+    long crc = 0;
+    long size = 0;
+    if (store) {
+      CRC32 checksum = new CRC32();
+      InputStream in = new FileInputStream(file);
+      try {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        for (int count = in.read(buffer); count >= 0; count = in.read(buffer)) {
+          checksum.update(buffer, 0, count);
+          size += count;
+        }
+      }
+      finally { in.close(); }
+      crc = checksum.getValue();
+    }
+    return new Entry(name.getBytes(UTF8), store, _dosTime(time), crc, size, file);
+  }
+  
+  /** Checksums and, unless it is to be stored, deflates the data for an entry.  Called on worker threads. */
+  private static Entry _compress(String name, byte[] data, long time, boolean store) {
+    CRC32 crc = new CRC32();
+    crc.update(data, 0, data.length);
+    byte[] compressed = data;
+    if (! store) {
+      Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+      try {
+        deflater.setInput(data);
+        deflater.finish();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 2 + 64);
+        byte[] buffer = new byte[BUFFER_SIZE];
+        while (! deflater.finished()) {
+          int count = deflater.deflate(buffer);
+          out.write(buffer, 0, count);
+        }
+        compressed = out.toByteArray();
+      }
+      finally { deflater.end(); }
+    }
+    return new Entry(name.getBytes(UTF8), store, _dosTime(time), crc.getValue(), data.length, compressed);
+  }
+  
+  /** Writes the local header and data of an entry. */
+  private void _writeEntry(Entry e) throws IOException {
+    if (_written.size() >= MAX_ENTRIES) throw new ZipException("too many entries for a jar file");
+    InputStream in = null;
+    if (e.source != null) {
+      // open before writing anything, so that the entry can still be left out
+      try { in = new FileInputStream(e.source); }
+      catch (IOException ex) { _failures.add(ex); return; }
+    }
+    try {
+      long dataLength = (in == null) ? e.data.length : e.compressedSize;
+      if (_offset + 30 + e.name.length + dataLength > MAX_SIZE) throw new ZipException("jar file is too large");
+      e.offset = _offset;
+      boolean descriptor = e.descriptor;
+      _writeInt(0x04034b50);
+      _writeShort(20);                 // version needed to extract
+      _writeShort(descriptor ? UTF8_FLAG | DESCRIPTOR_FLAG : UTF8_FLAG);
+      _writeShort(e.stored ? 0 : 8);   // method: stored or deflated
+      _writeInt(e.dosTime);
+      _writeInt(descriptor ? 0 : e.crc);
+      _writeInt(descriptor ? 0 : e.compressedSize);
+      _writeInt(descriptor ? 0 : e.size);
+      _writeShort(e.name.length);
+      _writeShort(0);                  // extra field length
+      _write(e.name);
+      if (in == null) {
+        _write(e.data);
+        e.data = null;
+      }
+      else {
+        _copy(in, e);
+        e.source = null;
+      }
+      if (descriptor) {
+        _writeInt(0x08074b50);
+        _writeInt(e.crc);
+        _writeInt(e.compressedSize);
+        _writeInt(e.size);
+      }
+    }
+    finally { if (in != null) in.close(); }
+    _written.add(e);
+    Runnable1<? super Integer> listener = _progressListener;
+    if (listener != null) listener.run(_written.size());
+  }
+  
+  /** Copies the data of a streamed entry from its file, deflating it unless it is stored, and records its checksum
+    * and sizes.  A stored file must still match the size and checksum computed when the entry was created.
+    */
+  private void _copy(InputStream in, Entry e) throws IOException {
+    CRC32 crc = new CRC32();
+    long size = 0;
+    long start = _offset;
+    byte[] buffer = new byte[BUFFER_SIZE];
+    Deflater deflater = e.stored ? null : new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+    try {
+      byte[] out = new byte[BUFFER_SIZE];
+      for (int count = in.read(buffer); count >= 0; count = in.read(buffer)) {
+        crc.update(buffer, 0, count);
+        size += count;
+        if (size > MAX_SIZE || _offset > MAX_SIZE) throw new ZipException("jar file is too large");
+        if (deflater == null) _write(buffer, count);
+        else {
+          deflater.setInput(buffer, 0, count);
+          while (! deflater.needsInput()) _write(out, deflater.deflate(out));
+        }
+      }
+      if (deflater != null) {
+        deflater.finish();
+        while (! deflater.finished()) _write(out, deflater.deflate(out));
+      }
+    }
+    finally { if (deflater != null) deflater.end(); }
+    if (e.stored && (size != e.size || crc.getValue() != e.crc)) {
+      throw new ZipException(e.source + " changed while it was added to the jar file");
+    }
+    e.crc = crc.getValue();
+    e.size = size;
+    e.compressedSize = _offset - start;
+  }
+  
+  /** Writes the central directory and the end of central directory record. */
+  private void _writeCentralDirectory() throws IOException {
+    long start = _offset;
+    for (Entry e: _written) {
+      _writeInt(0x02014b50);
+      _writeShort(20);                 // version made by
+      _writeShort(20);                 // version needed to extract
+      _writeShort(e.descriptor ? UTF8_FLAG | DESCRIPTOR_FLAG : UTF8_FLAG);
+      _writeShort(e.stored ? 0 : 8);
+      _writeInt(e.dosTime);
+      _writeInt(e.crc);
+      _writeInt(e.compressedSize);
+      _writeInt(e.size);
+      _writeShort(e.name.length);
+      _writeShort(0);                  // extra field length
+      _writeShort(0);                  // comment length
+      _writeShort(0);                  // disk number
+      _writeShort(0);                  // internal attributes
+      _writeInt(0);                    // external attributes
+      _writeInt(e.offset);
+      _write(e.name);
+    }
+    if (_offset > MAX_SIZE) throw new ZipException("jar file is too large");
+    long size = _offset - start;
+    _writeInt(0x06054b50);
+    _writeShort(0);                    // this disk
+    _writeShort(0);                    // disk with the central directory
+    _writeShort(_written.size());
+    _writeShort(_written.size());
+    _writeInt(size);
+    _writeInt(start);
+    _writeShort(0);                    // comment length
+  }
+  
+  private void _write(byte[] b) throws IOException { _write(b, b.length); }
+  
+  private void _write(byte[] b, int length) throws IOException {
+    _output.write(b, 0, length);
+    _offset += length;
+  }
+  
+  private void _writeShort(int v) throws IOException {
+    _output.write(v & 0xff);
+    _output.write((v >>> 8) & 0xff);
+    _offset += 2;
+  }
+  
+  private void _writeInt(long v) throws IOException {
+    _writeShort((int) (v & 0xffff));
+    _writeShort((int) ((v >>> 16) & 0xffff));
+  }
+  
+  /** Converts a time to the MS-DOS format used in zip files (the time in the low half, the date in the high half). */
+  private static int _dosTime(long time) {
+    Calendar c = new GregorianCalendar();
+    c.setTimeInMillis(time);
+    int year = c.get(Calendar.YEAR);
+    if (year < 1980) return (1 << 21) | (1 << 16);  // 1980-01-01 00:00
+    return (year - 1980) << 25 | (c.get(Calendar.MONTH) + 1) << 21 | c.get(Calendar.DAY_OF_MONTH) << 16 |
+      c.get(Calendar.HOUR_OF_DAY) << 11 | c.get(Calendar.MINUTE) << 5 | c.get(Calendar.SECOND) >> 1;
   }
 }
@@ -223,6 +223,147 @@ public class JarCreationTest extends DrJavaTestCase {
     }
   }
 
+  /** Tests that entries are written in the order they were added, with their contents intact, that class files
+    * can be stored, and that a file that cannot be read is left out without spoiling the archive.
+    * @throws IOException if an IO operation fails
+    */
+  public void testParallelJar() throws IOException {
+    File dir = edu.rice.cs.plt.io.IOUtil.createAndMarkTempDirectory("jartest", "");
+    File f = edu.rice.cs.plt.io.IOUtil.createAndMarkTempFile("test", ".jar");
+    java.util.List<String> names = new java.util.ArrayList<String>();
+    JarBuilder jb = new JarBuilder(f);
+    jb.setStoreClassFiles(true);
+    final int[] written = { 0 };
+    jb.setProgressListener(new edu.rice.cs.plt.lambda.Runnable1<Integer>() {
+      public void run(Integer count) { written[0] = count; }
+    });
+    for (int i = 0; i < 100; i++) {
+      String name = "f" + i + ((i % 2 == 0) ? ".class" : ".txt");
+      File add = new File(dir, name);
+      edu.rice.cs.plt.io.IOUtil.writeStringToFile(add, _contents(i));
+      jb.addFile(add, "p", name);
+      names.add("p/" + name);
+    }
+    jb.addFile(new File(dir, "missing.txt"), "", "missing.txt");
+    try {
+      jb.close();
+      fail("should report the missing file");
+    }
+    catch (FileNotFoundException e) { /* expected */ }
+    assertTrue("archive should be complete", jb.isComplete());
+    assertEquals("manifest and files should be written", 101, written[0]);
+    
+    JarInputStream jarStream = new JarInputStream(new FileInputStream(f), true);
+    try {
+      assertNotNull("should have manifest", jarStream.getManifest());
+      for (int i = 0; i < names.size(); i++) {
+        JarEntry ent = jarStream.getNextJarEntry();
+        assertEquals("names should match", names.get(i), ent.getName());
+        assertEquals("contents should match", _contents(i), 
+                     new String(edu.rice.cs.plt.io.IOUtil.toByteArray(jarStream), "UTF-8"));
+      }
+      assertNull("should have no more entries", jarStream.getNextJarEntry());
+    }
+    finally { jarStream.close(); }
+    
+    java.util.jar.JarFile jar = new java.util.jar.JarFile(f);
+    try {
+      assertEquals("class files should be stored", java.util.zip.ZipEntry.STORED, jar.getEntry("p/f0.class").getMethod());
+      assertEquals("other files should be deflated", java.util.zip.ZipEntry.DEFLATED,
+                   jar.getEntry("p/f1.txt").getMethod());
+      assertNull("missing file should be left out", jar.getEntry("missing.txt"));
+    }
+    finally { jar.close(); }
+  }
+  
+  /** Tests that a file that cannot be read does not stop the files added after it, such as the rest of a directory,
+    * and that its failure is reported by close.
+    * @throws IOException if an IO operation fails
+    */
+  public void testReadFailureKeptUntilClose() throws IOException {
+    File dir = edu.rice.cs.plt.io.IOUtil.createAndMarkTempDirectory("jartest", "");
+    File f = edu.rice.cs.plt.io.IOUtil.createAndMarkTempFile("test", ".jar");
+    for (int i = 0; i < 100; i++) {
+      edu.rice.cs.plt.io.IOUtil.writeStringToFile(new File(dir, "f" + i + ".txt"), _contents(i));
+    }
+    JarBuilder jb = new JarBuilder(f);
+    jb.addFile(new File(dir, "missing.txt"), "", "missing.txt");
+    jb.addDirectoryRecursive(dir, "p");
+    try {
+      jb.close();
+      fail("should report the missing file");
+    }
+    catch (FileNotFoundException e) { /* expected */ }
+    assertTrue("archive should be complete", jb.isComplete());
+    
+    java.util.jar.JarFile jar = new java.util.jar.JarFile(f);
+    try {
+      for (int i = 0; i < 100; i++) assertNotNull("should have f" + i, jar.getEntry("p/f" + i + ".txt"));
+      assertNull("missing file should be left out", jar.getEntry("missing.txt"));
+    }
+    finally { jar.close(); }
+  }
+  
+  /** Tests that files larger than the streaming threshold, stored or deflated, are written between smaller ones with
+    * their contents intact, and can be read both sequentially and through the central directory.
+    * @throws IOException if an IO operation fails
+    */
+  public void testLargeFiles() throws IOException {
+    File dir = edu.rice.cs.plt.io.IOUtil.createAndMarkTempDirectory("jartest", "");
+    File f = edu.rice.cs.plt.io.IOUtil.createAndMarkTempFile("test", ".jar");
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; sb.length() <= 2 * JarBuilder.STREAM_THRESHOLD; i++) sb.append("large line ").append(i).append('\n');
+    String large = sb.toString();
+    String[] names = { "a.txt", "Big.class", "b.txt", "big.txt", "c.txt" };
+    String[] contents = { _contents(1), large, _contents(2), large + "!", _contents(3) };
+    JarBuilder jb = new JarBuilder(f);
+    jb.setStoreClassFiles(true);
+    for (int i = 0; i < names.length; i++) {
+      File add = new File(dir, names[i]);
+      edu.rice.cs.plt.io.IOUtil.writeStringToFile(add, contents[i]);
+      jb.addFile(add, "p", names[i]);
+    }
+    jb.close();
+    assertTrue("archive should be complete", jb.isComplete());
+    
+    JarInputStream jarStream = new JarInputStream(new FileInputStream(f), true);
+    try {
+      for (int i = 0; i < names.length; i++) {
+        JarEntry ent = jarStream.getNextJarEntry();
+        assertEquals("names should match", "p/" + names[i], ent.getName());
+        assertEquals("contents should match", contents[i],
+                     new String(edu.rice.cs.plt.io.IOUtil.toByteArray(jarStream), "UTF-8"));
+      }
+      assertNull("should have no more entries", jarStream.getNextJarEntry());
+    }
+    finally { jarStream.close(); }
+    
+    java.util.jar.JarFile jar = new java.util.jar.JarFile(f);
+    try {
+      for (int i = 0; i < names.length; i++) {
+        JarEntry ent = jar.getJarEntry("p/" + names[i]);
+        assertEquals("size should match", contents[i].length(), ent.getSize());
+        InputStream in = jar.getInputStream(ent);
+        try {
+          assertEquals("contents should match", contents[i],
+                       new String(edu.rice.cs.plt.io.IOUtil.toByteArray(in), "UTF-8"));
+        }
+        finally { in.close(); }
+      }
+      assertEquals("large class file should be stored", java.util.zip.ZipEntry.STORED,
+                   jar.getEntry("p/Big.class").getMethod());
+      assertTrue("large text file should be deflated", 
+                 jar.getEntry("p/big.txt").getCompressedSize() < JarBuilder.STREAM_THRESHOLD);
+    }
+    finally { jar.close(); }
+  }
+  
+  private static String _contents(int i) {
+    StringBuilder sb = new StringBuilder();
+    for (int j = 0; j < i * 20; j++) sb.append("line ").append(j).append('\n');
+    return sb.toString();
+  }
+
   /** Check that all files in an a Set are in the jar file
    * @param jar the jar file to check
    * @param fileNames the set of the names of files
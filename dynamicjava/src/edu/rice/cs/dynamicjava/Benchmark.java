@@ -0,0 +1,100 @@
+package edu.rice.cs.dynamicjava;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+
+/**
+ * The harness shared by the DynamicJava benchmarks.  A case is run for a number of warm-up iterations, whose results
+ * are discarded, and then for a number of measured iterations.  Every iteration gets a fresh, untimed
+ * {@link Case#setUp}, and its result is consumed so that the JIT cannot discard the measured work.  The harness
+ * measures the mean and best time per iteration and, when the JVM supports it, the bytes allocated per iteration by
+ * the benchmark thread; formatting the results is left to the benchmark.  Like the tests, the benchmarks and this
+ * harness are not included in dynamicjava-base.jar.
+ */
+public class Benchmark {
+
+  /** A single timed operation. */
+  public static abstract class Case {
+    /** Prepares the state for one iteration; not timed.  Does nothing by default. */
+    public void setUp() {}
+    /** Performs the measured operation, returning a value derived from its work. */
+    public abstract Object run();
+  }
+
+  /** The result of measuring a case. */
+  public static class Result {
+    private final double _meanNanos;
+    private final double _bestNanos;
+    private final long _bytes;
+    private Result(double meanNanos, double bestNanos, long bytes) {
+      _meanNanos = meanNanos; _bestNanos = bestNanos; _bytes = bytes;
+    }
+    public double meanNanos() { return _meanNanos; }
+    public double bestNanos() { return _bestNanos; }
+    /** @return the mean number of bytes allocated per iteration, or -1 if allocation cannot be measured */
+    public long bytes() { return _bytes; }
+  }
+
+  private final int _warmups;
+  private final int _iterations;
+
+  /**
+   * @param warmups the number of unmeasured iterations per case
+   * @param iterations the number of measured iterations per case; must be positive
+   */
+  public Benchmark(int warmups, int iterations) {
+    if (iterations < 1) { throw new IllegalArgumentException("iterations must be positive"); }
+    _warmups = warmups;
+    _iterations = iterations;
+  }
+
+  /** Run the warm-up and measured iterations of a case. */
+  public Result measure(Case c) {
+    for (int i = 0; i < _warmups; i++) {
+      c.setUp();
+      consume(c.run());
+    }
+    long total = 0;
+    long best = Long.MAX_VALUE;
+    long allocated = 0;
+    boolean measuredAllocation = true;
+    for (int i = 0; i < _iterations; i++) {
+      c.setUp();
+      long bytes = allocatedBytes();
+      long start = System.nanoTime();
+      consume(c.run());
+      long time = System.nanoTime() - start;
+      long bytesAfter = allocatedBytes();
+      total += time;
+      best = Math.min(best, time);
+      if (bytes < 0 || bytesAfter < 0) { measuredAllocation = false; }
+      else { allocated += bytesAfter - bytes; }
+    }
+    return new Result((double) total / _iterations, best, measuredAllocation ? allocated / _iterations : -1);
+  }
+
+  /** Accumulates results so that the JIT cannot discard the work that produced them. */
+  private static volatile int _sink = 0;
+
+  /** Consume a result so that the work that produced it is not optimized away. */
+  public static void consume(Object o) { if (o != null) { _sink += System.identityHashCode(o); } }
+
+  /** The HotSpot ThreadMXBean method reporting per-thread allocation, or null if it is not available. */
+  private static final Method GET_ALLOCATED_BYTES;
+  static {
+    Method m = null;
+    try {
+      Class<?> c = Class.forName("com.sun.management.ThreadMXBean");
+      if (c.isInstance(ManagementFactory.getThreadMXBean())) { m = c.getMethod("getThreadAllocatedBytes", long.class); }
+    }
+    catch (Exception e) { /* allocation is not measured */ }
+    GET_ALLOCATED_BYTES = m;
+  }
+
+  private static long allocatedBytes() {
+    if (GET_ALLOCATED_BYTES == null) { return -1; }
+    try { return (Long) GET_ALLOCATED_BYTES.invoke(ManagementFactory.getThreadMXBean(), Thread.currentThread().getId()); }
+    catch (Exception e) { return -1; }
+  }
+
+}
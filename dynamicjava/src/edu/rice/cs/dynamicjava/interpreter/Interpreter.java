@@ -1,6 +1,5 @@
 package edu.rice.cs.dynamicjava.interpreter;
 
-import java.io.StringReader;
 import edu.rice.cs.plt.tuple.Option;
 import edu.rice.cs.plt.tuple.Pair;
 import edu.rice.cs.plt.lambda.WrappedException;
@@ -17,6 +16,8 @@ import static edu.rice.cs.plt.debug.DebugUtil.debug;
 public class Interpreter {
 
   private final Options _opt;
+  /** Reused for every interaction; access is synchronized on the parser. */
+  private final JavaCCParser _parser;
   private TypeContext _typeContext;
   private RuntimeBindings _bindings;
   
@@ -26,7 +27,8 @@ public class Interpreter {
     _bindings = bindings;
     // Force potentially expensive objects/classes to initialize now:
     _opt.typeSystem();
-    new JavaCCParser(new StringReader(""), _opt).parseStream();
+    _parser = new JavaCCParser(_opt);
+    _parser.parseStream();
   }
   
   public Interpreter(Options opt) {
@@ -58,7 +60,7 @@ public class Interpreter {
   
   private Iterable<Node> parse(String code) throws InterpreterException {
     try {
-      return new JavaCCParser(new StringReader(code), _opt).parseStream();
+      synchronized (_parser) { return _parser.reset(code).parseStream(); }
     }
     catch (ParseError e) {
       throw new ParserException(e);
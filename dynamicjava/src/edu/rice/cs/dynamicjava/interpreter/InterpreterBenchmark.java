@@ -0,0 +1,172 @@
+package edu.rice.cs.dynamicjava.interpreter;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import koala.dynamicjava.parser.wrapper.JavaCCParser;
+import koala.dynamicjava.tree.Node;
+
+import edu.rice.cs.dynamicjava.Benchmark;
+import edu.rice.cs.dynamicjava.Options;
+import edu.rice.cs.plt.collect.CollectUtil;
+import edu.rice.cs.plt.text.ArgumentParser;
+
+/**
+ * Times the phases of {@link Interpreter#interpret} -- parsing, checking, and evaluation -- separately on a set of
+ * representative interactions.  Each workload has setup code, which is interpreted once to establish the context
+ * (as earlier interactions would), and a measured interaction.  Each phase is run by the shared {@link Benchmark}
+ * harness for a number of warm-up rounds and then for a number of measured rounds of {@code reps} operations; the
+ * inputs to the checking and evaluation phases (fresh trees, and fresh checked trees) are prepared outside the timed
+ * region.  Reports the mean and best time per operation and, when the JVM supports it, the bytes allocated per
+ * operation.  Usage:
+ * {@code InterpreterBenchmark [-warmup n] [-runs n] [-reps n] [workload...]}
+ */
+public class InterpreterBenchmark {
+
+  /** An interaction to measure, along with the setup code that precedes it. */
+  private static class Workload {
+    public final String name;
+    public final String setup;
+    public final String code;
+    public Workload(String name, String setup, String code) {
+      this.name = name; this.setup = setup; this.code = code;
+    }
+  }
+
+  private static final List<Workload> WORKLOADS = new ArrayList<Workload>();
+  static {
+    WORKLOADS.add(new Workload("arithmetic", "",
+        "int sum = 0;\n" +
+        "for (int i = 0; i < 1000; i++) { sum += i * i % 7; if (sum > 100000) sum -= 100000; }\n" +
+        "sum"));
+    WORKLOADS.add(new Workload("collections", "import java.util.*;",
+        "List<Integer> l = new ArrayList<Integer>();\n" +
+        "for (int i = 0; i < 200; i++) { l.add(i); }\n" +
+        "Map<Integer, String> m = new HashMap<Integer, String>();\n" +
+        "for (Integer x : l) { m.put(x, \"v\" + x); }\n" +
+        "Collections.sort(l, Collections.<Integer>reverseOrder());\n" +
+        "m.size() + l.get(0)"));
+    WORKLOADS.add(new Workload("inference", "import java.util.*;",
+        "List<String> s = Arrays.asList(\"b\", \"a\", \"c\");\n" +
+        "String max = Collections.max(s);\n" +
+        "Map<String, List<Integer>> m = Collections.singletonMap(max, Collections.<Integer>emptyList());\n" +
+        "List<? extends Number> n = Arrays.asList(1, 2.0, 3L);\n" +
+        "Collections.unmodifiableMap(m).get(max).size() + n.size()"));
+    WORKLOADS.add(new Workload("class declaration", "",
+        "class Point {\n" +
+        "  int x, y;\n" +
+        "  Point(int x, int y) { this.x = x; this.y = y; }\n" +
+        "  int dist() { return x * x + y * y; }\n" +
+        "  public String toString() { return \"(\" + x + \", \" + y + \")\"; }\n" +
+        "}\n" +
+        "new Point(3, 4).dist()"));
+    WORKLOADS.add(new Workload("declared class use",
+        "class Counter { private int n; int next() { return ++n; } }",
+        "Counter c = new Counter();\n" +
+        "int total = 0;\n" +
+        "for (int i = 0; i < 200; i++) { total += c.next(); }\n" +
+        "total"));
+  }
+
+  public static void main(String... args) {
+    ArgumentParser argParser = new ArgumentParser();
+    argParser.supportOption("warmup", "10");
+    argParser.supportOption("runs", "10");
+    argParser.supportOption("reps", "20");
+    ArgumentParser.Result parsedArgs = argParser.parse(args);
+    int warmup = Integer.parseInt(parsedArgs.getUnaryOption("warmup"));
+    int runs = Integer.parseInt(parsedArgs.getUnaryOption("runs"));
+    int reps = Integer.parseInt(parsedArgs.getUnaryOption("reps"));
+    List<String> selected = CollectUtil.makeList(parsedArgs.params());
+    Benchmark benchmark = new Benchmark(warmup, runs);
+
+    System.out.println(String.format("%-20s %-8s %12s %12s %12s", "workload", "phase", "mean us/op", "best us/op",
+                                     "bytes/op"));
+    for (Workload w : WORKLOADS) {
+      if (selected.isEmpty() || selected.contains(w.name)) { new Run(w, reps).measure(benchmark); }
+    }
+  }
+
+  /** The state for measuring a single workload. */
+  private static class Run {
+    private final Workload _w;
+    private final int _reps;
+    private final Options _opt;
+    private final JavaCCParser _parser;
+    private final TypeContext _context;
+    private final RuntimeBindings _bindings;
+
+    public Run(Workload w, int reps) {
+      _w = w;
+      _reps = reps;
+      _opt = Options.DEFAULT;
+      _parser = new JavaCCParser(_opt);
+      TypeContext context = new ImportContext(InterpreterBenchmark.class.getClassLoader(), _opt);
+      RuntimeBindings bindings = RuntimeBindings.EMPTY;
+      if (w.setup.length() > 0) {
+        List<Node> tree = new JavaCCParser(new StringReader(w.setup), _opt).parseStream();
+        context = new StatementChecker(context, _opt).checkList(tree);
+        bindings = new StatementEvaluator(bindings, _opt).evaluateSequence(tree).bindings();
+      }
+      _context = context;
+      _bindings = bindings;
+      // make sure the interaction itself succeeds before timing it
+      List<Node> tree = parse();
+      check(tree);
+      evaluate(tree);
+    }
+
+    public void measure(Benchmark benchmark) {
+      // each phase is measured separately, so that one phase's garbage is not charged to another
+      report("parse", benchmark.measure(new Benchmark.Case() {
+        public Object run() {
+          Object result = null;
+          for (int i = 0; i < _reps; i++) { result = parse(); Benchmark.consume(result); }
+          return result;
+        }
+      }));
+      report("check", benchmark.measure(new Benchmark.Case() {
+        private final List<List<Node>> _trees = new ArrayList<List<Node>>();
+        public void setUp() {
+          _trees.clear();
+          for (int i = 0; i < _reps; i++) { _trees.add(parse()); }
+        }
+        public Object run() {
+          Object result = null;
+          for (List<Node> t : _trees) { result = check(t); Benchmark.consume(result); }
+          return result;
+        }
+      }));
+      report("evaluate", benchmark.measure(new Benchmark.Case() {
+        private final List<List<Node>> _trees = new ArrayList<List<Node>>();
+        public void setUp() {
+          _trees.clear();
+          for (int i = 0; i < _reps; i++) { List<Node> t = parse(); check(t); _trees.add(t); }
+        }
+        public Object run() {
+          Object result = null;
+          for (List<Node> t : _trees) { result = evaluate(t); Benchmark.consume(result); }
+          return result;
+        }
+      }));
+    }
+
+    /** Parses the interaction with a reused parser, as the Interpreter does. */
+    private List<Node> parse() { return _parser.reset(_w.code).parseStream(); }
+
+    private TypeContext check(List<Node> tree) { return new StatementChecker(_context, _opt).checkList(tree); }
+
+    private Object evaluate(List<Node> tree) {
+      return new StatementEvaluator(_bindings, _opt).evaluateSequence(tree).value();
+    }
+
+    /** Print a result per operation, rather than per round of {@code reps} operations. */
+    private void report(String phase, Benchmark.Result result) {
+      String bytes = (result.bytes() < 0) ? "n/a" : String.valueOf(result.bytes() / _reps);
+      System.out.println(String.format("%-20s %-8s %12.1f %12.1f %12s", _w.name, phase,
+                                       result.meanNanos() / 1e3 / _reps, result.bestNanos() / 1e3 / _reps, bytes));
+    }
+  }
+
+}
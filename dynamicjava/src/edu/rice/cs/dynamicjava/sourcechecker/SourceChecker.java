@@ -17,10 +17,15 @@ import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import koala.dynamicjava.interpreter.NodeProperties;
 import koala.dynamicjava.interpreter.error.ExecutionError;
-import koala.dynamicjava.parser.wrapper.JavaCCParser;
+import koala.dynamicjava.parser.wrapper.JavaCCParserPool;
 import koala.dynamicjava.parser.wrapper.ParseError;
 import koala.dynamicjava.tree.*;
 import koala.dynamicjava.tree.tiger.HookTypeName;
@@ -50,17 +55,40 @@ import edu.rice.cs.plt.text.TextUtil;
 import edu.rice.cs.plt.tuple.Option;
 import edu.rice.cs.plt.tuple.Pair;
 
+/**
+ * Checks a set of source files.  Parsing and body checking are independent for each file (or top-level
+ * class), and run in parallel when more than one thread is allowed; the other phases depend on the
+ * order in which declarations are processed, and always run sequentially.  The parallel phases of a
+ * call to {@code check} share one thread pool.  Errors are reported in the order of the sources,
+ * regardless of the number of threads.
+ */
 public class SourceChecker {
 
   private final Options _opt;
   private final boolean _quiet;
-  private int _statusCount;
+  private final int _threads;
+  private final AtomicInteger _statusCount;
+  private final JavaCCParserPool _parsers;
+  /** The pool shared by the parallel phases of the current check; null when running on one thread. */
+  private ForkJoinPool _pool;
   private Iterable<CompilationUnit> _processed;
   
+  /** Create a checker that uses one thread per available processor. */
   public SourceChecker(Options opt, boolean quiet) {
+    this(opt, quiet, Runtime.getRuntime().availableProcessors());
+  }
+  
+  /**
+   * Create a checker that uses at most the given number of threads.
+   * @param threads  The maximum number of threads; if {@code 1}, all work is done on the calling thread.
+   */
+  public SourceChecker(Options opt, boolean quiet, int threads) {
+    if (threads < 1) { throw new IllegalArgumentException("threads must be positive"); }
     _opt = opt;
     _quiet = quiet;
-    _statusCount = 0;
+    _threads = threads;
+    _statusCount = new AtomicInteger(0);
+    _parsers = new JavaCCParserPool(opt);
     _processed = IterUtil.empty();
   }
   
@@ -76,32 +104,45 @@ public class SourceChecker {
   
   public void check(Iterable<? extends File> sources, Iterable<? extends File> classPath)
                       throws InterpreterException {
-    Iterable<CompilationUnit> tree = parse(sources);
-    _processed = IterUtil.compose(_processed, tree);
-    TypeContext context = makeContext(tree, classPath);
-    Relation<TypeDeclaration, ClassChecker> decls = extractDeclarations(tree, context);
-    initializeClassSignatures(decls);
-    checkSignatures(decls);
-    checkBodies(decls);
+    if (_threads > 1) { _pool = new ForkJoinPool(_threads); }
+    try {
+      Iterable<CompilationUnit> tree = parse(sources);
+      _processed = IterUtil.compose(_processed, tree);
+      TypeContext context = makeContext(tree, classPath);
+      Relation<TypeDeclaration, ClassChecker> decls = extractDeclarations(tree, context);
+      initializeClassSignatures(decls);
+      checkSignatures(decls);
+      checkBodies(decls);
+    }
+    finally {
+      if (_pool != null) { _pool.shutdown(); _pool = null; }
+    }
   }
   
   private Iterable<CompilationUnit> parse(Iterable<? extends File> sources) throws InterpreterException {
-    final List<CompilationUnit> result = new ArrayList<CompilationUnit>();
-    Iterable<File> files = IterUtil.collapse(IterUtil.map(sources, new Lambda<File, Iterable<File>>() {
+    final List<File> files = CollectUtil.makeArrayList(IterUtil.collapse(IterUtil.map(sources, new Lambda<File, Iterable<File>>() {
       private final FileFilter _filter = IOUtil.extensionFilePredicate("java");
       public Iterable<File> value(File f) { return IOUtil.listFilesRecursively(f, _filter); }
-    }));
-    new Phase<File>("Parsing") {
-      protected void step(File source) throws InterpreterException {
-        try {
-          JavaCCParser parser = new JavaCCParser(new FileReader(source), source, _opt);
-          result.add(parser.parseCompilationUnit());
-        }
-        catch (ParseError e) { throw new ParserException(e); }
+    })));
+    final CompilationUnit[] result = new CompilationUnit[files.size()];
+    new Phase<Integer>("Parsing", true) {
+      protected void step(Integer i) throws InterpreterException {
+        File source = files.get(i);
+        FileReader in;
+        try { in = new FileReader(source); }
         catch (FileNotFoundException e) { throw new SourceException(e); }
+        try { result[i] = _parsers.parseCompilationUnit(in, source); }
+        catch (ParseError e) { throw new ParserException(e); }
+        finally { IOUtil.attemptClose(in); }
       }
-      protected SourceInfo location(File f) { return SourceInfo.point(f, 0, 0); }
-    }.run(files);
+      protected SourceInfo location(Integer i) { return SourceInfo.point(files.get(i), 0, 0); }
+    }.run(indices(files.size()));
+    return IterUtil.asIterable(result);
+  }
+  
+  private static List<Integer> indices(int size) {
+    List<Integer> result = new ArrayList<Integer>(size);
+    for (int i = 0; i < size; i++) { result.add(i); }
     return result;
   }
   
@@ -118,7 +159,7 @@ public class SourceChecker {
                                                                        throws InterpreterException {
     final CompilationUnitChecker unitChecker = new CompilationUnitChecker(context, _opt);
     final Relation<TypeDeclaration, ClassChecker> checkers = UnindexedRelation.makeLinkedHashBased();
-    new Phase<CompilationUnit>("Resolving imports") {
+    new Phase<CompilationUnit>("Resolving imports", false) {
       protected void step(CompilationUnit u) throws InterpreterException {
         checkers.addAll(unitChecker.extractDeclarations(u));
       }
@@ -128,26 +169,26 @@ public class SourceChecker {
   }
 
   private void initializeClassSignatures(Relation<TypeDeclaration, ClassChecker> decls) throws InterpreterException {
-    new ClassCheckerPhase("Checking class signatures") {
+    new ClassCheckerPhase("Checking class signatures", false) {
       protected void step(TypeDeclaration ast, ClassChecker checker) { checker.initializeClassSignatures(ast); } 
     }.run(decls);
   }
   
   private void checkSignatures(Relation<TypeDeclaration, ClassChecker> decls) throws InterpreterException {
-    new ClassCheckerPhase("Checking class member signatures") {
+    new ClassCheckerPhase("Checking class member signatures", false) {
       protected void step(TypeDeclaration ast, ClassChecker checker) { checker.checkSignatures(ast); } 
     }.run(decls);
   }
   
   private void checkBodies(Relation<TypeDeclaration, ClassChecker> decls) throws InterpreterException {
-    new ClassCheckerPhase("Checking class member bodies") {
+    new ClassCheckerPhase("Checking class member bodies", true) {
       protected void step(TypeDeclaration ast, ClassChecker checker) { checker.checkBodies(ast); } 
     }.run(decls);
   }
   
   
   private void startStatus(String description) {
-    _statusCount = 0;
+    _statusCount.set(0);
     if (!_quiet) {
       String fullDesc = TextUtil.padRight(description + "...", ' ', 36);
       System.out.print(fullDesc);
@@ -156,9 +197,11 @@ public class SourceChecker {
   }
   
   private void incrementStatus() {
-    _statusCount++;
+    int count = _statusCount.incrementAndGet();
     // arbitrarily chose 10 as the interval for status printouts
-    if (!_quiet && (_statusCount % 10 == 0)) { System.out.print('*'); System.out.flush(); }
+    if (!_quiet && (count % 10 == 0)) {
+      synchronized (System.out) { System.out.print('*'); System.out.flush(); }
+    }
   }
   
   private void endStatus() {
@@ -166,9 +209,14 @@ public class SourceChecker {
   }
   
   
+  /**
+   * A step applied to each of a list of arguments.  If the phase is parallel, steps must be independent:
+   * they may run concurrently and in any order.  In either case, errors are reported in argument order.
+   */
   private abstract class Phase<T> {
     private final String _description;
-    protected Phase(String description) { _description = description; }
+    private final boolean _parallel;
+    protected Phase(String description, boolean parallel) { _description = description; _parallel = parallel; }
     
     protected abstract void step(T arg) throws InterpreterException;
     protected abstract SourceInfo location(T arg);
@@ -177,22 +225,51 @@ public class SourceChecker {
       List<InterpreterException> errors = new ArrayList<InterpreterException>();
       debug.logStart(_description);
       startStatus(_description);
-      for (T arg : args) {
-        debug.logStart("location", location(arg));
-        try { step(arg); }
-        catch (InterpreterException e) { errors.add(e); }
-        catch (RuntimeException e) { errors.add(new InternalException(e, location(arg))); }
-        incrementStatus();
-        debug.logEnd();
+      if (_parallel && _pool != null) { runParallel(args, errors); }
+      else {
+        for (T arg : args) {
+          InterpreterException error = runStep(arg);
+          if (error != null) { errors.add(error); }
+        }
       }
       endStatus();
       debug.logEnd(_description);
       if (!errors.isEmpty()) { throw CompositeException.make(errors); }
     }
+    
+    private void runParallel(Iterable<? extends T> args, List<InterpreterException> errors) {
+      List<Callable<InterpreterException>> tasks = new ArrayList<Callable<InterpreterException>>();
+      for (final T arg : args) {
+        tasks.add(new Callable<InterpreterException>() {
+          public InterpreterException call() { return runStep(arg); }
+        });
+      }
+      try {
+        for (Future<InterpreterException> f : _pool.invokeAll(tasks)) {
+          InterpreterException error = f.get();
+          if (error != null) { errors.add(error); }
+        }
+      }
+      catch (InterruptedException e) { throw new RuntimeException(e); }
+      // runStep catches all exceptions, so this must be an Error
+      catch (ExecutionException e) { throw (Error) e.getCause(); }
+    }
+    
+    /** Run a step, returning its error (or {@code null}). */
+    private InterpreterException runStep(T arg) {
+      InterpreterException result = null;
+      debug.logStart("location", location(arg));
+      try { step(arg); }
+      catch (InterpreterException e) { result = e; }
+      catch (RuntimeException e) { result = new InternalException(e, location(arg)); }
+      incrementStatus();
+      debug.logEnd();
+      return result;
+    }
   }
   
   private abstract class ClassCheckerPhase extends Phase<Pair<TypeDeclaration, ClassChecker>> {
-    protected ClassCheckerPhase(String description) { super(description); }
+    protected ClassCheckerPhase(String description, boolean parallel) { super(description, parallel); }
     protected final void step(Pair<TypeDeclaration, ClassChecker> arg) throws InterpreterException {
       try { step(arg.first(), arg.second()); }
       catch (ExecutionError e) { throw extractErrors(arg.first()); }
@@ -265,16 +342,19 @@ public class SourceChecker {
     argParser.supportAlias("cp", "classpath");
     argParser.supportOption("opt", 1);
     argParser.supportOption("verbose");
+    argParser.supportOption("threads", 1);
     argParser.requireParams(1);
     final ArgumentParser.Result parsedArgs = argParser.parse(args);
     Iterable<File> cp = IOUtil.parsePath(parsedArgs.getUnaryOption("classpath"));
     Iterable<File> sources = IterUtil.map(parsedArgs.params(), IOUtil.FILE_FACTORY);
     boolean verbose = parsedArgs.hasOption("verbose");
+    int threads = Runtime.getRuntime().availableProcessors();
+    if (parsedArgs.hasOption("threads")) { threads = Integer.parseInt(parsedArgs.getUnaryOption("threads")); }
     
     if (parsedArgs.hasOption("opt")) {
       Options opt = _options.get(parsedArgs.getUnaryOption("opt"));
       if (opt == null) { System.out.println("Unrecognized options name: " + parsedArgs.getUnaryOption("opt")); }
-      else { processFiles(sources, cp, opt); }
+      else { processFiles(sources, cp, opt, threads); }
     }
       
     else {
@@ -282,7 +362,7 @@ public class SourceChecker {
       Map<String, Iterable<CompilationUnit>> results = new LinkedHashMap<String, Iterable<CompilationUnit>>();
       for (String n : _options.keySet()) {
         System.out.println("============ Checking with type system " + n + " ============");
-        results.put(n, processFiles(sources, cp, _options.get(n)));
+        results.put(n, processFiles(sources, cp, _options.get(n), threads));
       }
       for (Map.Entry<String, Iterable<CompilationUnit>> e : results.entrySet()) {
         if (e.getKey().equals(canonical)) continue;
@@ -310,8 +390,9 @@ public class SourceChecker {
   }
   
   
-  private static Iterable<CompilationUnit> processFiles(Iterable<File> sources, Iterable<File> cp, Options opt) {
-    SourceChecker checker = new SourceChecker(opt, false);
+  private static Iterable<CompilationUnit> processFiles(Iterable<File> sources, Iterable<File> cp, Options opt,
+                                                       int threads) {
+    SourceChecker checker = new SourceChecker(opt, false, threads);
     try {
       checker.check(sources, cp);
       System.out.println("Completed checking successfully.");
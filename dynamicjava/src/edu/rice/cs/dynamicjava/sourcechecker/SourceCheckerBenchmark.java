@@ -0,0 +1,60 @@
+package edu.rice.cs.dynamicjava.sourcechecker;
+
+import java.io.File;
+import java.io.PrintWriter;
+
+import edu.rice.cs.dynamicjava.Benchmark;
+import edu.rice.cs.dynamicjava.Options;
+import edu.rice.cs.dynamicjava.interpreter.InterpreterException;
+import edu.rice.cs.plt.io.IOUtil;
+import edu.rice.cs.plt.iter.IterUtil;
+import edu.rice.cs.plt.text.ArgumentParser;
+
+/**
+ * Times the {@link SourceChecker} on a source tree with varying numbers of threads.  Each configuration
+ * is run by the shared {@link Benchmark} harness a number of times after a warm-up run, and the best and mean times
+ * are reported.  Usage:
+ * {@code SourceCheckerBenchmark [-cp path] [-runs n] [-threads n1 n2 ...] source...}
+ */
+public class SourceCheckerBenchmark {
+
+  public static void main(String... args) {
+    ArgumentParser argParser = new ArgumentParser();
+    argParser.supportOption("classpath", "");
+    argParser.supportAlias("cp", "classpath");
+    argParser.supportOption("runs", "5");
+    argParser.supportVarargOption("threads");
+    argParser.requireParams(1);
+    ArgumentParser.Result parsedArgs = argParser.parse(args);
+    Iterable<File> cp = IOUtil.parsePath(parsedArgs.getUnaryOption("classpath"));
+    Iterable<File> sources = IterUtil.map(parsedArgs.params(), IOUtil.FILE_FACTORY);
+    int runs = Integer.parseInt(parsedArgs.getUnaryOption("runs"));
+    Iterable<String> threadCounts = parsedArgs.hasOption("threads") ? parsedArgs.getOption("threads") :
+      IterUtil.make("1", String.valueOf(Runtime.getRuntime().availableProcessors()));
+
+    Benchmark benchmark = new Benchmark(1, runs);
+    for (String t : threadCounts) {
+      Benchmark.Result result = benchmark.measure(new CheckCase(sources, cp, Integer.parseInt(t)));
+      System.out.println(t + " thread(s): best " + (long) (result.bestNanos() / 1e6) + "ms, mean " +
+                         (long) (result.meanNanos() / 1e6) + "ms");
+    }
+  }
+
+  /** Checks the sources with a fresh checker, created outside the timed region. */
+  private static class CheckCase extends Benchmark.Case {
+    private final Iterable<File> _sources;
+    private final Iterable<File> _cp;
+    private final int _threads;
+    private SourceChecker _checker;
+    public CheckCase(Iterable<File> sources, Iterable<File> cp, int threads) {
+      _sources = sources; _cp = cp; _threads = threads;
+    }
+    public void setUp() { _checker = new SourceChecker(Options.DEFAULT, true, _threads); }
+    public Object run() {
+      try { _checker.check(_sources, _cp); }
+      catch (InterpreterException e) { e.printUserMessage(new PrintWriter(System.out, true)); }
+      return _checker;
+    }
+  }
+
+}
@@ -0,0 +1,67 @@
+package edu.rice.cs.dynamicjava.sourcechecker;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+
+import junit.framework.TestCase;
+
+import edu.rice.cs.plt.io.IOUtil;
+
+import edu.rice.cs.dynamicjava.Options;
+import edu.rice.cs.dynamicjava.interpreter.InterpreterException;
+
+/** Tests that SourceChecker gives the same result for any number of threads. */
+public class SourceCheckerTest extends TestCase {
+
+  private static final int FILES = 24;
+
+  private File _dir;
+
+  protected void setUp() throws IOException {
+    _dir = IOUtil.createAndMarkTempDirectory("sourcechecker", "");
+    for (int i = 0; i < FILES; i++) {
+      // every file declares local and anonymous classes, which are registered with the shared class loader
+      // while bodies are checked; every third file has errors
+      String error = (i % 3 == 0) ? "    int bad = \"x\" + i;\n    undefined(i);\n" : "";
+      IOUtil.writeStringToFile(new File(_dir, "C" + i + ".java"),
+                               "package p;\n" +
+                               "public class C" + i + " {\n" +
+                               "  class Inner { int get() { return " + i + "; } }\n" +
+                               "  int run(int i) {\n" +
+                               "    class Local { int twice(int j) { return 2*j; } }\n" +
+                               "    Runnable r = new Runnable() { public void run() { new Inner().get(); } };\n" +
+                               "    r.run();\n" +
+                               error +
+                               "    return new Local().twice(i) + new C" + ((i+1) % FILES) + "().run(i-1);\n" +
+                               "  }\n" +
+                               "}\n");
+    }
+  }
+
+  protected void tearDown() {
+    IOUtil.deleteRecursively(_dir);
+  }
+
+  /** Check the sources, returning the reported errors. */
+  private String check(int threads) {
+    SourceChecker checker = new SourceChecker(Options.DEFAULT, true, threads);
+    StringWriter result = new StringWriter();
+    try { checker.check(_dir); }
+    catch (InterpreterException e) { e.printUserMessage(new PrintWriter(result, true)); }
+    return result.toString();
+  }
+
+  public void testSameResultForAnyNumberOfThreads() {
+    String sequential = check(1);
+    assertTrue("two errors in each of " + (FILES/3) + " files: " + sequential,
+               sequential.startsWith((2*FILES/3) + " errors"));
+    assertFalse("no internal errors: " + sequential, sequential.contains("Internal error"));
+    for (int i = 0; i < 5; i++) {
+      assertEquals(sequential, check(4));
+    }
+    assertEquals(sequential, check(1));
+  }
+
+}
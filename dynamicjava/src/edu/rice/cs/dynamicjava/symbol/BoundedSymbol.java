@@ -73,7 +73,10 @@ public class BoundedSymbol {
   public Type upperBound() { return _upperBound.value(); }
   
   public Type lowerBound() { return _lowerBound.value(); }
-  
+
+  /** Whether both bounds have been initialized (after which they can no longer change). */
+  public boolean boundsInitialized() { return _upperBound.isResolved() && _lowerBound.isResolved(); }
+
   public String toString() { return "symbol " + _id; }
   
   public boolean equals(Object o) {
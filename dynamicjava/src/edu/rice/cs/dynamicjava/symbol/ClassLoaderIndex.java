@@ -0,0 +1,84 @@
+package edu.rice.cs.dynamicjava.symbol;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caches the results of loading top-level classes by name from a class loader.  Name resolution
+ * probes many names that do not exist (every on-demand import is tried for every simple name), and
+ * each failed {@code loadClass} call throws a ClassNotFoundException at every level of the loader
+ * hierarchy.  An index is shared by all libraries over the same loader, and thus by all interactions.
+ * <ul>
+ * <li>Classes that were found are remembered for as long as they are loaded: a loader always returns
+ * the same class for a name.  They are held weakly, since a class refers to its loader, and a strong
+ * reference would keep the loader, the key of its index, from ever being collected.</li>
+ * <li>Names that were not found are remembered along with their resource name.  A later lookup only
+ * retries {@code loadClass} if the loader has since acquired a matching class file (as happens when
+ * a class is compiled into a directory on the class path), so misses are answered without exceptions.</li>
+ * <li>Misses in the {@code java.*} packages are permanent, since no loader may define classes there.</li>
+ * </ul>
+ */
+public class ClassLoaderIndex {
+
+  private static final Map<ClassLoader, ClassLoaderIndex> INDICES = new WeakHashMap<ClassLoader, ClassLoaderIndex>();
+
+  /** Get the index shared by all clients of the given loader. */
+  public static ClassLoaderIndex forLoader(ClassLoader loader) {
+    synchronized (INDICES) {
+      ClassLoaderIndex result = INDICES.get(loader);
+      if (result == null) { result = new ClassLoaderIndex(loader); INDICES.put(loader, result); }
+      return result;
+    }
+  }
+
+  /** Held weakly, so that the index (a value in INDICES) does not keep its key alive. */
+  private final WeakReference<ClassLoader> _loader;
+  /** Classes are held weakly for the same reason; the loader keeps the classes it defined alive. */
+  private final ConcurrentHashMap<String, WeakReference<Class<?>>> _found;
+  /** Maps missing class names to their resource names. */
+  private final ConcurrentHashMap<String, String> _missing;
+
+  private ClassLoaderIndex(ClassLoader loader) {
+    _loader = new WeakReference<ClassLoader>(loader);
+    _found = new ConcurrentHashMap<String, WeakReference<Class<?>>>();
+    _missing = new ConcurrentHashMap<String, String>();
+  }
+
+  /**
+   * Load the named class, or return {@code null} if it cannot be loaded (either because it does not exist
+   * or because loading it produced a LinkageError).
+   */
+  public Class<?> loadClass(String fullName) {
+    WeakReference<Class<?>> ref = _found.get(fullName);
+    Class<?> result = (ref == null) ? null : ref.get();
+    if (result != null) { return result; }
+    ClassLoader loader = _loader.get();
+    String resource = _missing.get(fullName);
+    if (resource != null) {
+      if (isPlatformClass(fullName) || loader == null || loader.getResource(resource) == null) { return null; }
+      _missing.remove(fullName);
+    }
+    try {
+      result = (loader == null) ? Class.forName(fullName) : loader.loadClass(fullName);
+      _found.put(fullName, new WeakReference<Class<?>>(result));
+      return result;
+    }
+    catch (ClassNotFoundException e) { recordMissing(fullName); }
+    catch (LinkageError e) { recordMissing(fullName); }
+    return null;
+  }
+
+  /** Forget all misses, forcing them to be retried. */
+  public void clearMisses() { _missing.clear(); }
+
+  private void recordMissing(String fullName) {
+    _missing.put(fullName, fullName.replace('.', '/') + ".class");
+  }
+
+  private static boolean isPlatformClass(String fullName) {
+    return fullName.startsWith("java.");
+  }
+
+}
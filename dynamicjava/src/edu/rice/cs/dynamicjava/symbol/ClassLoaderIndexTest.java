@@ -0,0 +1,112 @@
+package edu.rice.cs.dynamicjava.symbol;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.WeakReference;
+import java.net.URL;
+
+import junit.framework.TestCase;
+
+import edu.rice.cs.plt.io.IOUtil;
+
+/** Tests the caching of found and missing classes by ClassLoaderIndex. */
+public class ClassLoaderIndexTest extends TestCase {
+
+  public static class Sample { }
+
+  private static final String SAMPLE = Sample.class.getName();
+  private static final String SAMPLE_RESOURCE = SAMPLE.replace('.', '/') + ".class";
+
+  /** Defines Sample itself (rather than delegating to the test's loader) once it has been made available. */
+  private static class TestLoader extends ClassLoader {
+    int searches = 0;
+    boolean available = false;
+    TestLoader() { super(null); }
+
+    protected Class<?> findClass(String name) throws ClassNotFoundException {
+      searches++;
+      if (available && name.equals(SAMPLE)) {
+        try {
+          InputStream in = ClassLoaderIndexTest.class.getClassLoader().getResourceAsStream(SAMPLE_RESOURCE);
+          try {
+            byte[] bytes = IOUtil.toByteArray(in);
+            return defineClass(name, bytes, 0, bytes.length);
+          }
+          finally { in.close(); }
+        }
+        catch (IOException e) { throw new ClassNotFoundException(name, e); }
+      }
+      throw new ClassNotFoundException(name);
+    }
+
+    protected URL findResource(String name) {
+      if (available && name.equals(SAMPLE_RESOURCE)) {
+        return ClassLoaderIndexTest.class.getClassLoader().getResource(SAMPLE_RESOURCE);
+      }
+      return null;
+    }
+  }
+
+  public void testFound() {
+    TestLoader loader = new TestLoader();
+    loader.available = true;
+    ClassLoaderIndex index = ClassLoaderIndex.forLoader(loader);
+    assertSame(index, ClassLoaderIndex.forLoader(loader));
+    Class<?> c = index.loadClass(SAMPLE);
+    assertNotNull(c);
+    assertSame(loader, c.getClassLoader());
+    assertSame(c, index.loadClass(SAMPLE));
+    assertEquals(1, loader.searches);
+    assertSame(String.class, index.loadClass("java.lang.String"));
+  }
+
+  public void testMissesAreCached() {
+    TestLoader loader = new TestLoader();
+    ClassLoaderIndex index = ClassLoaderIndex.forLoader(loader);
+    assertNull(index.loadClass(SAMPLE));
+    assertEquals(1, loader.searches);
+    assertNull(index.loadClass(SAMPLE));
+    assertEquals("miss is answered from the cache", 1, loader.searches);
+
+    // once a class file appears, the name is retried
+    loader.available = true;
+    Class<?> c = index.loadClass(SAMPLE);
+    assertNotNull(c);
+    assertEquals(2, loader.searches);
+    assertSame(c, index.loadClass(SAMPLE));
+    assertEquals(2, loader.searches);
+  }
+
+  public void testPlatformMissesArePermanent() {
+    TestLoader loader = new TestLoader();
+    ClassLoaderIndex index = ClassLoaderIndex.forLoader(loader);
+    assertNull(index.loadClass("java.lang.NoSuchClass"));
+    int searches = loader.searches;
+    assertNull(index.loadClass("java.lang.NoSuchClass"));
+    assertEquals(searches, loader.searches);
+  }
+
+  public void testClearMisses() {
+    TestLoader loader = new TestLoader();
+    ClassLoaderIndex index = ClassLoaderIndex.forLoader(loader);
+    assertNull(index.loadClass(SAMPLE));
+    index.clearMisses();
+    assertNull(index.loadClass(SAMPLE));
+    assertEquals(2, loader.searches);
+  }
+
+  /** An index must not keep its loader alive through the classes it has found. */
+  public void testLoaderCanBeCollected() throws InterruptedException {
+    TestLoader loader = new TestLoader();
+    loader.available = true;
+    assertNotNull(ClassLoaderIndex.forLoader(loader).loadClass(SAMPLE));
+    WeakReference<ClassLoader> ref = new WeakReference<ClassLoader>(loader);
+    loader = null;
+    for (int i = 0; i < 20 && ref.get() != null; i++) {
+      System.gc();
+      Thread.sleep(50);
+    }
+    assertNull("loader was collected", ref.get());
+  }
+
+}
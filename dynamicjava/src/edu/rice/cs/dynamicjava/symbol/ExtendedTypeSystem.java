@@ -92,8 +92,8 @@ public class ExtendedTypeSystem extends StandardTypeSystem {
     }
   }
   
-  /** Determine if the given types may be treated as equal.  This is recursive, transitive, and symmetric. */
-  public boolean isEqual(Type t1, Type t2) {
+  /** Compute {@link #isEqual}, without memoization. */
+  protected boolean checkEqual(Type t1, Type t2) {
     //debug.logStart(new String[]{"t1","t2"}, wrap(t1), wrap(t2)); try {
       
     if (t1.equals(t2)) { return true; }
@@ -108,11 +108,8 @@ public class ExtendedTypeSystem extends StandardTypeSystem {
     //} finally { debug.logEnd(); }
   }
   
-  /**
-   * Determine if {@code subT} is a subtype of {@code superT}.  This is a recursive
-   * (in terms of {@link #isEqual}), transitive relation.
-   */
-  public boolean isSubtype(Type subT, Type superT) {
+  /** Compute {@link #isSubtype}, without memoization. */
+  protected boolean checkSubtype(Type subT, Type superT) {
     NormSubtyper sub = new NormSubtyper();
     Normalizer norm = new Normalizer(sub);
     return sub.contains(norm.value(subT), norm.value(superT));
@@ -123,7 +120,13 @@ public class ExtendedTypeSystem extends StandardTypeSystem {
    * invocations should use distinct instances.
    */
   private class NormSubtyper implements Order<Type>, Lambda2<Type, Type, Boolean> {
-    RecursionStack2<Type, Type> _stack = new RecursionStack2<Type, Type>(Pair.<Type, Type>factory());
+    /** Created on first use, since most queries never recur through a variable's or wildcard's bounds. */
+    private RecursionStack2<Type, Type> _stack = null;
+    
+    private RecursionStack2<Type, Type> stack() {
+      if (_stack == null) { _stack = new RecursionStack2<Type, Type>(Pair.<Type, Type>factory()); }
+      return _stack;
+    }
     
     public Boolean value(Type subT, Type superT) { return contains(subT, superT); }
     
@@ -152,7 +155,7 @@ public class ExtendedTypeSystem extends StandardTypeSystem {
               Thunk<Boolean> checkInfinite = new Thunk<Boolean>() {
                 public Boolean value() { return NormSubtyper.this.contains(subT, NULL); }
               };
-              return _stack.apply(checkLowerBound, checkInfinite, subT, superT);
+              return stack().apply(checkLowerBound, checkInfinite, subT, superT);
             }
             @Override public Boolean forVariableType(VariableType subT) {
               return defaultCase(subT) ? true : null;
@@ -282,7 +285,7 @@ public class ExtendedTypeSystem extends StandardTypeSystem {
                 return NormSubtyper.this.contains(newSubNorm, superT);
               }
             };
-            return _stack.apply(recurOnParent, false, newSub, superT);
+            return stack().apply(recurOnParent, false, newSub, superT);
           }
         }
         
@@ -359,7 +362,7 @@ public class ExtendedTypeSystem extends StandardTypeSystem {
           Thunk<Boolean> checkInfinite = new Thunk<Boolean>() {
             public Boolean value() { return NormSubtyper.this.contains(OBJECT, superT); }
           };
-          return _stack.apply(checkUpperBound, checkInfinite, subT, superT);
+          return stack().apply(checkUpperBound, checkInfinite, subT, superT);
         }
         
         @Override public Boolean forIntersectionType(IntersectionType subT) {
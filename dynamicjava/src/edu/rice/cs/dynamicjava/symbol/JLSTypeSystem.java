@@ -173,13 +173,19 @@ public class JLSTypeSystem extends StandardTypeSystem {
   }
   
 
-  /** Determine if the given types may be treated as equal.  This is recursive, transitive, and symmetric. */
-  public boolean isEqual(Type t1, Type t2) {
+  /** Compute {@link #isEqual}, without memoization. */
+  protected boolean checkEqual(Type t1, Type t2) {
     return new IsEqualTester().contains(t1, t2);
   }
   
   private class IsEqualTester implements Order<Type>, Lambda2<Type, Type, Boolean> {
-    RecursionStack2<Type, Type> _stack = new RecursionStack2<Type, Type>(Pair.<Type, Type>factory());
+    /** Created on first use, since most queries never recur through a variable's or wildcard's bounds. */
+    private RecursionStack2<Type, Type> _stack = null;
+    
+    private RecursionStack2<Type, Type> stack() {
+      if (_stack == null) { _stack = new RecursionStack2<Type, Type>(Pair.<Type, Type>factory()); }
+      return _stack;
+    }
     
     public Boolean value(Type subT, Type superT) { return contains(subT, superT); }
     
@@ -226,7 +232,7 @@ public class JLSTypeSystem extends StandardTypeSystem {
                        IsEqualTester.this.contains(s1.lowerBound(), s2.lowerBound());
               }
             };
-            return _stack.apply(recur, true, t1, t2);
+            return stack().apply(recur, true, t1, t2);
           }
           else { return false; }
         }
@@ -235,18 +241,21 @@ public class JLSTypeSystem extends StandardTypeSystem {
     }
   }
   
-  /**
-   * Determine if {@code subT} is a subtype of {@code superT}.  This is a recursive
-   * (in terms of {@link #isEqual}), transitive relation.
-   */
-  public boolean isSubtype(Type subT, Type superT) { return new Subtyper().contains(subT, superT); }
+  /** Compute {@link #isSubtype}, without memoization. */
+  protected boolean checkSubtype(Type subT, Type superT) { return new Subtyper().contains(subT, superT); }
   
   /**
    * Tests subtyping.  Due to its use of internal state, unrelated (and possibly parallel)
    * invocations should use distinct instances.
    */
   private class Subtyper implements Order<Type>, Lambda2<Type, Type, Boolean> {
-    RecursionStack2<Type, Type> _stack = new RecursionStack2<Type, Type>(Pair.<Type, Type>factory());
+    /** Created on first use, since most queries never recur through a variable's or wildcard's bounds. */
+    private RecursionStack2<Type, Type> _stack = null;
+    
+    private RecursionStack2<Type, Type> stack() {
+      if (_stack == null) { _stack = new RecursionStack2<Type, Type>(Pair.<Type, Type>factory()); }
+      return _stack;
+    }
     
     public Boolean value(Type subT, Type superT) { return contains(subT, superT); }
     
@@ -274,7 +283,7 @@ public class JLSTypeSystem extends StandardTypeSystem {
               Thunk<Boolean> checkInfinite = new Thunk<Boolean>() {
                 public Boolean value() { return Subtyper.this.contains(subT, NULL); }
               };
-              return _stack.apply(checkLowerBound, checkInfinite, subT, superT);
+              return stack().apply(checkLowerBound, checkInfinite, subT, superT);
             }
             @Override public Boolean forVariableType(VariableType subT) {
               return defaultCase(subT) ? true : null;
@@ -439,7 +448,7 @@ public class JLSTypeSystem extends StandardTypeSystem {
                       // if we've seen this sub arg/super arg combo before, we can prove subtyping inductively
                       // (assuming superArg appears in a valid context -- checked by isWellFormed)
                       // Put the pre-capture sub arg on the stack, because post-capture it may be a fresh var
-                      return _stack.apply(inBounds, true, args.first(), superArg);
+                      return stack().apply(inBounds, true, args.first(), superArg);
                     }
                   });
                   if (!result) { break; }
@@ -468,7 +477,7 @@ public class JLSTypeSystem extends StandardTypeSystem {
           Thunk<Boolean> checkInfinite = new Thunk<Boolean>() {
             public Boolean value() { return Subtyper.this.contains(OBJECT, superT); }
           };
-          return _stack.apply(checkUpperBound, checkInfinite, subT, superT);
+          return stack().apply(checkUpperBound, checkInfinite, subT, superT);
         }
         
         public Boolean forIntersectionType(IntersectionType subT) {
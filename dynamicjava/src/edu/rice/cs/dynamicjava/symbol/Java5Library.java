@@ -1,5 +1,7 @@
 package edu.rice.cs.dynamicjava.symbol;
 
+import java.util.concurrent.ConcurrentHashMap;
+
 import edu.rice.cs.plt.iter.IterUtil;
 
 import static edu.rice.cs.plt.debug.DebugUtil.debug;
@@ -7,15 +9,26 @@ import static edu.rice.cs.plt.debug.DebugUtil.debug;
 public class Java5Library implements Library {
   
   private final ClassLoader _loader;
+  private final ClassLoaderIndex _index;
+  /** Wrappers are reused, so that their lazily-computed members are shared by all lookups. */
+  private final ConcurrentHashMap<Class<?>, DJClass> _classes;
   
   public Java5Library(ClassLoader loader) {
     _loader = loader;
+    _index = ClassLoaderIndex.forLoader(loader);
+    _classes = new ConcurrentHashMap<Class<?>, DJClass>();
   }
 
   public Iterable<DJClass> declaredClasses(String fullName) {
-    try { Class<?> c = _loader.loadClass(fullName); return IterUtil.<DJClass>singleton(new Java5Class(c)); }
-    catch (ClassNotFoundException e) { return IterUtil.empty(); }
-    catch (LinkageError e) { return IterUtil.empty(); }
+    Class<?> c = _index.loadClass(fullName);
+    if (c == null) { return IterUtil.empty(); }
+    DJClass result = _classes.get(c);
+    if (result == null) {
+      result = new Java5Class(c);
+      DJClass prev = _classes.putIfAbsent(c, result);
+      if (prev != null) { result = prev; }
+    }
+    return IterUtil.singleton(result);
   }
 
   public ClassLoader classLoader() { return _loader; }
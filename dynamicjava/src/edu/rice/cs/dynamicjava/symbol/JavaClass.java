@@ -1,8 +1,12 @@
 package edu.rice.cs.dynamicjava.symbol;
 
 import java.util.List;
+import java.util.Arrays;
 import java.util.ArrayList;
 import java.lang.reflect.*;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 
 import edu.rice.cs.dynamicjava.Options;
 import edu.rice.cs.dynamicjava.symbol.type.*;
@@ -24,13 +28,31 @@ import static edu.rice.cs.plt.debug.DebugUtil.debug;
 /**
  * DJClass implementation that wraps a Java reflection Class object.  The {@link Java5Class} version
  * should be used instead if the class object supports Java 5 methods like
- * {@link Class#getTypeParameters}.
+ * {@link Class#getTypeParameters}.  The member wrappers of a JavaClass are created once, and each
+ * wrapper invokes its member through a MethodHandle created (and made accessible) on first use,
+ * falling back to reflection if no handle can be created.
  */
 public class JavaClass implements DJClass {
   
   protected Class<?> _c;
   
-  public JavaClass(Class<?> c) { _c = c; }
+  private final Thunk<Iterable<DJField>> _fields;
+  private final Thunk<Iterable<DJConstructor>> _constructors;
+  private final Thunk<Iterable<DJMethod>> _methods;
+  
+  public JavaClass(Class<?> c) {
+    _c = c;
+    // the conversions are overridden by subclasses, so they must not be invoked until construction is complete
+    _fields = LazyThunk.make(new Thunk<Iterable<DJField>>() {
+      public Iterable<DJField> value() { return makeDeclaredFields(); }
+    });
+    _constructors = LazyThunk.make(new Thunk<Iterable<DJConstructor>>() {
+      public Iterable<DJConstructor> value() { return makeDeclaredConstructors(); }
+    });
+    _methods = LazyThunk.make(new Thunk<Iterable<DJMethod>>() {
+      public Iterable<DJMethod> value() { return makeDeclaredMethods(); }
+    });
+  }
   
   public String packageName() {
     String name = _c.getName();
@@ -83,15 +105,24 @@ public class JavaClass implements DJClass {
     return superC == null ? superIs : IterUtil.compose(superC, superIs);
   }
   
-  public Iterable<DJField> declaredFields() {
+  public Iterable<DJField> declaredFields() { return _fields.value(); }
+  
+  public Iterable<DJConstructor> declaredConstructors() { return _constructors.value(); }
+  
+  public Iterable<DJMethod> declaredMethods() { return _methods.value(); }
+  
+  /** Create the wrappers returned by {@link #declaredFields}; invoked at most once. */
+  protected Iterable<DJField> makeDeclaredFields() {
     return IterUtil.mapSnapshot(IterUtil.asIterable(_c.getDeclaredFields()), CONVERT_FIELD);
   }
   
-  public Iterable<DJConstructor> declaredConstructors() {
+  /** Create the wrappers returned by {@link #declaredConstructors}; invoked at most once. */
+  protected Iterable<DJConstructor> makeDeclaredConstructors() {
     return IterUtil.mapSnapshot(IterUtil.asIterable(_c.getDeclaredConstructors()), CONVERT_CONSTRUCTOR);
   }
   
-  public Iterable<DJMethod> declaredMethods() {
+  /** Create the wrappers returned by {@link #declaredMethods}; invoked at most once. */
+  protected Iterable<DJMethod> makeDeclaredMethods() {
     return IterUtil.mapSnapshot(IterUtil.asIterable(_c.getDeclaredMethods()), CONVERT_METHOD);
   }
   
@@ -159,7 +190,18 @@ public class JavaClass implements DJClass {
 
   protected class JavaField implements DJField {
     protected final Field _f;
-    public JavaField(Field f) { _f = f; }
+    /** Getter and setter handles of type (Object)Object and (Object, Object)void; null if unavailable */
+    private final Thunk<MethodHandle> _getter;
+    private final Thunk<MethodHandle> _setter;
+    public JavaField(Field f) {
+      _f = f;
+      _getter = LazyThunk.make(new Thunk<MethodHandle>() {
+        public MethodHandle value() { return fieldHandle(_f, false); }
+      });
+      _setter = LazyThunk.make(new Thunk<MethodHandle>() {
+        public MethodHandle value() { return fieldHandle(_f, true); }
+      });
+    }
     public String declaredName() { return _f.getName(); }
     public DJClass declaringClass() { return JavaClass.this; }
     public Type type() { return classAsType(_f.getType()); }
@@ -187,8 +229,15 @@ public class JavaClass implements DJClass {
           if (!isStatic() && receiver == null) {
             throw new WrappedException(new EvaluatorException(new NullPointerException()));
           }
-          try { _f.setAccessible(true); }
-          catch (SecurityException e) { debug.log(e); /* ignore -- we can't relax accessibility */ }
+          MethodHandle getter = _getter.value();
+          if (getter != null) {
+            try { return (Object) getter.invokeExact(receiver); }
+            catch (Throwable t) {
+              // may be ExceptionInInitializerError, NoClassDefFoundError, etc.
+              t = handleFailure(t, _f, receiver, NO_TYPES, NO_ARGS);
+              throw new WrappedException(new EvaluatorException(t, FIELD_GET_EXTRA_STACK));
+            }
+          }
           try { return _f.get(receiver); }
           catch (IllegalAccessException e) {
             // should have been caught by static analysis
@@ -208,8 +257,15 @@ public class JavaClass implements DJClass {
           if (!isStatic() && receiver == null) {
             throw new WrappedException(new EvaluatorException(new NullPointerException()));
           }
-          try { _f.setAccessible(true); }
-          catch (SecurityException e) { debug.log(e); /* ignore -- we can't relax accessibility */ }
+          MethodHandle setter = _setter.value();
+          if (setter != null) {
+            try { setter.invokeExact(receiver, o); return; }
+            catch (Throwable t) {
+              // may be ExceptionInInitializerError, NoClassDefFoundError, etc.
+              t = handleFailure(t, _f, receiver, new Class<?>[]{ _f.getType() }, new Object[]{ o });
+              throw new WrappedException(new EvaluatorException(t, FIELD_SET_EXTRA_STACK));
+            }
+          }
           try { _f.set(receiver, o); }
           catch (IllegalAccessException e) {
             // should have been caught by static analysis
@@ -253,9 +309,14 @@ public class JavaClass implements DJClass {
     protected final Constructor<?> _k;
     protected final Type _outerType;
     private final Thunk<Iterable<LocalVariable>> _params;
+    /** A handle of type (Object, Object[])Object ignoring its first argument; null if unavailable */
+    private final Thunk<MethodHandle> _handle;
     
     public JavaConstructor(Constructor<?> k) {
       _k = k;
+      _handle = LazyThunk.make(new Thunk<MethodHandle>() {
+        public MethodHandle value() { return constructorHandle(_k); }
+      });
       DJClass outer = SymbolUtil.dynamicOuterClass(JavaClass.this);
       _outerType = (outer == null) ? null : SymbolUtil.thisType(outer);
       _params = makeParamThunk(); /* allows overriding */
@@ -290,10 +351,16 @@ public class JavaClass implements DJClass {
         args = IterUtil.compose(outer, args);
       }
       
-      try { _k.setAccessible(true); }
-      catch (SecurityException e) { debug.log(e); /* ignore -- we can't relax accessibility */ }
-      
       Object[] argsArray = IterUtil.toArray(args, Object.class);
+      MethodHandle h = _handle.value();
+      if (h != null) {
+        try { return (Object) h.invokeExact((Object) null, argsArray); }
+        catch (Throwable t) {
+          // exceptions thrown by the constructor (and by class initialization) are not wrapped
+          t = handleFailure(t, _k, null, _k.getParameterTypes(), argsArray);
+          throw new EvaluatorException(t, CONSTRUCTOR_EXTRA_STACK);
+        }
+      }
       try {
         return _k.newInstance(argsArray);
       }
@@ -331,7 +398,15 @@ public class JavaClass implements DJClass {
   protected class JavaMethod implements DJMethod {
     protected final Method _m;
     private final Thunk<Iterable<LocalVariable>> _params;
-    public JavaMethod(Method m) { _m = m; _params = makeParamThunk(); /* allows overriding */ }
+    /** A handle of type (Object, Object[])Object; null if unavailable */
+    private final Thunk<MethodHandle> _handle;
+    public JavaMethod(Method m) {
+      _m = m;
+      _params = makeParamThunk(); /* allows overriding */
+      _handle = LazyThunk.make(new Thunk<MethodHandle>() {
+        public MethodHandle value() { return methodHandle(_m); }
+      });
+    }
     protected Thunk<Iterable<LocalVariable>> makeParamThunk() { return paramFactory(_m.getParameterTypes()); }
     public String declaredName() { return _m.getName(); }
     public DJClass declaringClass() { return JavaClass.this; }
@@ -354,10 +429,16 @@ public class JavaClass implements DJClass {
         throw new WrappedException(new EvaluatorException(new NullPointerException()));
       }
       
-      try { _m.setAccessible(true); }
-      catch (SecurityException e) { debug.log(e); /* ignore -- we can't relax accessibility */ }
-      
       Object[] argsArray = IterUtil.toArray(args, Object.class);
+      MethodHandle h = _handle.value();
+      if (h != null) {
+        try { return (Object) h.invokeExact(receiver, argsArray); }
+        catch (Throwable t) {
+          // exceptions thrown by the method (and by class initialization) are not wrapped
+          t = handleFailure(t, _m, receiver, _m.getParameterTypes(), argsArray);
+          throw new EvaluatorException(t, METHOD_EXTRA_STACK);
+        }
+      }
       try {
         return _m.invoke(receiver, argsArray);
       }
@@ -387,6 +468,113 @@ public class JavaClass implements DJClass {
                    "sun.reflect.NativeMethodAccessorImpl.invoke",
                    "sun.reflect.NativeMethodAccessorImpl.invoke0" };
   
+  /**
+   * Relax the accessibility of the given member, so that handles to it can be created and
+   * invoked without access checks.
+   */
+  private static void makeAccessible(AccessibleObject o) {
+    try { o.setAccessible(true); }
+    catch (SecurityException e) { debug.log(e); /* ignore -- we can't relax accessibility */ }
+  }
+  
+  /**
+   * Adapt a direct handle for a member to the type (Object, Object[])Object.  The first argument is
+   * the receiver, or is ignored if {@code hasReceiver} is false.
+   */
+  private static MethodHandle spreadHandle(MethodHandle h, int arity, boolean hasReceiver) {
+    h = h.asFixedArity();
+    if (!hasReceiver) { h = MethodHandles.dropArguments(h, 0, Object.class); }
+    return h.asType(MethodType.genericMethodType(arity+1)).asSpreader(Object[].class, arity);
+  }
+  
+  /** Create a handle of type (Object, Object[])Object for m, or return null if that is not possible. */
+  private static MethodHandle methodHandle(Method m) {
+    makeAccessible(m);
+    try {
+      MethodHandle h = MethodHandles.lookup().unreflect(m);
+      return spreadHandle(h, m.getParameterTypes().length, !Modifier.isStatic(m.getModifiers()));
+    }
+    catch (IllegalAccessException e) { debug.log(e); return null; }
+    catch (RuntimeException e) { debug.log(e); return null; }
+  }
+  
+  /**
+   * Create a handle of type (Object, Object[])Object, ignoring its first argument, for k, or return null
+   * if that is not possible.
+   */
+  private static MethodHandle constructorHandle(Constructor<?> k) {
+    makeAccessible(k);
+    try {
+      MethodHandle h = MethodHandles.lookup().unreflectConstructor(k);
+      return spreadHandle(h, k.getParameterTypes().length, false);
+    }
+    catch (IllegalAccessException e) { debug.log(e); return null; }
+    catch (RuntimeException e) { debug.log(e); return null; }
+  }
+  
+  /**
+   * Create a getter handle of type (Object)Object or a setter handle of type (Object, Object)void for f,
+   * or return null if that is not possible (as is the case for the setter of a final field).  The first
+   * argument is the receiver, which is ignored for static fields.
+   */
+  private static MethodHandle fieldHandle(Field f, boolean setter) {
+    makeAccessible(f);
+    try {
+      MethodHandle h = setter ? MethodHandles.lookup().unreflectSetter(f) : MethodHandles.lookup().unreflectGetter(f);
+      if (Modifier.isStatic(f.getModifiers())) { h = MethodHandles.dropArguments(h, 0, Object.class); }
+      return setter ? h.asType(MethodType.methodType(void.class, Object.class, Object.class)) :
+                      h.asType(MethodType.genericMethodType(1));
+    }
+    catch (IllegalAccessException e) { debug.log(e); return null; }
+    catch (RuntimeException e) { debug.log(e); return null; }
+  }
+  
+  private static final Class<?>[] NO_TYPES = new Class<?>[0];
+  private static final Object[] NO_ARGS = new Object[0];
+  
+  /**
+   * Translate a failure of a member's handle.  A handle reports a receiver or an argument of the wrong type as a
+   * ClassCastException, and a null argument for a primitive parameter as a NullPointerException, where reflection
+   * throws an IllegalArgumentException.  The arguments are only checked once the handle has failed, so a
+   * ClassCastException or NullPointerException thrown by the member itself is returned unchanged.
+   * @param t  The exception thrown by the handle
+   * @param m  The member that was invoked
+   * @param receiver  The receiver; ignored for static members and constructors
+   * @param paramTypes  The types of the member's parameters (the type of a field, for a setter)
+   * @param args  The arguments passed to the member
+   */
+  private static Throwable handleFailure(Throwable t, Member m, Object receiver, Class<?>[] paramTypes,
+                                         Object[] args) {
+    if (!(t instanceof ClassCastException || t instanceof NullPointerException)) { return t; }
+    if (!(m instanceof Constructor) && !Modifier.isStatic(m.getModifiers()) &&
+        !m.getDeclaringClass().isInstance(receiver)) {
+      return new IllegalArgumentException("object is not an instance of declaring class");
+    }
+    for (int i = 0; i < paramTypes.length; i++) {
+      if (!isAssignable(paramTypes[i], args[i])) {
+        return new IllegalArgumentException("argument type mismatch");
+      }
+    }
+    return t;
+  }
+  
+  /** The numeric primitive types, each of which widens to the types that follow it. */
+  private static final List<Class<?>> NUMERIC_TYPES =
+    Arrays.<Class<?>>asList(byte.class, short.class, int.class, long.class, float.class, double.class);
+  
+  /** Whether reflection would accept {@code arg} as an argument of type {@code c}. */
+  private static boolean isAssignable(Class<?> c, Object arg) {
+    if (!c.isPrimitive()) { return arg == null || c.isInstance(arg); }
+    if (arg == null) { return false; }
+    if (ReflectUtil.box(c).isInstance(arg)) { return true; }
+    int to = NUMERIC_TYPES.indexOf(c);
+    if (arg instanceof Character) { return to >= NUMERIC_TYPES.indexOf(int.class); }
+    for (int i = 0; i < to; i++) {
+      if (ReflectUtil.box(NUMERIC_TYPES.get(i)).isInstance(arg)) { return true; }
+    }
+    return false;
+  }
+  
   private static Thunk<Iterable<LocalVariable>> paramFactory(final Class<?>[] cs) {
     // Caches LocalVariables so we don't create duplicates
     return LazyThunk.make(new Thunk<Iterable<LocalVariable>>() {
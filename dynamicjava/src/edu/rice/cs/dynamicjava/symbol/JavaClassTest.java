@@ -0,0 +1,113 @@
+package edu.rice.cs.dynamicjava.symbol;
+
+import junit.framework.TestCase;
+
+import edu.rice.cs.plt.iter.IterUtil;
+import edu.rice.cs.plt.lambda.Box;
+import edu.rice.cs.plt.lambda.WrappedException;
+
+import edu.rice.cs.dynamicjava.Options;
+import edu.rice.cs.dynamicjava.interpreter.EvaluatorException;
+import edu.rice.cs.dynamicjava.interpreter.RuntimeBindings;
+
+/** Tests member access through the handles created by JavaClass. */
+public class JavaClassTest extends TestCase {
+
+  public static class Sample {
+    public static int count = 0;
+    public int value;
+    private String name = "sample";
+    public Sample(int v) { value = v; }
+    public static int twice(int i) { return 2*i; }
+    public long plus(long l) { return value + l; }
+    public String describe(Object o) { return name + ":" + o; }
+    public int fail(String s) { return s.length(); }
+    public void cast(Object o) { ((Sample) o).value++; }
+  }
+
+  private final JavaClass _c = new JavaClass(Sample.class);
+
+  private DJField field(String name) {
+    for (DJField f : _c.declaredFields()) { if (f.declaredName().equals(name)) { return f; } }
+    throw new IllegalArgumentException(name);
+  }
+
+  private DJMethod method(String name) {
+    for (DJMethod m : _c.declaredMethods()) { if (m.declaredName().equals(name)) { return m; } }
+    throw new IllegalArgumentException(name);
+  }
+
+  private Object call(String name, Object receiver, Object... args) throws EvaluatorException {
+    return method(name).evaluate(receiver, IterUtil.asIterable(args), RuntimeBindings.EMPTY, Options.DEFAULT);
+  }
+
+  private static void assertCause(Class<? extends Throwable> expected, Throwable t) {
+    if (t instanceof WrappedException) { t = t.getCause(); }
+    assertTrue("evaluator exception: " + t, t instanceof EvaluatorException);
+    assertEquals(expected, t.getCause().getClass());
+  }
+
+  public void testFieldGetAndSet() {
+    Sample s = new Sample(3);
+    Box<Object> value = field("value").boxForReceiver(s);
+    assertEquals(3, value.value());
+    value.set(4);
+    assertEquals(4, s.value);
+
+    Box<Object> name = field("name").boxForReceiver(s);
+    assertEquals("sample", name.value());
+    name.set("other");
+    assertEquals("other", name.value());
+
+    Box<Object> count = field("count").boxForReceiver(null);
+    count.set(7);
+    assertEquals(7, Sample.count);
+    assertEquals(7, count.value());
+  }
+
+  public void testFieldErrors() {
+    try { field("value").boxForReceiver("not a sample").value(); fail("expected exception"); }
+    catch (WrappedException e) { assertCause(IllegalArgumentException.class, e); }
+    try { field("value").boxForReceiver(new Sample(1)).set(null); fail("expected exception"); }
+    catch (WrappedException e) { assertCause(IllegalArgumentException.class, e); }
+    try { field("value").boxForReceiver(new Sample(1)).set("x"); fail("expected exception"); }
+    catch (WrappedException e) { assertCause(IllegalArgumentException.class, e); }
+    try { field("value").boxForReceiver(null).value(); fail("expected exception"); }
+    catch (WrappedException e) { assertCause(NullPointerException.class, e); }
+  }
+
+  public void testMethodCalls() throws EvaluatorException {
+    assertEquals(10, call("twice", null, 5));
+    Sample s = new Sample(3);
+    assertEquals(5L, call("plus", s, 2L));
+    assertEquals(5L, call("plus", s, 2));
+    assertEquals("sample:x", call("describe", s, "x"));
+    assertEquals("sample:null", call("describe", s, (Object) null));
+
+    DJConstructor k = _c.declaredConstructors().iterator().next();
+    Object made = k.evaluate(null, IterUtil.<Object>singleton(9), RuntimeBindings.EMPTY, Options.DEFAULT);
+    assertEquals(9, ((Sample) made).value);
+  }
+
+  public void testMethodErrors() {
+    Sample s = new Sample(3);
+    try { call("plus", "not a sample", 2L); fail("expected exception"); }
+    catch (EvaluatorException e) { assertCause(IllegalArgumentException.class, e); }
+    try { call("twice", null, (Object) null); fail("expected exception"); }
+    catch (EvaluatorException e) { assertCause(IllegalArgumentException.class, e); }
+    try { call("twice", null, 2L); fail("expected exception"); }
+    catch (EvaluatorException e) { assertCause(IllegalArgumentException.class, e); }
+    try { call("plus", s, "x"); fail("expected exception"); }
+    catch (EvaluatorException e) { assertCause(IllegalArgumentException.class, e); }
+    try { call("plus", null, 2L); fail("expected exception"); }
+    catch (WrappedException e) { assertCause(NullPointerException.class, e); }
+    catch (EvaluatorException e) { fail("null receiver should be wrapped"); }
+
+    // exceptions thrown by the method itself are passed through
+    try { call("fail", s, (Object) null); fail("expected exception"); }
+    catch (EvaluatorException e) { assertCause(NullPointerException.class, e); }
+    try { call("cast", s, "x"); fail("expected exception"); }
+    catch (EvaluatorException e) { assertCause(ClassCastException.class, e); }
+  }
+
+}
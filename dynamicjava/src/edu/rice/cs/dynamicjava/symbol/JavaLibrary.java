@@ -1,19 +1,32 @@
 package edu.rice.cs.dynamicjava.symbol;
 
+import java.util.concurrent.ConcurrentHashMap;
+
 import edu.rice.cs.plt.iter.IterUtil;
 
 public class JavaLibrary implements Library {
   
   private final ClassLoader _loader;
+  private final ClassLoaderIndex _index;
+  /** Wrappers are reused, so that their lazily-computed members are shared by all lookups. */
+  private final ConcurrentHashMap<Class<?>, DJClass> _classes;
   
   public JavaLibrary(ClassLoader loader) {
     _loader = loader;
+    _index = ClassLoaderIndex.forLoader(loader);
+    _classes = new ConcurrentHashMap<Class<?>, DJClass>();
   }
 
   public Iterable<DJClass> declaredClasses(String fullName) {
-    try { Class<?> c = _loader.loadClass(fullName); return IterUtil.<DJClass>singleton(new JavaClass(c)); }
-    catch (ClassNotFoundException e) { return IterUtil.empty(); }
-    catch (LinkageError e) { return IterUtil.empty(); }
+    Class<?> c = _index.loadClass(fullName);
+    if (c == null) { return IterUtil.empty(); }
+    DJClass result = _classes.get(c);
+    if (result == null) {
+      result = new JavaClass(c);
+      DJClass prev = _classes.putIfAbsent(c, result);
+      if (prev != null) { result = prev; }
+    }
+    return IterUtil.singleton(result);
   }
 
   public ClassLoader classLoader() { return _loader; }
@@ -31,6 +31,9 @@ import static edu.rice.cs.plt.debug.DebugUtil.debug;
  */
 public abstract class StandardTypeSystem extends TypeSystem {
   
+  /** The maximum number of entries in each of the type system's memo tables. */
+  private static final int TYPE_CACHE_CAPACITY = 8192;
+  
   private final Options _opt;
   
   /**
@@ -52,25 +55,51 @@ public abstract class StandardTypeSystem extends TypeSystem {
    */
   private final boolean _strictClassEquality;
   
+  /** Memoized results of {@link #isSubtype}, {@link #isEqual}, and {@link #erase}. */
+  private final TypeCache _cache;
+  
   protected StandardTypeSystem(Options opt, boolean boxingInMostSpecific, boolean useExplicitTypeArgs,
                                 boolean strictClassEquality) {
     _opt  = opt;
     _boxingInMostSpecific = boxingInMostSpecific;
     _useExplicitTypeArgs = useExplicitTypeArgs;
     _strictClassEquality = strictClassEquality;
+    _cache = new TypeCache(TYPE_CACHE_CAPACITY);
   }
   
   /** Determine if the type is well-formed. */
   public abstract boolean isWellFormed(Type t);
 
-  /** Determine if the given types may be treated as equal.  This is recursive, transitive, and symmetric. */
-  public abstract boolean isEqual(Type t1, Type t2);
+  /**
+   * Determine if the given types may be treated as equal.  This is recursive, transitive, and symmetric.
+   * Results are memoized; subclasses define the relation with {@link #checkEqual}.
+   */
+  public boolean isEqual(Type t1, Type t2) {
+    return t1.equals(t2) || _cache.isEqual(t1, t2, _checkEqual);
+  }
 
   /**
    * Determine if {@code subT} is a subtype of {@code superT}.  This is a recursive
-   * (in terms of {@link #isEqual}), transitive relation.
+   * (in terms of {@link #isEqual}), transitive relation.  Results are memoized; subclasses
+   * define the relation with {@link #checkSubtype}.
    */
-  public abstract boolean isSubtype(Type subT, Type superT);
+  public boolean isSubtype(Type subT, Type superT) {
+    return subT.equals(superT) || _cache.isSubtype(subT, superT, _checkSubtype);
+  }
+
+  /** Compute {@link #isEqual} for types that are not syntactically equal. */
+  protected abstract boolean checkEqual(Type t1, Type t2);
+
+  /** Compute {@link #isSubtype} for types that are not syntactically equal. */
+  protected abstract boolean checkSubtype(Type subT, Type superT);
+
+  private final Lambda2<Type, Type, Boolean> _checkEqual = new Lambda2<Type, Type, Boolean>() {
+    public Boolean value(Type t1, Type t2) { return checkEqual(t1, t2); }
+  };
+
+  private final Lambda2<Type, Type, Boolean> _checkSubtype = new Lambda2<Type, Type, Boolean>() {
+    public Boolean value(Type subT, Type superT) { return checkSubtype(subT, superT); }
+  };
   
   /** Compute a common supertype of the given list of types. */
   public abstract Type join(Iterable<? extends Type> ts);
@@ -439,7 +468,7 @@ public abstract class StandardTypeSystem extends TypeSystem {
    * Compute the erased type of {@code t}.  The result is guaranteed to be reifiable (according
    * to {@link #isReifiable}) and a supertype of {@code t}.
    */
-  public Type erase(Type t) { return t.apply(ERASE); }
+  public Type erase(Type t) { return _cache.erase(t, ERASE); }
   
   private static final TypeVisitorLambda<Type> ERASE = new TypeAbstractVisitor<Type>() {
     public Type defaultCase(Type t) { return t; }
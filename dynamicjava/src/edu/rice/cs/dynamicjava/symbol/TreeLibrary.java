@@ -1,5 +1,8 @@
 package edu.rice.cs.dynamicjava.symbol;
 
+import java.util.HashMap;
+import java.util.Map;
+
 import koala.dynamicjava.interpreter.NodeProperties;
 import koala.dynamicjava.tree.CompilationUnit;
 import koala.dynamicjava.tree.Node;
@@ -10,13 +13,12 @@ import edu.rice.cs.dynamicjava.Options;
 import edu.rice.cs.dynamicjava.interpreter.TreeClassLoader;
 import edu.rice.cs.plt.collect.IndexedInjectiveRelation;
 import edu.rice.cs.plt.collect.InjectiveRelation;
-import edu.rice.cs.plt.collect.TotalMap;
 import edu.rice.cs.plt.iter.IterUtil;
-import edu.rice.cs.plt.lambda.Lambda;
 
 public class TreeLibrary implements Library {
   
-  private final TotalMap<String, InjectiveRelation<String, DJClass>> _packages;
+  /** Populated by the constructor and never modified afterwards, so lookups are safe from any thread. */
+  private final Map<String, InjectiveRelation<String, DJClass>> _packages;
   private final TreeClassLoader _loader;
 
   /**
@@ -27,17 +29,16 @@ public class TreeLibrary implements Library {
    * operations of DJClass will fail.
    */
   public TreeLibrary(Iterable<CompilationUnit> cus, ClassLoader parentLoader, Options opt) {
-    _packages = new TotalMap<String, InjectiveRelation<String, DJClass>>(
-        new Lambda<String, InjectiveRelation<String, DJClass>>() {
-          public InjectiveRelation<String, DJClass> value(String pkg) {
-            return new IndexedInjectiveRelation<String, DJClass>();
-          }
-        }, true);
+    _packages = new HashMap<String, InjectiveRelation<String, DJClass>>();
     _loader = new TreeClassLoader(parentLoader, opt); 
     for (CompilationUnit cu : cus) {
       PackageDeclaration pd = cu.getPackage();
       String pkg = (pd == null) ? "" : pd.getName();
       InjectiveRelation<String, DJClass> classes = _packages.get(pkg);
+      if (classes == null) {
+        classes = new IndexedInjectiveRelation<String, DJClass>();
+        _packages.put(pkg, classes);
+      }
       for (Node ast : cu.getDeclarations()) {
         if (ast instanceof TypeDeclaration) {
           String declaredName = ((TypeDeclaration) ast).getName();
@@ -55,10 +56,9 @@ public class TreeLibrary implements Library {
     int dot = fullName.lastIndexOf('.');
     if (dot == -1) { packageName = ""; className = fullName; }
     else { packageName = fullName.substring(0, dot); className = fullName.substring(dot + 1); }
-    if (_packages.containsOverride(packageName)) {
-      return _packages.get(packageName).matchFirst(className);
-    }
-    else { return IterUtil.empty(); }
+    InjectiveRelation<String, DJClass> classes = _packages.get(packageName);
+    if (classes == null) { return IterUtil.empty(); }
+    else { return classes.matchFirst(className); }
   }
 
   public ClassLoader classLoader() { return _loader; }
@@ -0,0 +1,148 @@
+package edu.rice.cs.dynamicjava.symbol;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import edu.rice.cs.plt.lambda.Lambda;
+import edu.rice.cs.plt.lambda.Lambda2;
+import edu.rice.cs.plt.tuple.Pair;
+
+import edu.rice.cs.dynamicjava.symbol.type.*;
+
+/**
+ * Memoizes the results of subtyping, equality, and erasure queries for a type system.  Checking
+ * an interaction typically asks the same questions about the same library types many times (every
+ * method lookup, for example, tests each argument against each candidate's parameters), and each
+ * answer is re-derived from scratch by a fresh subtyping visitor with its own recursion stacks.
+ * <p>
+ * Only results that cannot change are cached.  A type is <em>stable</em> if every class it mentions
+ * is a {@link JavaClass} (whose supertypes come from reflection, while a {@link TreeClass}'s come from an
+ * AST that may still be in the middle of checking), and every variable or wildcard it mentions has
+ * initialized bounds (which can then no longer change), recursively.  Stable types are interned: the
+ * cache keeps a canonical instance of each, so that keys built from equal types share their (cached)
+ * hash codes and their structure, and the erasures returned by {@link #erase} are shared.
+ * <p>
+ * Each table holds at most {@code capacity} entries, and is simply cleared when it is full.  Queries may
+ * be made from multiple threads.
+ */
+class TypeCache {
+
+  private final int _capacity;
+  /** Canonical instances of stable types. */
+  private final ConcurrentHashMap<Type, Type> _interned;
+  private final ConcurrentHashMap<Pair<Type, Type>, Boolean> _subtypes;
+  private final ConcurrentHashMap<Pair<Type, Type>, Boolean> _equalities;
+  private final ConcurrentHashMap<Type, Type> _erasures;
+
+  public TypeCache(int capacity) {
+    _capacity = capacity;
+    _interned = new ConcurrentHashMap<Type, Type>();
+    _subtypes = new ConcurrentHashMap<Pair<Type, Type>, Boolean>();
+    _equalities = new ConcurrentHashMap<Pair<Type, Type>, Boolean>();
+    _erasures = new ConcurrentHashMap<Type, Type>();
+  }
+
+  /** Get the canonical instance of a type equal to {@code t}, or {@code null} if {@code t} is not stable. */
+  public Type intern(Type t) {
+    Type result = _interned.get(t);
+    if (result == null && new StabilityChecker().contains(t)) {
+      result = put(_interned, t, t);
+    }
+    return result;
+  }
+
+  /** Determine whether {@code subT} is a subtype of {@code superT}, using {@code check} if the answer is unknown. */
+  public boolean isSubtype(Type subT, Type superT, Lambda2<? super Type, ? super Type, Boolean> check) {
+    return lookup(_subtypes, subT, superT, check);
+  }
+
+  /** Determine whether {@code t1} and {@code t2} are equal, using {@code check} if the answer is unknown. */
+  public boolean isEqual(Type t1, Type t2, Lambda2<? super Type, ? super Type, Boolean> check) {
+    return lookup(_equalities, t1, t2, check);
+  }
+
+  /** Get the erasure of {@code t}, using {@code erase} if it is unknown. */
+  public Type erase(Type t, Lambda<? super Type, ? extends Type> erase) {
+    Type key = intern(t);
+    if (key == null) { return erase.value(t); }
+    Type result = _erasures.get(key);
+    if (result == null) {
+      result = erase.value(t);
+      Type canonical = intern(result);
+      if (canonical != null) { result = canonical; }
+      put(_erasures, key, result);
+    }
+    return result;
+  }
+
+  /** Discard all cached results. */
+  public void clear() {
+    _interned.clear();
+    _subtypes.clear();
+    _equalities.clear();
+    _erasures.clear();
+  }
+
+  private boolean lookup(ConcurrentHashMap<Pair<Type, Type>, Boolean> results, Type t1, Type t2,
+                         Lambda2<? super Type, ? super Type, Boolean> check) {
+    Type key1 = intern(t1);
+    Type key2 = (key1 == null) ? null : intern(t2);
+    if (key2 == null) { return check.value(t1, t2); }
+    Pair<Type, Type> key = Pair.make(key1, key2);
+    Boolean result = results.get(key);
+    if (result == null) {
+      // the check may recursively use the cache, so the result is not computed while holding any lock
+      result = check.value(t1, t2);
+      put(results, key, result);
+    }
+    return result;
+  }
+
+  /** Add an entry to the given table, returning the value now mapped by {@code key}. */
+  private <K, V> V put(ConcurrentHashMap<K, V> table, K key, V value) {
+    if (table.size() >= _capacity) { table.clear(); }
+    V previous = table.putIfAbsent(key, value);
+    return (previous == null) ? value : previous;
+  }
+
+  /** Tests whether a type is stable.  Each test should use a distinct instance. */
+  private class StabilityChecker extends TypeAbstractVisitor<Boolean> {
+    /** Symbols whose bounds are being checked; a recursive reference is assumed to be stable. */
+    private final Set<BoundedSymbol> _symbols = new HashSet<BoundedSymbol>();
+
+    public boolean contains(Type t) { return _interned.containsKey(t) || t.apply(this); }
+
+    @Override public Boolean defaultCase(Type t) { return true; }
+
+    @Override public Boolean forArrayType(ArrayType t) { return contains(t.ofType()); }
+
+    @Override public Boolean forClassType(ClassType t) { return t.ofClass() instanceof JavaClass; }
+
+    @Override public Boolean forParameterizedClassType(ParameterizedClassType t) {
+      if (!(t.ofClass() instanceof JavaClass)) { return false; }
+      for (Type arg : t.typeArguments()) {
+        if (!contains(arg)) { return false; }
+      }
+      return true;
+    }
+
+    @Override public Boolean forBoundType(BoundType t) {
+      for (Type elt : t.ofTypes()) {
+        if (!contains(elt)) { return false; }
+      }
+      return true;
+    }
+
+    @Override public Boolean forVariableType(VariableType t) { return checkSymbol(t.symbol()); }
+
+    @Override public Boolean forWildcard(Wildcard w) { return checkSymbol(w.symbol()); }
+
+    private boolean checkSymbol(BoundedSymbol s) {
+      if (!s.boundsInitialized()) { return false; }
+      else if (!_symbols.add(s)) { return true; }
+      else { return contains(s.upperBound()) && contains(s.lowerBound()); }
+    }
+  }
+
+}
@@ -0,0 +1,99 @@
+package edu.rice.cs.dynamicjava.symbol;
+
+import junit.framework.TestCase;
+
+import edu.rice.cs.plt.lambda.Lambda2;
+
+import edu.rice.cs.dynamicjava.symbol.type.*;
+
+/** Tests the memoization of subtyping and equality queries by TypeCache. */
+public class TypeCacheTest extends TestCase {
+
+  private static final Type INTEGER = new SimpleClassType(new JavaClass(Integer.class));
+  private static final Type NUMBER = new SimpleClassType(new JavaClass(Number.class));
+  private static final Type OBJECT = new SimpleClassType(new JavaClass(Object.class));
+
+  /** A check that counts its invocations and answers with a fixed result. */
+  private static class CountingCheck implements Lambda2<Type, Type, Boolean> {
+    int calls = 0;
+    private final boolean _result;
+    CountingCheck(boolean result) { _result = result; }
+    public Boolean value(Type t1, Type t2) { calls++; return _result; }
+  }
+
+  public void testHit() {
+    TypeCache cache = new TypeCache(100);
+    CountingCheck check = new CountingCheck(true);
+    assertTrue(cache.isSubtype(INTEGER, NUMBER, check));
+    assertEquals(1, check.calls);
+    assertTrue(cache.isSubtype(INTEGER, NUMBER, check));
+    // an equal key made of distinct instances
+    assertTrue(cache.isSubtype(new SimpleClassType(new JavaClass(Integer.class)),
+                               new SimpleClassType(new JavaClass(Number.class)), check));
+    assertEquals("answered from the cache", 1, check.calls);
+
+    CountingCheck falseCheck = new CountingCheck(false);
+    assertFalse(cache.isSubtype(NUMBER, INTEGER, falseCheck));
+    assertFalse(cache.isSubtype(NUMBER, INTEGER, falseCheck));
+    assertEquals("negative answers are cached", 1, falseCheck.calls);
+  }
+
+  public void testSubtypesAndEqualitiesAreSeparate() {
+    TypeCache cache = new TypeCache(100);
+    assertTrue(cache.isSubtype(INTEGER, NUMBER, new CountingCheck(true)));
+    CountingCheck check = new CountingCheck(false);
+    assertFalse(cache.isEqual(INTEGER, NUMBER, check));
+    assertEquals(1, check.calls);
+  }
+
+  public void testMiss() {
+    TypeCache cache = new TypeCache(100);
+    // a variable whose bounds are not yet known is not stable, so its queries are not cached
+    BoundedSymbol s = new BoundedSymbol(new Object(), "T");
+    Type var = new VariableType(s);
+    CountingCheck check = new CountingCheck(true);
+    assertTrue(cache.isSubtype(var, OBJECT, check));
+    assertTrue(cache.isSubtype(var, OBJECT, check));
+    assertTrue(cache.isSubtype(OBJECT, var, check));
+    assertEquals(3, check.calls);
+    assertNull(cache.intern(var));
+
+    // once the bounds are initialized, it can be cached
+    s.initializeUpperBound(OBJECT);
+    s.initializeLowerBound(TypeSystem.NULL);
+    assertTrue(cache.isSubtype(var, OBJECT, check));
+    assertTrue(cache.isSubtype(var, OBJECT, check));
+    assertEquals(4, check.calls);
+  }
+
+  public void testCapacity() {
+    TypeCache cache = new TypeCache(1);
+    CountingCheck check = new CountingCheck(true);
+    cache.isSubtype(INTEGER, NUMBER, check);
+    cache.isSubtype(NUMBER, OBJECT, check);
+    cache.isSubtype(INTEGER, NUMBER, check);
+    assertEquals("a full table is cleared", 3, check.calls);
+    cache.clear();
+    cache.isSubtype(INTEGER, NUMBER, check);
+    assertEquals(4, check.calls);
+  }
+
+  public void testRecursion() {
+    final TypeCache cache = new TypeCache(100);
+    final CountingCheck inner = new CountingCheck(true);
+    // a check that, like a subtyper, asks the cache about another pair of types
+    Lambda2<Type, Type, Boolean> outer = new Lambda2<Type, Type, Boolean>() {
+      public Boolean value(Type sub, Type sup) {
+        return cache.isSubtype(sub, NUMBER, inner) && cache.isSubtype(NUMBER, sup, inner);
+      }
+    };
+    assertTrue(cache.isSubtype(INTEGER, OBJECT, outer));
+    assertEquals(2, inner.calls);
+    // the nested results were cached as well as the outer one
+    assertTrue(cache.isSubtype(INTEGER, NUMBER, inner));
+    assertTrue(cache.isSubtype(NUMBER, OBJECT, inner));
+    assertTrue(cache.isSubtype(INTEGER, OBJECT, inner));
+    assertEquals(2, inner.calls);
+  }
+
+}
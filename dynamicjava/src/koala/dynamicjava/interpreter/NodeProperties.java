@@ -43,24 +43,26 @@ import edu.rice.cs.plt.lambda.Lambda2;
  * This class provides concrete methods to facilitate attaching and reading auxiliary properties
  * associated with AST nodes.  To encourage safety, the properties defined here should be manipulated
  * exclusively through this interface (a better design would <em>require</em> working through the
- * interface...)
+ * interface...)  Each property is accessed through its interned id (see {@link Node#propertyId}),
+ * so reading or writing it is an array access rather than a map lookup.
  */
 public class NodeProperties {
 
     /** The Type of an expression */
     public final static String TYPE = "type";
+    private final static int TYPE_ID = Node.propertyId(TYPE);
 
     public static Type getType(Node n) {
-        return (Type)n.getProperty(TYPE);
+        return (Type)n.getProperty(TYPE_ID);
     }
     
     public static Type setType(Node n, Type t) {
-      n.setProperty(TYPE, t);
+      n.setProperty(TYPE_ID, t);
       return t;
     }
     
     public static boolean hasType(Node n) {
-      return n.hasProperty(TYPE);
+      return n.hasProperty(TYPE_ID);
     }
     
     public static final Lambda<Node, Type> NODE_TYPE = new Lambda<Node, Type>() {
@@ -70,18 +72,19 @@ public class NodeProperties {
 
     /** The Type of an expression when treated as a variable (an lvalue) */
     public final static String VARIABLE_TYPE = "variableType";
+    private final static int VARIABLE_TYPE_ID = Node.propertyId(VARIABLE_TYPE);
 
     public static Type getVariableType(Node n) {
-        return (Type)n.getProperty(VARIABLE_TYPE);
+        return (Type)n.getProperty(VARIABLE_TYPE_ID);
     }
     
     public static Type setVariableType(Node n, Type t) {
-      n.setProperty(VARIABLE_TYPE, t);
+      n.setProperty(VARIABLE_TYPE_ID, t);
       return t;
     }
     
     public static boolean hasVariableType(Node n) {
-      return n.hasProperty(VARIABLE_TYPE);
+      return n.hasProperty(VARIABLE_TYPE_ID);
     }
     
 
@@ -90,90 +93,95 @@ public class NodeProperties {
      * and TypeDeclarations, because the type is expressed in the syntax).
      */
     public final static String SUPER_TYPE = "superType";
+    private final static int SUPER_TYPE_ID = Node.propertyId(SUPER_TYPE);
 
     public static Type getSuperType(Node n) {
-        return (Type)n.getProperty(SUPER_TYPE);
+        return (Type)n.getProperty(SUPER_TYPE_ID);
     }
     
     public static Type setSuperType(Node n, Type t) {
-      n.setProperty(SUPER_TYPE, t);
+      n.setProperty(SUPER_TYPE_ID, t);
       return t;
     }
     
     public static boolean hasSuperType(Node n) {
-      return n.hasProperty(SUPER_TYPE);
+      return n.hasProperty(SUPER_TYPE_ID);
     }
     
 
     /** A Thunk<Class<?>> representing the converted type of a primitive cast */
     public final static String CONVERTED_TYPE = "convertedType";
+    private final static int CONVERTED_TYPE_ID = Node.propertyId(CONVERTED_TYPE);
 
     @SuppressWarnings("unchecked")
     public static Thunk<Class<?>> getConvertedType(Node n) {
-        return (Thunk<Class<?>>) n.getProperty(CONVERTED_TYPE);
+        return (Thunk<Class<?>>) n.getProperty(CONVERTED_TYPE_ID);
     }
     
     public static Thunk<Class<?>> setConvertedType(Node n, Thunk<Class<?>> c) {
-      n.setProperty(CONVERTED_TYPE, c);
+      n.setProperty(CONVERTED_TYPE_ID, c);
       return c;
     }
     
     public static boolean hasConvertedType(Node n) {
-      return n.hasProperty(CONVERTED_TYPE);
+      return n.hasProperty(CONVERTED_TYPE_ID);
     }
     
 
     /** A Thunk<Class<?>> representing the asserted type of an upcast (for diagnostic purposes). */
     public final static String ASSERTED_TYPE = "assertedType";
+    private final static int ASSERTED_TYPE_ID = Node.propertyId(ASSERTED_TYPE);
 
     @SuppressWarnings("unchecked")
     public static Thunk<Class<?>> getAssertedType(Node n) {
-        return (Thunk<Class<?>>) n.getProperty(ASSERTED_TYPE);
+        return (Thunk<Class<?>>) n.getProperty(ASSERTED_TYPE_ID);
     }
     
     public static Thunk<Class<?>> setAssertedType(Node n, Thunk<Class<?>> c) {
-      n.setProperty(ASSERTED_TYPE, c);
+      n.setProperty(ASSERTED_TYPE_ID, c);
       return c;
     }
     
     public static boolean hasAssertedType(Node n) {
-      return n.hasProperty(ASSERTED_TYPE);
+      return n.hasProperty(ASSERTED_TYPE_ID);
     }
     
 
     /** A Thunk<Class<?>> representing the checked cast type of a cast, method, or field */
     public final static String CHECKED_TYPE = "checkedType";
+    private final static int CHECKED_TYPE_ID = Node.propertyId(CHECKED_TYPE);
 
     @SuppressWarnings("unchecked")
     public static Thunk<Class<?>> getCheckedType(Node n) {
-        return (Thunk<Class<?>>) n.getProperty(CHECKED_TYPE);
+        return (Thunk<Class<?>>) n.getProperty(CHECKED_TYPE_ID);
     }
     
     public static Thunk<Class<?>> setCheckedType(Node n, Thunk<Class<?>> c) {
-      n.setProperty(CHECKED_TYPE, c);
+      n.setProperty(CHECKED_TYPE_ID, c);
       return c;
     }
     
     public static boolean hasCheckedType(Node n) {
-      return n.hasProperty(CHECKED_TYPE);
+      return n.hasProperty(CHECKED_TYPE_ID);
     }
     
 
     /** A Thunk<Class<?>> representing the erased type of certain expressions and statements. */
     public final static String ERASED_TYPE = "erasedType";
+    private final static int ERASED_TYPE_ID = Node.propertyId(ERASED_TYPE);
 
     @SuppressWarnings("unchecked")
     public static Thunk<Class<?>> getErasedType(Node n) {
-        return (Thunk<Class<?>>) n.getProperty(ERASED_TYPE);
+        return (Thunk<Class<?>>) n.getProperty(ERASED_TYPE_ID);
     }
     
     public static Thunk<Class<?>> setErasedType(Node n, Thunk<Class<?>> c) {
-      n.setProperty(ERASED_TYPE, c);
+      n.setProperty(ERASED_TYPE_ID, c);
       return c;
     }
     
     public static boolean hasErasedType(Node n) {
-      return n.hasProperty(ERASED_TYPE);
+      return n.hasProperty(ERASED_TYPE_ID);
     }
     
 
@@ -183,18 +191,19 @@ public class NodeProperties {
      * the new value
      */
     public final static String LEFT_EXPRESSION = "leftExpression";
+    private final static int LEFT_EXPRESSION_ID = Node.propertyId(LEFT_EXPRESSION);
 
     public static Expression getLeftExpression(Node n) {
-        return (Expression) n.getProperty(LEFT_EXPRESSION);
+        return (Expression) n.getProperty(LEFT_EXPRESSION_ID);
     }
     
     public static Expression setLeftExpression(Node n, Expression exp) {
-      n.setProperty(LEFT_EXPRESSION, exp);
+      n.setProperty(LEFT_EXPRESSION_ID, exp);
       return exp;
     }
     
     public static boolean hasLeftExpression(Node n) {
-      return n.hasProperty(LEFT_EXPRESSION);
+      return n.hasProperty(LEFT_EXPRESSION_ID);
     }
     
 
@@ -202,53 +211,56 @@ public class NodeProperties {
      * An Expression representing the translated equivalent of the tagged Expression
      */
     public final static String TRANSLATION = "translation";
+    private final static int TRANSLATION_ID = Node.propertyId(TRANSLATION);
 
     public static Expression getTranslation(Node n) {
-        return (Expression) n.getProperty(TRANSLATION);
+        return (Expression) n.getProperty(TRANSLATION_ID);
     }
     
     public static Expression setTranslation(Node n, Expression exp) {
-      n.setProperty(TRANSLATION, exp);
+      n.setProperty(TRANSLATION_ID, exp);
       return exp;
     }
     
     public static boolean hasTranslation(Node n) {
-      return n.hasProperty(TRANSLATION);
+      return n.hasProperty(TRANSLATION_ID);
     }
     
     /**
      * A Node representing the translated equivalent of the tagged statement (or declaration)
      */
     public final static String STATEMENT_TRANSLATION = "statementTranslation";
+    private final static int STATEMENT_TRANSLATION_ID = Node.propertyId(STATEMENT_TRANSLATION);
 
     public static Node getStatementTranslation(Node n) {
-        return (Node) n.getProperty(STATEMENT_TRANSLATION);
+        return (Node) n.getProperty(STATEMENT_TRANSLATION_ID);
     }
     
     public static Node setStatementTranslation(Node n, Node s) {
-      n.setProperty(STATEMENT_TRANSLATION, s);
+      n.setProperty(STATEMENT_TRANSLATION_ID, s);
       return s;
     }
     
     public static boolean hasStatementTranslation(Node n) {
-      return n.hasProperty(STATEMENT_TRANSLATION);
+      return n.hasProperty(STATEMENT_TRANSLATION_ID);
     }
     
 
     /** An Object value of a constant expression */
     public final static String VALUE = "value";
+    private final static int VALUE_ID = Node.propertyId(VALUE);
 
     public static Object getValue(Node n) {
-        return n.getProperty(VALUE);
+        return n.getProperty(VALUE_ID);
     }
     
     public static Object setValue(Node n, Object o) {
-      n.setProperty(VALUE, o);
+      n.setProperty(VALUE_ID, o);
       return o;
     }
     
     public static boolean hasValue(Node n) {
-      return n.hasProperty(VALUE);
+      return n.hasProperty(VALUE_ID);
     }
     
 
@@ -256,35 +268,37 @@ public class NodeProperties {
      * The errorStrings property contains an array of additional messages (Strings)
      */
     public final static String ERROR_STRINGS = "errorStrings";
+    private final static int ERROR_STRINGS_ID = Node.propertyId(ERROR_STRINGS);
 
     public static String[] getErrorStrings(Node n) {
-      return (String[]) n.getProperty(ERROR_STRINGS);
+      return (String[]) n.getProperty(ERROR_STRINGS_ID);
     }
     
     public static String[] setErrorStrings(Node n, String... strings) {
-      n.setProperty(ERROR_STRINGS, strings);
+      n.setProperty(ERROR_STRINGS_ID, strings);
       return strings;
     }
     
     public static boolean hasErrorStrings(Node n) {
-      return n.hasProperty(ERROR_STRINGS);
+      return n.hasProperty(ERROR_STRINGS_ID);
     }
 
 
     /** A LocalVariable corresponding to the variable declared by the given node */
     public final static String VARIABLE = "variable";
+    private final static int VARIABLE_ID = Node.propertyId(VARIABLE);
     
     public static LocalVariable getVariable(Node n) {
-      return (LocalVariable) n.getProperty(VARIABLE);
+      return (LocalVariable) n.getProperty(VARIABLE_ID);
     }
     
     public static LocalVariable setVariable(Node n, LocalVariable v) {
-      n.setProperty(VARIABLE, v);
+      n.setProperty(VARIABLE_ID, v);
       return v;
     }
     
     public static boolean hasVariable(Node n) {
-      return n.hasProperty(VARIABLE);
+      return n.hasProperty(VARIABLE_ID);
     }
     
     public static final Lambda<Node, LocalVariable> NODE_VARIABLE = new Lambda<Node, LocalVariable>() {
@@ -294,102 +308,108 @@ public class NodeProperties {
     
     /** DJConstructor used by a constructor invocation */
     public final static String CONSTRUCTOR = "constructor";
+    private final static int CONSTRUCTOR_ID = Node.propertyId(CONSTRUCTOR);
 
     public static DJConstructor getConstructor(Node n) {
-      return (DJConstructor) n.getProperty(CONSTRUCTOR);
+      return (DJConstructor) n.getProperty(CONSTRUCTOR_ID);
     }
     
     public static DJConstructor setConstructor(Node n, DJConstructor c) {
-      n.setProperty(CONSTRUCTOR, c);
+      n.setProperty(CONSTRUCTOR_ID, c);
       return c;
     }
     
     public static boolean hasConstructor(Node n) {
-      return n.hasProperty(CONSTRUCTOR);
+      return n.hasProperty(CONSTRUCTOR_ID);
     }
 
 
     /** DJField used by a field access or declared by a field declaration */
     public final static String FIELD = "field";
+    private final static int FIELD_ID = Node.propertyId(FIELD);
 
     public static DJField getField(Node n) {
-      return (DJField) n.getProperty(FIELD);
+      return (DJField) n.getProperty(FIELD_ID);
     }
     
     public static DJField setField(Node n, DJField f) {
-      n.setProperty(FIELD, f);
+      n.setProperty(FIELD_ID, f);
       return f;
     }
     
     public static boolean hasField(Node n) {
-      return n.hasProperty(FIELD);
+      return n.hasProperty(FIELD_ID);
     }
 
     /** Method used by a method invocation or declared by a method declaration */
     public final static String METHOD = "method";
+    private final static int METHOD_ID = Node.propertyId(METHOD);
     
     public static DJMethod getMethod(Node n) {
-      return (DJMethod) n.getProperty(METHOD);
+      return (DJMethod) n.getProperty(METHOD_ID);
     }
     
     public static DJMethod setMethod(Node n, DJMethod m) {
-      n.setProperty(METHOD, m);
+      n.setProperty(METHOD_ID, m);
       return m;
     }
     
     public static boolean hasMethod(Node n) {
-      return n.hasProperty(METHOD);
+      return n.hasProperty(METHOD_ID);
     }
 
 
     /** DJClass declared by a class declaration or referenced by "this" */
     public final static String DJCLASS = "djclass";
+    private final static int DJCLASS_ID = Node.propertyId(DJCLASS);
     
     public static DJClass getDJClass(Node n) {
-      return (DJClass) n.getProperty(DJCLASS);
+      return (DJClass) n.getProperty(DJCLASS_ID);
     }
     
     public static DJClass setDJClass(Node n, DJClass c) {
-      n.setProperty(DJCLASS, c);
+      n.setProperty(DJCLASS_ID, c);
       return c;
     }
     
     public static boolean hasDJClass(Node n) {
-      return n.hasProperty(DJCLASS);
+      return n.hasProperty(DJCLASS_ID);
     }
 
 
     /** This DJClass of "this" used implicitly as the enclosing object of an allocation. */
     public final static String ENCLOSING_THIS = "enclosingThis";
+    private final static int ENCLOSING_THIS_ID = Node.propertyId(ENCLOSING_THIS);
     
     public static DJClass getEnclosingThis(Node n) {
-      return (DJClass) n.getProperty(ENCLOSING_THIS);
+      return (DJClass) n.getProperty(ENCLOSING_THIS_ID);
     }
     
     public static DJClass setEnclosingThis(Node n, DJClass c) {
-      n.setProperty(ENCLOSING_THIS, c);
+      n.setProperty(ENCLOSING_THIS_ID, c);
       return c;
     }
     
     public static boolean hasEnclosingThis(Node n) {
-      return n.hasProperty(ENCLOSING_THIS);
+      return n.hasProperty(ENCLOSING_THIS_ID);
     }
 
 
     /** VariableType declared in a class or method signature */
     public final static String TYPE_VARIABLE = "typeVariable";
+    private final static int TYPE_VARIABLE_ID = Node.propertyId(TYPE_VARIABLE);
 
     public static VariableType getTypeVariable(Node n) {
-      return (VariableType) n.getProperty(TYPE_VARIABLE);
+      return (VariableType) n.getProperty(TYPE_VARIABLE_ID);
     }
     
     public static VariableType setTypeVariable(Node n, VariableType v) {
-      n.setProperty(TYPE_VARIABLE, v);
+      n.setProperty(TYPE_VARIABLE_ID, v);
       return v;
     }
     
     public static boolean hasTypeVariable(Node n) {
-      return n.hasProperty(TYPE_VARIABLE);
+      return n.hasProperty(TYPE_VARIABLE_ID);
     }
 
     public static final Lambda<Node, VariableType> NODE_TYPE_VARIABLE = new Lambda<Node, VariableType>() {
@@ -399,34 +419,36 @@ public class NodeProperties {
     
     /** An ExecutionError that occurred at the given node. */
     public final static String ERROR = "error";
+    private final static int ERROR_ID = Node.propertyId(ERROR);
 
     public static ExecutionError getError(Node n) {
-      return (ExecutionError) n.getProperty(ERROR);
+      return (ExecutionError) n.getProperty(ERROR_ID);
     }
     
     public static ExecutionError setError(Node n, ExecutionError e) {
-      n.setProperty(ERROR, e);
+      n.setProperty(ERROR_ID, e);
       return e;
     }
     
     public static boolean hasError(Node n) {
-      return n.hasProperty(ERROR);
+      return n.hasProperty(ERROR_ID);
     }
 
     /** The new context that would have been the result had there not been an error. */
     public final static String ERROR_CONTEXT = "errorContext";
+    private final static int ERROR_CONTEXT_ID = Node.propertyId(ERROR_CONTEXT);
 
     public static TypeContext getErrorContext(Node n) {
-      return (TypeContext) n.getProperty(ERROR_CONTEXT);
+      return (TypeContext) n.getProperty(ERROR_CONTEXT_ID);
     }
     
     public static TypeContext setErrorContext(Node n, TypeContext c) {
-      n.setProperty(ERROR_CONTEXT, c);
+      n.setProperty(ERROR_CONTEXT_ID, c);
       return c;
     }
     
     public static boolean hasErrorContext(Node n) {
-      return n.hasProperty(ERROR_CONTEXT);
+      return n.hasProperty(ERROR_CONTEXT_ID);
     }
 
     /**
@@ -434,20 +456,21 @@ public class NodeProperties {
      * ambiguous (for example, a PlusExpression might require addition or concatenation)
      */
     public final static String OPERATION = "operation";
+    private final static int OPERATION_ID = Node.propertyId(OPERATION);
 
     @SuppressWarnings("unchecked")
     public static Lambda2<Object, Object, Object> getOperation(Node n) {
-      return (Lambda2<Object, Object, Object>) n.getProperty(OPERATION);
+      return (Lambda2<Object, Object, Object>) n.getProperty(OPERATION_ID);
     }
     
     public static Lambda2<Object, Object, Object> setOperation(Node n, 
                                                                Lambda2<Object, Object, Object> f) {
-      n.setProperty(OPERATION, f);
+      n.setProperty(OPERATION_ID, f);
       return f;
     }
     
     public static boolean hasOperation(Node n) {
-      return n.hasProperty(OPERATION);
+      return n.hasProperty(OPERATION_ID);
     }
 
     /**
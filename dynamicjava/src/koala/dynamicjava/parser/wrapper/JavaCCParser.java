@@ -38,7 +38,9 @@ import koala.dynamicjava.tree.*;
 
 /**
  * The instances of this class represents a parser
- * generated with JavaCC.
+ * generated with JavaCC.  A parser may be reused for any number of inputs
+ * (sequentially) by calling {@link #reset}, which keeps the token manager and
+ * character buffers allocated for earlier inputs.
  *
  * @author  Stephane Hillion
  * @version 1.0 - 1999/06/12
@@ -49,7 +51,12 @@ public class JavaCCParser implements SourceCodeParser {
    * The parser
    */
   private final Parser _parser;
-  private final File _f;
+  private File _f;
+  
+  /** Create a parser with no input; call {@link #reset} before parsing. */
+  public JavaCCParser(Options opt) {
+    this(new StringReader(""), opt);
+  }
   
   public JavaCCParser(InputStream is, File f, Options opt) {
     _parser = new Parser(is);
@@ -77,6 +84,24 @@ public class JavaCCParser implements SourceCodeParser {
     _f = null;
   }
   
+  /**
+   * Re-point this parser at new input, reusing its token manager and buffers.
+   * Any state left by an earlier (possibly failed) parse is discarded.
+   * @param f  The file being read, for error locations; may be {@code null}.
+   * @return  This parser.
+   */
+  public JavaCCParser reset(Reader r, File f) {
+    _parser.ReInit(r);
+    _parser.setFile(f);
+    _f = f;
+    return this;
+  }
+  
+  /** Re-point this parser at the given text.  Equivalent to {@code reset(new StringReader(text), null)}. */
+  public JavaCCParser reset(CharSequence text) {
+    return reset(new StringReader(text.toString()), null);
+  }
+  
   /**
    * Parses top level statements
    * @return a list of nodes
@@ -0,0 +1,91 @@
+/*
+ * DynamicJava - Copyright (C) 1999-2001
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files
+ * (the "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to permit
+ * persons to whom the Software is furnished to do so, subject to the
+ * following conditions:
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL DYADE BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *
+ * Except as contained in this notice, the name of Dyade shall not be
+ * used in advertising or otherwise to promote the sale, use or other
+ * dealings in this Software without prior written authorization from
+ * Dyade.
+ *
+ */
+
+package koala.dynamicjava.parser.wrapper;
+
+import java.io.File;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import edu.rice.cs.dynamicjava.Options;
+
+import koala.dynamicjava.tree.*;
+
+/**
+ * A pool of {@link JavaCCParser}s with the same options, for clients that parse many
+ * inputs, possibly on several threads at once.  Each parse borrows an idle parser
+ * (creating one only if none is idle) and returns it when done, so the number of
+ * parsers allocated is bounded by the number of simultaneous parses.
+ */
+public class JavaCCParserPool {
+  
+  private final Options _opt;
+  private final ConcurrentLinkedQueue<JavaCCParser> _idle;
+  
+  public JavaCCParserPool(Options opt) {
+    _opt = opt;
+    _idle = new ConcurrentLinkedQueue<JavaCCParser>();
+  }
+  
+  /**
+   * Parses top level statements from the given input
+   * @param f  The file being read, for error locations; may be {@code null}.
+   * @see JavaCCParser#parseStream
+   */
+  public List<Node> parseStream(Reader r, File f) {
+    JavaCCParser p = acquire(r, f);
+    try { return p.parseStream(); }
+    finally { release(p); }
+  }
+  
+  /**
+   * Parses a compilation unit from the given input
+   * @param f  The file being read, for error locations; may be {@code null}.
+   * @see JavaCCParser#parseCompilationUnit
+   */
+  public CompilationUnit parseCompilationUnit(Reader r, File f) {
+    JavaCCParser p = acquire(r, f);
+    try { return p.parseCompilationUnit(); }
+    finally { release(p); }
+  }
+  
+  private JavaCCParser acquire(Reader r, File f) {
+    JavaCCParser result = _idle.poll();
+    if (result == null) { return new JavaCCParser(r, f, _opt); }
+    else { return result.reset(r, f); }
+  }
+  
+  private void release(JavaCCParser p) {
+    // drop references to the input, but keep the buffers
+    p.reset(new StringReader(""), null);
+    _idle.offer(p);
+  }
+  
+}
@@ -853,6 +853,26 @@ public class ParserTest extends TestCase {
     }
   */  
   
+  public void testReset() {
+    String[] inputs = { "int x = 1;", "class A { void m(int... xs) {} }", "x + ", "f(1, \"s\", 'c');" };
+    JavaCCParser reused = new JavaCCParser(edu.rice.cs.dynamicjava.Options.DEFAULT);
+    JavaCCParserPool pool = new JavaCCParserPool(edu.rice.cs.dynamicjava.Options.DEFAULT);
+    for (int round = 0; round < 2; round++) {
+      for (String input : inputs) {
+        String expected;
+        try { expected = new JavaCCParser(new StringReader(input), edu.rice.cs.dynamicjava.Options.DEFAULT).parseStream().toString(); }
+        catch (ParseError e) { expected = "error: " + e.getSourceInfo(); }
+        String actual;
+        try { actual = reused.reset(input).parseStream().toString(); }
+        catch (ParseError e) { actual = "error: " + e.getSourceInfo(); }
+        assertEquals("reused parser on '" + input + "'", expected, actual);
+        try { actual = pool.parseStream(new StringReader(input), null).toString(); }
+        catch (ParseError e) { actual = "error: " + e.getSourceInfo(); }
+        assertEquals("pooled parser on '" + input + "'", expected, actual);
+      }
+    }
+  }
+  
 //  public void testIntegerLiterals() throws Throwable {
 //    int[] vals = { 0, 1, Integer.MAX_VALUE, Integer.MIN_VALUE };
 //
@@ -76,14 +76,26 @@ import koala.dynamicjava.tree.visitor.*;
  */
 
 public abstract class Node implements SourceInfo.Wrapper {
-  private final Map<String,Object> properties;
+  
+  /** Property names, indexed by id. */
+  private static final List<String> PROPERTY_NAMES = new ArrayList<String>();
+  /** Property ids, keyed by name. */
+  private static final Map<String, Integer> PROPERTY_IDS = new HashMap<String, Integer>();
+  /** Stands for a property explicitly set to null. */
+  private static final Object NULL_VALUE = new Object();
+  
+  /**
+   * Property values, indexed by property id; a null element is an unset property.  Null until
+   * the first property is set, and only as long as the largest id set so far requires.
+   */
+  private Object[] properties;
   private SourceInfo sourceInfo;
   
   
   protected Node(SourceInfo si) {
     assert si != null;
     sourceInfo = si;
-    properties = new HashMap<String, Object>();
+    properties = null;
   } 
   
   /** Returns the sourceInfo. */
@@ -103,13 +115,57 @@ public abstract class Node implements SourceInfo.Wrapper {
   
   // Properties support //////////////////////////////////////////////////
   
+  /**
+   * Returns the id of the property with the given name, allocating one if necessary.  Ids are small
+   * and dense; clients that access a property frequently should look its id up once and use the
+   * id-based accessors.
+   * @param name  the property name
+   */
+  public static int propertyId(String name) {
+    synchronized (PROPERTY_IDS) {
+      Integer id = PROPERTY_IDS.get(name);
+      if (id == null) {
+        id = PROPERTY_NAMES.size();
+        PROPERTY_NAMES.add(name);
+        PROPERTY_IDS.put(name, id);
+      }
+      return id;
+    }
+  }
+  
+  /**
+   * Returns the id of the property with the given name, or -1 if no id has been allocated for it.  Unlike
+   * {@link #propertyId}, this does not add the name to the table, so that probing for a property does not grow it.
+   */
+  static int existingPropertyId(String name) {
+    synchronized (PROPERTY_IDS) {
+      Integer id = PROPERTY_IDS.get(name);
+      return (id == null) ? -1 : id;
+    }
+  }
+  
+  private static String propertyName(int id) {
+    synchronized (PROPERTY_IDS) { return PROPERTY_NAMES.get(id); }
+  }
+  
   /**
    * Sets the value of a property
    * @param name  the property name
    * @param value the new value to set
    */
   public void setProperty(String name, Object value) {
-    properties.put(name, value);
+    setProperty(propertyId(name), value);
+  }
+  
+  /**
+   * Sets the value of a property
+   * @param id  the property id, as returned by {@link #propertyId}
+   * @param value the new value to set
+   */
+  public void setProperty(int id, Object value) {
+    if (properties == null) { properties = new Object[id+1]; }
+    else if (id >= properties.length) { properties = Arrays.copyOf(properties, id+1); }
+    properties[id] = (value == null) ? NULL_VALUE : value;
   }
   
   /**
@@ -118,10 +174,24 @@ public abstract class Node implements SourceInfo.Wrapper {
    * @return null if the property was not previously set
    */
   public Object getProperty(String name) {
-    if (!properties.containsKey(name)) { 
+    int id = existingPropertyId(name);
+    if (id < 0 || !hasProperty(id)) { 
       throw new IllegalStateException("Property '" + name + "' is not initialized");
     }
-    return properties.get(name);
+    return getProperty(id);
+  }
+  
+  /**
+   * Returns the value of a property
+   * @param id  the property id, as returned by {@link #propertyId}
+   * @throws IllegalStateException if the property was not previously set
+   */
+  public Object getProperty(int id) {
+    Object result = (properties == null || id >= properties.length) ? null : properties[id];
+    if (result == null) { 
+      throw new IllegalStateException("Property '" + propertyName(id) + "' is not initialized");
+    }
+    return (result == NULL_VALUE) ? null : result;
   }
   
   /**
@@ -129,7 +199,13 @@ public abstract class Node implements SourceInfo.Wrapper {
    * @return a set of string
    */
   public Set<String> getProperties() {
-    return properties.keySet();
+    Set<String> result = new LinkedHashSet<String>();
+    if (properties != null) {
+      for (int i = 0; i < properties.length; i++) {
+        if (properties[i] != null) { result.add(propertyName(i)); }
+      }
+    }
+    return result;
   }
   
   /**
@@ -137,15 +213,26 @@ public abstract class Node implements SourceInfo.Wrapper {
    * @param name the name of the property
    */
   public boolean hasProperty(String name) {
-    return properties.containsKey(name);
+    int id = existingPropertyId(name);
+    return id >= 0 && hasProperty(id);
+  }
+  
+  /**
+   * Returns true if a property is defined for this node
+   * @param id  the property id, as returned by {@link #propertyId}
+   */
+  public boolean hasProperty(int id) {
+    return properties != null && id < properties.length && properties[id] != null;
   }
   
   /** Change the names of all properties by prefixing each name with the given string. */
   public void archiveProperties(String prefix) {
-    Map<String, Object> newProps = new HashMap<String, Object>();
-    for (Map.Entry<String, Object> e : properties.entrySet()) { newProps.put(prefix + e.getKey(), e.getValue()); }
-    properties.clear();
-    properties.putAll(newProps);
+    if (properties == null) { return; }
+    Object[] old = properties;
+    properties = null;
+    for (int i = 0; i < old.length; i++) {
+      if (old[i] != null) { setProperty(prefix + propertyName(i), (old[i] == NULL_VALUE) ? null : old[i]); }
+    }
   }
   
   /**
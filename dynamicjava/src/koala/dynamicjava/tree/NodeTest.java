@@ -0,0 +1,76 @@
+/*BEGIN_COPYRIGHT_BLOCK
+ *
+ * Copyright (c) 2001-2010, JavaPLT group at Rice University (drjava@rice.edu)
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    * Redistributions of source code must retain the above copyright
+ *      notice, this list of conditions and the following disclaimer.
+ *    * Redistributions in binary form must reproduce the above copyright
+ *      notice, this list of conditions and the following disclaimer in the
+ *      documentation and/or other materials provided with the distribution.
+ *    * Neither the names of DrJava, the JavaPLT group, Rice University, nor the
+ *      names of its contributors may be used to endorse or promote products
+ *      derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This software is Open Source Initiative approved Open Source Software.
+ * Open Source Initative Approved is a trademark of the Open Source Initiative.
+ * 
+ * This file is part of DrJava.  Download the current version of this project
+ * from http://www.drjava.org/ or http://sourceforge.net/projects/drjava/
+ * 
+ * END_COPYRIGHT_BLOCK*/
+
+package koala.dynamicjava.tree;
+
+import junit.framework.TestCase;
+
+/**
+ * JUnit tests for the property slots of koala.dynamicjava.tree.Node.
+ */ 
+public class NodeTest extends TestCase {
+  
+  public void testProperties() {
+    Node n = new IntegerLiteral("1");
+    int id = Node.propertyId("nodeTestProperty");
+    assertEquals("ids are interned", id, Node.propertyId("nodeTestProperty"));
+    assertFalse(n.hasProperty(id));
+    try { n.getProperty(id); fail("unset property"); }
+    catch (IllegalStateException e) { assertTrue(e.getMessage().contains("nodeTestProperty")); }
+    
+    n.setProperty(id, null);
+    assertTrue("null is a value", n.hasProperty("nodeTestProperty"));
+    assertNull(n.getProperty("nodeTestProperty"));
+    n.setProperty("nodeTestProperty", "x");
+    assertEquals("x", n.getProperty(id));
+    assertTrue(n.getProperties().contains("nodeTestProperty"));
+    
+    n.archiveProperties("old.");
+    assertFalse(n.hasProperty(id));
+    assertEquals("x", n.getProperty("old.nodeTestProperty"));
+  }
+  
+  public void testLookupDoesNotAllocate() {
+    Node n = new IntegerLiteral("1");
+    assertFalse(n.hasProperty("nodeTestUnset"));
+    try { n.getProperty("nodeTestUnset"); fail("unset property"); }
+    catch (IllegalStateException e) { assertTrue(e.getMessage().contains("nodeTestUnset")); }
+    assertEquals("no id allocated by lookups", -1, Node.existingPropertyId("nodeTestUnset"));
+    n.setProperty("nodeTestUnset", "x");
+    assertEquals(Node.propertyId("nodeTestUnset"), Node.existingPropertyId("nodeTestUnset"));
+    assertTrue(n.hasProperty("nodeTestUnset"));
+  }
+}
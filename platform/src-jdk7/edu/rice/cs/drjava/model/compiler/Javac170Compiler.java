@@ -47,7 +47,7 @@ import java.util.Iterator;
 import javax.tools.JavaFileObject;
 import javax.tools.JavaCompiler;
 import javax.tools.Diagnostic;
-import javax.tools.DiagnosticCollector;
+import javax.tools.DiagnosticListener;
 import javax.tools.StandardJavaFileManager;
 import javax.tools.ToolProvider;
 
@@ -65,7 +65,7 @@ import static edu.rice.cs.plt.debug.DebugUtil.error;
  * **TODO** Rename this class as Javac170PlusCompiler.java
  *  @version $Id$
  */
-public class Javac170Compiler extends JavacCompiler { // Javac170FilteringCompiler {
+public class Javac170Compiler extends JavacCompiler implements StreamingCompilerInterface { // Javac170FilteringCompiler {
   
   public Javac170Compiler(JavaVersion.FullVersion version, String location, List<? extends File> defaultBootClassPath) {
     super(version, location, defaultBootClassPath);
@@ -110,13 +110,27 @@ public class Javac170Compiler extends JavacCompiler { // Javac170FilteringCompil
   public List<? extends DJError> compile(List<? extends File> files, List<? extends File> classPath, 
                                                List<? extends File> sourcePath, File destination, 
                                                List<? extends File> bootClassPath, String sourceVersion, boolean showWarnings) {
+    final LinkedList<DJError> errors = new LinkedList<DJError>();
+    compile(files, classPath, sourcePath, destination, bootClassPath, sourceVersion, showWarnings,
+            new CompilerDiagnosticListener() {
+      public boolean errorReported(DJError e) { errors.add(e); return true; }
+      public void compilerFailed(DJError e) { errors.addFirst(e); }
+    });
+    return errors;
+  }
+  
+  /** Compile the given files, reporting each diagnostic to the listener as javac produces it.  Returning false from
+    * the listener stops javac by throwing out of its diagnostic callback.
+    */
+  public void compile(List<? extends File> files, List<? extends File> classPath, List<? extends File> sourcePath,
+                      File destination, List<? extends File> bootClassPath, String sourceVersion, boolean showWarnings,
+                      final CompilerDiagnosticListener listener) {
     debug.logStart("compile()");
     debug.logValues(new String[]{ "this", "files", "classPath", "sourcePath", "destination", "bootClassPath", 
       "sourceVersion", "showWarnings" },
                     this, files, classPath, sourcePath, destination, bootClassPath, sourceVersion, showWarnings);
 
     Iterable<String> options = _createOptions(classPath, sourcePath, destination, bootClassPath, sourceVersion, showWarnings);
-    LinkedList<DJError> errors = new LinkedList<DJError>();
 
     // This is the class that javax.tools.ToolProvider.getSystemJavaCompiler() uses.
     // We create an instance of that class directly, bypassing ToolProvider, because ToolProvider returns null
@@ -127,65 +141,84 @@ public class Javac170Compiler extends JavacCompiler { // Javac170FilteringCompil
       compiler = (JavaCompiler)(Class.forName("com.sun.tools.javac.api.JavacTool").newInstance());
     }
     catch(ClassNotFoundException e) {
-      errors.addFirst(new DJError("Compile exception: " + e, false));
+      listener.compilerFailed(new DJError("Compile exception: " + e, false));
       error.log(e);
-      return errors;
+      return;
     }
     catch(InstantiationException e) {
-      errors.addFirst(new DJError("Compile exception: " + e, false));
+      listener.compilerFailed(new DJError("Compile exception: " + e, false));
       error.log(e);
-      return errors;
+      return;
     }
     catch(IllegalAccessException e) {
-      errors.addFirst(new DJError("Compile exception: " + e, false));
+      listener.compilerFailed(new DJError("Compile exception: " + e, false));
       error.log(e);
-      return errors;
+      return;
     }
     
+    DiagnosticListener<JavaFileObject> diagnostics = new DiagnosticListener<JavaFileObject>() {
+      public void report(Diagnostic<? extends JavaFileObject> d) {
+        DJError e = _toError(d);
+        if (e != null && ! listener.errorReported(e)) throw new StopCompilation();
+      }
+    };
     /** Default FileManager provided by Context class */
-    DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<JavaFileObject>();
     StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, null, null);    
     Iterable<? extends JavaFileObject> fileObjects = fileManager.getJavaFileObjectsFromFiles(files);
     
     try {
 //      System.err.println("Calling '" + compiler + "' with options " + options);
       compiler.getTask(null, fileManager, diagnostics, options, null, fileObjects).call();
-      for (Diagnostic<? extends JavaFileObject> d: diagnostics.getDiagnostics()) {
-        Diagnostic.Kind dt = d.getKind();
-        boolean isWarning = false;  // init required by javac
-        
-        switch (dt) {
-          case OTHER:             continue; // skip, do not record
-          case NOTE:              continue; // skip, do not record
-          case MANDATORY_WARNING: isWarning = true; break;
-          case WARNING:           isWarning = true; break;
-          case ERROR:             isWarning = false; break;
-        }
-        
-        /* The new Java 6.0 Diagnostic interface appears to be broken.  The expression d.getSource().getName() returns a 
-         * non-existent path--the name of the test file (allocated as a TEMP file) appended to the source root for 
-         * DrJava--in GlobalModelCompileErrorsTest.testCompileFailsCorrectLineNumbers().  The expression 
-         * d.getSource().toUri().getPath() returns the correct result as does ((JCDiagnostic) d).getSourceName(). */
-        if (d.getSource() != null) {
-          errors.add(new DJError(new File(d.getSource().toUri().getPath()), // d.getSource().getName() fails! 
-                                 ((int) d.getLineNumber()) - 1,  // javac starts counting at 1
-                                 ((int) d.getColumnNumber()) - 1, 
-                                 d.getMessage(null),    // null is the locale
-                                 isWarning));
-        }
-        else {
-          errors.add(new DJError(d.getMessage(null), isWarning));
-        }
-      }
       fileManager.close();
     }
     catch(Throwable t) {  // compiler threw an exception/error (typically out of memory error)
-      errors.addFirst(new DJError("Compile exception: " + t, false));
-      error.log(t);
+      if (_isStop(t)) { try { fileManager.close(); } catch(IOException e) { error.log(e); } }
+      else {
+        listener.compilerFailed(new DJError("Compile exception: " + t, false));
+        error.log(t);
+      }
     }
     
     debug.logEnd("compile()");
-    return errors;
+  }
+  
+  /** Converts a javac diagnostic to a DJError.
+    * @param d the diagnostic
+    * @return the error, or null if the diagnostic is only informational and should not be recorded
+    */
+  private static DJError _toError(Diagnostic<? extends JavaFileObject> d) {
+    boolean isWarning = false;  // init required by javac
+    switch (d.getKind()) {
+      case OTHER:             return null; // skip, do not record
+      case NOTE:              return null; // skip, do not record
+      case MANDATORY_WARNING: isWarning = true; break;
+      case WARNING:           isWarning = true; break;
+      case ERROR:             isWarning = false; break;
+    }
+    
+    /* The new Java 6.0 Diagnostic interface appears to be broken.  The expression d.getSource().getName() returns a 
+     * non-existent path--the name of the test file (allocated as a TEMP file) appended to the source root for 
+     * DrJava--in GlobalModelCompileErrorsTest.testCompileFailsCorrectLineNumbers().  The expression 
+     * d.getSource().toUri().getPath() returns the correct result as does ((JCDiagnostic) d).getSourceName(). */
+    if (d.getSource() != null) {
+      return new DJError(new File(d.getSource().toUri().getPath()), // d.getSource().getName() fails! 
+                         ((int) d.getLineNumber()) - 1,  // javac starts counting at 1
+                         ((int) d.getColumnNumber()) - 1, 
+                         d.getMessage(null),    // null is the locale
+                         isWarning);
+    }
+    else return new DJError(d.getMessage(null), isWarning);
+  }
+  
+  /** Thrown from the diagnostic listener to abandon a compilation.  Javac wraps exceptions thrown by client code. */
+  private static class StopCompilation extends RuntimeException {
+    private static final long serialVersionUID = -8330197041419482987L;
+  }
+  
+  /** @return true if t was caused by a StopCompilation */
+  private static boolean _isStop(Throwable t) {
+    for (Throwable c = t; c != null; c = c.getCause()) { if (c instanceof StopCompilation) return true; }
+    return false;
   }
   
   private Iterable<String> _createOptions(List<? extends File> classPath, List<? extends File> sourcePath, File destination, 